@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.bolt.benchmarks;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.bolt.v1.messaging.BoltResponseMessageWriterV1;
+import org.neo4j.bolt.v1.messaging.response.RecordMessage;
+import org.neo4j.bolt.v1.messaging.response.SuccessMessage;
+import org.neo4j.bolt.v1.transport.ChunkedOutput;
+import org.neo4j.bolt.v2.messaging.Neo4jPackV2;
+import org.neo4j.cypher.result.QueryResult;
+import org.neo4j.logging.internal.NullLogService;
+import org.neo4j.values.AnyValue;
+
+import static org.neo4j.bolt.transport.TransportThrottleGroup.NO_THROTTLE;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringValue;
+import static org.neo4j.values.virtual.VirtualValues.EMPTY_MAP;
+
+/**
+ * Throughput, in rows, of streaming a large result to a client: a million RECORD messages followed by the SUCCESS
+ * message that ends the stream, packed into chunked output over a channel which discards what it is given. The
+ * {@code message} variant writes a {@link RecordMessage} for every row, like results were streamed before
+ * {@link BoltResponseMessageWriterV1#writeRecord(QueryResult.Record)}, and the {@code record} variant packs the
+ * rows directly.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class RecordStreamingBenchmark
+{
+    private static final int ROWS = 1_000_000;
+
+    @Param( {"message", "record"} )
+    public String write;
+
+    @Param( {"4"} )
+    public int columns;
+
+    EmbeddedChannel channel;
+    ChunkedOutput output;
+    BoltResponseMessageWriterV1 writer;
+    QueryResult.Record record;
+
+    @Setup( Level.Trial )
+    public void setUpWriter()
+    {
+        channel = new EmbeddedChannel( new ChannelOutboundHandlerAdapter()
+        {
+            @Override
+            public void write( ChannelHandlerContext ctx, Object msg, ChannelPromise promise )
+            {
+                ReferenceCountUtil.release( msg );
+                promise.trySuccess();
+            }
+        } );
+        output = new ChunkedOutput( channel, NO_THROTTLE );
+        writer = new BoltResponseMessageWriterV1( new Neo4jPackV2(), output, NullLogService.getInstance() );
+
+        AnyValue[] fields = new AnyValue[columns];
+        for ( int i = 0; i < columns; i++ )
+        {
+            switch ( i % 3 )
+            {
+            case 0:
+                fields[i] = longValue( i * 1_000_000L );
+                break;
+            case 1:
+                fields[i] = stringValue( "value-" + i );
+                break;
+            default:
+                fields[i] = doubleValue( i / 3.0 );
+                break;
+            }
+        }
+        record = () -> fields;
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDownWriter()
+    {
+        output.close();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( ROWS )
+    public void streamResult() throws IOException
+    {
+        if ( "record".equals( write ) )
+        {
+            for ( int i = 0; i < ROWS; i++ )
+            {
+                writer.writeRecord( record );
+            }
+        }
+        else
+        {
+            for ( int i = 0; i < ROWS; i++ )
+            {
+                writer.write( new RecordMessage( record ) );
+            }
+        }
+        writer.write( new SuccessMessage( EMPTY_MAP ) );
+        writer.flush();
+    }
+}
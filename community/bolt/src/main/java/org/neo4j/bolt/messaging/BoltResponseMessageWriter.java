@@ -21,6 +21,8 @@ package org.neo4j.bolt.messaging;
 
 import java.io.IOException;
 
+import org.neo4j.cypher.result.QueryResult;
+
 /**
  * Interface defining simple encoders for each defined
  * Bolt response message.
@@ -28,4 +30,10 @@ import java.io.IOException;
 public interface BoltResponseMessageWriter
 {
     void write( ResponseMessage message ) throws IOException;
+
+    /**
+     * Writes a RECORD message for the given record. This is called once for every row streamed to the client, so writers
+     * should pack the record without creating a message for it.
+     */
+    void writeRecord( QueryResult.Record record ) throws IOException;
 }
@@ -39,6 +39,7 @@ import org.neo4j.bolt.v1.messaging.response.IgnoredMessage;
 import org.neo4j.bolt.v1.messaging.response.RecordMessage;
 import org.neo4j.bolt.v1.messaging.response.SuccessMessage;
 import org.neo4j.bolt.v1.packstream.PackOutput;
+import org.neo4j.cypher.result.QueryResult;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.internal.LogService;
@@ -50,10 +51,14 @@ import static java.lang.String.format;
  */
 public class BoltResponseMessageWriterV1 implements BoltResponseMessageWriter
 {
+    private static final MessagePacker<QueryResult.Record> RECORD_PACKER =
+            ( packer, record ) -> RecordMessageEncoder.encodeFields( packer, record.fields() );
+
     private final PackOutput output;
     private final Neo4jPack.Packer packer;
     private final Log log;
     private final Map<Byte,ResponseMessageEncoder<ResponseMessage>> encoders;
+    private final MessagePacker<ResponseMessage> messageEncoder = this::encode;
 
     public BoltResponseMessageWriterV1( PackProvider packerProvider, PackOutput output, LogService logService )
     {
@@ -76,31 +81,47 @@ public class BoltResponseMessageWriterV1 implements BoltResponseMessageWriter
     @Override
     public void write( ResponseMessage message ) throws IOException
     {
-        packCompleteMessageOrFail( message );
+        packCompleteMessageOrFail( message, messageEncoder, message );
         if ( message instanceof FatalFailureMessage )
         {
             flush();
         }
     }
 
+    /**
+     * Packs the record straight into the output, without the message and encoder lookup of {@link #write(ResponseMessage)},
+     * since this is done for every row of every result.
+     */
+    @Override
+    public void writeRecord( QueryResult.Record record ) throws IOException
+    {
+        packCompleteMessageOrFail( record, RECORD_PACKER, "RECORD" );
+    }
+
     public void flush() throws IOException
     {
         packer.flush();
     }
 
-    private void packCompleteMessageOrFail( ResponseMessage message ) throws IOException
+    private void encode( Neo4jPack.Packer packer, ResponseMessage message ) throws IOException
+    {
+        ResponseMessageEncoder<ResponseMessage> encoder = encoders.get( message.signature() );
+        if ( encoder == null )
+        {
+            throw new BoltIOException( Status.Request.InvalidFormat,
+                    format( "Message %s is not supported in this protocol version.", message ) );
+        }
+        encoder.encode( packer, message );
+    }
+
+    private <T> void packCompleteMessageOrFail( T message, MessagePacker<T> messagePacker, Object description )
+            throws IOException
     {
         boolean packingFailed = true;
         output.beginMessage();
         try
         {
-            ResponseMessageEncoder<ResponseMessage> encoder = encoders.get( message.signature() );
-            if ( encoder == null )
-            {
-                throw new BoltIOException( Status.Request.InvalidFormat,
-                        format( "Message %s is not supported in this protocol version.", message ) );
-            }
-            encoder.encode( packer, message );
+            messagePacker.pack( packer, message );
             packingFailed = false;
             output.messageSucceeded();
         }
@@ -111,9 +132,15 @@ public class BoltResponseMessageWriterV1 implements BoltResponseMessageWriter
                 // packing failed, there might be some half-written data in the output buffer right now
                 // notify output about the failure so that it cleans up the buffer
                 output.messageFailed();
-                log.error( "Failed to write full %s message because: %s", message, error.getMessage() );
+                log.error( "Failed to write full %s message because: %s", description, error.getMessage() );
             }
             throw error;
         }
     }
+
+    @FunctionalInterface
+    private interface MessagePacker<T>
+    {
+        void pack( Neo4jPack.Packer packer, T message ) throws IOException;
+    }
 }
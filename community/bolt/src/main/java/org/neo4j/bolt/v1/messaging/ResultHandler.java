@@ -22,7 +22,6 @@ package org.neo4j.bolt.v1.messaging;
 import org.neo4j.bolt.runtime.BoltConnection;
 import org.neo4j.bolt.runtime.BoltResult;
 import org.neo4j.bolt.messaging.BoltResponseMessageWriter;
-import org.neo4j.bolt.v1.messaging.response.RecordMessage;
 import org.neo4j.cypher.result.QueryResult;
 import org.neo4j.logging.Log;
 import org.neo4j.values.AnyValue;
@@ -44,7 +43,7 @@ public class ResultHandler extends MessageProcessingHandler
             {
                 if ( pull )
                 {
-                    messageWriter.write( new RecordMessage( record ) );
+                    messageWriter.writeRecord( record );
                 }
             }
 
@@ -31,8 +31,15 @@ public class RecordMessageEncoder implements ResponseMessageEncoder<RecordMessag
     @Override
     public void encode( Neo4jPack.Packer packer, RecordMessage message ) throws IOException
     {
-        AnyValue[] fields = message.fields();
-        packer.packStructHeader( 1, message.signature() );
+        encodeFields( packer, message.fields() );
+    }
+
+    /**
+     * Packs a RECORD message with the given fields, for writers which pack result rows without a {@link RecordMessage}.
+     */
+    public static void encodeFields( Neo4jPack.Packer packer, AnyValue[] fields ) throws IOException
+    {
+        packer.packStructHeader( 1, RecordMessage.SIGNATURE );
         packer.packListHeader( fields.length );
         for ( AnyValue field : fields )
         {
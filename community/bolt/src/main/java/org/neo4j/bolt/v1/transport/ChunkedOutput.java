@@ -285,7 +285,8 @@ public class ChunkedOutput implements PackOutput
 
     private ByteBuf allocateBuffer()
     {
-        return channel.alloc().buffer( maxBufferSize );
+        // prefer a direct buffer, which the transport can write to the socket without copying it first
+        return channel.alloc().ioBuffer( maxBufferSize );
     }
 
     private void assertMessageStarted()
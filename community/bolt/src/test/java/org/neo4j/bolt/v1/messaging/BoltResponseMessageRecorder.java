@@ -25,6 +25,8 @@ import java.util.List;
 
 import org.neo4j.bolt.messaging.ResponseMessage;
 import org.neo4j.bolt.messaging.BoltResponseMessageWriter;
+import org.neo4j.bolt.v1.messaging.response.RecordMessage;
+import org.neo4j.cypher.result.QueryResult;
 
 public class BoltResponseMessageRecorder implements BoltResponseMessageWriter
 {
@@ -40,4 +42,10 @@ public class BoltResponseMessageRecorder implements BoltResponseMessageWriter
     {
         messages.add( message );
     }
+
+    @Override
+    public void writeRecord( QueryResult.Record record ) throws IOException
+    {
+        write( new RecordMessage( record ) );
+    }
 }
@@ -68,6 +68,52 @@ public class BoltResponseMessageWriterV1Test
         inOrder.verify( output ).messageSucceeded();
     }
 
+    @Test
+    public void shouldWriteRecordWithoutRecordMessage() throws Exception
+    {
+        PackOutput output = mock( PackOutput.class );
+        Neo4jPack.Packer packer = mock( Neo4jPack.Packer.class );
+
+        BoltResponseMessageWriterV1 writer = newWriter( output, packer );
+
+        writer.writeRecord( () -> new AnyValue[]{longValue( 42 ), stringValue( "42" )} );
+
+        InOrder inOrder = inOrder( output, packer );
+        inOrder.verify( output ).beginMessage();
+        inOrder.verify( packer ).packStructHeader( 1, RecordMessage.SIGNATURE );
+        inOrder.verify( packer ).packListHeader( 2 );
+        inOrder.verify( packer ).pack( longValue( 42 ) );
+        inOrder.verify( packer ).pack( stringValue( "42" ) );
+        inOrder.verify( output ).messageSucceeded();
+    }
+
+    @Test
+    public void shouldNotifyOutputAboutFailedRecord() throws Exception
+    {
+        PackOutput output = mock( PackOutput.class );
+        Neo4jPack.Packer packer = mock( Neo4jPack.Packer.class );
+        IOException error = new IOException( "Unable to pack 42" );
+        doThrow( error ).when( packer ).pack( longValue( 42 ) );
+
+        BoltResponseMessageWriterV1 writer = newWriter( output, packer );
+
+        try
+        {
+            writer.writeRecord( () -> new AnyValue[]{stringValue( "42" ), longValue( 42 )} );
+            fail( "Exception expected" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( error, e );
+        }
+
+        InOrder inOrder = inOrder( output, packer );
+        inOrder.verify( output ).beginMessage();
+        inOrder.verify( packer ).pack( stringValue( "42" ) );
+        inOrder.verify( packer ).pack( longValue( 42 ) );
+        inOrder.verify( output ).messageFailed();
+    }
+
     @Test
     public void shouldWriteSuccessMessage() throws Exception
     {
@@ -313,7 +313,7 @@ public class ChunkedOutputTest
     {
         Channel channel = mock( Channel.class );
         ByteBufAllocator allocator = mock( ByteBufAllocator.class );
-        when( allocator.buffer( anyInt() ) ).thenReturn( Unpooled.buffer() );
+        when( allocator.ioBuffer( anyInt() ) ).thenReturn( Unpooled.buffer() );
         when( channel.alloc() ).thenReturn( allocator );
         SocketAddress remoteAddress = mock( SocketAddress.class );
         String remoteAddressString = "client.server.com:7687";
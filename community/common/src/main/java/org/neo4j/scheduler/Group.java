@@ -32,12 +32,18 @@ public enum Group
     TASK_SCHEDULER( "Scheduler", ExecutorServiceFactory.unschedulable() ),
     /* Background page cache worker. */
     PAGE_CACHE( "PageCacheWorker" ),
+    /** Reads pages into the page cache ahead of sequential page cursors. */
+    PAGE_CACHE_READ_AHEAD( "PageCacheReadAhead" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher" ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
     VM_PAUSE_MONITOR( "VmPauseMonitor" ),
     /** Rotates diagnostic text logs. */
     LOG_ROTATION( "LogRotation" ),
+    /** Appends committed transactions to, and forces, the transaction log. */
+    TRANSACTION_LOG_APPENDER( "TransactionLogAppender" ),
+    /** Applies recovered transactions in parallel. */
+    RECOVERY_APPLIER( "RecoveryApplier" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
@@ -58,6 +64,8 @@ public enum Group
     // CYPHER.
     /** Thread pool for parallel Cypher query execution. */
     CYPHER_WORKER( "CypherWorker", ExecutorServiceFactory.workStealing() ),
+    /** Background planning of the queries recorded by the query cache warmup. */
+    QUERY_CACHE_WARMUP( "QueryCacheWarmup" ),
 
     // BOLT.
     /** Network IO threads for the Bolt protocol. */
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.cypher.internal.RewindableExecutionResult
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.{InterpretedRuntimeName, ParallelRuntimeName, RuntimeName}
+import org.neo4j.graphdb.InputPosition
+import org.neo4j.graphdb.config.Setting
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.graphdb.impl.notification.NotificationCode.RUNTIME_UNSUPPORTED
+
+import scala.collection.Map
+
+class ParallelRuntimeAcceptanceTest extends ExecutionEngineFunSuite {
+
+  // Small morsels, so that every query is cut into many of them
+  override def databaseConfig(): Map[Setting[_], String] = Map(GraphDatabaseSettings.cypher_morsel_size -> "7",
+                                                               GraphDatabaseSettings.cypher_worker_count -> "4")
+
+  override protected def initTest(): Unit = {
+    super.initTest()
+    val nodes = (0 until 500).map(i => createLabeledNode(Map("x" -> i, "k" -> i % 5), "A"))
+    nodes.sliding(2).foreach { case Seq(a, b) => relate(a, b, "R") }
+    nodes.filter(_.getId % 7 == 0).foreach(a => relate(a, createLabeledNode(Map("x" -> -1), "B"), "R"))
+  }
+
+  test("streaming queries return the same rows as the interpreted runtime") {
+    Seq(
+      "MATCH (a:A) WHERE a.x % 3 = 0 RETURN a.x AS x",
+      "MATCH (a:A)-[:R]->(b) RETURN a.x AS x, b.x AS y",
+      "MATCH (a:A) OPTIONAL MATCH (a)-[:R]->(b:B) RETURN a.x AS x, b.x AS y",
+      "MATCH (a) UNWIND [1, 2] AS i RETURN a.x * i AS y"
+    ).foreach(shouldReturnTheSameRowsInParallel)
+  }
+
+  test("aggregating queries return the same rows as the interpreted runtime") {
+    Seq(
+      "MATCH (a:A) RETURN count(*) AS c",
+      "MATCH (a:A) RETURN a.k AS k, count(*) AS c, count(a.x) AS n, sum(a.x) AS s, min(a.x) AS mn, max(a.x) AS mx",
+      "MATCH (a:A)-[:R]->(b) WHERE b.x > 100 RETURN b.k AS k, sum(a.x) AS s",
+      "MATCH (a:A) WHERE a.x < 0 RETURN count(*) AS c, max(a.x) AS mx"
+    ).foreach(shouldReturnTheSameRowsInParallel)
+  }
+
+  test("index scans return the same rows as the interpreted runtime") {
+    graph.createIndex("A", "x")
+
+    shouldReturnTheSameRowsInParallel("MATCH (a:A) WHERE exists(a.x) RETURN a.x AS x, a.k AS k")
+  }
+
+  test("ordered index scans keep their order") {
+    graph.createIndex("A", "x")
+    val query = "MATCH (a:A) WHERE exists(a.x) RETURN a.x AS x ORDER BY x"
+
+    val parallel = execute(s"CYPHER runtime=parallel $query")
+
+    parallel.toList should equal(execute(s"CYPHER runtime=interpreted $query").toList)
+    parallel.toList.map(_("x")) should equal(0 until 500)
+  }
+
+  test("updating queries fall back to the interpreted runtime") {
+    val result = execute("CYPHER runtime=parallel MATCH (a:A) SET a.y = a.x RETURN count(*) AS c")
+
+    result.toList should equal(List(Map("c" -> 500)))
+    runtimeOf(result) should equal(InterpretedRuntimeName)
+    result.notifications should contain(RUNTIME_UNSUPPORTED.notification(InputPosition.empty))
+  }
+
+  test("queries with nothing to execute in parallel fall back to the interpreted runtime") {
+    val result = execute("CYPHER runtime=parallel MATCH (a:A) RETURN a")
+
+    result.size should equal(500)
+    runtimeOf(result) should equal(InterpretedRuntimeName)
+    result.notifications should contain(RUNTIME_UNSUPPORTED.notification(InputPosition.empty))
+  }
+
+  test("queries see the changes of their own transaction") {
+    graph.rollback {
+      createLabeledNode(Map("x" -> 1000, "k" -> 0), "A")
+      execute("MATCH (a:A {x: 0}) DETACH DELETE a")
+
+      val result = execute("CYPHER runtime=parallel MATCH (a:A) RETURN count(*) AS c, max(a.x) AS mx")
+
+      result.toList should equal(List(Map("c" -> 500, "mx" -> 1000)))
+    }
+  }
+
+  test("profiled queries are executed serially") {
+    val result = profile("CYPHER runtime=parallel MATCH (a:A) WHERE a.k = 0 RETURN count(*) AS c")
+
+    result.toList should equal(List(Map("c" -> 100)))
+    runtimeOf(result) should equal(ParallelRuntimeName)
+    result.executionPlanDescription().totalDbHits should not be empty
+  }
+
+  private def shouldReturnTheSameRowsInParallel(query: String): Unit = {
+    val parallel = execute(s"CYPHER runtime=parallel $query")
+    val interpreted = execute(s"CYPHER runtime=interpreted $query")
+
+    withClue(query) {
+      runtimeOf(parallel) should equal(ParallelRuntimeName)
+      parallel.toList should contain theSameElementsAs interpreted.toList
+    }
+  }
+
+  private def runtimeOf(result: RewindableExecutionResult): RuntimeName =
+    RuntimeName(result.executionPlanDescription().getArguments.get("runtime-impl").asInstanceOf[String])
+}
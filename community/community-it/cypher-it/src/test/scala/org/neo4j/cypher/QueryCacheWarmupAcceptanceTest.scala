@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.io.File
+
+import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
+import org.neo4j.cypher.internal.StringCacheMonitor
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.helpers.collection.Pair
+import org.neo4j.kernel.internal.GraphDatabaseAPI
+import org.neo4j.kernel.monitoring.Monitors
+import org.neo4j.test.TestGraphDatabaseFactory
+import org.neo4j.test.rule.TestDirectory
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+class QueryCacheWarmupAcceptanceTest extends CypherFunSuite {
+
+  private val query = "MATCH (n:Person) WHERE n.name = $name RETURN n.age"
+  private val parameters = Map[String, AnyRef]("name" -> "Alice").asJava
+
+  test("should have planned the recorded queries when the restarted database is started") {
+    val testDirectory = TestDirectory.testDirectory()
+    testDirectory.prepareDirectory(getClass, "warmup")
+    val storeDir = testDirectory.databaseDir()
+
+    // GIVEN a query that was executed before the restart
+    val db = startDatabase(storeDir)
+    try {
+      db.execute("CREATE (:Person {name: 'Alice', age: 42})").close()
+      db.execute(query, parameters).resultAsString()
+      db.execute(query, parameters).resultAsString()
+    } finally {
+      db.shutdown()
+    }
+
+    // WHEN
+    val restarted = startDatabase(storeDir)
+    try {
+      val cacheListener = new CacheListener
+      restarted.getDependencyResolver.resolveDependency(classOf[Monitors]).addMonitorListener(cacheListener)
+      restarted.execute(query, parameters).resultAsString() should include("42")
+
+      // THEN the first execution after the restart is served from the query cache
+      cacheListener.misses should be(empty)
+      cacheListener.hits should contain(s"CYPHER 3.5 $query")
+    } finally {
+      restarted.shutdown()
+    }
+  }
+
+  private def startDatabase(storeDir: File): GraphDatabaseAPI =
+    new TestGraphDatabaseFactory()
+      .newEmbeddedDatabaseBuilder(storeDir)
+      .setConfig(GraphDatabaseSettings.query_cache_warmup_size, "10")
+      .newGraphDatabase()
+      .asInstanceOf[GraphDatabaseAPI]
+
+  private class CacheListener extends StringCacheMonitor {
+    val hits = mutable.ArrayBuffer[String]()
+    val misses = mutable.ArrayBuffer[String]()
+
+    override def cacheHit(key: Pair[String, ParameterTypeMap]): Unit = hits += key.first().replaceAll("\\s+", " ")
+
+    override def cacheMiss(key: Pair[String, ParameterTypeMap]): Unit = misses += key.first().replaceAll("\\s+", " ")
+  }
+}
@@ -36,6 +36,7 @@ import org.neo4j.kernel.configuration.Config
 import org.neo4j.kernel.impl.util.ValueUtils
 import org.neo4j.logging.AssertableLogProvider.inLog
 import org.neo4j.logging.{AssertableLogProvider, Log, NullLog, NullLogProvider}
+import org.neo4j.scheduler.JobScheduler
 import org.opencypher.v9_0.frontend.phases.CompilationPhaseTracer
 import org.opencypher.v9_0.util.DummyPosition
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
@@ -58,7 +59,9 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
       csvBufferSize = CSVResources.DEFAULT_BUFFER_SIZE,
       nonIndexedLabelWarningThreshold = 10000L,
       planWithMinimumCardinalityEstimates = true,
-      lenientCreateRelationship = false
+      lenientCreateRelationship = false,
+      interpretedSlottedRows = false,
+      queryMemoryBudget = 0
     )
   }
 
@@ -78,7 +81,9 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
   CypherCurrentCompiler[RuntimeContext] = {
     CypherCurrentCompiler(
       planner,
-      CommunityRuntimeFactory.getRuntime(CypherRuntimeOption.default, disallowFallback = true),
+      CommunityRuntimeFactory.getRuntime(CypherRuntimeOption.default, disallowFallback = true,
+        CypherConfiguration.fromConfig(Config.defaults()).toCypherRuntimeConfiguration,
+        graph.getDependencyResolver.resolveDependency(classOf[JobScheduler])),
       CommunityRuntimeContextCreator(config),
       kernelMonitors)
 
@@ -761,7 +761,7 @@ public class NeoStoresTest
         NeoStores neoStore = factory.openAllNeoStores( true );
 
         // let's hack the counts store so it fails to rotate and hence it fails to close as well...
-        CountsTracker counts = neoStore.getCounts();
+        CountsTracker counts = (CountsTracker) neoStore.getCounts();
         counts.start();
         long nextTxId = neoStore.getMetaDataStore().getLastCommittedTransactionId() + 1;
         AtomicReference<Throwable> exRef = new AtomicReference<>();
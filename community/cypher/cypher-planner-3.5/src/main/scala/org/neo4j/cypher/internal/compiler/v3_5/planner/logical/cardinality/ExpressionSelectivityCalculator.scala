@@ -24,7 +24,16 @@ import org.neo4j.cypher.internal.ir.v3_5.Selections
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics._
 import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bound
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bounds
+import org.neo4j.cypher.internal.v3_5.logical.plans.InequalitySeekRange
+import org.neo4j.cypher.internal.v3_5.logical.plans.ManySeekableArgs
 import org.neo4j.cypher.internal.v3_5.logical.plans.PrefixRange
+import org.neo4j.cypher.internal.v3_5.logical.plans.RangeBetween
+import org.neo4j.cypher.internal.v3_5.logical.plans.RangeGreaterThan
+import org.neo4j.cypher.internal.v3_5.logical.plans.RangeLessThan
+import org.neo4j.cypher.internal.v3_5.logical.plans.SeekableArgs
+import org.neo4j.cypher.internal.v3_5.logical.plans.SingleSeekableArg
 import org.opencypher.v9_0.ast.semantics.SemanticTable
 import org.opencypher.v9_0.expressions._
 import org.opencypher.v9_0.util.Cardinality
@@ -48,7 +57,7 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
 
     // WHERE x.prop =/IN ...
     case AsPropertySeekable(seekable) =>
-      calculateSelectivityForPropertyEquality(seekable.name, seekable.args.sizeHint, selections, seekable.propertyKey)
+      calculateSelectivityForPropertyEquality(seekable.name, seekable.args, selections, seekable.propertyKey)
 
     // WHERE x.prop STARTS WITH 'prefix'
     case AsStringRangeSeekable(seekable@PrefixRangeSeekable(PrefixRange(StringLiteral(prefix)), _, _, _)) =>
@@ -158,36 +167,82 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
   }
 
   private def calculateSelectivityForPropertyEquality(variable: String,
-                                                      sizeHint: Option[Int],
+                                                      args: SeekableArgs,
                                                       selections: Selections,
                                                       propertyKey: PropertyKeyName)
                                                      (implicit semanticTable: SemanticTable): Selectivity = {
     val labels = selections.labelsOnNode(variable)
-    val indexSelectivities = labels.toIndexedSeq.flatMap {
-      labelName =>
-        (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
-          case (Some(labelId), Some(propertyKeyId)) =>
-            val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
-            for {
-              propExists <-stats.indexPropertyExistsSelectivity(descriptor)
-              propEqualsValue <- stats.uniqueValueSelectivity(descriptor)
-              combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValue))
-            } yield combinedSelectivity
+    val sizeHint = args.sizeHint
+    val size = sizeHint.getOrElse(DEFAULT_LIST_CARDINALITY.amount.toInt)
 
-          case _ =>
-            Some(Selectivity.ZERO)
-        }
+    // When comparing with literals, estimate the selectivity from the value histograms of the indexes if they have any
+    val histogramSelectivities = literalValues(args).filter(_.nonEmpty).map { values =>
+      labels.toIndexedSeq.map {
+        labelName =>
+          (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
+            case (Some(labelId), Some(propertyKeyId)) =>
+              val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+              val valueSelectivities = values.map(stats.indexPropertyValueSelectivity(descriptor, _))
+              for {
+                propExists <- stats.indexPropertyExistsSelectivity(descriptor)
+                propEqualsValues <- if (valueSelectivities.forall(_.isDefined)) combiner.orTogetherSelectivities(valueSelectivities.flatten) else None
+                combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValues))
+              } yield combinedSelectivity
+
+            case _ =>
+              Some(Selectivity.ZERO)
+          }
+      }
     }
 
-    val itemSelectivity = combiner.orTogetherSelectivities(indexSelectivities).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
-    val size = sizeHint.getOrElse(DEFAULT_LIST_CARDINALITY.amount.toInt)
-    if (size == 0) {
-      Selectivity.ZERO
-    } else {
-      combiner.orTogetherSelectivities(1.to(size).map(_ => itemSelectivity)).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+    histogramSelectivities match {
+      case Some(selectivities) if selectivities.nonEmpty && selectivities.forall(_.isDefined) =>
+        combiner.orTogetherSelectivities(selectivities.flatten).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+
+      case _ =>
+        val indexSelectivities = labels.toIndexedSeq.flatMap {
+          labelName =>
+            (semanticTable.id(labelName), semanticTable.id(propertyKey)) match {
+              case (Some(labelId), Some(propertyKeyId)) =>
+                val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
+                // Literals are extracted into parameters before planning, so this is the common case
+                for {
+                  propExists <-stats.indexPropertyExistsSelectivity(descriptor)
+                  propEqualsValue <- stats.indexPropertyAverageValueSelectivity(descriptor) orElse stats.uniqueValueSelectivity(descriptor)
+                  combinedSelectivity <- combiner.andTogetherSelectivities(Seq(propExists, propEqualsValue))
+                } yield combinedSelectivity
+
+              case _ =>
+                Some(Selectivity.ZERO)
+            }
+        }
+
+        val itemSelectivity = combiner.orTogetherSelectivities(indexSelectivities).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+        if (size == 0) {
+          Selectivity.ZERO
+        } else {
+          combiner.orTogetherSelectivities(1.to(size).map(_ => itemSelectivity)).getOrElse(DEFAULT_EQUALITY_SELECTIVITY)
+        }
     }
   }
 
+  private def literalValues(args: SeekableArgs): Option[Seq[Any]] = args match {
+    case SingleSeekableArg(expr) =>
+      literalValue(expr).map(Seq(_))
+    case ManySeekableArgs(ListLiteral(expressions)) =>
+      val values = expressions.map(literalValue)
+      if (values.forall(_.isDefined)) Some(values.flatten) else None
+    case _ =>
+      None
+  }
+
+  private def literalValue(expr: Expression): Option[Any] = expr match {
+    case literal: NumberLiteral => Some(literal.value)
+    case literal: StringLiteral => Some(literal.value)
+    case literal: BooleanLiteral => Some(literal.value)
+    case _ => None
+  }
+
   private def calculateSelectivityForValueRangeSeekable(seekable: InequalityRangeSeekable,
                                                         selections: Selections)
                                                        (implicit semanticTable: SemanticTable): Selectivity = {
@@ -209,7 +264,13 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
           case (Some(labelId), Some(propertyKeyId)) =>
             val descriptor = IndexDescriptor(labelId, Seq(propertyKeyId))
 
-            for {
+            val histogramSelectivity = for {
+              propertyExistsSelectivity <- stats.indexPropertyExistsSelectivity(descriptor)
+              (lower, upper) <- literalBounds(seekable.range)
+              pRange <- stats.indexPropertyRangeSelectivity(descriptor, lower, upper)
+            } yield pRange * propertyExistsSelectivity
+
+            histogramSelectivity orElse (for {
               propertyExistsSelectivity <- stats.indexPropertyExistsSelectivity(descriptor)
               propEqValueSelectivity <- stats.uniqueValueSelectivity(descriptor)
             } yield {
@@ -218,7 +279,7 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
 
               val pRange = Selectivity(if (seekable.hasEquality) propEqValueSelectivity.factor + pNeqRange else pNeqRange)
               pRange * propertyExistsSelectivity
-            }
+            })
 
           case _ =>
             Some(Selectivity.ZERO)
@@ -227,6 +288,22 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
     combiner.orTogetherSelectivities(indexRangeSelectivities).getOrElse(default)
   }
 
+  // Only ranges with at most one literal bound on each side can be looked up in value histograms
+  private def literalBounds(range: InequalitySeekRange[Expression]): Option[(Option[Bound[Any]], Option[Bound[Any]])] = {
+    def literalBound(bounds: Bounds[Expression]): Option[Bound[Any]] =
+      if (!bounds.hasTail) literalValue(bounds.head.endPoint).map(value => bounds.head.map(_ => value)) else None
+
+    range match {
+      case RangeGreaterThan(lower) => literalBound(lower).map(bound => (Some(bound), None))
+      case RangeLessThan(upper) => literalBound(upper).map(bound => (None, Some(bound)))
+      case RangeBetween(RangeGreaterThan(lower), RangeLessThan(upper)) =>
+        for {
+          lowerBound <- literalBound(lower)
+          upperBound <- literalBound(upper)
+        } yield (Some(lowerBound), Some(upperBound))
+    }
+  }
+
   private def calculateSelectivityForPointDistanceSeekable(seekable: PointDistanceSeekable,
                                                         selections: Selections)
                                                        (implicit semanticTable: SemanticTable): Selectivity = {
@@ -83,7 +83,9 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     csvBufferSize = Configuration.DEFAULT_BUFFER_SIZE_4MB,
     nonIndexedLabelWarningThreshold = 10000,
     planWithMinimumCardinalityEstimates = true,
-    lenientCreateRelationship = false
+    lenientCreateRelationship = false,
+    interpretedSlottedRows = false,
+    queryMemoryBudget = 0
   )
   val realConfig = new RealLogicalPlanningConfiguration(cypherCompilerConfig)
 
@@ -158,11 +160,11 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
         semanticTable.resolvedRelTypeNames.get(relType).map(_.id)
     }
 
-    def pipeLine(): Transformer[PlannerContext, BaseState, LogicalPlanState] =
+    def pipeLine(literalExtraction: LiteralExtraction = Never): Transformer[PlannerContext, BaseState, LogicalPlanState] =
       Parsing andThen
       PreparatoryRewriting(Deprecations.V1) andThen
       SemanticAnalysis(warn = true) andThen
-      AstRewriting(newPlain, literalExtraction = Never) andThen
+      AstRewriting(newPlain, literalExtraction = literalExtraction) andThen
       RewriteProcedureCalls andThen
       Namespacer andThen
       transitiveClosure andThen
@@ -182,7 +184,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       input.copy(maybeLogicalPlan = Some(newPlan))
     }
 
-    def getLogicalPlanFor(queryString: String): (Option[PeriodicCommit], LogicalPlan, SemanticTable, Solveds, Cardinalities) = {
+    def getLogicalPlanFor(queryString: String, literalExtraction: LiteralExtraction = Never): (Option[PeriodicCommit], LogicalPlan, SemanticTable, Solveds, Cardinalities) = {
       val mkException = new SyntaxExceptionCreator(queryString, Some(pos))
       val metrics = metricsFactory.newMetrics(planContext.statistics, mock[ExpressionEvaluator], cypherCompilerConfig)
       def context = ContextHelper.create(planContext = planContext,
@@ -194,7 +196,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       )
 
       val state = InitialState(queryString, None, IDPPlannerName)
-      val output = pipeLine().transform(state, context)
+      val output = pipeLine(literalExtraction).transform(state, context)
       val logicalPlan = output.logicalPlan.asInstanceOf[ProduceResult].source
       (output.periodicCommit, logicalPlan, output.semanticTable(), output.planningAttributes.solveds, output.planningAttributes.cardinalities)
     }
@@ -21,7 +21,12 @@ package org.neo4j.cypher.internal.compiler.v3_5.planner.logical
 
 import org.neo4j.cypher.internal.compiler.v3_5.planner.BeLikeMatcher._
 import org.neo4j.cypher.internal.compiler.v3_5.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.planner.v3_5.spi.DelegatingGraphStatistics
+import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
 import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.opencypher.v9_0.expressions.Parameter
+import org.opencypher.v9_0.rewriting.rewriters.IfNoParameter
+import org.opencypher.v9_0.util.Selectivity
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
 
 class IndexPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
@@ -147,4 +152,29 @@ class IndexPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTe
             ), _) => ()
     }
   }
+
+  test("should use value histogram for equality on extracted literal") {
+    val query = "MATCH (n:Person) WHERE n.status = 'active' RETURN n"
+
+    def indexSeekCardinality(withHistogram: Boolean): Double = {
+      val (_, plan, _, _, cardinalities) = new given {
+        indexOn("Person", "status")
+        if (withHistogram) {
+          statistics = new DelegatingGraphStatistics(parent.graphStatistics) {
+            override def indexPropertyAverageValueSelectivity(index: IndexDescriptor): Option[Selectivity] =
+              Selectivity.of(0.4)
+          }
+        }
+      } getLogicalPlanFor(query, IfNoParameter)
+
+      plan should beLike {
+        case NodeIndexSeek("n", _, _, SingleQueryExpression(_: Parameter), _, _) => ()
+      }
+      cardinalities.get(plan.id).amount
+    }
+
+    // 2000 :Person nodes, half of them with the property; without a histogram the unique value selectivity is used
+    indexSeekCardinality(withHistogram = false) should equal(2000 * 0.5 * 0.02 +- 0.001)
+    indexSeekCardinality(withHistogram = true) should equal(2000 * 0.5 * 0.4 +- 0.001)
+  }
 }
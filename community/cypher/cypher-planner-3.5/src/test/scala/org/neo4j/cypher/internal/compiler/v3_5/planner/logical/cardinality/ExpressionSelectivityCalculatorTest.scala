@@ -33,6 +33,9 @@ import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics.DEFAULT_RANGE_
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics.DEFAULT_STRING_LENGTH
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics.DEFAULT_TYPE_SELECTIVITY
 import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bound
+import org.neo4j.cypher.internal.v3_5.logical.plans.ExclusiveBound
+import org.neo4j.cypher.internal.v3_5.logical.plans.InclusiveBound
 import org.opencypher.v9_0.ast._
 import org.opencypher.v9_0.ast.semantics.SemanticTable
 import org.opencypher.v9_0.expressions.LessThan
@@ -40,6 +43,7 @@ import org.opencypher.v9_0.expressions._
 import org.opencypher.v9_0.expressions.functions.Distance
 import org.opencypher.v9_0.expressions.functions.Exists
 import org.opencypher.v9_0.util._
+import org.opencypher.v9_0.util.symbols.CTInteger
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
 
 class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstructionTestSupport {
@@ -889,6 +893,92 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
 
   // OTHER
 
+  // VALUE HISTOGRAMS
+
+  test("equality with one label, value in histogram") {
+    val equals = Predicate(Set("n"), Equals(nProp, SignedDecimalIntegerLiteral("3") _) _)
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), mockStats(valueSelectivities = Map((indexPerson, 3L) -> 0.5)))
+    val eqResult = calculator(equals.expr)
+
+    eqResult.factor should equal(
+      0.2 // Selectivity for .prop
+        * 0.5 // Selectivity for = 3 from the histogram
+        +- 0.00000001
+    )
+  }
+
+  test("equality with one label, size 2, values in histogram") {
+    val equals = Predicate(Set("n"), In(nProp, listOf(SignedDecimalIntegerLiteral("3") _, SignedDecimalIntegerLiteral("4") _)) _)
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), mockStats(
+      valueSelectivities = Map((indexPerson, 3L) -> 0.5, (indexPerson, 4L) -> 0.1)))
+    val eqResult = calculator(equals.expr)
+
+    eqResult.factor should equal(0.2 * (0.5 + 0.1 - 0.5 * 0.1) +- 0.00000001)
+  }
+
+  test("equality with one label, size 2, only one value in histogram") {
+    val equals = Predicate(Set("n"), In(nProp, listOf(SignedDecimalIntegerLiteral("3") _, SignedDecimalIntegerLiteral("4") _)) _)
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), mockStats(valueSelectivities = Map((indexPerson, 3L) -> 0.5)))
+    val eqResult = calculator(equals.expr)
+
+    val resFor1 = 0.2 * 0.25
+    eqResult.factor should equal(resFor1 + resFor1 - resFor1 * resFor1 +- 0.00000001)
+  }
+
+  test("equality with one label, parameter uses average selectivity from histogram") {
+    val equals = Predicate(Set("n"), Equals(nProp, Parameter("param", CTInteger) _) _)
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), mockStats(averageValueSelectivities = Map(indexPerson -> 0.3)))
+    val eqResult = calculator(equals.expr)
+
+    eqResult.factor should equal(
+      0.2 // Selectivity for .prop
+        * 0.3 // Average selectivity of a value according to the histogram
+        +- 0.00000001
+    )
+  }
+
+  test("equality with one label, parameter without histogram uses unique values") {
+    val equals = Predicate(Set("n"), Equals(nProp, Parameter("param", CTInteger) _) _)
+
+    val calculator = setUpCalculator(equals, Seq(nIsPerson), mockStats())
+    val eqResult = calculator(equals.expr)
+
+    eqResult.factor should equal(0.2 * 0.25 +- 0.00000001)
+  }
+
+  test("closed (> && <) range with one label, range in histogram") {
+    val ineqality = Predicate(Set("n"), AndedPropertyInequalities(varFor("n"), nProp, NonEmptyList(
+      GreaterThan(nProp, SignedDecimalIntegerLiteral("3") _) _,
+      LessThanOrEqual(nProp, SignedDecimalIntegerLiteral("4") _) _
+    )))
+
+    val calculator = setUpCalculator(ineqality, Seq(nIsPerson), mockStats(
+      rangeSelectivities = Map((indexPerson, Some(ExclusiveBound(3L)), Some(InclusiveBound(4L))) -> 0.4)))
+    val ineqResult = calculator(ineqality.expr)
+
+    ineqResult.factor should equal(
+      0.2 // Selectivity for .prop
+        * 0.4 // Selectivity for range from the histogram
+        +- 0.00000001
+    )
+  }
+
+  test("half-open (>) range with one label, parameter bound ignores histogram") {
+    val ineqality = Predicate(Set("n"), AndedPropertyInequalities(varFor("n"), nProp, NonEmptyList(
+      GreaterThan(nProp, Parameter("param", CTInteger) _) _
+    )))
+
+    val calculator = setUpCalculator(ineqality, Seq(nIsPerson), mockStats(
+      rangeSelectivities = Map((indexPerson, Some(ExclusiveBound(3L)), None) -> 0.4)))
+    val ineqResult = calculator(ineqality.expr)
+
+    ineqResult.factor should equal(0.2 * 0.75 * DEFAULT_RANGE_SEEK_FACTOR +- 0.00000001)
+  }
+
   test("Should peek inside sub predicates") {
     implicit val semanticTable = SemanticTable()
     semanticTable.resolvedLabelNames.put("Page", LabelId(0))
@@ -935,11 +1025,17 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
     * @param labelCardinalities       for each label, the number of nodes that have that label
     * @param indexCardinalities       for each index, the number of values in that index
     * @param indexUniqueCardinalities for each index, the number of unique values in that index
+    * @param valueSelectivities       for each index and value, the selectivity of the value according to the value histogram of the index
+    * @param rangeSelectivities       for each index and range, the selectivity of the range according to the value histogram of the index
+    * @param averageValueSelectivities for each index, the average selectivity of a value according to the value histogram of the index
     */
   private def mockStats(allNodesCardinality: Double = 10000.0,
                         labelCardinalities: Map[LabelId, Double] = Map(indexPerson.label -> 1000.0),
                         indexCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 200.0),
-                        indexUniqueCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 50.0)): GraphStatistics = {
+                        indexUniqueCardinalities: Map[IndexDescriptor, Double] = Map(indexPerson -> 50.0),
+                        valueSelectivities: Map[(IndexDescriptor, Any), Double] = Map.empty,
+                        rangeSelectivities: Map[(IndexDescriptor, Option[Bound[Any]], Option[Bound[Any]]), Double] = Map.empty,
+                        averageValueSelectivities: Map[IndexDescriptor, Double] = Map.empty): GraphStatistics = {
 
     // sanity check:
     for {
@@ -985,6 +1081,30 @@ class ExpressionSelectivityCalculatorTest extends CypherFunSuite with AstConstru
       }
     })
 
+    when(stats.indexPropertyValueSelectivity(any(), any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] = {
+        val theIndex = invocationOnMock.getArgument[IndexDescriptor](0)
+        val theValue = invocationOnMock.getArgument[Any](1)
+        valueSelectivities.get((theIndex, theValue)).map(Selectivity(_))
+      }
+    })
+
+    when(stats.indexPropertyRangeSelectivity(any(), any(), any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] = {
+        val theIndex = invocationOnMock.getArgument[IndexDescriptor](0)
+        val lower = invocationOnMock.getArgument[Option[Bound[Any]]](1)
+        val upper = invocationOnMock.getArgument[Option[Bound[Any]]](2)
+        rangeSelectivities.get((theIndex, lower, upper)).map(Selectivity(_))
+      }
+    })
+
+    when(stats.indexPropertyAverageValueSelectivity(any())).thenAnswer(new Answer[Option[Selectivity]] {
+      override def answer(invocationOnMock: InvocationOnMock): Option[Selectivity] = {
+        val theIndex = invocationOnMock.getArgument[IndexDescriptor](0)
+        averageValueSelectivities.get(theIndex).map(Selectivity(_))
+      }
+    })
+
     stats
   }
 }
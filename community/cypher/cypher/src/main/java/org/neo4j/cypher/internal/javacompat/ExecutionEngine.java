@@ -19,18 +19,23 @@
  */
 package org.neo4j.cypher.internal.javacompat;
 
+import java.io.File;
 import java.time.Clock;
 
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.internal.CacheTracer;
 import org.neo4j.cypher.internal.CompilerFactory;
 import org.neo4j.cypher.internal.CypherConfiguration;
+import org.neo4j.cypher.internal.QueryCacheWarmer;
 import org.neo4j.cypher.internal.StringCacheMonitor;
 import org.neo4j.cypher.internal.tracing.CompilationTracer;
 import org.neo4j.cypher.internal.tracing.TimingCompilationTracer;
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.Result;
+import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.GraphDatabaseQueryService;
+import org.neo4j.kernel.NeoStoreDataSource;
+import org.neo4j.kernel.availability.DatabaseAvailabilityGuard;
 import org.neo4j.kernel.impl.query.QueryExecution;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
@@ -39,6 +44,7 @@ import org.neo4j.kernel.impl.query.ResultBuffer;
 import org.neo4j.kernel.impl.query.TransactionalContext;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.values.virtual.MapValue;
 
 /**
@@ -74,6 +80,19 @@ public class ExecutionEngine implements QueryExecutionEngine
                                                                compilerFactory,
                                                                logProvider,
                                                                Clock.systemUTC() );
+        if ( cypherConfiguration.queryCacheWarmupSize() > 0 )
+        {
+            File databaseDirectory = resolver.resolveDependency( NeoStoreDataSource.class ).getDatabaseLayout().databaseDirectory();
+            DatabaseAvailabilityGuard availabilityGuard = resolver.resolveDependency( DatabaseAvailabilityGuard.class );
+            availabilityGuard.addListener( new QueryCacheWarmer( inner, queryService,
+                    resolver.resolveDependency( FileSystemAbstraction.class ),
+                    new File( databaseDirectory, QueryCacheWarmer.FILE_NAME() ),
+                    cypherConfiguration.queryCacheWarmupSize(),
+                    cypherConfiguration.queryCacheWarmupTimeout(),
+                    resolver.resolveDependency( JobScheduler.class ),
+                    availabilityGuard,
+                    logProvider.getLog( QueryCacheWarmer.class ) ) );
+        }
     }
 
     @Override
@@ -27,7 +27,8 @@ case object CypherRuntimeOption extends CypherOptionCompanion[CypherRuntimeOptio
   case object interpreted extends CypherRuntimeOption("interpreted")
   case object slotted extends CypherRuntimeOption("slotted")
   case object morsel extends CypherRuntimeOption("morsel")
+  case object parallel extends CypherRuntimeOption("parallel")
   case object compiled extends CypherRuntimeOption("compiled")
 
-  val all: Set[CypherRuntimeOption] = Set(interpreted, compiled, slotted, morsel)
+  val all: Set[CypherRuntimeOption] = Set(interpreted, compiled, slotted, morsel, parallel)
 }
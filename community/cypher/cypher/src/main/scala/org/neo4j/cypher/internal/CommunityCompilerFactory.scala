@@ -31,6 +31,7 @@ import org.neo4j.helpers.Clock
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.monitoring.{Monitors => KernelMonitors}
 import org.neo4j.logging.{Log, LogProvider}
+import org.neo4j.scheduler.JobScheduler
 import org.opencypher.v9_0.util.InvalidArgumentException
 
 /**
@@ -45,6 +46,8 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
 
   private val log: Log = logProvider.getLog(getClass)
 
+  private lazy val jobScheduler = graph.getDependencyResolver.resolveDependency(classOf[JobScheduler])
+
   override def createCompiler(cypherVersion: CypherVersion,
                               cypherPlanner: CypherPlannerOption,
                               cypherRuntime: CypherRuntimeOption,
@@ -74,7 +77,7 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
         CypherCurrentCompiler(
           Cypher34Planner(plannerConfig, MasterCompiler.CLOCK, kernelMonitors, log,
             cypherPlanner, cypherUpdateStrategy, LastCommittedTxIdProvider(graph)),
-          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings),
+          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings, runtimeConfig, jobScheduler),
           CommunityRuntimeContextCreator(plannerConfig),
           kernelMonitors
         )
@@ -84,7 +87,7 @@ class CommunityCompilerFactory(graph: GraphDatabaseQueryService,
         CypherCurrentCompiler(
           Cypher35Planner(plannerConfig, MasterCompiler.CLOCK, kernelMonitors, log,
                           cypherPlanner, cypherUpdateStrategy, LastCommittedTxIdProvider(graph)),
-          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings),
+          CommunityRuntimeFactory.getRuntime(cypherRuntime, plannerConfig.useErrorsOverWarnings, runtimeConfig, jobScheduler),
           CommunityRuntimeContextCreator(plannerConfig),
           kernelMonitors
         )
@@ -21,18 +21,26 @@ package org.neo4j.cypher.internal
 
 import org.neo4j.cypher.{CypherRuntimeOption, InvalidArgumentException}
 import org.neo4j.cypher.internal.compatibility._
+import org.neo4j.scheduler.JobScheduler
 
 object CommunityRuntimeFactory {
 
   val interpreted = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.interpreted)
   val default = new FallbackRuntime[RuntimeContext](List(InterpretedRuntime), CypherRuntimeOption.default)
 
-  def getRuntime(cypherRuntime: CypherRuntimeOption, disallowFallback: Boolean): CypherRuntime[RuntimeContext] =
+  def getRuntime(cypherRuntime: CypherRuntimeOption,
+                 disallowFallback: Boolean,
+                 runtimeConfig: CypherRuntimeConfiguration,
+                 jobScheduler: JobScheduler): CypherRuntime[RuntimeContext] =
     cypherRuntime match {
       case CypherRuntimeOption.interpreted => interpreted
 
       case CypherRuntimeOption.default => default
 
+      case CypherRuntimeOption.parallel =>
+        val parallel = new ParallelRuntime(runtimeConfig, jobScheduler)
+        new FallbackRuntime[RuntimeContext](if (disallowFallback) List(parallel) else List(parallel, InterpretedRuntime), cypherRuntime)
+
       case unsupported if disallowFallback =>
         throw new InvalidArgumentException(s"This version of Neo4j does not support requested runtime: $unsupported")
 
@@ -54,7 +54,11 @@ object CypherConfiguration {
       config.get(GraphDatabaseSettings.cypher_morsel_size),
       config.get(GraphDatabaseSettings.enable_morsel_runtime_trace),
       config.get(GraphDatabaseSettings.cypher_task_wait),
-      config.get(GraphDatabaseSettings.cypher_expression_recompilation_limit)
+      config.get(GraphDatabaseSettings.cypher_expression_recompilation_limit),
+      config.get(GraphDatabaseSettings.cypher_interpreted_slotted_rows),
+      config.get(GraphDatabaseSettings.cypher_query_memory_budget),
+      config.get(GraphDatabaseSettings.query_cache_warmup_size).toInt,
+      config.get(GraphDatabaseSettings.query_cache_warmup_timeout).toMillis
     )
   }
 
@@ -91,7 +95,11 @@ case class CypherConfiguration(version: CypherVersion,
                                morselSize: Int,
                                doSchedulerTracing: Boolean,
                                waitTimeout: Int,
-                               recompilationLimit: Int) {
+                               recompilationLimit: Int,
+                               interpretedSlottedRows: Boolean,
+                               queryMemoryBudget: Long,
+                               queryCacheWarmupSize: Int,
+                               queryCacheWarmupTimeout: Long) {
 
   def toCypherRuntimeConfiguration: CypherRuntimeConfiguration =
     CypherRuntimeConfiguration(
@@ -114,6 +122,8 @@ case class CypherConfiguration(version: CypherVersion,
       csvBufferSize = csvBufferSize,
       nonIndexedLabelWarningThreshold = config.get(GraphDatabaseSettings.query_non_indexed_label_warning_threshold).longValue(),
       planWithMinimumCardinalityEstimates = planWithMinimumCardinalityEstimates,
-      lenientCreateRelationship = lenientCreateRelationship
+      lenientCreateRelationship = lenientCreateRelationship,
+      interpretedSlottedRows = interpretedSlottedRows,
+      queryMemoryBudget = queryMemoryBudget
     )
 }
@@ -34,7 +34,7 @@ import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.impl.query.{QueryExecution, ResultBuffer, TransactionalContext}
 import org.neo4j.kernel.monitoring.Monitors
 import org.neo4j.logging.LogProvider
-import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.{MapValue, VirtualValues}
 
 trait StringCacheMonitor extends CypherCacheMonitor[Pair[String, ParameterTypeMap]]
 
@@ -180,6 +180,36 @@ class ExecutionEngine(val queryService: GraphDatabaseQueryService,
     throw new IllegalStateException("Could not compile query due to insanely frequent schema changes")
   }
 
+  /**
+    * The query strings and parameter types of the queries in the query cache that have been executed the most.
+    * Each query string includes the pre-parser options of the query, so that it plans the same way again.
+    */
+  def mostHitQueries(limit: Int): Seq[(String, ParameterTypeMap)] =
+    queryCache.mostHit(limit).map(key => (key.first(), key.other()))
+
+  /**
+    * Plan a query into the query cache, for executions with parameters of the given types, without executing it.
+    *
+    * @return true if the query was planned, false if it was already cached
+    */
+  def warmUp(query: String, parameterTypes: ParameterTypeMap, context: TransactionalContext): Boolean = {
+    val queryTracer = tracer.compileQuery(query)
+    val compilerAuthorization =
+      context.restrictCurrentTransaction(context.securityContext.withMode(AccessMode.Static.READ))
+    try {
+      val preParsedQuery = preParser.preParseQuery(query, profile = false)
+      val cacheKey = Pair.of(preParsedQuery.statementWithVersionAndPlanner, parameterTypes)
+      // Creating the schema token clears the query cache, which must not happen on the first execution after the warmup
+      schemaHelper.readSchemaToken(context)
+      // The plans do not depend on the parameter values, only the cache key depends on their types
+      val (primaryCompiler, _) = compilers(preParsedQuery, queryTracer, context, VirtualValues.EMPTY_MAP)
+      queryCache.computeIfAbsent(cacheKey, primaryCompiler)
+    } finally {
+      compilerAuthorization.close()
+      queryTracer.close()
+    }
+  }
+
   def clearQueryCaches(): Long =
     List(masterCompiler.clearCaches(), queryCache.clear(), preParser.clearCache()).max
 
@@ -37,6 +37,7 @@ case object DPPlannerOption extends PlannerPreParserOption("dp")
 case object InterpretedRuntimeOption extends RuntimePreParserOption("interpreted")
 case object SlottedRuntimeOption extends RuntimePreParserOption("slotted")
 case object MorselRuntimeOption extends RuntimePreParserOption("morsel")
+case object ParallelRuntimeOption extends RuntimePreParserOption("parallel")
 case object CompiledRuntimeOption extends RuntimePreParserOption("compiled")
 case object EagerOption extends UpdateStrategyOption("eager")
 case class DebugOption(key: String) extends PreParserOption
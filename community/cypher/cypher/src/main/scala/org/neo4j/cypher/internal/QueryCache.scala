@@ -72,16 +72,15 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
 
   /*
     * The cached value wraps the value and maintains a count of how many times it has been fetched from the cache
-    * and whether or not it has been recompiled.
+    * and whether or not it has been recompiled. A recompiled value keeps counting from the hits of the value it
+    * replaced, so that the count reflects how hot the query is.
     */
-  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiled: Boolean) {
+  private class CachedValue(val value: EXECUTABLE_QUERY, val recompiled: Boolean, initialHits: Int = 0) {
 
-    @volatile private var _numberOfHits = 0
+    @volatile private var _numberOfHits = initialHits
 
     def markHit(): Unit = {
-      if (!recompiled) {
-        _numberOfHits += 1
-      }
+      _numberOfHits += 1
     }
 
     def numberOfHits: Int = _numberOfHits
@@ -136,7 +135,7 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
                 recompile(cachedValue.numberOfHits) match {
                   case Some(recompiledQuery) =>
                     tracer.queryCacheRecompile(queryKey, metaData)
-                    val recompiled = new CachedValue(recompiledQuery, recompiled = true)
+                    val recompiled = new CachedValue(recompiledQuery, recompiled = true, cachedValue.numberOfHits)
                     inner.put(queryKey, recompiled)
                     recompiled
                   case None => cachedValue
@@ -169,6 +168,32 @@ class QueryCache[QUERY_REP <: AnyRef, QUERY_KEY <: Pair[QUERY_REP, ParameterType
     miss(queryKey, newExecutableQuery, metaData)
   }
 
+  /**
+    * Compile and cache the query, unless it is already cached. This is neither a hit nor a miss, since no one is
+    * waiting for the query.
+    *
+    * @param queryKey the queryKey to compile the execution plan for
+    * @param compile Compiler to use if the query is not cached
+    * @return true if the query was compiled, false if it was already cached
+    */
+  def computeIfAbsent(queryKey: QUERY_KEY, compile: () => EXECUTABLE_QUERY): Boolean = {
+    if (maximumSize == 0 || inner.getIfPresent(queryKey) != NOT_PRESENT)
+      false
+    else {
+      inner.put(queryKey, new CachedValue(compile(), recompiled = false))
+      true
+    }
+  }
+
+  /**
+    * The keys of the cached queries that have been fetched from the cache the most.
+    *
+    * @param limit the maximum number of keys to return
+    * @return the keys, with the most hit first
+    */
+  def mostHit(limit: Int): Seq[QUERY_KEY] =
+    inner.asMap().toSeq.sortBy { case (_, cachedValue) => -cachedValue.numberOfHits }.take(limit).map(_._1)
+
   private def hit(queryKey: QUERY_KEY,
                   executableQuery: CachedValue,
                   metaData: String) = {
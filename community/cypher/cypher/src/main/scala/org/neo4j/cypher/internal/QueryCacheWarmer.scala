@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io._
+import java.nio.charset.StandardCharsets
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.{CountDownLatch, TimeUnit}
+
+import org.neo4j.cypher.internal.QueryCache.ParameterTypeMap
+import org.neo4j.internal.kernel.api.Transaction
+import org.neo4j.internal.kernel.api.security.LoginContext
+import org.neo4j.io.fs.FileSystemAbstraction
+import org.neo4j.kernel.GraphDatabaseQueryService
+import org.neo4j.kernel.availability.{AvailabilityGuard, AvailabilityListener}
+import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker
+import org.neo4j.kernel.impl.query.Neo4jTransactionalContextFactory
+import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo
+import org.neo4j.logging.Log
+import org.neo4j.scheduler.{Group, JobHandle, JobScheduler}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.util.control.NonFatal
+
+/**
+  * Records the most hit queries of the query cache when the database becomes unavailable, and plans them again when
+  * it becomes available, so that the first executions of those queries after a restart do not have to wait for
+  * planning.
+  *
+  * The queries are planned by a background job, since planning needs transactions, which can only start once the
+  * database is available. The database start waits for that job, for at most the given timeout, so that the
+  * components started after the database, like Bolt, only accept queries once the warmup is done.
+  */
+class QueryCacheWarmer(engine: ExecutionEngine,
+                       queryService: GraphDatabaseQueryService,
+                       fs: FileSystemAbstraction,
+                       file: File,
+                       size: Int,
+                       timeoutMillis: Long,
+                       scheduler: JobScheduler,
+                       guard: AvailabilityGuard,
+                       log: Log) extends AvailabilityListener {
+
+  @volatile private var stopped = false
+  @volatile private var warmedUp = false
+  private var job: JobHandle = _
+
+  override def available(): Unit = {
+    val finished = new CountDownLatch(1)
+    synchronized {
+      stopped = false
+      warmedUp = false
+      job = scheduler.schedule(Group.QUERY_CACHE_WARMUP, new Runnable {
+        override def run(): Unit = try warmUp() finally finished.countDown()
+      })
+    }
+    // Called while the database starts, so this holds back everything that is started after it
+    try {
+      if (!finished.await(timeoutMillis, TimeUnit.MILLISECONDS))
+        log.warn("Query cache warmup did not complete within %d ms. The remaining queries are planned in the background.",
+                 Long.box(timeoutMillis))
+    } catch {
+      case _: InterruptedException => Thread.currentThread().interrupt()
+    }
+  }
+
+  override def unavailable(): Unit = synchronized {
+    stopped = true
+    if (job != null) {
+      job.cancel(false)
+      try {
+        job.waitTermination()
+      } catch {
+        case NonFatal(_) => // the job logs its own failures
+      }
+      job = null
+    }
+    // Keep the recorded queries if the warmup did not get to plan them all
+    if (warmedUp) {
+      try {
+        QueryCacheWarmer.write(fs, file, engine.mostHitQueries(size))
+      } catch {
+        case e: IOException => log.warn("Could not record the queries for the query cache warmup.", e)
+      }
+    }
+    // The engine does not outlive the database, a restarted database registers a warmer for its new engine
+    guard.removeListener(this)
+  }
+
+  private def warmUp(): Unit = {
+    try {
+      if (fs.fileExists(file)) {
+        val start = System.currentTimeMillis()
+        val contextFactory = Neo4jTransactionalContextFactory.create(queryService, new PropertyContainerLocker)
+        var planned = 0
+        val queries = QueryCacheWarmer.read(fs, file).iterator
+        while (!stopped && queries.hasNext) {
+          val (query, parameterTypes) = queries.next()
+          val tx = queryService.beginTransaction(Transaction.Type.`implicit`, LoginContext.AUTH_DISABLED)
+          val context = contextFactory.newContext(ClientConnectionInfo.EMBEDDED_CONNECTION, tx, query, VirtualValues.EMPTY_MAP)
+          var success = false
+          try {
+            if (engine.warmUp(query, parameterTypes, context))
+              planned += 1
+            success = true
+          } catch {
+            case NonFatal(e) => log.debug(s"Could not plan query for the query cache warmup: $query", e)
+          } finally {
+            context.close(success)
+          }
+        }
+        if (!stopped)
+          log.info("Query cache warmup completed. %d queries planned. Duration: %d ms.",
+                   Int.box(planned), Long.box(System.currentTimeMillis() - start))
+      }
+    } catch {
+      case NonFatal(e) => log.warn("Query cache warmup failed.", e)
+    } finally {
+      warmedUp = !stopped
+    }
+  }
+}
+
+object QueryCacheWarmer {
+
+  val FILE_NAME = "query-cache-warmup"
+
+  def write(fs: FileSystemAbstraction, file: File, queries: Seq[(String, ParameterTypeMap)]): Unit = {
+    val tmpFile = new File(file.getParentFile, file.getName + ".tmp")
+    val out = new DataOutputStream(new BufferedOutputStream(fs.openAsOutputStream(tmpFile, false)))
+    try {
+      out.writeInt(queries.size)
+      queries.foreach {
+        case (query, parameterTypes) =>
+          writeString(out, query)
+          out.writeInt(parameterTypes.size)
+          parameterTypes.foreach {
+            case (name, valueClass) =>
+              writeString(out, name)
+              writeString(out, valueClass.getName)
+          }
+      }
+    } finally {
+      out.close()
+    }
+    fs.renameFile(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+  }
+
+  /**
+    * Reads the recorded queries. Queries with parameter types that no longer exist are left out.
+    */
+  def read(fs: FileSystemAbstraction, file: File): Seq[(String, ParameterTypeMap)] = {
+    val in = new DataInputStream(new BufferedInputStream(fs.openAsInputStream(file)))
+    try {
+      val count = in.readInt()
+      (0 until count).flatMap { _ =>
+        val query = readString(in)
+        val parameters = (0 until in.readInt()).map(_ => (readString(in), readString(in)))
+        try {
+          val parameterTypes: ParameterTypeMap = parameters.map {
+            case (name, className) => name -> Class.forName(className, false, classOf[AnyValue].getClassLoader)
+          }.toMap
+          Some((query, parameterTypes))
+        } catch {
+          case _: ClassNotFoundException => None
+        }
+      }
+    } finally {
+      in.close()
+    }
+  }
+
+  private def writeString(out: DataOutputStream, string: String): Unit = {
+    val bytes = string.getBytes(StandardCharsets.UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+}
@@ -30,17 +30,15 @@ import org.opencypher.v9_0.frontend.phases.InternalNotificationLogger
   */
 case class CommunityRuntimeContext(tokenContext: TokenContext,
                                    readOnly: Boolean,
-                                   config: CypherPlannerConfiguration) extends RuntimeContext {
-
-  override def compileExpressions: Boolean = false
-}
+                                   config: CypherPlannerConfiguration,
+                                   compileExpressions: Boolean = false) extends RuntimeContext
 
 case class CommunityRuntimeContextCreator(config: CypherPlannerConfiguration) extends RuntimeContextCreator[RuntimeContext] {
   override def create(tokenContext: TokenContext,
                       clock: Clock,
                       debugOptions: Set[String],
                       readOnly: Boolean,
-                      ignore: Boolean
+                      compileExpressions: Boolean
                      ): RuntimeContext =
-    CommunityRuntimeContext(tokenContext, readOnly, config)
+    CommunityRuntimeContext(tokenContext, readOnly, config, compileExpressions)
 }
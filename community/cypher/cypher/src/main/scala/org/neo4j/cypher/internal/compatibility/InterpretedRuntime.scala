@@ -24,7 +24,7 @@ import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
 import org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler.{InterpretedProfileInformation, Profiler}
 import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
 import org.neo4j.cypher.internal.runtime.QueryContext
-import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.{SlotAllocation, UpdateCountingQueryContext}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
 import org.neo4j.cypher.internal.runtime.planDescription.Argument
@@ -41,7 +41,9 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
     val executionPlanBuilder = new PipeExecutionPlanBuilder(
       expressionConverters = converters,
       pipeBuilderFactory = InterpretedPipeBuilderFactory)
-    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly)
+    val slots = if (context.config.interpretedSlottedRows) Some(SlotAllocation.allocateSlots(logicalPlan)) else None
+    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly, slots,
+                                                       context.compileExpressions)
     val pipe = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, context.tokenContext)
     val periodicCommitInfo = state.periodicCommit.map(x => PeriodicCommitInfo(x.batchSize))
     val columns = state.statement().returnColumns
@@ -49,7 +51,8 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
                                                                         context.readOnly,
                                                                         columns,
                                                                         logicalPlan,
-                                                                        context.config.lenientCreateRelationship)
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.config.queryMemoryBudget)
 
     new InterpretedExecutionPlan(periodicCommitInfo,
                                  resultBuilderFactory,
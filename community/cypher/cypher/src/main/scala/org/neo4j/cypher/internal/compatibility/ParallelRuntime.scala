@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compatibility
+
+import org.neo4j.cypher.internal.compatibility.InterpretedRuntime.InterpretedExecutionPlan
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime._
+import org.neo4j.cypher.internal.compatibility.v3_5.runtime.executionplan._
+import org.neo4j.cypher.internal.compiler.v3_5.phases.LogicalPlanState
+import org.neo4j.cypher.internal.compiler.v3_5.planner.CantCompileQueryException
+import org.neo4j.cypher.internal.runtime.interpreted.ParallelRegion
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{CommunityExpressionConverter, ExpressionConverters}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeExecutionBuilderContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.WorkerPool
+import org.neo4j.scheduler.JobScheduler
+
+/**
+  * Runtime that executes the scan of a read only query, and the streaming plans and aggregation directly above it,
+  * in morsels on a pool of workers. The rest of the plan is executed the way the interpreted runtime does it.
+  */
+class ParallelRuntime(config: CypherRuntimeConfiguration, jobScheduler: JobScheduler) extends CypherRuntime[RuntimeContext] {
+  private lazy val pool = WorkerPool(config.workers, jobScheduler)
+
+  override def compileToExecutable(state: LogicalPlanState, context: RuntimeContext): ExecutionPlan = {
+    if (!context.readOnly || state.periodicCommit.isDefined) {
+      throw new CantCompileQueryException("Parallel runtime only supports read only queries")
+    }
+    val logicalPlan = state.logicalPlan
+    val region = ParallelRegion.find(logicalPlan, state.planningAttributes.providedOrders).getOrElse(
+      throw new CantCompileQueryException("Parallel runtime found nothing in the plan to execute in parallel"))
+
+    val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
+    val executionPlanBuilder = new PipeExecutionPlanBuilder(
+      expressionConverters = converters,
+      pipeBuilderFactory = ParallelPipeBuilderFactory(region, pool, config.morselSize))
+    // Morsels are handed between threads, which map rows can do without the slot configuration of the plan
+    val pipeBuildContext = PipeExecutionBuilderContext(state.semanticTable(), context.readOnly, None)
+    val pipe = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, context.tokenContext)
+    val columns = state.statement().returnColumns
+    val resultBuilderFactory = InterpretedExecutionResultBuilderFactory(pipe,
+                                                                        context.readOnly,
+                                                                        columns,
+                                                                        logicalPlan,
+                                                                        context.config.lenientCreateRelationship,
+                                                                        context.config.queryMemoryBudget)
+
+    new InterpretedExecutionPlan(None,
+                                 resultBuilderFactory,
+                                 ParallelRuntimeName,
+                                 context.readOnly)
+  }
+}
@@ -20,9 +20,10 @@
 package org.neo4j.cypher.internal.compatibility.v3_5.runtime
 
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
-import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeBuilder
+import org.neo4j.cypher.internal.runtime.interpreted.{InterpretedPipeBuilder, ParallelPipeBuilder, ParallelRegion}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
-import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeBuilderFactory, PipeExecutionBuilderContext}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.WorkerPool
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{Pipe, PipeBuilder, PipeBuilderFactory, PipeExecutionBuilderContext}
 import org.neo4j.cypher.internal.v3_5.logical.plans.{LogicalPlan, LogicalPlans}
 
 class PipeExecutionPlanBuilder(pipeBuilderFactory: PipeBuilderFactory,
@@ -46,6 +47,16 @@ object InterpretedPipeBuilderFactory extends PipeBuilderFactory {
             readOnly: Boolean,
             expressionConverters: ExpressionConverters)
            (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): InterpretedPipeBuilder = {
-    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext)(context.semanticTable)
+    InterpretedPipeBuilder(recurse, readOnly, expressionConverters, recursePipes(recurse), tokenContext, context.slots,
+                           context.compileExpressions)(context.semanticTable)
+  }
+}
+
+case class ParallelPipeBuilderFactory(region: ParallelRegion, pool: WorkerPool, morselSize: Int) extends PipeBuilderFactory {
+  def apply(recurse: LogicalPlan => Pipe,
+            readOnly: Boolean,
+            expressionConverters: ExpressionConverters)
+           (implicit context: PipeExecutionBuilderContext, tokenContext: TokenContext): PipeBuilder = {
+    new ParallelPipeBuilder(InterpretedPipeBuilderFactory(recurse, readOnly, expressionConverters), region, pool, morselSize)
   }
 }
@@ -36,6 +36,10 @@ case object MorselRuntimeName extends RuntimeName {
   override val name = "MORSEL"
 }
 
+case object ParallelRuntimeName extends RuntimeName {
+  override val name = "PARALLEL"
+}
+
 case object CompiledRuntimeName extends RuntimeName {
   override val name = "COMPILED"
 }
@@ -50,6 +54,7 @@ object RuntimeName {
     case InterpretedRuntimeName.name => InterpretedRuntimeName
     case SlottedRuntimeName.name => SlottedRuntimeName
     case MorselRuntimeName.name => MorselRuntimeName
+    case ParallelRuntimeName.name => ParallelRuntimeName
     case CompiledRuntimeName.name => CompiledRuntimeName
     case ProcedureRuntimeName.name => ProcedureRuntimeName
 
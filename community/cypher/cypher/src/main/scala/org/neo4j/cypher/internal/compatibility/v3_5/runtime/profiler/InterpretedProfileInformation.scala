@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compatibility.v3_5.runtime.profiler
 
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryManager
 import org.neo4j.cypher.result.{OperatorProfile, QueryProfile}
 import org.opencypher.v9_0.util.attribution.Id
 
@@ -29,7 +30,9 @@ class InterpretedProfileInformation extends QueryProfile {
   case class OperatorData(override val dbHits: Long,
                           override val rows: Long,
                           override val pageCacheHits: Long,
-                          override val pageCacheMisses: Long) extends OperatorProfile {
+                          override val pageCacheMisses: Long,
+                          override val spilledRows: Long,
+                          override val spilledBytes: Long) extends OperatorProfile {
 
     override def time: Long = OperatorProfile.NO_DATA
   }
@@ -37,14 +40,18 @@ class InterpretedProfileInformation extends QueryProfile {
   val pageCacheMap: mutable.Map[Id, PageCacheStats] = mutable.Map.empty
   val dbHitsMap: mutable.Map[Id, ProfilingPipeQueryContext] = mutable.Map.empty
   val rowMap: mutable.Map[Id, ProfilingIterator] = mutable.Map.empty
+  var memoryManager: QueryMemoryManager = QueryMemoryManager.unlimited
 
   def operatorProfile(operatorId: Int): OperatorProfile = {
     val id = Id(operatorId)
     val rows = rowMap.get(id).map(_.count).getOrElse(0L)
     val dbHits = dbHitsMap.get(id).map(_.count).getOrElse(0L)
     val pageCacheStats = pageCacheMap.getOrElse(id, PageCacheStats(0L, 0L))
+    val spilled = memoryManager.spilled(id)
 
-    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses)
+    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses,
+                 spilled.map(_.rows).getOrElse(OperatorProfile.NO_DATA),
+                 spilled.map(_.bytes).getOrElse(OperatorProfile.NO_DATA))
   }
 }
 
@@ -57,6 +57,8 @@ class Profiler(databaseInfo: DatabaseInfo,
       case _ => new ProfilingPipeQueryContext(state.query, pipe)
     })
 
+    stats.memoryManager = state.memoryManager
+
     if (trackPageCacheStats) {
       val statisticProvider = decoratedContext.transactionalContext.kernelStatisticProvider
       stats.pageCacheMap(pipe.id) = PageCacheStats(statisticProvider.getPageCacheHits, statisticProvider.getPageCacheMisses)
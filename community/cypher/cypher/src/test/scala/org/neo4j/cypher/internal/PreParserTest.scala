@@ -35,6 +35,14 @@ class PreParserTest extends CypherFunSuite {
     intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER runtime=compiled runtime=interpreted RETURN 42"))
   }
 
+  test("should not allow the compiled expression engine with the parallel runtime") {
+    intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER runtime=parallel expressionEngine=compiled RETURN 42"))
+  }
+
+  test("should allow the compiled expression engine with the interpreted runtime") {
+    preParser.preParseQuery("CYPHER runtime=interpreted expressionEngine=compiled RETURN 42").useCompiledExpressions should be(true)
+  }
+
   test("should not allow multiple versions") {
     intercept[InvalidArgumentException](preParser.preParseQuery("CYPHER 2.3 CYPHER 3.1 RETURN 42"))
   }
@@ -143,6 +143,56 @@ class QueryCacheTest extends CypherFunSuite {
     verify(tracer).queryCacheRecompile(key, "")
     verifyNoMoreInteractions(tracer)
   }
+
+  test("should list the most hit queries first") {
+    // Given
+    val cache = newCache()
+    val cold = newKey("cold")
+    val hot = newKey("hot")
+    val warm = newKey("warm")
+
+    // When
+    (1 to 2).foreach(_ => cache.computeIfAbsentOrStale(cold, TC, compileKey(cold), recompile(cold)))
+    (1 to 10).foreach(_ => cache.computeIfAbsentOrStale(hot, TC, compileKey(hot), recompile(hot)))
+    (1 to 5).foreach(_ => cache.computeIfAbsentOrStale(warm, TC, compileKey(warm), recompile(warm)))
+
+    // Then
+    cache.mostHit(2) should equal(Seq(hot, warm))
+    cache.mostHit(10) should equal(Seq(hot, warm, cold))
+  }
+
+  test("should compile and cache a query that is not cached without counting it as a miss") {
+    // Given
+    val tracer = newTracer()
+    val cache = newCache(tracer)
+    val key = newKey("foo")
+
+    // When
+    val compiled = cache.computeIfAbsent(key, compileKey(key))
+    val valueFromCache = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key))
+
+    // Then
+    compiled should equal(true)
+    valueFromCache should equal(CacheHit(valueFromKey(key)))
+    verify(tracer).queryCacheHit(key, "")
+    verifyNoMoreInteractions(tracer)
+  }
+
+  test("should not replace a cached query") {
+    // Given
+    val tracer = newTracer()
+    val cache = newCache(tracer)
+    val key = newKey("foo")
+    (1 to 4).foreach(_ => cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key)))
+
+    // When
+    val compiled = cache.computeIfAbsent(key, () => fail("should not compile a cached query"))
+    val valueFromCache = cache.computeIfAbsentOrStale(key, TC, compileKey(key), recompile(key))
+
+    // Then
+    compiled should equal(false)
+    valueFromCache.executableQuery.recompiled should equal(true)
+  }
 }
 
   object QueryCacheTest extends MockitoSugar {
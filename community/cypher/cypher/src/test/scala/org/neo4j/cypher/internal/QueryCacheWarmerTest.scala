@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.File
+
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction
+import org.neo4j.values.storable.{LongValue, TextValue}
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class QueryCacheWarmerTest extends CypherFunSuite {
+
+  test("should read the queries it wrote") {
+    val fs = new EphemeralFileSystemAbstraction
+    try {
+      // Given
+      val file = new File("db", QueryCacheWarmer.FILE_NAME)
+      fs.mkdirs(file.getParentFile)
+      val queries = Seq(
+        ("CYPHER 3.5 MATCH (n) WHERE n.name = $name RETURN n", Map[String, Class[_]]("name" -> classOf[TextValue])),
+        ("RETURN $a + $b, 'ünïcödé'", Map[String, Class[_]]("a" -> classOf[LongValue], "b" -> classOf[TextValue])),
+        ("RETURN 1", Map.empty[String, Class[_]]))
+
+      // When
+      QueryCacheWarmer.write(fs, file, queries)
+
+      // Then
+      QueryCacheWarmer.read(fs, file) should equal(queries)
+    } finally {
+      fs.close()
+    }
+  }
+}
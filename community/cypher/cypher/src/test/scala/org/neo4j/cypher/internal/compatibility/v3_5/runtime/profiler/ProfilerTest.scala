@@ -25,8 +25,9 @@ import org.neo4j.cypher.internal.planner.v3_5.spi.{EmptyKernelStatisticProvider,
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.InterpretedCommandProjection
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{NestedPipeExpression, ProjectedPath}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryManager
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
-import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext}
+import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext, ResourceManager}
 import org.neo4j.cypher.result.{OperatorProfile, QueryProfile}
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.values.storable.Values.NO_VALUE
@@ -250,6 +251,27 @@ class ProfilerTest extends CypherFunSuite {
       profiled2.query.asInstanceOf[ProfilingPipeQueryContext].count should equal(1)
     }
 
+  test("report rows spilled to disk") {
+    //GIVEN
+    val start = new FakePipe((0 until 3000).map(i => Map[String, Any]("x" -> (3000 - i))))
+    start.id = idGen.id()
+    val pipe = SortPipe(start, List(Ascending("x")))(idGen.id())
+    val queryContext: QueryContext = prepareQueryContext()
+    when(queryContext.resources).thenReturn(new ResourceManager)
+    val profile = new InterpretedProfileInformation
+    val profiler = new Profiler(DatabaseInfo.ENTERPRISE, profile)
+    val queryState = QueryStateHelper.emptyWith(query = queryContext, decorator = profiler,
+                                                memoryManager = new QueryMemoryManager(1))
+
+    //WHEN
+    materialize(pipe.createResults(queryState))
+
+    //THEN
+    profile.operatorProfile(pipe.id.x).spilledRows() should equal(3000)
+    profile.operatorProfile(pipe.id.x).spilledBytes() should be > 0L
+    profile.operatorProfile(start.id.x).spilledRows() should equal(OperatorProfile.NO_DATA)
+  }
+
   private def prepareQueryContext(statisticProvider: KernelStatisticProvider = EmptyKernelStatisticProvider) = {
     val queryContext = mock[QueryContext]
     val transactionalContext = mock[QueryTransactionalContext]
@@ -60,6 +60,7 @@ class CypherPreParserTest extends CypherFunSuite with TableDrivenPropertyChecks
     ("CYPHER updateStrategy=eager RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(EagerOption))), (1, 29, 28))),
     ("CYPHER debug=one debug=two RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(DebugOption("one"), DebugOption("two")))), (1, 28, 27))),
     ("CYPHER runtime=slotted RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(SlottedRuntimeOption))), (1, 24, 23))),
+    ("CYPHER runtime=parallel RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(ParallelRuntimeOption))), (1, 25, 24))),
     ("CYPHER expressionEngine=interpreted RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(InterpretedExpressionOption))), (1, 37, 36))),
     ("CYPHER expressionEngine=compiled RETURN", PreParsedStatement("RETURN", Seq(ConfigurationOptions(None, Seq(CompiledExpressionOption))), (1, 34, 33)))
   )
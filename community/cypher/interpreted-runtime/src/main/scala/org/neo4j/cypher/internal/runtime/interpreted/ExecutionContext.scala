@@ -106,6 +106,9 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
       } else {
         //otherMapCtx.cachedProperties is null so do nothing
       }
+    case otherSlottedCtx: SlottedExecutionContext =>
+      m ++= otherSlottedCtx
+      otherSlottedCtx.foreachCachedProperty(setCachedProperty)
     case _ => fail()
   }
 
@@ -209,6 +212,13 @@ class MapExecutionContext(private val m: MutableMap[String, AnyValue], private v
 
   override def getCachedPropertyAt(offset: Int): Value = fail()
 
+  private[interpreted] def foreachCachedProperty(f: (CachedNodeProperty, Value) => Unit): Unit =
+    if (cachedProperties != null) {
+      cachedProperties.foreach {
+        case (key, value) => f(key, value)
+      }
+    }
+
   private def cloneFromMap(newMap: MutableMap[String, AnyValue]): ExecutionContext = {
     val newCachedProperties = if (cachedProperties == null) null else cachedProperties.clone()
     new MapExecutionContext(newMap, newCachedProperties)
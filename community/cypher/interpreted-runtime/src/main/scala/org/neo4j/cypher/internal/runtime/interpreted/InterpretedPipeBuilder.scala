@@ -23,9 +23,10 @@ import org.neo4j.cypher.internal.ir.v3_5.VarPatternLength
 import org.neo4j.cypher.internal.planner.v3_5.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.ProcedureCallMode
 import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
+import org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.ExpressionCompiler
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.PatternConverters._
-import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection}
-import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.{ExpressionConverters, InterpretedCommandProjection, SlottedCommandProjection}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Literal, ShortestPathExpression, SlottedVariable, Expression => CommandExpression, Variable => CommandVariable}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{Predicate, True}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes._
 import org.neo4j.cypher.internal.v3_5.logical.plans
@@ -45,14 +46,20 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
                                   readOnly: Boolean,
                                   expressionConverters: ExpressionConverters,
                                   rewriteAstExpression: ASTExpression => ASTExpression,
-                                  tokenContext: TokenContext)
+                                  tokenContext: TokenContext,
+                                  slots: Option[SlotConfiguration] = None,
+                                  compileExpressions: Boolean = false)
                                  (implicit semanticTable: SemanticTable) extends PipeBuilder {
 
+  private val executionContextFactory = slots.map(SlottedExecutionContextFactory)
+
+  private lazy val expressionCompiler = new ExpressionCompiler()
+
   private def getBuildExpression(id: Id) = rewriteAstExpression andThen
     ((e: ASTExpression) => expressionConverters.toCommandExpression(id, e)) andThen
     (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext)))
 
-  def onLeaf(plan: LogicalPlan): Pipe = {
+  def onLeaf(plan: LogicalPlan): Pipe = withSlottedRows {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -100,12 +107,12 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
     }
   }
 
-  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = withSlottedRows {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
       case Projection(_, expressions) =>
-        ProjectionPipe(source,  InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, buildExpression)))(id = id)
+        ProjectionPipe(source, buildProjection(Eagerly.immutableMapValues(expressions, buildExpression)))(id = id)
 
       case ProjectEndpoints(_, rel, start, startInScope, end, endInScope, types, directed, length) =>
         ProjectEndpointsPipe(source, rel,
@@ -122,7 +129,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case Selection(predicate, _) =>
         val predicateExpression =
           if (predicate.exprs.size == 1) buildExpression(predicate.exprs.head) else buildExpression(predicate)
-        FilterPipe(source, predicateExpression)(id = id)
+        FilterPipe(source, compiled(withSlottedVariables(predicateExpression)))(id = id)
 
       case Expand(_, fromName, dir, types: Seq[RelTypeName], toName, relName, ExpandAll) =>
         ExpandAllPipe(source, fromName, relName, toName, dir, LazyTypes(types.toArray))(id = id)
@@ -371,7 +378,7 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
     }
   }
 
-  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
+  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = withSlottedRows {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -446,6 +453,30 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
     }
   }
 
+  private def withSlottedRows(pipe: Pipe): Pipe = {
+    executionContextFactory.foreach(pipe.setExecutionContextFactory)
+    pipe
+  }
+
+  private def withSlottedVariables(expression: CommandExpression): CommandExpression = slots match {
+    case Some(slotConfiguration) =>
+      expression.rewrite {
+        case CommandVariable(name) if slotConfiguration.get(name).isDefined => SlottedVariable(name, slotConfiguration(name))
+        case other => other
+      }
+    case None => expression
+  }
+
+  private def buildProjection(expressions: Map[String, CommandExpression]): CommandProjection = slots match {
+    case Some(slotConfiguration) =>
+      SlottedCommandProjection(Eagerly.immutableMapValues(expressions, (e: CommandExpression) => compiled(withSlottedVariables(e))), slotConfiguration)
+    case None =>
+      InterpretedCommandProjection(Eagerly.immutableMapValues(expressions, compiled))
+  }
+
+  private def compiled(expression: CommandExpression): CommandExpression =
+    if (compileExpressions) expressionCompiler.compile(expression) else expression
+
   private def buildPredicate(id: Id, expr: ASTExpression): Predicate = {
     val rewrittenExpr: ASTExpression = rewriteAstExpression(expr)
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.planner.v3_5.spi.PlanningAttributes.ProvidedOrders
+import org.neo4j.cypher.internal.runtime.interpreted.pipes._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.WorkerPool
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.opencypher.v9_0.expressions.{CountStar, FunctionInvocation, functions}
+import org.opencypher.v9_0.util.InternalException
+import org.opencypher.v9_0.util.attribution.SameId
+
+/**
+  * The part of a plan that can be executed in parallel: a scan, the streaming plans directly above it, and possibly
+  * an aggregation on top of those, whose results can be merged from partial results.
+  *
+  * @param chain the streaming plans, bottom up
+  */
+case class ParallelRegion(scan: LogicalPlan, chain: Seq[LogicalPlan], aggregation: Option[Aggregation]) {
+  def top: LogicalPlan = aggregation.orElse(chain.lastOption).getOrElse(scan)
+}
+
+object ParallelRegion {
+  /**
+    * Finds the part of the plan that can be executed in parallel, if there is any worth it.
+    * Only plans without branches are considered.
+    *
+    * Morsels complete in any order, so nothing is executed in parallel when the scan or the plans above it provide
+    * an order. The planner only asks an index for an order, and only keeps it, when the plans above rely on it.
+    */
+  def find(plan: LogicalPlan, providedOrders: ProvidedOrders): Option[ParallelRegion] = {
+    val spine = Iterator.iterate(Option(plan))(_.flatMap(p => if (p.rhs.isEmpty) p.lhs else None))
+      .takeWhile(_.isDefined).map(_.get).toList.reverse
+
+    spine match {
+      case (scan@(_: AllNodesScan | _: NodeByLabelScan | _: NodeIndexScan)) :: above if scan.rhs.isEmpty =>
+        val chain = above.takeWhile(isStreaming)
+        val aggregation = above.drop(chain.size).headOption.collect {
+          case aggregation: Aggregation if canMerge(aggregation) => aggregation
+        }
+        val ordered = isOrdered(scan) || (scan +: chain).exists(p => providesOrder(p, providedOrders))
+        if (ordered || (chain.isEmpty && aggregation.isEmpty)) None else Some(ParallelRegion(scan, chain, aggregation))
+
+      case _ => None
+    }
+  }
+
+  private def isOrdered(scan: LogicalPlan): Boolean = scan match {
+    case indexScan: NodeIndexScan => indexScan.indexOrder != IndexOrderNone
+    case _ => false
+  }
+
+  private def providesOrder(plan: LogicalPlan, providedOrders: ProvidedOrders): Boolean =
+    providedOrders.isDefinedAt(plan.id) && !providedOrders.get(plan.id).isEmpty
+
+  private def isStreaming(plan: LogicalPlan): Boolean = plan match {
+    case _: Selection | _: Projection | _: Expand | _: OptionalExpand | _: UnwindCollection => true
+    case _ => false
+  }
+
+  private def canMerge(aggregation: Aggregation): Boolean =
+    aggregation.aggregationExpression.nonEmpty && aggregation.aggregationExpression.values.forall {
+      case _: CountStar => true
+      case f: FunctionInvocation if !f.distinct =>
+        f.function == functions.Count || f.function == functions.Sum ||
+          f.function == functions.Min || f.function == functions.Max
+      case _ => false
+    }
+}
+
+/**
+  * Builds pipes with `inner`, except for the top of `region`, which becomes a [[ParallelPipe]]. The streaming plans
+  * of the region are built a second time for it, on top of an argument, so that workers can apply them to the rows
+  * of each morsel of the scan.
+  */
+class ParallelPipeBuilder(inner: PipeBuilder,
+                          region: ParallelRegion,
+                          pool: WorkerPool,
+                          morselSize: Int) extends PipeBuilder {
+  private var scan: Pipe = _
+
+  override def onLeaf(plan: LogicalPlan): Pipe = {
+    val pipe = inner.onLeaf(plan)
+    if (plan eq region.scan) {
+      scan = pipe
+    }
+    pipe
+  }
+
+  override def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+    val serial = inner.onOneChildPlan(plan, source)
+    if (plan eq region.top) parallelize(serial) else serial
+  }
+
+  override def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = inner.onTwoChildPlan(plan, lhs, rhs)
+
+  private def parallelize(serial: Pipe): Pipe = {
+    if (scan == null) {
+      throw new InternalException("Expected the scan to be built before the plans above it")
+    }
+    val argument = inner.onLeaf(Argument()(SameId(region.scan.id)))
+    val chain = region.chain.foldLeft(argument)((source, plan) => inner.onOneChildPlan(plan, source))
+    val aggregation = region.aggregation.map(inner.onOneChildPlan(_, chain).asInstanceOf[EagerAggregationPipe])
+    ParallelPipe(scan, chain, aggregation, serial, pool, morselSize)(serial.id)
+  }
+}
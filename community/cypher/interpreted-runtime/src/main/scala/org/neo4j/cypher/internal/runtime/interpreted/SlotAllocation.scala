@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.opencypher.v9_0.expressions.{Expression, Variable}
+
+import scala.collection.mutable
+
+/**
+  * Decides the row layout for a whole logical plan.
+  *
+  * A single layout is shared by every pipe of the plan. Variables that are only ever introduced as nodes or only ever
+  * introduced as relationships (by leaf node scans and seeks, and by expands) get a long slot; every other variable
+  * gets a reference slot.
+  */
+object SlotAllocation {
+
+  def allocateSlots(root: LogicalPlan): SlotConfiguration = {
+    val entities = mutable.LinkedHashMap[String, Boolean]()
+    val references = mutable.LinkedHashSet[String]()
+
+    def recordEntity(name: String, isNode: Boolean): Unit = entities.get(name) match {
+      case Some(previous) if previous != isNode => references += name
+      case _ => entities.put(name, isNode)
+    }
+
+    def visit(plan: LogicalPlan): Unit = {
+      plan.lhs.foreach(visit)
+      plan.rhs.foreach(visit)
+
+      val introducedEntities = entitiesIntroducedBy(plan)
+      introducedEntities.foreach {
+        case (name, isNode) => recordEntity(name, isNode)
+      }
+      (introducedSymbols(plan) -- introducedEntities.keys).foreach(references += _)
+      references ++= overwrittenSymbols(plan)
+    }
+
+    visit(root)
+
+    var slots = SlotConfiguration.empty
+    entities.foreach {
+      case (name, isNode) if !references.contains(name) => slots = slots.newLong(name, isNode)
+      case _ =>
+    }
+    references.foreach(name => slots = slots.newReference(name))
+    slots
+  }
+
+  private def introducedSymbols(plan: LogicalPlan): Set[String] = plan match {
+    case leaf: LogicalLeafPlan => leaf.availableSymbols -- leaf.argumentIds
+    case _ => plan.availableSymbols -- plan.lhs.map(_.availableSymbols).getOrElse(Set.empty) --
+      plan.rhs.map(_.availableSymbols).getOrElse(Set.empty)
+  }
+
+  private def entitiesIntroducedBy(plan: LogicalPlan): Map[String, Boolean] = plan match {
+    case leaf: NodeLogicalLeafPlan => Map(leaf.idName -> true)
+    case Expand(_, _, _, _, to, relName, ExpandAll) => Map(relName -> false, to -> true)
+    case OptionalExpand(_, _, _, _, to, relName, ExpandAll, _) => Map(relName -> false, to -> true)
+    case _ => Map.empty
+  }
+
+  // Projections may rebind a name that is already in scope, e.g. `MATCH (n) WITH n.name AS n`
+  private def overwrittenSymbols(plan: LogicalPlan): Iterable[String] = plan match {
+    case p: ProjectingPlan => nonIdentityProjections(p.projectExpressions)
+    case Aggregation(_, grouping, aggregations) => nonIdentityProjections(grouping) ++ aggregations.keys
+    case _ => Iterable.empty
+  }
+
+  private def nonIdentityProjections(projections: Map[String, Expression]): Iterable[String] =
+    projections.collect {
+      case (name, expression) if expression != Variable(name)(expression.position) => name
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+/**
+  * A slot is a fixed position in a [[SlottedExecutionContext]]. Long slots hold the id of a node or relationship,
+  * reference slots hold any other value.
+  */
+sealed trait Slot {
+  def offset: Int
+}
+
+case class LongSlot(offset: Int, isNode: Boolean) extends Slot
+
+case class RefSlot(offset: Int) extends Slot
+
+/**
+  * Describes the layout of the rows produced by a pipe tree. The layout is decided once, when the pipes are built,
+  * so that reading and writing a variable at runtime is an array access instead of a hash map lookup.
+  */
+class SlotConfiguration private(private val slots: Map[String, Slot],
+                                val numberOfLongs: Int,
+                                val numberOfReferences: Int) {
+
+  private val nodeLongs: Array[Boolean] = {
+    val array = new Array[Boolean](numberOfLongs)
+    slots.values.foreach {
+      case LongSlot(offset, isNode) => array(offset) = isNode
+      case _ =>
+    }
+    array
+  }
+
+  def get(name: String): Option[Slot] = slots.get(name)
+
+  def apply(name: String): Slot = slots(name)
+
+  def isNodeAt(longOffset: Int): Boolean = nodeLongs(longOffset)
+
+  def foreachSlot[U](f: (String, Slot) => U): Unit = slots.foreach {
+    case (name, slot) => f(name, slot)
+  }
+
+  def newLong(name: String, isNode: Boolean): SlotConfiguration = {
+    require(!slots.contains(name), s"Tried to allocate a second slot for '$name'")
+    new SlotConfiguration(slots + (name -> LongSlot(numberOfLongs, isNode)), numberOfLongs + 1, numberOfReferences)
+  }
+
+  def newReference(name: String): SlotConfiguration = {
+    require(!slots.contains(name), s"Tried to allocate a second slot for '$name'")
+    new SlotConfiguration(slots + (name -> RefSlot(numberOfReferences)), numberOfLongs, numberOfReferences + 1)
+  }
+
+  override def toString: String = s"SlotConfiguration(longs=$numberOfLongs, refs=$numberOfReferences, slots=$slots)"
+}
+
+object SlotConfiguration {
+  val empty = new SlotConfiguration(Map.empty, 0, 0)
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import java.util
+
+import org.neo4j.cypher.internal.runtime.interpreted.SlottedExecutionContext.{NULL_ENTITY, UNSET}
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual._
+import org.opencypher.v9_0.util.InternalException
+
+import scala.collection.mutable.{ArrayBuffer, Map => MutableMap}
+import scala.collection.{Iterator, immutable}
+
+object SlottedExecutionContext {
+  // Sentinels stored in long slots
+  val NULL_ENTITY: Long = -1L
+  val UNSET: Long = -2L
+
+  def apply(slots: SlotConfiguration): SlottedExecutionContext = {
+    val longs = new Array[Long](slots.numberOfLongs)
+    util.Arrays.fill(longs, UNSET)
+    new SlottedExecutionContext(slots, longs, new Array[AnyValue](slots.numberOfLongs),
+                                new Array[AnyValue](slots.numberOfReferences), null, null)
+  }
+}
+
+/**
+  * Execution context backed by arrays, laid out according to a [[SlotConfiguration]].
+  *
+  * Long slots keep the id of a node or relationship next to the value it was read as, so that pipes that only need
+  * the id never have to unpack the value. Copying a row is a copy of three arrays instead of a copy of a hash map.
+  * Variables without a slot, like the ones introduced inside expressions, end up in a small overflow map.
+  */
+class SlottedExecutionContext private(val slots: SlotConfiguration,
+                                      private val longs: Array[Long],
+                                      private val entities: Array[AnyValue],
+                                      private val refs: Array[AnyValue],
+                                      private var extra: MutableMap[String, AnyValue],
+                                      private var cachedProperties: MutableMap[CachedNodeProperty, Value])
+  extends ExecutionContext {
+
+  override def copyTo(target: ExecutionContext, fromLongOffset: Int = 0, fromRefOffset: Int = 0,
+                      toLongOffset: Int = 0, toRefOffset: Int = 0): Unit = target match {
+    case other: SlottedExecutionContext =>
+      val nLongs = longs.length - fromLongOffset
+      val nRefs = refs.length - fromRefOffset
+      System.arraycopy(longs, fromLongOffset, other.longs, toLongOffset, nLongs)
+      System.arraycopy(entities, fromLongOffset, other.entities, toLongOffset, nLongs)
+      System.arraycopy(refs, fromRefOffset, other.refs, toRefOffset, nRefs)
+    case _ => fail(target)
+  }
+
+  override def copyFrom(input: ExecutionContext, nLongs: Int, nRefs: Int): Unit = input match {
+    case other: SlottedExecutionContext =>
+      System.arraycopy(other.longs, 0, longs, 0, nLongs)
+      System.arraycopy(other.entities, 0, entities, 0, nLongs)
+      System.arraycopy(other.refs, 0, refs, 0, nRefs)
+    case _ => fail(input)
+  }
+
+  override def setLongAt(offset: Int, value: Long): Unit = {
+    longs(offset) = value
+    entities(offset) = null
+  }
+
+  override def getLongAt(offset: Int): Long = longs(offset)
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  /**
+    * Set both the id and the value of an entity in a long slot.
+    */
+  def setEntityAt(offset: Int, id: Long, value: AnyValue): Unit = {
+    longs(offset) = id
+    entities(offset) = value
+  }
+
+  /**
+    * @return the value held by the slot, or null if the slot has not been set.
+    */
+  def getAt(slot: Slot): AnyValue = slot match {
+    case LongSlot(offset, _) => getEntityAt(offset)
+    case RefSlot(offset) => refs(offset)
+  }
+
+  def setAt(slot: Slot, value: AnyValue): Unit = slot match {
+    case LongSlot(offset, isNode) => setEntity(offset, isNode, value)
+    case RefSlot(offset) => refs(offset) = value
+  }
+
+  private def getEntityAt(offset: Int): AnyValue = {
+    val value = entities(offset)
+    if (value != null) value
+    else longs(offset) match {
+      case UNSET => null
+      case NULL_ENTITY => Values.NO_VALUE
+      case id if slots.isNodeAt(offset) => VirtualValues.node(id)
+      case id => VirtualValues.relationship(id)
+    }
+  }
+
+  private def setEntity(offset: Int, isNode: Boolean, value: AnyValue): Unit = value match {
+    case n: VirtualNodeValue if isNode => setEntityAt(offset, n.id(), n)
+    case r: VirtualRelationshipValue if !isNode => setEntityAt(offset, r.id(), r)
+    case Values.NO_VALUE => setEntityAt(offset, NULL_ENTITY, value)
+    // Not what the slot was planned for, keep the value but do not expose an id for it
+    case _ => setEntityAt(offset, UNSET, value)
+  }
+
+  private def unset(offset: Int): Unit = setEntityAt(offset, UNSET, null)
+
+  private def fail(other: ExecutionContext): Nothing =
+    throw new InternalException(s"Tried to copy slots between a slotted context and ${other.getClass.getSimpleName}")
+
+  override def get(key: String): Option[AnyValue] = slots.get(key) match {
+    case Some(slot) => Option(getAt(slot))
+    case None => if (extra == null) None else extra.get(key)
+  }
+
+  override def iterator: Iterator[(String, AnyValue)] = {
+    val entries = new ArrayBuffer[(String, AnyValue)]()
+    slots.foreachSlot { (name, slot) =>
+      val value = getAt(slot)
+      if (value != null) entries += name -> value
+    }
+    if (extra != null) entries ++= extra
+    entries.iterator
+  }
+
+  override def size: Int = {
+    var count = 0
+    slots.foreachSlot { (_, slot) =>
+      if (getAt(slot) != null) count += 1
+    }
+    if (extra != null) count + extra.size else count
+  }
+
+  override def +=(kv: (String, AnyValue)): SlottedExecutionContext.this.type = {
+    set(kv._1, kv._2)
+    this
+  }
+
+  override def -=(key: String): this.type = {
+    slots.get(key) match {
+      case Some(LongSlot(offset, _)) => unset(offset)
+      case Some(RefSlot(offset)) => refs(offset) = null
+      case None => if (extra != null) extra.remove(key)
+    }
+    this
+  }
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit = newEntries.foreach {
+    case (key, value) => set(key, value)
+  }
+
+  override def set(key: String, value: AnyValue): Unit = slots.get(key) match {
+    case Some(slot) => setAt(slot, value)
+    case None =>
+      if (extra == null) {
+        extra = MutableMap.empty
+      }
+      extra.put(key, value)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+    set(key3, value3)
+  }
+
+  override def mergeWith(other: ExecutionContext): Unit = other match {
+    case otherSlotted: SlottedExecutionContext if otherSlotted.slots eq slots =>
+      var i = 0
+      while (i < longs.length) {
+        if (otherSlotted.longs(i) != UNSET || otherSlotted.entities(i) != null) {
+          longs(i) = otherSlotted.longs(i)
+          entities(i) = otherSlotted.entities(i)
+        }
+        i += 1
+      }
+      i = 0
+      while (i < refs.length) {
+        if (otherSlotted.refs(i) != null) {
+          refs(i) = otherSlotted.refs(i)
+        }
+        i += 1
+      }
+      if (otherSlotted.extra != null) {
+        otherSlotted.extra.foreach(this += _)
+      }
+      otherSlotted.foreachCachedProperty(setCachedProperty)
+
+    case otherSlotted: SlottedExecutionContext =>
+      otherSlotted.foreach(this += _)
+      otherSlotted.foreachCachedProperty(setCachedProperty)
+
+    case otherMap: MapExecutionContext =>
+      otherMap.foreach(this += _)
+      otherMap.foreachCachedProperty(setCachedProperty)
+
+    case _ =>
+      other.foreach(this += _)
+  }
+
+  override def createClone(): SlottedExecutionContext = {
+    val newExtra = if (extra == null) null else extra.clone()
+    val newCachedProperties = if (cachedProperties == null) null else cachedProperties.clone()
+    new SlottedExecutionContext(slots, longs.clone(), entities.clone(), refs.clone(), newExtra, newCachedProperties)
+  }
+
+  override def copyWith(key: String, value: AnyValue): ExecutionContext = {
+    val newContext = createClone()
+    newContext.set(key, value)
+    newContext
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): ExecutionContext = {
+    val newContext = createClone()
+    newContext.set(key1, value1, key2, value2)
+    newContext
+  }
+
+  override def copyWith(key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val newContext = createClone()
+    newContext.set(key1, value1, key2, value2, key3, value3)
+    newContext
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val newContext = createClone()
+    newContext.set(newEntries)
+    newContext
+  }
+
+  override def toMap[T, U](implicit ev: (String, AnyValue) <:< (T, U)): immutable.Map[T, U] = iterator.toMap(ev)
+
+  override def boundEntities(materializeNode: Long => AnyValue, materializeRelationship: Long => AnyValue): Map[String, AnyValue] =
+    collect {
+      case kv @ (_, _: NodeValue) =>
+        kv
+      case kv @ (_, _: RelationshipValue) =>
+        kv
+      case (k, v: NodeReference) =>
+        (k, materializeNode(v.id()))
+      case (k, v: RelationshipReference) =>
+        (k, materializeRelationship(v.id()))
+    }.toMap
+
+  override def isNull(key: String): Boolean =
+    get(key) match {
+      case Some(Values.NO_VALUE) => true
+      case _ => false
+    }
+
+  override def setCachedProperty(key: CachedNodeProperty, value: Value): Unit = {
+    if (cachedProperties == null) {
+      cachedProperties = MutableMap.empty
+    }
+    cachedProperties.put(key, value)
+  }
+
+  // Cached properties are not given slots yet, they live in a map just like in MapExecutionContext
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit =
+    throw new InternalException("Cached properties are not stored in slots")
+
+  override def getCachedProperty(key: CachedNodeProperty): Value = {
+    if (cachedProperties == null) {
+      throw new NoSuchElementException("key not found: " + key)
+    }
+    cachedProperties(key)
+  }
+
+  override def getCachedPropertyAt(offset: Int): Value =
+    throw new InternalException("Cached properties are not stored in slots")
+
+  private[interpreted] def foreachCachedProperty(f: (CachedNodeProperty, Value) => Unit): Unit =
+    if (cachedProperties != null) {
+      cachedProperties.foreach {
+        case (key, value) => f(key, value)
+      }
+    }
+}
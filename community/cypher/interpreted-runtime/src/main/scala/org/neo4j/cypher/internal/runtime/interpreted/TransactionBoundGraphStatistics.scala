@@ -22,10 +22,13 @@ package org.neo4j.cypher.internal.runtime.interpreted
 import org.neo4j.cypher.internal.planner.v3_5.spi.GraphStatistics
 import org.neo4j.cypher.internal.planner.v3_5.spi.IndexDescriptor
 import org.neo4j.cypher.internal.planner.v3_5.spi.StatisticsCompletingGraphStatistics
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bound
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException
 import org.neo4j.internal.kernel.api.Read
 import org.neo4j.internal.kernel.api.SchemaRead
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.storageengine.api.schema.IndexValueHistogram
+import org.neo4j.values.storable.Values
 import org.opencypher.v9_0.util.Cardinality
 import org.opencypher.v9_0.util.LabelId
 import org.opencypher.v9_0.util.RelTypeId
@@ -78,6 +81,43 @@ object TransactionBoundGraphStatistics {
         case e: IndexNotFoundKernelException => None
       }
 
+    override def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] =
+      for {
+        histogram <- valueHistogram(index)
+        histogramValue = Values.of(value)
+        if histogram.covers(histogramValue.valueGroup())
+        selectivity <- Selectivity.of(histogram.equalitySelectivity(histogramValue))
+      } yield selectivity
+
+    override def indexPropertyRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] = {
+      val from = lower.map(bound => Values.of(bound.endPoint))
+      val to = upper.map(bound => Values.of(bound.endPoint))
+      val group = from.orElse(to).map(_.valueGroup())
+      for {
+        histogram <- valueHistogram(index)
+        valueGroup <- group
+        // Ranges over values of different kinds match nothing and are better left to the default estimates
+        if histogram.covers(valueGroup) && to.forall(_.valueGroup() == valueGroup)
+        selectivity <- Selectivity.of(histogram.rangeSelectivity(
+          from.orNull, lower.exists(_.isInclusive), to.orNull, upper.exists(_.isInclusive)))
+      } yield selectivity
+    }
+
+    override def indexPropertyAverageValueSelectivity(index: IndexDescriptor): Option[Selectivity] =
+      for {
+        histogram <- valueHistogram(index)
+        if histogram.buckets() > 0
+        selectivity <- Selectivity.of(histogram.averageEqualitySelectivity())
+      } yield selectivity
+
+    private def valueHistogram(index: IndexDescriptor): Option[IndexValueHistogram] =
+      try {
+        Option(schemaRead.indexValueHistogram(schemaRead.indexReferenceUnchecked(index.label, index.properties.map(_.id):_*)))
+      }
+      catch {
+        case _: IndexNotFoundKernelException => None
+      }
+
     override def nodesWithLabelCardinality(labelId: Option[LabelId]): Cardinality =
       atLeastOne(read.countsForNodeWithoutTxState(labelId))
 
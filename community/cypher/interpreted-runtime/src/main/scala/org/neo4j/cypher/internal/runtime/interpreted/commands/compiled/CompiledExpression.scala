@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Predicate
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.operations.CypherFunctions
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{Value, Values}
+import org.neo4j.values.virtual.{VirtualNodeValue, VirtualRelationshipValue}
+
+object CompiledExpression {
+  /**
+    * Passed to [[CompiledExpression.property]] for property keys that did not exist when the expression was compiled.
+    */
+  val UNKNOWN_TOKEN: Int = -1
+}
+
+/**
+  * Base class of the classes generated by [[ExpressionCompiler]]. The generated `evaluate` calls back into the
+  * helpers here for the parts that need the runtime, everything else is done by the static Cypher operations.
+  */
+abstract class CompiledExpression(literals: Array[AnyValue]) {
+
+  def evaluate(ctx: ExecutionContext, state: QueryState): AnyValue
+
+  final def literal(offset: Int): AnyValue = literals(offset)
+
+  final def variable(ctx: ExecutionContext, name: String): AnyValue =
+    ctx.getOrElse(name, throw new NotFoundException("Unknown variable `%s`.".format(name)))
+
+  /**
+    * @param token the id of the property key, as resolved when the expression was compiled, or
+    *              [[CompiledExpression.UNKNOWN_TOKEN]] if it was not known then. Like unresolved key tokens in the
+    *              interpreter, unknown keys are looked up by name on every row, since they can be created later on.
+    */
+  final def property(container: AnyValue, token: Int, key: String, state: QueryState): AnyValue = container match {
+    case Values.NO_VALUE => Values.NO_VALUE
+    case node: VirtualNodeValue =>
+      val propertyKeyId = resolve(token, key, state)
+      if (propertyKeyId == CompiledExpression.UNKNOWN_TOKEN) Values.NO_VALUE
+      else state.query.nodeOps.getProperty(node.id(), propertyKeyId)
+    case relationship: VirtualRelationshipValue =>
+      val propertyKeyId = resolve(token, key, state)
+      if (propertyKeyId == CompiledExpression.UNKNOWN_TOKEN) Values.NO_VALUE
+      else state.query.relationshipOps.getProperty(relationship.id(), propertyKeyId)
+    case _ => CypherFunctions.propertyGet(key, container, state.query)
+  }
+
+  private def resolve(token: Int, key: String, state: QueryState): Int =
+    if (token != CompiledExpression.UNKNOWN_TOKEN) token
+    else state.query.getOptPropertyKeyId(key).getOrElse(CompiledExpression.UNKNOWN_TOKEN)
+}
+
+/**
+  * An expression evaluated by generated code. The original expression is kept for rewriting and planning.
+  */
+case class CompiledCommandExpression(original: Expression, compiled: CompiledExpression) extends Expression {
+
+  def apply(ctx: ExecutionContext, state: QueryState): AnyValue = compiled.evaluate(ctx, state)
+
+  def rewrite(f: (Expression) => Expression): Expression = f(original.rewrite(f))
+
+  def arguments = Seq.empty
+
+  def symbolTableDependencies: Set[String] = original.symbolTableDependencies
+
+  override def toString: String = original.toString
+}
+
+/**
+  * A predicate evaluated by generated code. The original predicate is kept for rewriting and planning.
+  */
+case class CompiledPredicate(original: Predicate, compiled: CompiledExpression) extends Predicate {
+
+  override def apply(ctx: ExecutionContext, state: QueryState): Value =
+    compiled.evaluate(ctx, state).asInstanceOf[Value]
+
+  def isMatch(m: ExecutionContext, state: QueryState): Option[Boolean] = apply(m, state) match {
+    case Values.TRUE => Some(true)
+    case Values.FALSE => Some(false)
+    case _ => None
+  }
+
+  def containsIsNull: Boolean = original.containsIsNull
+
+  def rewrite(f: (Expression) => Expression): Expression = f(original.rewrite(f))
+
+  def arguments = Seq.empty
+
+  def symbolTableDependencies: Set[String] = original.symbolTableDependencies
+
+  override def toString: String = original.toString
+}
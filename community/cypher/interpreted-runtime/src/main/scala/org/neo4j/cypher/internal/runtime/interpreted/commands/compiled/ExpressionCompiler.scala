@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import org.neo4j.codegen.Expression.{cast, constant, constantInt, equal, getStatic, invoke, invokeSuper, or, ternary}
+import org.neo4j.codegen.FieldReference.staticField
+import org.neo4j.codegen.MethodReference.methodReference
+import org.neo4j.codegen.Parameter.param
+import org.neo4j.codegen.TypeReference.typeReference
+import org.neo4j.codegen.bytecode.ByteCode.BYTECODE
+import org.neo4j.codegen.{CodeBlock, CodeGenerator, MethodReference, Expression => CodeGenExpression}
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.operations.{CypherBoolean, CypherMath}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{BooleanValue, Value, Values}
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Compiles the parts of a command expression that only consist of literals, variables, parameters, property lookups,
+  * arithmetic and comparisons into generated classes, which evaluate them without walking the expression tree.
+  * Everything else, including AND and OR with their short circuiting, is left to the interpreter, which then
+  * evaluates the compiled parts below it.
+  */
+class ExpressionCompiler(classLoader: ClassLoader = classOf[CompiledExpression].getClassLoader) {
+
+  import ExpressionCompiler._
+
+  private val generator = CodeGenerator.generateCode(classLoader, BYTECODE)
+  private var generatedClasses = 0
+
+  def compile(expression: Expression): Expression = {
+    val roots = compilableRoots(expression).toSet
+    if (roots.isEmpty) expression
+    else expression.rewrite {
+      case e if roots.contains(e) => compileRoot(e)
+      case e => e
+    }
+  }
+
+  private def compilableRoots(expression: Expression): Seq[Expression] =
+    if (!isCompilable(expression)) expression.arguments.flatMap(compilableRoots)
+    else if (isTrivial(expression)) Seq.empty
+    else Seq(expression)
+
+  private def isCompilable(expression: Expression): Boolean = expression match {
+    case _: Literal | _: Variable | _: ParameterExpression => true
+    case _: Property | _: Add | _: Subtract | _: Multiply | _: Divide | _: Modulo | _: Pow |
+         _: Equals | _: LessThan | _: LessThanOrEqual | _: GreaterThan | _: GreaterThanOrEqual |
+         _: Not | _: Xor | _: IsNull =>
+      expression.arguments.forall(isCompilable)
+    case _ => false
+  }
+
+  // nothing to gain from replacing a single lookup with a call to generated code
+  private def isTrivial(expression: Expression): Boolean = expression.arguments.isEmpty
+
+  private def compileRoot(expression: Expression): Expression = {
+    val compiled = generate(expression)
+    expression match {
+      case predicate: Predicate => CompiledPredicate(predicate, compiled)
+      case _ => CompiledCommandExpression(expression, compiled)
+    }
+  }
+
+  private def generate(expression: Expression): CompiledExpression = {
+    val literals = ArrayBuffer[AnyValue]()
+    val clazz = generator.generateClass(classOf[CompiledExpression], PACKAGE, s"Expression$generatedClasses")
+    generatedClasses += 1
+    val handle = try {
+      val constructor = clazz.generateConstructor(param(classOf[Array[AnyValue]], "literals"))
+      try {
+        constructor.expression(invokeSuper(typeReference(classOf[CompiledExpression]), constructor.load("literals")))
+      } finally {
+        constructor.close()
+      }
+      val evaluate = clazz.generateMethod(classOf[AnyValue], "evaluate",
+                                          param(classOf[ExecutionContext], "ctx"), param(classOf[QueryState], "state"))
+      try {
+        evaluate.returns(new EvaluateMethod(evaluate, literals).generate(expression))
+      } finally {
+        evaluate.close()
+      }
+      clazz.handle()
+    } finally {
+      clazz.close()
+    }
+    handle.loadClass().getConstructor(classOf[Array[AnyValue]]).newInstance(literals.toArray)
+      .asInstanceOf[CompiledExpression]
+  }
+
+  /**
+    * Generates the body of `evaluate`. Operands are evaluated in order into locals before an operator is applied to
+    * them, so that the generated code fails on the same operand as the interpreter would.
+    */
+  private class EvaluateMethod(block: CodeBlock, literals: ArrayBuffer[AnyValue]) {
+    private var locals = 0
+
+    def generate(expression: Expression): CodeGenExpression = expression match {
+      case literal: Literal =>
+        literals += literal.anyVal
+        invoke(block.self(), LITERAL, constantInt(literals.size - 1))
+      case Variable(name) =>
+        invoke(block.self(), VARIABLE, block.load("ctx"), constant(name))
+      case ParameterExpression(name) =>
+        invoke(block.load("state"), GET_PARAM, constant(name))
+      case Property(map, key) =>
+        val token = key match {
+          case KeyToken.Resolved(_, id, _) => id
+          case _ => CompiledExpression.UNKNOWN_TOKEN
+        }
+        invoke(block.self(), PROPERTY, local(map), constantInt(token), constant(key.name), block.load("state"))
+      case Add(a, b) => nullPropagating(ADD, a, b)
+      case Subtract(a, b) => nullPropagating(SUBTRACT, a, b)
+      case Multiply(a, b) => nullPropagating(MULTIPLY, a, b)
+      case Divide(a, b) =>
+        val (lhs, rhs) = (local(a), local(b))
+        ternary(invoke(DIVIDE_CHECK_FOR_NULL, lhs, rhs), noValue, anyValue(invoke(DIVIDE, lhs, rhs)))
+      case Modulo(a, b) => nullPropagating(MODULO, a, b)
+      case Pow(a, b) => nullPropagating(POW, a, b)
+      case Equals(a, b) => anyValue(invoke(EQUALS, local(a), local(b)))
+      case LessThan(a, b) => nullPropagating(LESS_THAN, a, b)
+      case LessThanOrEqual(a, b) => nullPropagating(LESS_THAN_OR_EQUAL, a, b)
+      case GreaterThan(a, b) => nullPropagating(GREATER_THAN, a, b)
+      case GreaterThanOrEqual(a, b) => nullPropagating(GREATER_THAN_OR_EQUAL, a, b)
+      case Not(a) =>
+        val value = local(a)
+        ternary(isNoValue(value), noValue, anyValue(invoke(NOT, value)))
+      case Xor(a, b) => nullPropagating(XOR, a, b)
+      case IsNull(a) =>
+        ternary(isNoValue(local(a)), anyValue(getStatic(TRUE)), anyValue(getStatic(FALSE)))
+      case _ =>
+        throw new IllegalArgumentException(s"Can not compile $expression")
+    }
+
+    private def nullPropagating(operation: MethodReference, a: Expression, b: Expression): CodeGenExpression = {
+      val (lhs, rhs) = (local(a), local(b))
+      ternary(or(isNoValue(lhs), isNoValue(rhs)), noValue, anyValue(invoke(operation, lhs, rhs)))
+    }
+
+    private def local(expression: Expression): CodeGenExpression = {
+      val name = s"v$locals"
+      locals += 1
+      block.assign(classOf[AnyValue], name, generate(expression))
+      block.load(name)
+    }
+  }
+}
+
+object ExpressionCompiler {
+  private val PACKAGE = "org.neo4j.cypher.internal.runtime.interpreted.commands.compiled.generated"
+
+  private val LITERAL = methodReference(classOf[CompiledExpression], classOf[AnyValue], "literal", classOf[Int])
+  private val VARIABLE = methodReference(classOf[CompiledExpression], classOf[AnyValue], "variable",
+                                         classOf[ExecutionContext], classOf[String])
+  private val PROPERTY = methodReference(classOf[CompiledExpression], classOf[AnyValue], "property",
+                                         classOf[AnyValue], classOf[Int], classOf[String], classOf[QueryState])
+  private val GET_PARAM = methodReference(classOf[QueryState], classOf[AnyValue], "getParam", classOf[String])
+
+  private val ADD = math("add")
+  private val SUBTRACT = math("subtract")
+  private val MULTIPLY = math("multiply")
+  private val DIVIDE = math("divide")
+  private val MODULO = math("modulo")
+  private val POW = math("pow")
+  private val DIVIDE_CHECK_FOR_NULL = methodReference(classOf[CypherMath], classOf[Boolean], "divideCheckForNull",
+                                                      classOf[AnyValue], classOf[AnyValue])
+
+  private val EQUALS = binaryBoolean("equals")
+  private val LESS_THAN = binaryBoolean("lessThan")
+  private val LESS_THAN_OR_EQUAL = binaryBoolean("lessThanOrEqual")
+  private val GREATER_THAN = binaryBoolean("greaterThan")
+  private val GREATER_THAN_OR_EQUAL = binaryBoolean("greaterThanOrEqual")
+  private val XOR = binaryBoolean("xor")
+  private val NOT = methodReference(classOf[CypherBoolean], classOf[Value], "not", classOf[AnyValue])
+
+  private val NO_VALUE = staticField(classOf[Values], classOf[Value], "NO_VALUE")
+  private val TRUE = staticField(classOf[Values], classOf[BooleanValue], "TRUE")
+  private val FALSE = staticField(classOf[Values], classOf[BooleanValue], "FALSE")
+
+  private def math(name: String) =
+    methodReference(classOf[CypherMath], classOf[AnyValue], name, classOf[AnyValue], classOf[AnyValue])
+
+  private def binaryBoolean(name: String) =
+    methodReference(classOf[CypherBoolean], classOf[Value], name, classOf[AnyValue], classOf[AnyValue])
+
+  // both branches of a ternary need the same type, so every generated value is typed as AnyValue
+  private def anyValue(expression: CodeGenExpression) = cast(classOf[AnyValue], expression)
+
+  private def noValue = anyValue(getStatic(NO_VALUE))
+
+  private def isNoValue(expression: CodeGenExpression) = equal(expression, getStatic(NO_VALUE))
+}
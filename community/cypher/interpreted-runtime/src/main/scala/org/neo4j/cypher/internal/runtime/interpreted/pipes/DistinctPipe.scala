@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSizeEstimator, RowSpiller, SpillPartitions}
 import org.opencypher.v9_0.util.Eagerly
 import org.opencypher.v9_0.util.attribution.Id
 import org.neo4j.values.AnyValue
@@ -43,6 +44,9 @@ case class DistinctPipe(source: Pipe, expressions: Map[String, Expression])
       executionContextFactory.newExecutionContext(newMap)
     })
 
+    if (state.memoryManager.isLimited)
+      return spillingDistinct(result, state)
+
     /*
      * The filtering is done by extracting from the context the values of all return expressions, and keeping them
      * in a set.
@@ -60,4 +64,46 @@ case class DistinctPipe(source: Pipe, expressions: Map[String, Expression])
       }
     }
   }
+  /*
+   * Once the set of seen values does not fit in the memory budget of the query anymore, it stops growing. Rows with
+   * values that are not in it are then partitioned to disk by value, and made distinct one partition at a time after
+   * the input is exhausted.
+   */
+  private def spillingDistinct(rows: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val spiller = new RowSpiller(state, id, executionContextFactory)
+    val seen = mutable.Set[AnyValue]()
+    var partitions: SpillPartitions = null
+
+    val inMemory = rows.filter { ctx =>
+      val values = VirtualValues.list(keyNames.map(ctx): _*)
+
+      if (seen.contains(values)) {
+        false
+      } else if (partitions == null && spiller.memory.tryGrow(RowSizeEstimator.estimate(values))) {
+        seen += values
+        true
+      } else {
+        if (partitions == null) {
+          partitions = spiller.newPartitions()
+        }
+        partitions.write(partitions.partitionOf(values), ctx)
+        false
+      }
+    }
+
+    def spilled: Iterator[ExecutionContext] = {
+      seen.clear()
+      spiller.memory.releaseAll()
+      if (partitions == null) {
+        Iterator.empty
+      } else {
+        (0 until partitions.count).iterator.flatMap { partition =>
+          val seenInPartition = mutable.Set[AnyValue]()
+          partitions.read(partition).filter(ctx => seenInPartition.add(VirtualValues.list(keyNames.map(ctx): _*)))
+        }
+      }
+    }
+
+    inMemory ++ spilled
+  }
 }
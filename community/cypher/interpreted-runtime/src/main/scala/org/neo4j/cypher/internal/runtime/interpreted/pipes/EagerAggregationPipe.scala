@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{AggregationExpression, Expression}
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSizeEstimator, RowSpiller, SpillPartitions}
 import org.opencypher.v9_0.util.attribution.Id
 import org.neo4j.values.AnyValue
 import org.neo4j.values.virtual.{ListValue, MapValue, VirtualValues}
@@ -101,7 +102,7 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
 
       aggregationNamesAndFunctions.toMap
         .foreach { case (name, zeroValue) => newMap += name -> zeroValue}
-      Iterator.single(ExecutionContext(newMap))
+      Iterator.single(executionContextFactory.newExecutionContext(newMap))
     }
 
     // This code is not pretty. It's full of asInstanceOf calls and other things that might irk you.
@@ -112,7 +113,23 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       val newMap = MutableMaps.create[String, AnyValue](mapSize)
       createResultFunction(newMap, groupingKey)
       (aggregationNames zip aggregator.map(_.result(state))).foreach(newMap += _)
-      ExecutionContext(newMap)
+      executionContextFactory.newExecutionContext(newMap)
+    }
+
+    // Without grouping keys there is only one group, which is kept on heap whatever the budget
+    if (state.memoryManager.isLimited && keyNames.nonEmpty) {
+      val spiller = new RowSpiller(state, id, executionContextFactory)
+      val partitions = aggregateWithinBudget(input, result, spiller, state)
+      val inMemory = spiller.releaseWhenExhausted(result.iterator.map {
+        case (key, aggregator) => createResults(key, aggregator)
+      })
+      return if (partitions == null) inMemory else inMemory ++ (0 until partitions.count).iterator.flatMap { partition =>
+        val partitionResult = mutable.LinkedHashMap[AnyValue, Seq[AggregationFunction]]()
+        partitions.read(partition).foreach(ctx => aggregate(ctx, partitionResult, state))
+        partitionResult.iterator.map {
+          case (key, aggregator) => createResults(key, aggregator)
+        }
+      }
     }
 
     input.foreach(ctx => {
@@ -132,4 +149,49 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
       }.toIterator
     }
   }
+  private def aggregate(ctx: ExecutionContext, result: mutable.Map[AnyValue, Seq[AggregationFunction]], state: QueryState): Unit = {
+    val groupingValue: AnyValue = groupingFunction(ctx, state)
+    val functions = result.getOrElseUpdate(groupingValue, aggregations.map(_._2.createAggregationFunction).toIndexedSeq)
+    functions.foreach(func => func(ctx, state))
+  }
+
+  /*
+   * Groups are kept on heap for as long as the memory budget of the query allows. After that, rows of groups that are
+   * already on heap are still aggregated there, while rows of new groups are partitioned to disk by grouping key, so
+   * that each partition can be aggregated on its own afterwards.
+   *
+   * Returns the partitions, or null if nothing had to be spilled.
+   */
+  private def aggregateWithinBudget(input: Iterator[ExecutionContext],
+                                    result: mutable.Map[AnyValue, Seq[AggregationFunction]],
+                                    spiller: RowSpiller,
+                                    state: QueryState): SpillPartitions = {
+    val groupOverhead = EagerAggregationPipe.GROUP_OVERHEAD * (aggregations.size + 1)
+    var partitions: SpillPartitions = null
+
+    input.foreach(ctx => {
+      val groupingValue: AnyValue = groupingFunction(ctx, state)
+      result.get(groupingValue) match {
+        case Some(functions) =>
+          functions.foreach(func => func(ctx, state))
+
+        case None if partitions == null && spiller.memory.tryGrow(groupOverhead + RowSizeEstimator.estimate(groupingValue)) =>
+          val functions = aggregations.map(_._2.createAggregationFunction).toIndexedSeq
+          result.put(groupingValue, functions)
+          functions.foreach(func => func(ctx, state))
+
+        case None =>
+          if (partitions == null) {
+            partitions = spiller.newPartitions()
+          }
+          partitions.write(partitions.partitionOf(groupingValue), ctx)
+      }
+    })
+    partitions
+  }
+}
+
+object EagerAggregationPipe {
+  // What a group costs besides its key, per aggregation function and for the entry in the map of groups
+  private val GROUP_OVERHEAD = 64L
 }
@@ -20,13 +20,40 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSizeEstimator, RowSpiller, SpillFile}
 import org.opencypher.v9_0.util.attribution.Id
 
+import scala.collection.mutable.ArrayBuffer
+
 case class EagerPipe(src: Pipe)(val id: Id = Id.INVALID_ID)
   extends PipeWithSource(src) {
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    if (state.memoryManager.isLimited)
+      return spillingBuffer(input, state)
+
     val buffer = input.toIndexedSeq
     buffer.toIterator
   }
+
+  // Rows stay on heap until the memory budget of the query is used up, every row after that is written to disk
+  private def spillingBuffer(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val spiller = new RowSpiller(state, id, executionContextFactory)
+    val buffer = new ArrayBuffer[ExecutionContext]()
+    var spilled: SpillFile = null
+
+    input.foreach { row =>
+      if (spilled == null && spiller.memory.tryGrow(RowSizeEstimator.estimate(row))) {
+        buffer += row
+      } else {
+        if (spilled == null) {
+          spilled = spiller.newFile()
+        }
+        spilled.write(row)
+      }
+    }
+
+    val inMemory = spiller.releaseWhenExhausted(buffer.iterator)
+    if (spilled == null) inMemory else inMemory ++ spiller.read(spilled)
+  }
 }
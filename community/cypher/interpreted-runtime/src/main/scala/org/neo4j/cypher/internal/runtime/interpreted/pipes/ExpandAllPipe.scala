@@ -19,7 +19,8 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
-import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.SlottedExecutionContext.{NULL_ENTITY, UNSET}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, LongSlot, SlottedExecutionContext}
 import org.opencypher.v9_0.util.InternalException
 import org.opencypher.v9_0.util.attribution.Id
 import org.opencypher.v9_0.expressions.SemanticDirection
@@ -35,21 +36,53 @@ case class ExpandAllPipe(source: Pipe,
                          types: LazyTypes)
                         (val id: Id = Id.INVALID_ID) extends PipeWithSource(source) {
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    executionContextFactory match {
+      case SlottedExecutionContextFactory(slots) =>
+        (slots.get(fromName), slots.get(relName), slots.get(toName)) match {
+          case (Some(LongSlot(fromOffset, true)), Some(LongSlot(relOffset, false)), Some(LongSlot(toOffset, true))) =>
+            expandSlotted(input, state, fromOffset, relOffset, toOffset)
+          case _ =>
+            input.flatMap(row => expand(row, state))
+        }
+      case _ =>
+        input.flatMap(row => expand(row, state))
+    }
+
+  private def expandSlotted(input: Iterator[ExecutionContext], state: QueryState,
+                            fromOffset: Int, relOffset: Int, toOffset: Int): Iterator[ExecutionContext] = {
     input.flatMap {
-      row =>
-        getFromNode(row) match {
-          case n: NodeValue =>
-            val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
+      case row: SlottedExecutionContext =>
+        row.getLongAt(fromOffset) match {
+          case NULL_ENTITY => Iterator.empty
+          case UNSET => expand(row, state)
+          case fromNode =>
+            val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(fromNode, dir, types.types(state.query))
             relationships.map { r =>
-                val other = r.otherNode(n)
-                executionContextFactory.copyWith(row, relName, r, toName, other)
+              val other = if (r.startNode().id() == fromNode) r.endNode() else r.startNode()
+              val newRow = row.createClone()
+              newRow.setEntityAt(relOffset, r.id(), r)
+              newRow.setEntityAt(toOffset, other.id(), other)
+              newRow
             }
+        }
 
-          case Values.NO_VALUE => None
+      case row => expand(row, state)
+    }
+  }
 
-          case value => throw new InternalException(s"Expected to find a node at '$fromName' but found $value instead")
+  private def expand(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext] = {
+    getFromNode(row) match {
+      case n: NodeValue =>
+        val relationships: Iterator[RelationshipValue] = state.query.getRelationshipsForIds(n.id(), dir, types.types(state.query))
+        relationships.map { r =>
+            val other = r.otherNode(n)
+            executionContextFactory.copyWith(row, relName, r, toName, other)
         }
+
+      case Values.NO_VALUE => Iterator.empty
+
+      case value => throw new InternalException(s"Expected to find a node at '$fromName' but found $value instead")
     }
   }
 
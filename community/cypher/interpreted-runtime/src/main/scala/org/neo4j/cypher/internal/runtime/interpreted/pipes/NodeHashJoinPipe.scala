@@ -20,7 +20,9 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.opencypher.v9_0.util.CypherTypeException
-import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.SlottedExecutionContext.{NULL_ENTITY, UNSET}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSpiller, SpillingHashJoin}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, LongSlot, SlottedExecutionContext}
 import org.opencypher.v9_0.util.attribution.Id
 import org.neo4j.values.storable.Values
 import org.neo4j.values.virtual.VirtualNodeValue
@@ -40,7 +42,14 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
-    val table = buildProbeTable(input)
+    val keyOffsets = nodeOffsets
+    val computeKey: ExecutionContext => Option[IndexedSeq[Long]] =
+      if (keyOffsets == null) computeKeyFromValues else row => computeKeyFromSlots(row, keyOffsets)
+
+    if (state.memoryManager.isLimited)
+      return SpillingHashJoin(input, rhsIterator, computeKey, computeKey, new RowSpiller(state, id, executionContextFactory))
+
+    val table = buildProbeTable(input, computeKey)
 
     if (table.isEmpty)
       return Iterator.empty
@@ -60,7 +69,8 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     result.flatten
   }
 
-  private def buildProbeTable(input: Iterator[ExecutionContext]): mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]] = {
+  private def buildProbeTable(input: Iterator[ExecutionContext],
+                              computeKey: ExecutionContext => Option[IndexedSeq[Long]]): mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]] = {
     val table = new mutable.HashMap[IndexedSeq[Long], mutable.MutableList[ExecutionContext]]
 
     for {context <- input
@@ -74,7 +84,34 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
 
   private val cachedVariables = nodeVariables.toIndexedSeq
 
-  private def computeKey(context: ExecutionContext): Option[IndexedSeq[Long]] = {
+  // The long slots of the join nodes, or null if the rows are not slotted
+  private def nodeOffsets: Array[Int] = executionContextFactory match {
+    case SlottedExecutionContextFactory(slots) =>
+      val offsets = cachedVariables.map(slots.get).collect {
+        case Some(LongSlot(offset, true)) => offset
+      }
+      if (offsets.length == cachedVariables.length) offsets.toArray else null
+    case _ => null
+  }
+
+  private def computeKeyFromSlots(context: ExecutionContext, offsets: Array[Int]): Option[IndexedSeq[Long]] = context match {
+    case slotted: SlottedExecutionContext =>
+      val key = new Array[Long](offsets.length)
+      var idx = 0
+      while (idx < offsets.length) {
+        slotted.getLongAt(offsets(idx)) match {
+          case NULL_ENTITY => return None
+          case UNSET => return computeKeyFromValues(context)
+          case id => key(idx) = id
+        }
+        idx += 1
+      }
+      Some(key.toIndexedSeq)
+
+    case _ => computeKeyFromValues(context)
+  }
+
+  private def computeKeyFromValues(context: ExecutionContext): Option[IndexedSeq[Long]] = {
     val key = new Array[Long](cachedVariables.length)
 
     for (idx <- cachedVariables.indices) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.{MorselScheduler, PartialAggregation, WorkerPool}
+import org.opencypher.v9_0.util.attribution.Id
+
+/**
+  * Executes the streaming pipes above a scan on several threads.
+  *
+  * The rows of `source`, the scan, are read on the thread executing the query and cut into morsels. Workers take
+  * each row of a morsel through `chain`, which is built on top of an argument the way the right hand side of an
+  * apply is. If `aggregation` is given, workers also aggregate the rows of their morsel, and the partial results of
+  * all morsels are merged here. Rows come out in the order in which morsels complete.
+  *
+  * `serial` is the same part of the plan, built the usual way. It is executed instead whenever executing morsels in
+  * transactions of their own would not give the same result, see [[MorselScheduler.canRunInParallel]].
+  */
+case class ParallelPipe(source: Pipe,
+                        chain: Pipe,
+                        aggregation: Option[EagerAggregationPipe],
+                        serial: Pipe,
+                        pool: WorkerPool,
+                        morselSize: Int)
+                       (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  private val partialAggregation = aggregation.map(new PartialAggregation(_))
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    if (!MorselScheduler.canRunInParallel(state)) {
+      serial.createResults(state)
+    } else {
+      val input = source.createResults(state)
+      partialAggregation match {
+        case None =>
+          new MorselScheduler(state, input, morselSize, pool,
+                              (morsel, workerState) => execute(morsel, workerState).toIndexedSeq).flatMap(_.iterator)
+
+        case Some(partial) =>
+          val partials = new MorselScheduler(state, input, morselSize, pool,
+                                             (morsel, workerState) => partial.aggregate(execute(morsel, workerState), workerState))
+          partial.merge(partials, state, executionContextFactory)
+      }
+    }
+
+  private def execute(morsel: IndexedSeq[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    morsel.iterator.flatMap(row => chain.createResults(state.withInitialContext(row)))
+}
@@ -19,7 +19,14 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.interpreted.SlotConfiguration
 import org.opencypher.v9_0.ast.semantics.SemanticTable
 
+/**
+  * @param slots              when defined, pipes are built to produce slotted rows with this layout
+  * @param compileExpressions whether filter and projection expressions are compiled to generated classes
+  */
 case class PipeExecutionBuilderContext(semanticTable: SemanticTable,
-                                       readOnly: Boolean)
+                                       readOnly: Boolean,
+                                       slots: Option[SlotConfiguration] = None,
+                                       compileExpressions: Boolean = false)
@@ -22,7 +22,8 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.eclipse.collections.api.set.primitive.LongSet
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.PathValueBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.{InCheckContainer, SingleThreadedLRUCache}
-import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps}
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryManager
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps, SlotConfiguration, SlottedExecutionContext}
 import org.neo4j.cypher.internal.runtime.{QueryContext, QueryStatistics}
 import org.neo4j.values.AnyValue
 import org.neo4j.values.virtual.MapValue
@@ -38,7 +39,8 @@ class QueryState(val query: QueryContext,
                  val triadicState: mutable.Map[String, LongSet] = mutable.Map.empty,
                  val repeatableReads: mutable.Map[Pipe, Seq[ExecutionContext]] = mutable.Map.empty,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
-                 val lenientCreateRelationship: Boolean = false) {
+                 val lenientCreateRelationship: Boolean = false,
+                 val memoryManager: QueryMemoryManager = QueryMemoryManager.unlimited) {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _exFactory: ExecutionContextFactory = _
@@ -66,11 +68,11 @@ class QueryState(val query: QueryContext,
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryManager)
 
   def withInitialContext(initialContext: ExecutionContext) =
     new QueryState(query, resources, params, decorator, Some(initialContext), triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryManager)
 
   /**
     * When running on the RHS of an Apply, this method will fill an execution context with argument data
@@ -84,7 +86,7 @@ class QueryState(val query: QueryContext,
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, decorator, initialContext, triadicState,
-                   repeatableReads, cachedIn, lenientCreateRelationship)
+                   repeatableReads, cachedIn, lenientCreateRelationship, memoryManager)
 
   def setExecutionContextFactory(exFactory: ExecutionContextFactory) = {
     _exFactory = exFactory
@@ -171,3 +173,58 @@ case class CommunityExecutionContextFactory() extends ExecutionContextFactory {
   }
 
 }
+
+/**
+  * Creates [[SlottedExecutionContext]]s that all share the slot configuration of one plan. Rows coming from pipes
+  * that still build map contexts are copied into slotted ones.
+  */
+case class SlottedExecutionContextFactory(slots: SlotConfiguration) extends ExecutionContextFactory {
+
+  override def newExecutionContext(m: mutable.Map[String, AnyValue] = MutableMaps.empty): ExecutionContext = {
+    val context = SlottedExecutionContext(slots)
+    m.foreach(context += _)
+    context
+  }
+
+  override def newExecutionContext(): ExecutionContext = SlottedExecutionContext(slots)
+
+  override def copyWith(init: ExecutionContext): ExecutionContext = slottedCopy(init)
+
+  override def copyWith(row: ExecutionContext, newEntries: Seq[(String, AnyValue)]): ExecutionContext = {
+    val context = slottedCopy(row)
+    context.set(newEntries)
+    context
+  }
+
+  override def copyWith(row: ExecutionContext, key: String, value: AnyValue): ExecutionContext = {
+    val context = slottedCopy(row)
+    context.set(key, value)
+    context
+  }
+
+  override def copyWith(row: ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue): ExecutionContext = {
+    val context = slottedCopy(row)
+    context.set(key1, value1, key2, value2)
+    context
+  }
+
+  override def copyWith(row: ExecutionContext,
+                        key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): ExecutionContext = {
+    val context = slottedCopy(row)
+    context.set(key1, value1, key2, value2, key3, value3)
+    context
+  }
+
+  private def slottedCopy(row: ExecutionContext): SlottedExecutionContext = row match {
+    case context: SlottedExecutionContext if context.slots eq slots =>
+      context.createClone()
+    case _ =>
+      val context = SlottedExecutionContext(slots)
+      context.mergeWith(row)
+      context
+  }
+}
@@ -19,12 +19,15 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
-import java.util.Comparator
+import java.util.{Comparator, PriorityQueue}
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSizeEstimator, RowSpiller, SpillFile}
 import org.opencypher.v9_0.util.attribution.Id
 import org.neo4j.values.{AnyValue, AnyValues}
 
+import scala.collection.mutable.ArrayBuffer
+
 case class SortPipe(source: Pipe, orderBy: Seq[ColumnOrder])
                    (val id: Id = Id.INVALID_ID)
   extends PipeWithSource(source) {
@@ -33,10 +36,93 @@ case class SortPipe(source: Pipe, orderBy: Seq[ColumnOrder])
   private val comparator = ExecutionContextOrdering.asComparator(orderBy)
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    if (state.memoryManager.isLimited)
+      return externalSort(input, state)
+
     val array = input.toArray
     java.util.Arrays.sort(array, comparator)
     array.toIterator
   }
+
+  /*
+   * Rows are sorted in runs that fit in the memory budget of the query. Each run is written to disk once the budget is
+   * used up, and the runs are merged when the input is exhausted. Ties are broken by run, so the sort stays stable.
+   */
+  private def externalSort(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val spiller = new RowSpiller(state, id, executionContextFactory)
+    val runs = new ArrayBuffer[SpillFile]()
+    val buffer = new ArrayBuffer[ExecutionContext]()
+
+    input.foreach { row =>
+      val size = RowSizeEstimator.estimate(row)
+      if (!spiller.memory.tryGrow(size)) {
+        if (buffer.size >= SortPipe.MIN_RUN_SIZE) {
+          runs += writeRun(spiller, buffer)
+          buffer.clear()
+          spiller.memory.releaseAll()
+          if (runs.size == SortPipe.MAX_MERGE_WIDTH) {
+            val merged = spiller.newFile()
+            merge(spiller, runs).foreach(merged.write)
+            runs.clear()
+            runs += merged
+          }
+        }
+        spiller.memory.grow(size)
+      }
+      buffer += row
+    }
+
+    if (runs.isEmpty) {
+      val array = buffer.toArray
+      java.util.Arrays.sort(array, comparator)
+      spiller.releaseWhenExhausted(array.toIterator)
+    } else {
+      runs += writeRun(spiller, buffer)
+      buffer.clear()
+      spiller.memory.releaseAll()
+      merge(spiller, runs)
+    }
+  }
+
+  private def writeRun(spiller: RowSpiller, rows: ArrayBuffer[ExecutionContext]): SpillFile = {
+    val array = rows.toArray
+    java.util.Arrays.sort(array, comparator)
+    val run = spiller.newFile()
+    array.foreach(run.write)
+    run
+  }
+
+  private def merge(spiller: RowSpiller, runs: Seq[SpillFile]): Iterator[ExecutionContext] = {
+    val sources = runs.map(spiller.read).toIndexedSeq
+    val heads = new PriorityQueue[(ExecutionContext, Int)](sources.size, new Comparator[(ExecutionContext, Int)] {
+      override def compare(a: (ExecutionContext, Int), b: (ExecutionContext, Int)): Int = {
+        val byRow = comparator.compare(a._1, b._1)
+        if (byRow != 0) byRow else Integer.compare(a._2, b._2)
+      }
+    })
+    for (i <- sources.indices if sources(i).hasNext) {
+      heads.add((sources(i).next(), i))
+    }
+
+    new Iterator[ExecutionContext] {
+      override def hasNext: Boolean = !heads.isEmpty
+
+      override def next(): ExecutionContext = {
+        val (row, run) = heads.poll()
+        if (sources(run).hasNext) {
+          heads.add((sources(run).next(), run))
+        }
+        row
+      }
+    }
+  }
+}
+
+object SortPipe {
+  // Fewer rows than this are kept on heap even if the budget is used up, to not end up with a file per row
+  private val MIN_RUN_SIZE = 1024
+  // Runs are merged into one when there are this many, to bound the number of files open at once
+  private val MAX_MERGE_WIDTH = 64
 }
 
 case class ExecutionContextOrdering(order: ColumnOrder) extends scala.Ordering[ExecutionContext] {
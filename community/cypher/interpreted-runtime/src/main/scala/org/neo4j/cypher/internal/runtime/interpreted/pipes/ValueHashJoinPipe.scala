@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.{RowSpiller, SpillingHashJoin}
 import org.opencypher.v9_0.util.attribution.Id
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.Values
@@ -41,6 +42,12 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
+    if (state.memoryManager.isLimited) {
+      val lhsKey = (row: ExecutionContext) => Option(lhsExpression(row, state))
+      val rhsKey = (row: ExecutionContext) => Some(rhsExpression(row, state)).filter(_ != Values.NO_VALUE)
+      return SpillingHashJoin(input, rhsIterator, lhsKey, rhsKey, new RowSpiller(state, id, executionContextFactory))
+    }
+
     val table = buildProbeTable(input, state)
 
     if (table.isEmpty)
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.concurrent.LinkedBlockingQueue
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{NullPipeDecorator, QueryState}
+import org.neo4j.kernel.api.txstate.TxStateHolder
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Failure, Success, Try}
+
+object MorselScheduler {
+  /**
+    * @return true if executing the morsels of the query in transactions of their own gives the same result as
+    *         executing them in the transaction of the query.
+    */
+  def canRunInParallel(state: QueryState): Boolean =
+    state.decorator == NullPipeDecorator && !state.memoryManager.isLimited && !hasChanges(state.query)
+
+  // Transactions of workers do not see what the transaction of the query has changed so far
+  private def hasChanges(query: QueryContext): Boolean = query.transactionalContext.transaction match {
+    case transaction: TxStateHolder => transaction.hasTxStateWithChanges
+    case _ => true
+  }
+}
+
+/**
+  * Cuts the input rows into morsels, has workers execute `task` on each of them, and hands out the results in the
+  * order in which the morsels complete.
+  *
+  * Input is read on the thread executing the query, and only as far as needed to keep all workers busy. Each morsel
+  * is executed in a read transaction of its own, that is opened on the worker thread and closed again before the
+  * result is handed out, so the result must not depend on the transaction after that.
+  *
+  * The scheduler is traced by the resources of the query, so that no morsel is still executing once the query
+  * has been closed.
+  */
+class MorselScheduler[T](state: QueryState,
+                         input: Iterator[ExecutionContext],
+                         morselSize: Int,
+                         pool: WorkerPool,
+                         task: (IndexedSeq[ExecutionContext], QueryState) => T) extends Iterator[T] with AutoCloseable {
+  private val maxInFlight = pool.workers * 2
+  private val completed = new LinkedBlockingQueue[Try[T]]()
+  private var inFlight = 0
+  private var ready: Option[T] = None
+  @volatile private var closed = false
+
+  state.query.resources.trace(this)
+
+  override def hasNext: Boolean = {
+    if (ready.isEmpty && !closed) {
+      schedule()
+      if (inFlight > 0) {
+        ready = Some(await())
+      } else {
+        release()
+      }
+    }
+    ready.isDefined
+  }
+
+  override def next(): T = {
+    if (!hasNext) {
+      Iterator.empty.next()
+    }
+    val result = ready.get
+    ready = None
+    result
+  }
+
+  private def schedule(): Unit =
+    while (inFlight < maxInFlight && input.hasNext) {
+      val morsel = new ArrayBuffer[ExecutionContext]()
+      while (morsel.size < morselSize && input.hasNext) {
+        morsel += input.next()
+      }
+      inFlight += 1
+      pool.execute(new Runnable {
+        override def run(): Unit = completed.put(execute(morsel))
+      })
+    }
+
+  private def await(): T = {
+    val result = completed.take()
+    inFlight -= 1
+    result match {
+      case Success(value) => value
+      case Failure(e) =>
+        release()
+        throw e
+    }
+  }
+
+  // Runs on a worker thread, that the transaction of the morsel is bound to for as long as the morsel executes
+  private def execute(morsel: IndexedSeq[ExecutionContext]): Try[T] =
+    if (closed) {
+      Failure(new IllegalStateException("Query was closed before the morsel was executed"))
+    } else {
+      try {
+        val query = state.query.createNewQueryContext()
+        var success = false
+        try {
+          val result = task(morsel, workerState(query))
+          success = true
+          Success(result)
+        } finally {
+          query.resources.close(success)
+          query.transactionalContext.close(success)
+        }
+      } catch {
+        case t: Throwable => Failure(t)
+      }
+    }
+
+  private def workerState(query: QueryContext): QueryState =
+    new QueryState(query, state.resources, state.params,
+                   triadicState = mutable.Map.empty,
+                   repeatableReads = mutable.Map.empty,
+                   lenientCreateRelationship = state.lenientCreateRelationship)
+
+  private def release(): Unit = if (!closed) {
+    state.query.resources.release(this)
+  }
+
+  override def close(): Unit = if (!closed) {
+    closed = true
+    ready = None
+    // Morsels that were already handed to workers still have to close their transactions
+    while (inFlight > 0) {
+      completed.take()
+      inFlight -= 1
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.AggregationFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{EagerAggregationPipe, ExecutionContextFactory, QueryState}
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MutableMaps}
+import org.neo4j.values.AnyValue
+import org.opencypher.v9_0.util.InternalException
+
+import scala.collection.mutable
+
+object PartialAggregation {
+  /**
+    * The aggregation that gives the result of `aggregation` over all rows, when applied to the results of
+    * `aggregation` over parts of the rows, which are found under `name`. None if there is no such aggregation.
+    */
+  def combinerFor(name: String, aggregation: AggregationExpression): Option[AggregationExpression] = aggregation match {
+    case CountStar() | Count(_) | Sum(_) => Some(Sum(Variable(name)))
+    case Min(_) => Some(Min(Variable(name)))
+    case Max(_) => Some(Max(Variable(name)))
+    case _ => None
+  }
+}
+
+/**
+  * The aggregation of an [[EagerAggregationPipe]], done in two steps: workers aggregate the rows of each morsel into
+  * groups with partial results, which are then merged into the groups of the query on the thread executing it.
+  */
+class PartialAggregation(pipe: EagerAggregationPipe) {
+  private val names = pipe.aggregations.keys.toIndexedSeq
+  private val aggregations = names.map(pipe.aggregations)
+  private val combiners = names.map(name => PartialAggregation.combinerFor(name, pipe.aggregations(name)).getOrElse(
+    throw new InternalException(s"Aggregation $name can not be merged from partial results")))
+
+  /**
+    * Aggregate the rows of one morsel, on a worker.
+    *
+    * @return each group of the morsel, with the partial result of each aggregation
+    */
+  def aggregate(rows: Iterator[ExecutionContext], state: QueryState): IndexedSeq[(AnyValue, IndexedSeq[AnyValue])] = {
+    val groups = mutable.LinkedHashMap[AnyValue, IndexedSeq[AggregationFunction]]()
+    rows.foreach { row =>
+      val functions = groups.getOrElseUpdate(pipe.groupingFunction(row, state), aggregations.map(_.createAggregationFunction))
+      functions.foreach(func => func(row, state))
+    }
+    groups.toIndexedSeq.map {
+      case (groupingKey, functions) => groupingKey -> functions.map(_.result(state))
+    }
+  }
+
+  /**
+    * Merge the groups of all morsels, on the thread executing the query.
+    */
+  def merge(partials: Iterator[IndexedSeq[(AnyValue, IndexedSeq[AnyValue])]],
+            state: QueryState,
+            factory: ExecutionContextFactory): Iterator[ExecutionContext] = {
+    val groups = mutable.LinkedHashMap[AnyValue, IndexedSeq[AggregationFunction]]()
+    partials.foreach(_.foreach {
+      case (groupingKey, values) =>
+        val functions = groups.getOrElseUpdate(groupingKey, combiners.map(_.createAggregationFunction))
+        val row = ExecutionContext.from(names zip values: _*)
+        functions.foreach(func => func(row, state))
+    })
+
+    if (groups.isEmpty && pipe.keyExpressions.isEmpty) {
+      // Without grouping keys there is a single group, even without rows, with what each aggregation gives for no rows
+      Iterator.single(newRow(None, aggregations.map(_.createAggregationFunction.result(state)), factory))
+    } else {
+      groups.iterator.map {
+        case (groupingKey, functions) => newRow(Some(groupingKey), functions.map(_.result(state)), factory)
+      }
+    }
+  }
+
+  private def newRow(groupingKey: Option[AnyValue], values: IndexedSeq[AnyValue], factory: ExecutionContextFactory): ExecutionContext = {
+    val newMap = MutableMaps.create[String, AnyValue](pipe.keyExpressions.size + names.size)
+    groupingKey.foreach(pipe.createResultFunction(newMap, _))
+    (names zip values).foreach(newMap += _)
+    factory.newExecutionContext(newMap)
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel
+
+import java.util.concurrent.Executor
+
+import org.neo4j.scheduler.{Group, JobScheduler}
+
+object WorkerPool {
+  /**
+    * @param workers the configured number of workers, where 0 means one for every processor
+    */
+  def apply(workers: Int, jobScheduler: JobScheduler): WorkerPool = {
+    val parallelism = if (workers > 0) workers else Runtime.getRuntime.availableProcessors()
+    new WorkerPool(parallelism, jobScheduler.workStealingExecutor(Group.CYPHER_WORKER, parallelism))
+  }
+}
+
+/**
+  * The threads that morsels are executed on, shared by all queries of one database.
+  *
+  * The threads belong to the [[Group.CYPHER_WORKER]] group of the job scheduler, which starts them on demand and
+  * shuts them down with the database. Tasks never wait on each other, so one query with many morsels can delay
+  * another, but never block it.
+  */
+class WorkerPool(val workers: Int, executor: Executor) {
+  def execute(task: Runnable): Unit = executor.execute(task)
+}
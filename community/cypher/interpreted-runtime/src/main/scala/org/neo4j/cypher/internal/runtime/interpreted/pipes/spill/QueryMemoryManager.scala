@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.opencypher.v9_0.util.attribution.Id
+
+import scala.collection.mutable
+
+object QueryMemoryManager {
+  val UNLIMITED: Long = 0L
+
+  def unlimited: QueryMemoryManager = new QueryMemoryManager(UNLIMITED)
+}
+
+/**
+  * Keeps count of the heap memory that the eager pipes of one query hold rows in, and of the rows that they wrote to
+  * disk once the budget of the query was used up.
+  *
+  * Sizes are estimates, see [[RowSizeEstimator]]. Like the rest of a [[org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState]],
+  * this is only ever used by the thread executing the query.
+  *
+  * @param budget the number of bytes that the eager pipes of the query may hold together, or [[QueryMemoryManager.UNLIMITED]]
+  */
+class QueryMemoryManager(val budget: Long) {
+  private var reserved = 0L
+  private val operators = mutable.Map.empty[Id, OperatorMemory]
+  private val spills = mutable.Map.empty[Id, SpillStatistics]
+
+  /**
+    * @return true if pipes have to keep track of the memory they use, false if they may keep everything on heap.
+    */
+  def isLimited: Boolean = budget != QueryMemoryManager.UNLIMITED
+
+  def reservedBytes: Long = reserved
+
+  /**
+    * The memory held by one pipe. A pipe that is executed again, like on the right hand side of an apply, gets the
+    * same instance back, and is expected to [[OperatorMemory.releaseAll()]] what the previous execution held.
+    */
+  def memoryFor(pipe: Id): OperatorMemory = operators.getOrElseUpdate(pipe, new OperatorMemory(this))
+
+  def spillStatistics(pipe: Id): SpillStatistics = spills.getOrElseUpdate(pipe, new SpillStatistics)
+
+  /**
+    * @return what the pipe spilled, or None if it never had to spill.
+    */
+  def spilled(pipe: Id): Option[SpillStatistics] = spills.get(pipe)
+
+  private[spill] def tryReserve(bytes: Long): Boolean =
+    if (isLimited && reserved + bytes > budget) {
+      false
+    } else {
+      reserved += bytes
+      true
+    }
+
+  private[spill] def reserve(bytes: Long): Unit = reserved += bytes
+
+  private[spill] def release(bytes: Long): Unit = reserved -= bytes
+}
+
+/**
+  * The share of the query memory budget that is held by one pipe.
+  */
+class OperatorMemory private[spill](manager: QueryMemoryManager) {
+  private var held = 0L
+
+  def heldBytes: Long = held
+
+  /**
+    * Account for more memory, if the budget allows.
+    *
+    * @return true if the memory was accounted for, false if the pipe should spill instead.
+    */
+  def tryGrow(bytes: Long): Boolean =
+    if (manager.tryReserve(bytes)) {
+      held += bytes
+      true
+    } else {
+      false
+    }
+
+  /**
+    * Account for more memory whether the budget allows it or not, for rows that the pipe has to keep anyway.
+    */
+  def grow(bytes: Long): Unit = {
+    manager.reserve(bytes)
+    held += bytes
+  }
+
+  def releaseAll(): Unit = {
+    manager.release(held)
+    held = 0L
+  }
+}
+
+/**
+  * What one pipe wrote to disk, summed over all its executions.
+  */
+class SpillStatistics {
+  private var _rows = 0L
+  private var _bytes = 0L
+  private var _files = 0L
+
+  def rows: Long = _rows
+
+  def bytes: Long = _bytes
+
+  def files: Long = _files
+
+  private[spill] def fileCreated(): Unit = _files += 1
+
+  private[spill] def rowWritten(bytes: Long): Unit = {
+    _rows += 1
+    _bytes += bytes
+  }
+}
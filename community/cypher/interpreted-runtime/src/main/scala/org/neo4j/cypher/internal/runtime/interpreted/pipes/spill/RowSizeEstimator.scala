@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.function.ThrowingBiConsumer
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual._
+
+/**
+  * Rough estimates of how much heap rows and values take. They only need to be good enough to keep the memory of a
+  * query in the right order of magnitude; walking object graphs for exact sizes would cost more than the rows do.
+  *
+  * Nodes and relationships count as their id only, their properties are read from the store when needed.
+  */
+object RowSizeEstimator {
+  private val ROW_OVERHEAD = 64L
+  private val ENTRY_OVERHEAD = 48L
+  private val OBJECT_OVERHEAD = 16L
+  private val SCALAR = 24L
+  private val REFERENCE = 8L
+
+  def estimate(row: ExecutionContext): Long = {
+    var size = ROW_OVERHEAD
+    row.foreach {
+      case (_, value) => size += ENTRY_OVERHEAD + estimate(value)
+    }
+    size
+  }
+
+  def estimate(value: AnyValue): Long = value match {
+    case null => 0L
+    case Values.NO_VALUE => 0L
+    case text: TextValue => 40L + 2L * text.length()
+    case array: ArrayValue => estimateArray(array)
+    case _: PointValue => 64L
+    case _: Value => SCALAR
+    case _: VirtualNodeValue => SCALAR
+    case _: VirtualRelationshipValue => SCALAR
+    case path: PathValue => OBJECT_OVERHEAD + SCALAR * path.size() * 2 + SCALAR
+    case list: ListValue =>
+      var size = OBJECT_OVERHEAD
+      val it = list.iterator()
+      while (it.hasNext) {
+        size += REFERENCE + estimate(it.next())
+      }
+      size
+    case map: MapValue =>
+      var size = OBJECT_OVERHEAD
+      map.foreach(new ThrowingBiConsumer[String, AnyValue, RuntimeException] {
+        override def accept(key: String, entry: AnyValue): Unit = size += ENTRY_OVERHEAD + 40L + 2L * key.length + estimate(entry)
+      })
+      size
+    case _ => SCALAR
+  }
+
+  private def estimateArray(array: ArrayValue): Long = {
+    val length = array.length()
+    array match {
+      case _: ByteArray | _: BooleanArray => OBJECT_OVERHEAD + length
+      case _: ShortArray | _: CharArray => OBJECT_OVERHEAD + 2L * length
+      case _: IntArray | _: FloatArray => OBJECT_OVERHEAD + 4L * length
+      case _: LongArray | _: DoubleArray => OBJECT_OVERHEAD + 8L * length
+      case _ =>
+        var size = OBJECT_OVERHEAD
+        var i = 0
+        while (i < length) {
+          size += REFERENCE + estimate(array.value(i))
+          i += 1
+        }
+        size
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExecutionContextFactory, QueryState}
+import org.opencypher.v9_0.util.attribution.Id
+
+object RowSpiller {
+  // Enough to bring all but very skewed inputs within budget, few enough to keep a file handle open for each
+  val PARTITIONS = 32
+}
+
+/**
+  * What one execution of an eager pipe needs to stay within the memory budget of the query: its share of the budget,
+  * and the means to write rows to disk once that share can not grow anymore.
+  */
+class RowSpiller(state: QueryState, pipe: Id, factory: ExecutionContextFactory) {
+  private val manager = state.memoryManager
+  private val keys = new SpilledRowKeys
+
+  val memory: OperatorMemory = manager.memoryFor(pipe)
+  // A previous execution of the pipe, that was not read to the end, does not hold on to its rows anymore
+  memory.releaseAll()
+
+  def newFile(): SpillFile = new SpillFile(keys, manager.spillStatistics(pipe), state.query)
+
+  def newPartitions(): SpillPartitions = new SpillPartitions(this, RowSpiller.PARTITIONS)
+
+  def read(file: SpillFile): Iterator[ExecutionContext] = file.read(factory)
+
+  /**
+    * Give back the memory of the pipe once the rows, that it kept on heap, have all been handed on.
+    */
+  def releaseWhenExhausted(rows: Iterator[ExecutionContext]): Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    override def hasNext: Boolean = {
+      val hasNext = rows.hasNext
+      if (!hasNext) {
+        memory.releaseAll()
+      }
+      hasNext
+    }
+
+    override def next(): ExecutionContext = rows.next()
+  }
+}
+
+/**
+  * Rows spilled by the hash of a key, so that rows with the same key end up in the same partition, and each
+  * partition can be processed on its own afterwards.
+  */
+class SpillPartitions(spiller: RowSpiller, val count: Int) {
+  private val files = new Array[SpillFile](count)
+
+  def partitionOf(key: Any): Int = Math.floorMod(key.hashCode(), count)
+
+  def write(partition: Int, row: ExecutionContext): Unit = {
+    if (files(partition) == null) {
+      files(partition) = spiller.newFile()
+    }
+    files(partition).write(row)
+  }
+
+  def hasRows(partition: Int): Boolean = files(partition) != null
+
+  def isEmpty: Boolean = files.forall(_ == null)
+
+  def read(partition: Int): Iterator[ExecutionContext] =
+    if (files(partition) == null) Iterator.empty else spiller.read(files(partition))
+
+  /**
+    * Delete the rows of a partition that turned out to not be needed.
+    */
+  def discard(partition: Int): Unit =
+    if (files(partition) != null) {
+      files(partition).discard()
+      files(partition) = null
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io._
+import java.nio.file.{Files, Path}
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, MapExecutionContext, MutableMaps, SlottedExecutionContext}
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+
+import scala.collection.mutable
+
+/**
+  * Variable names and cached property keys of the rows that one pipe spills. Rows refer to them by index, so that
+  * the names are kept once on heap instead of once per row on disk.
+  */
+class SpilledRowKeys {
+  private val names = new mutable.ArrayBuffer[String]()
+  private val nameIds = new mutable.HashMap[String, Int]()
+  private val cachedProperties = new mutable.ArrayBuffer[CachedNodeProperty]()
+  private val cachedPropertyIds = new mutable.HashMap[CachedNodeProperty, Int]()
+
+  def nameId(name: String): Int = nameIds.getOrElseUpdate(name, {
+    names += name
+    names.size - 1
+  })
+
+  def name(id: Int): String = names(id)
+
+  def cachedPropertyId(key: CachedNodeProperty): Int = cachedPropertyIds.getOrElseUpdate(key, {
+    cachedProperties += key
+    cachedProperties.size - 1
+  })
+
+  def cachedProperty(id: Int): CachedNodeProperty = cachedProperties(id)
+}
+
+/**
+  * A temporary file that rows are appended to, and then read back once, in the order they were written.
+  *
+  * The file is traced by the resources of the query, so that it is deleted when the query ends even if its rows are
+  * never read to the end.
+  */
+class SpillFile(keys: SpilledRowKeys, statistics: SpillStatistics, query: QueryContext) extends AutoCloseable {
+  private val path: Path = Files.createTempFile("neo4j-cypher-spill-", ".tmp")
+  private var out: DataOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), SpillFile.BUFFER_SIZE))
+  private var in: DataInputStream = _
+  private val rowBuffer = new ByteArrayOutputStream()
+  private val rowOut = new DataOutputStream(rowBuffer)
+  private val valueWriter = new SpillValueWriter(rowOut)
+  private var rowCount = 0L
+  private var closed = false
+
+  query.resources.trace(this)
+  statistics.fileCreated()
+
+  def rows: Long = rowCount
+
+  def write(row: ExecutionContext): Unit = {
+    if (out == null) {
+      throw new IllegalStateException("Rows of a spill file can not be written after they have been read")
+    }
+    rowBuffer.reset()
+    rowOut.writeInt(row.size)
+    row.foreach {
+      case (name, value) =>
+        rowOut.writeInt(keys.nameId(name))
+        valueWriter.write(value)
+    }
+    val cachedProperties = new mutable.ArrayBuffer[(CachedNodeProperty, Value)]()
+    SpillFile.foreachCachedProperty(row, (key, value) => cachedProperties += key -> value)
+    rowOut.writeInt(cachedProperties.size)
+    cachedProperties.foreach {
+      case (key, value) =>
+        rowOut.writeInt(keys.cachedPropertyId(key))
+        valueWriter.write(value)
+    }
+    rowOut.flush()
+
+    rowBuffer.writeTo(out)
+    rowCount += 1
+    statistics.rowWritten(rowBuffer.size())
+  }
+
+  /**
+    * Read the rows back. No more rows can be written after this, and the file is deleted once the last row is read.
+    */
+  def read(factory: ExecutionContextFactory): Iterator[ExecutionContext] = {
+    out.close()
+    out = null
+    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), SpillFile.BUFFER_SIZE))
+    val valueReader = new SpillValueReader(in, query)
+
+    new Iterator[ExecutionContext] {
+      private var remaining = rowCount
+      if (remaining == 0) {
+        release()
+      }
+
+      override def hasNext: Boolean = remaining > 0
+
+      override def next(): ExecutionContext = {
+        if (!hasNext) {
+          Iterator.empty.next()
+        }
+        val size = in.readInt()
+        val entries = MutableMaps.create[String, AnyValue](size)
+        var i = 0
+        while (i < size) {
+          val name = keys.name(in.readInt())
+          entries.put(name, valueReader.read())
+          i += 1
+        }
+        val row = factory.newExecutionContext(entries)
+        val cachedProperties = in.readInt()
+        i = 0
+        while (i < cachedProperties) {
+          val key = keys.cachedProperty(in.readInt())
+          row.setCachedProperty(key, valueReader.read().asInstanceOf[Value])
+          i += 1
+        }
+
+        remaining -= 1
+        if (remaining == 0) {
+          release()
+        }
+        row
+      }
+    }
+  }
+
+  /**
+    * Delete the file without reading its rows.
+    */
+  def discard(): Unit = release()
+
+  private def release(): Unit = if (!closed) {
+    query.resources.release(this)
+  }
+
+  override def close(): Unit = if (!closed) {
+    closed = true
+    if (out != null) {
+      out.close()
+    }
+    if (in != null) {
+      in.close()
+    }
+    Files.deleteIfExists(path)
+  }
+}
+
+object SpillFile {
+  private val BUFFER_SIZE = 64 * 1024
+
+  private def foreachCachedProperty(row: ExecutionContext, f: (CachedNodeProperty, Value) => Unit): Unit = row match {
+    case map: MapExecutionContext => map.foreachCachedProperty(f)
+    case slotted: SlottedExecutionContext => slotted.foreachCachedProperty(f)
+    case _ =>
+  }
+}
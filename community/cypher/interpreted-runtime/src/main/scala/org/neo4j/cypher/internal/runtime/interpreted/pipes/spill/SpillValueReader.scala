@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.DataInput
+import java.nio.charset.StandardCharsets
+import java.time._
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillValueWriter._
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable._
+import org.neo4j.values.virtual.{NodeValue, RelationshipValue, VirtualValues}
+import org.opencypher.v9_0.util.InternalException
+
+/**
+  * Reads back the values written by [[SpillValueWriter]]. Nodes and relationships are looked up by id in the
+  * transaction of the query, without reading anything from the store until a property or label is asked for.
+  */
+class SpillValueReader(in: DataInput, query: QueryContext) {
+  private val arrayTypes = ArrayType.values()
+
+  def read(): AnyValue = in.readByte() match {
+    case NODE => query.nodeOps.getById(in.readLong())
+    case RELATIONSHIP => query.relationshipOps.getById(in.readLong())
+    case PATH =>
+      val length = in.readInt()
+      val nodes = new Array[NodeValue](length + 1)
+      val relationships = new Array[RelationshipValue](length)
+      var i = 0
+      while (i < nodes.length) {
+        nodes(i) = query.nodeOps.getById(in.readLong())
+        i += 1
+      }
+      i = 0
+      while (i < relationships.length) {
+        relationships(i) = query.relationshipOps.getById(in.readLong())
+        i += 1
+      }
+      VirtualValues.path(nodes, relationships)
+    case LIST =>
+      val values = new Array[AnyValue](in.readInt())
+      var i = 0
+      while (i < values.length) {
+        values(i) = read()
+        i += 1
+      }
+      VirtualValues.list(values: _*)
+    case MAP =>
+      val size = in.readInt()
+      val keys = new Array[String](size)
+      val values = new Array[AnyValue](size)
+      var i = 0
+      while (i < size) {
+        keys(i) = readRawString()
+        values(i) = read()
+        i += 1
+      }
+      VirtualValues.map(keys, values)
+    case tag => readStorable(tag)
+  }
+
+  def readRawString(): String = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    new String(bytes, StandardCharsets.UTF_8)
+  }
+
+  private def readStorable(): Value = readStorable(in.readByte())
+
+  private def readStorable(tag: Byte): Value = tag match {
+    case NO_VALUE => Values.NO_VALUE
+    case BOOLEAN => Values.booleanValue(in.readBoolean())
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case STRING => Values.stringValue(readRawString())
+    case CHAR => Values.charValue(in.readChar())
+    case BYTE_ARRAY =>
+      val bytes = new Array[Byte](in.readInt())
+      in.readFully(bytes)
+      Values.byteArray(bytes)
+    case ARRAY =>
+      val arrayType = arrayTypes(in.readByte())
+      val elements = new Array[Value](in.readInt())
+      var i = 0
+      while (i < elements.length) {
+        elements(i) = readStorable()
+        i += 1
+      }
+      toArray(arrayType, elements)
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.readInt())
+      val coordinate = new Array[Double](in.readInt())
+      var i = 0
+      while (i < coordinate.length) {
+        coordinate(i) = in.readDouble()
+        i += 1
+      }
+      Values.pointValue(crs, coordinate: _*)
+    case DURATION => DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+    case DATE => DateValue.epochDate(in.readLong())
+    case LOCAL_TIME => LocalTimeValue.localTime(in.readLong())
+    case TIME =>
+      val localTime = LocalTime.ofNanoOfDay(in.readLong())
+      TimeValue.time(OffsetTime.of(localTime, ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME => LocalDateTimeValue.localDateTime(in.readLong(), in.readInt())
+    case DATE_TIME =>
+      val epochSecond = in.readLong()
+      val nano = in.readInt()
+      DateTimeValue.datetime(epochSecond, nano, ZoneId.of(readRawString()))
+    case _ =>
+      throw new InternalException(s"Unknown value tag $tag in spill file")
+  }
+
+  private def toArray(arrayType: ArrayType, elements: Array[Value]): ArrayValue = arrayType match {
+    case ArrayType.BYTE => Values.byteArray(elements.map(_.asInstanceOf[ByteValue].value()))
+    case ArrayType.SHORT => Values.shortArray(elements.map(_.asInstanceOf[ShortValue].value()))
+    case ArrayType.INT => Values.intArray(elements.map(_.asInstanceOf[IntValue].value()))
+    case ArrayType.LONG => Values.longArray(elements.map(_.asInstanceOf[LongValue].value()))
+    case ArrayType.FLOAT => Values.floatArray(elements.map(_.asInstanceOf[FloatValue].value()))
+    case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asInstanceOf[DoubleValue].value()))
+    case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asInstanceOf[BooleanValue].booleanValue()))
+    case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+    case ArrayType.CHAR => Values.charArray(elements.map(_.asInstanceOf[CharValue].value()))
+    case ArrayType.POINT => Values.pointArray(elements)
+    case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asInstanceOf[DateTimeValue].asObjectCopy()))
+    case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asInstanceOf[LocalDateTimeValue].asObjectCopy()))
+    case ArrayType.DATE => Values.dateArray(elements.map(_.asInstanceOf[DateValue].asObjectCopy()))
+    case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asInstanceOf[TimeValue].asObjectCopy()))
+    case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asInstanceOf[LocalTimeValue].asObjectCopy()))
+    case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+  }
+}
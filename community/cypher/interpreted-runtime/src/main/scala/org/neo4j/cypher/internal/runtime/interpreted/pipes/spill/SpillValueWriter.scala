@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.{DataOutput, IOException}
+import java.nio.charset.StandardCharsets
+import java.time._
+
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillValueWriter._
+import org.neo4j.function.ThrowingBiConsumer
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable.{CoordinateReferenceSystem, Value, ValueWriter}
+import org.neo4j.values.virtual._
+import org.opencypher.v9_0.util.InternalException
+
+object SpillValueWriter {
+  // Tags of the values a spill file holds, see SpillValueReader for the other direction
+  val NO_VALUE: Byte = 0
+  val BOOLEAN: Byte = 1
+  val BYTE: Byte = 2
+  val SHORT: Byte = 3
+  val INT: Byte = 4
+  val LONG: Byte = 5
+  val FLOAT: Byte = 6
+  val DOUBLE: Byte = 7
+  val STRING: Byte = 8
+  val CHAR: Byte = 9
+  val ARRAY: Byte = 10
+  val BYTE_ARRAY: Byte = 11
+  val POINT: Byte = 12
+  val DURATION: Byte = 13
+  val DATE: Byte = 14
+  val LOCAL_TIME: Byte = 15
+  val TIME: Byte = 16
+  val LOCAL_DATE_TIME: Byte = 17
+  val DATE_TIME: Byte = 18
+  val NODE: Byte = 19
+  val RELATIONSHIP: Byte = 20
+  val PATH: Byte = 21
+  val LIST: Byte = 22
+  val MAP: Byte = 23
+}
+
+/**
+  * Writes values to the rows of a spill file. Storable values are written through the [[ValueWriter]] callbacks that
+  * every value already implements, with a tag byte in front of each scalar. Nodes and relationships are written as
+  * their id only, and are read back as entities of the same transaction.
+  */
+class SpillValueWriter(out: DataOutput) extends ValueWriter[IOException] {
+
+  def write(value: AnyValue): Unit = value match {
+    case storable: Value => storable.writeTo(this)
+    case node: VirtualNodeValue =>
+      out.writeByte(NODE)
+      out.writeLong(node.id())
+    case relationship: VirtualRelationshipValue =>
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(relationship.id())
+    case path: PathValue =>
+      val nodes = path.nodes()
+      val relationships = path.relationships()
+      out.writeByte(PATH)
+      out.writeInt(relationships.length)
+      nodes.foreach(node => out.writeLong(node.id()))
+      relationships.foreach(relationship => out.writeLong(relationship.id()))
+    case list: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(list.size())
+      val it = list.iterator()
+      while (it.hasNext) {
+        write(it.next())
+      }
+    case map: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(map.size())
+      map.foreach(new ThrowingBiConsumer[String, AnyValue, IOException] {
+        override def accept(key: String, entry: AnyValue): Unit = {
+          writeRawString(key)
+          write(entry)
+        }
+      })
+    case _ =>
+      throw new InternalException(s"Cannot spill a value of type ${value.getClass.getSimpleName}")
+  }
+
+  def writeRawString(value: String): Unit = {
+    val bytes = value.getBytes(StandardCharsets.UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  override def writeNull(): Unit = out.writeByte(NO_VALUE)
+
+  override def writeBoolean(value: Boolean): Unit = {
+    out.writeByte(BOOLEAN)
+    out.writeBoolean(value)
+  }
+
+  override def writeInteger(value: Byte): Unit = {
+    out.writeByte(BYTE)
+    out.writeByte(value)
+  }
+
+  override def writeInteger(value: Short): Unit = {
+    out.writeByte(SHORT)
+    out.writeShort(value)
+  }
+
+  override def writeInteger(value: Int): Unit = {
+    out.writeByte(INT)
+    out.writeInt(value)
+  }
+
+  override def writeInteger(value: Long): Unit = {
+    out.writeByte(LONG)
+    out.writeLong(value)
+  }
+
+  override def writeFloatingPoint(value: Float): Unit = {
+    out.writeByte(FLOAT)
+    out.writeFloat(value)
+  }
+
+  override def writeFloatingPoint(value: Double): Unit = {
+    out.writeByte(DOUBLE)
+    out.writeDouble(value)
+  }
+
+  override def writeString(value: String): Unit = {
+    out.writeByte(STRING)
+    writeRawString(value)
+  }
+
+  override def writeString(value: Char): Unit = {
+    out.writeByte(CHAR)
+    out.writeChar(value)
+  }
+
+  override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+    out.writeByte(ARRAY)
+    out.writeByte(arrayType.ordinal())
+    out.writeInt(size)
+  }
+
+  override def endArray(): Unit = {
+    // the size written by beginArray is all the reader needs
+  }
+
+  override def writeByteArray(value: Array[Byte]): Unit = {
+    out.writeByte(BYTE_ARRAY)
+    out.writeInt(value.length)
+    out.write(value)
+  }
+
+  override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+    out.writeByte(POINT)
+    out.writeInt(crs.getCode)
+    out.writeInt(coordinate.length)
+    coordinate.foreach(out.writeDouble)
+  }
+
+  override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+    out.writeByte(DURATION)
+    out.writeLong(months)
+    out.writeLong(days)
+    out.writeLong(seconds)
+    out.writeInt(nanos)
+  }
+
+  override def writeDate(localDate: LocalDate): Unit = {
+    out.writeByte(DATE)
+    out.writeLong(localDate.toEpochDay)
+  }
+
+  override def writeLocalTime(localTime: LocalTime): Unit = {
+    out.writeByte(LOCAL_TIME)
+    out.writeLong(localTime.toNanoOfDay)
+  }
+
+  override def writeTime(offsetTime: OffsetTime): Unit = {
+    out.writeByte(TIME)
+    out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+    out.writeInt(offsetTime.getOffset.getTotalSeconds)
+  }
+
+  override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+    out.writeByte(LOCAL_DATE_TIME)
+    out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+    out.writeInt(localDateTime.getNano)
+  }
+
+  override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+    out.writeByte(DATE_TIME)
+    out.writeLong(zonedDateTime.toEpochSecond)
+    out.writeInt(zonedDateTime.getNano)
+    writeRawString(zonedDateTime.getZone.getId)
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+
+import scala.collection.mutable
+
+/**
+  * A hash join that keeps its probe table within the memory budget of the query.
+  *
+  * Left hand side rows that do not fit are partitioned to disk by the hash of their join key. Right hand side rows
+  * are probed against the table as usual, and are also partitioned when left hand side rows of their partition were
+  * spilled. Each pair of partitions is then joined on its own, so every matching pair of rows is produced exactly
+  * once, either from the table or from a partition.
+  */
+object SpillingHashJoin {
+
+  def apply[KEY](lhs: Iterator[ExecutionContext],
+                 rhs: Iterator[ExecutionContext],
+                 lhsKey: ExecutionContext => Option[KEY],
+                 rhsKey: ExecutionContext => Option[KEY],
+                 spiller: RowSpiller): Iterator[ExecutionContext] = {
+    val table = new mutable.HashMap[KEY, mutable.MutableList[ExecutionContext]]
+    var lhsPartitions: SpillPartitions = null
+
+    for {row <- lhs
+         key <- lhsKey(row)} {
+      if (lhsPartitions == null && spiller.memory.tryGrow(RowSizeEstimator.estimate(row))) {
+        table.getOrElseUpdate(key, mutable.MutableList.empty) += row
+      } else {
+        if (lhsPartitions == null) {
+          lhsPartitions = spiller.newPartitions()
+        }
+        lhsPartitions.write(lhsPartitions.partitionOf(key), row)
+      }
+    }
+
+    if (lhsPartitions == null) {
+      if (table.isEmpty) {
+        spiller.memory.releaseAll()
+        return Iterator.empty
+      }
+      return spiller.releaseWhenExhausted(probe(table, rhs, rhsKey))
+    }
+
+    val rhsPartitions = spiller.newPartitions()
+    val partitioningRhs = rhs.map { row =>
+      for (key <- rhsKey(row)) {
+        val partition = lhsPartitions.partitionOf(key)
+        if (lhsPartitions.hasRows(partition)) {
+          rhsPartitions.write(partition, row)
+        }
+      }
+      row
+    }
+
+    val inMemory = spiller.releaseWhenExhausted(probe(table, partitioningRhs, rhsKey))
+    inMemory ++ (0 until lhsPartitions.count).iterator.flatMap { partition =>
+      if (rhsPartitions.hasRows(partition)) {
+        val partitionTable = new mutable.HashMap[KEY, mutable.MutableList[ExecutionContext]]
+        for {row <- lhsPartitions.read(partition)
+             key <- lhsKey(row)} {
+          partitionTable.getOrElseUpdate(key, mutable.MutableList.empty) += row
+        }
+        probe(partitionTable, rhsPartitions.read(partition), rhsKey)
+      } else {
+        lhsPartitions.discard(partition)
+        Iterator.empty
+      }
+    }
+  }
+
+  private def probe[KEY](table: mutable.HashMap[KEY, mutable.MutableList[ExecutionContext]],
+                         rhs: Iterator[ExecutionContext],
+                         rhsKey: ExecutionContext => Option[KEY]): Iterator[ExecutionContext] =
+    for {rhsRow <- rhs
+         key <- rhsKey(rhsRow).iterator
+         lhsRow <- table.getOrElse(key, mutable.MutableList.empty).iterator}
+      yield {
+        val output = lhsRow.createClone()
+        output.mergeWith(rhsRow)
+        output
+      }
+}
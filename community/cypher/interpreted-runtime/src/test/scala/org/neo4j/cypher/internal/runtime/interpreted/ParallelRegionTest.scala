@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.ir.v3_5.ProvidedOrder
+import org.neo4j.cypher.internal.planner.v3_5.spi.PlanningAttributes.ProvidedOrders
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.opencypher.v9_0.expressions._
+import org.opencypher.v9_0.util.{InputPosition, LabelId, PropertyKeyId}
+import org.opencypher.v9_0.util.attribution.{IdGen, SequentialIdGen}
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class ParallelRegionTest extends CypherFunSuite {
+
+  private implicit val idGen: IdGen = new SequentialIdGen
+  private val pos = InputPosition.NONE
+  private val noOrders = new ProvidedOrders
+
+  test("streaming plans above a scan are executed in parallel") {
+    // given MATCH (a)-[r]->(b) RETURN b
+    val scan = AllNodesScan("a", Set.empty)
+    val expand = Expand(scan, "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r")
+    val projection = Projection(expand, Map("b" -> varFor("b")))
+
+    // when
+    val region = ParallelRegion.find(ProduceResult(projection, Seq("b")), noOrders)
+
+    // then
+    region should equal(Some(ParallelRegion(scan, Seq(expand, projection), None)))
+    region.get.top should be theSameInstanceAs projection
+  }
+
+  test("aggregations that can be merged are included") {
+    // given MATCH (a:A) RETURN a.k AS k, count(*) AS c, max(a.x) AS m
+    val scan = NodeByLabelScan("a", LabelName("A")(pos), Set.empty)
+    val aggregation = Aggregation(scan, Map("k" -> prop("a", "k")),
+                                  Map("c" -> CountStar()(pos), "m" -> function("max", distinct = false, prop("a", "x"))))
+
+    // when
+    val region = ParallelRegion.find(aggregation, noOrders)
+
+    // then
+    region should equal(Some(ParallelRegion(scan, Seq.empty, Some(aggregation))))
+  }
+
+  test("aggregations that can not be merged stay out of the region") {
+    // given MATCH (a) WHERE a.x > 1 RETURN count(DISTINCT a.x), collect(a)
+    val scan = AllNodesScan("a", Set.empty)
+    val selection = Selection(Seq(GreaterThan(prop("a", "x"), SignedDecimalIntegerLiteral("1")(pos))(pos)), scan)
+
+    Seq(function("count", distinct = true, prop("a", "x")), function("collect", distinct = false, varFor("a"))).foreach { expression =>
+      // when
+      val region = ParallelRegion.find(Aggregation(selection, Map.empty, Map("x" -> expression)), noOrders)
+
+      // then
+      region should equal(Some(ParallelRegion(scan, Seq(selection), None)))
+    }
+  }
+
+  test("plans with branches or without a scan are not executed in parallel") {
+    val scan = AllNodesScan("a", Set.empty)
+    val projection = Projection(scan, Map("b" -> varFor("a")))
+
+    ParallelRegion.find(scan, noOrders) should equal(None)
+    ParallelRegion.find(Apply(scan, projection), noOrders) should equal(None)
+    ParallelRegion.find(Projection(Argument(Set("a")), Map("b" -> varFor("a"))), noOrders) should equal(None)
+  }
+
+  test("index scans are executed in parallel unless they are ordered") {
+    // given MATCH (a:A) WHERE exists(a.k) RETURN a.k AS k [ORDER BY k]
+    Seq(IndexOrderNone -> true, IndexOrderAscending -> false, IndexOrderDescending -> false).foreach {
+      case (indexOrder, parallel) =>
+        val scan = indexScan("a", "A", "k", indexOrder)
+        val projection = Projection(scan, Map("k" -> prop("a", "k")))
+
+        // when
+        val region = ParallelRegion.find(ProduceResult(projection, Seq("k")), noOrders)
+
+        // then
+        region.isDefined should be(parallel)
+    }
+  }
+
+  test("plans whose order is provided to the plans above are not executed in parallel") {
+    // given MATCH (a:A) WHERE exists(a.k) RETURN a.k AS k ORDER BY k, where only the provided orders tell about it
+    val scan = indexScan("a", "A", "k", IndexOrderNone)
+    val projection = Projection(scan, Map("k" -> prop("a", "k")))
+    val providedOrders = new ProvidedOrders
+    providedOrders.set(scan.id, ProvidedOrder.asc("a.k"))
+    providedOrders.set(projection.id, ProvidedOrder.asc("k"))
+
+    // when
+    val region = ParallelRegion.find(ProduceResult(projection, Seq("k")), providedOrders)
+
+    // then
+    region should equal(None)
+  }
+
+  private def indexScan(variable: String, label: String, key: String, indexOrder: IndexOrder) =
+    NodeIndexScan(variable, LabelToken(LabelName(label)(pos), LabelId(0)),
+                  IndexedProperty(PropertyKeyToken(PropertyKeyName(key)(pos), PropertyKeyId(0)), DoNotGetValue), Set.empty, indexOrder)
+
+  private def varFor(name: String) = Variable(name)(pos)
+
+  private def prop(variable: String, key: String) = Property(varFor(variable), PropertyKeyName(key)(pos))(pos)
+
+  private def function(name: String, distinct: Boolean, argument: Expression) =
+    FunctionInvocation(Namespace()(pos), FunctionName(name)(pos), distinct, IndexedSeq(argument))(pos)
+}
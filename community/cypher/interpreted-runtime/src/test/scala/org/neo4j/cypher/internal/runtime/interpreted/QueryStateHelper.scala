@@ -22,8 +22,9 @@ package org.neo4j.cypher.internal.runtime.interpreted
 import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
 import org.mockito.{ArgumentMatchers, Mockito}
-import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.{QueryContext, ResourceManager}
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.QueryMemoryManager
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.{ExternalCSVResource, NullPipeDecorator, PipeDecorator, QueryState}
 import org.neo4j.graphdb.spatial.Point
 import org.neo4j.graphdb.{Node, Relationship}
@@ -48,10 +49,18 @@ object QueryStateHelper {
                 resources: ExternalCSVResource = null,
                 params: MapValue = EMPTY_MAP,
                 decorator: PipeDecorator = NullPipeDecorator,
-                initialContext: Option[ExecutionContext] = None
+                initialContext: Option[ExecutionContext] = None,
+                memoryManager: QueryMemoryManager = QueryMemoryManager.unlimited
                ):QueryState =
     new QueryState(query, resources, params, decorator,
-      triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty, initialContext = initialContext)
+      triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty, initialContext = initialContext,
+      memoryManager = memoryManager)
+
+  def emptyWithMemoryBudget(budget: Long): QueryState = {
+    val query = Mockito.mock(classOf[QueryContext])
+    Mockito.when(query.resources).thenReturn(new ResourceManager)
+    emptyWith(query = query, memoryManager = new QueryMemoryManager(budget))
+  }
 
   private val locker: PropertyContainerLocker = new PropertyContainerLocker
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.v3_5.logical.plans._
+import org.opencypher.v9_0.expressions._
+import org.opencypher.v9_0.util.InputPosition
+import org.opencypher.v9_0.util.attribution.{IdGen, SequentialIdGen}
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class SlotAllocationTest extends CypherFunSuite {
+
+  private implicit val idGen: IdGen = new SequentialIdGen
+  private val pos = InputPosition.NONE
+
+  test("nodes and relationships from scans and expands get long slots") {
+    // given MATCH (a)-[r]->(b)
+    val plan = Expand(AllNodesScan("a", Set.empty), "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r")
+
+    // when
+    val slots = SlotAllocation.allocateSlots(plan)
+
+    // then
+    slots.numberOfLongs should equal(3)
+    slots.numberOfReferences should equal(0)
+    slots("a") shouldBe a[LongSlot]
+    slots("b") should equal(LongSlot(slots("b").offset, isNode = true))
+    slots("r") should equal(LongSlot(slots("r").offset, isNode = false))
+  }
+
+  test("projected values get reference slots") {
+    // given MATCH (a) WITH a, a.name AS name
+    val plan = Projection(AllNodesScan("a", Set.empty),
+                          Map("a" -> varFor("a"), "name" -> Property(varFor("a"), PropertyKeyName("name")(pos))(pos)))
+
+    // when
+    val slots = SlotAllocation.allocateSlots(plan)
+
+    // then
+    slots("a") shouldBe a[LongSlot]
+    slots("name") shouldBe a[RefSlot]
+  }
+
+  test("variables rebound by a projection get reference slots") {
+    // given MATCH (a) WITH a.name AS a
+    val plan = Projection(AllNodesScan("a", Set.empty),
+                          Map("a" -> Property(varFor("a"), PropertyKeyName("name")(pos))(pos)))
+
+    // when
+    val slots = SlotAllocation.allocateSlots(plan)
+
+    // then
+    slots("a") shouldBe a[RefSlot]
+  }
+
+  test("variables introduced as different entity types get reference slots") {
+    // given
+    val lhs = Expand(AllNodesScan("a", Set.empty), "a", SemanticDirection.OUTGOING, Seq.empty, "b", "x")
+    val rhs = Expand(AllNodesScan("a", Set.empty), "a", SemanticDirection.OUTGOING, Seq.empty, "x", "r")
+    val plan = Union(lhs, rhs)
+
+    // when
+    val slots = SlotAllocation.allocateSlots(plan)
+
+    // then
+    slots("a") shouldBe a[LongSlot]
+    slots("x") shouldBe a[RefSlot]
+  }
+
+  test("arguments keep the slot of the variable they came from") {
+    // given an apply that expands (a)-[r]->(b) from the argument
+    val rhs = Expand(Argument(Set("a")), "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r")
+    val plan = Apply(AllNodesScan("a", Set.empty), rhs)
+
+    // when
+    val slots = SlotAllocation.allocateSlots(plan)
+
+    // then
+    slots.numberOfLongs should equal(3)
+    slots("a") shouldBe a[LongSlot]
+  }
+
+  private def varFor(name: String) = Variable(name)(pos)
+}
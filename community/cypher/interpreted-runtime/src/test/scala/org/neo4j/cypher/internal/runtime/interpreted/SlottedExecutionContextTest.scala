@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.v3_5.logical.plans.CachedNodeProperty
+import org.neo4j.values.storable.Values
+import org.neo4j.values.storable.Values.stringValue
+import org.neo4j.values.virtual.VirtualValues
+import org.opencypher.v9_0.expressions.PropertyKeyName
+import org.opencypher.v9_0.util.InputPosition
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class SlottedExecutionContextTest extends CypherFunSuite {
+
+  private val slots = SlotConfiguration.empty
+    .newLong("n", isNode = true)
+    .newLong("r", isNode = false)
+    .newReference("x")
+
+  private val node = VirtualValues.node(42)
+  private val relationship = VirtualValues.relationship(7)
+
+  test("should keep entity ids in long slots") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+
+    // when
+    ctx.set("n", node, "r", relationship, "x", stringValue("x"))
+
+    // then
+    ctx.getLongAt(slots("n").offset) should equal(42)
+    ctx.getLongAt(slots("r").offset) should equal(7)
+    ctx("n") should be theSameInstanceAs node
+    ctx("r") should be theSameInstanceAs relationship
+    ctx("x") should equal(stringValue("x"))
+    ctx.toMap should equal(Map("n" -> node, "r" -> relationship, "x" -> stringValue("x")))
+  }
+
+  test("should materialize references for ids set directly") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+
+    // when
+    ctx.setLongAt(slots("n").offset, 1)
+    ctx.setLongAt(slots("r").offset, 2)
+
+    // then
+    ctx("n") should equal(VirtualValues.node(1))
+    ctx("r") should equal(VirtualValues.relationship(2))
+  }
+
+  test("should tell unset slots from null entities") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+
+    // then
+    ctx.contains("n") should equal(false)
+    ctx.size should equal(0)
+
+    // when
+    ctx.set("n", Values.NO_VALUE)
+
+    // then
+    ctx.isNull("n") should equal(true)
+    ctx.getLongAt(slots("n").offset) should equal(SlottedExecutionContext.NULL_ENTITY)
+
+    // when
+    ctx -= "n"
+
+    // then
+    ctx.contains("n") should equal(false)
+  }
+
+  test("should keep values that do not fit the long slot") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+
+    // when
+    ctx.set("n", stringValue("not a node"), "r", node)
+
+    // then
+    ctx("n") should equal(stringValue("not a node"))
+    ctx("r") should equal(node)
+    ctx.getLongAt(slots("n").offset) should equal(SlottedExecutionContext.UNSET)
+    ctx.getLongAt(slots("r").offset) should equal(SlottedExecutionContext.UNSET)
+  }
+
+  test("should store variables without a slot") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+
+    // when
+    ctx.set("n", node, "unknown", stringValue("y"))
+
+    // then
+    ctx("unknown") should equal(stringValue("y"))
+    ctx.toMap should equal(Map("n" -> node, "unknown" -> stringValue("y")))
+  }
+
+  test("create clone") {
+    // given
+    val ctx = SlottedExecutionContext(slots)
+    ctx.set("n", node, "unknown", stringValue("y"))
+    ctx.setCachedProperty(prop("n", "p"), stringValue("p"))
+
+    // when
+    val ctxClone = ctx.copyWith("x", stringValue("x"))
+    ctxClone.set("n", VirtualValues.node(43), "unknown", stringValue("z"))
+    ctxClone.setCachedProperty(prop("n", "p"), stringValue("q"))
+
+    // then
+    ctx.toMap should equal(Map("n" -> node, "unknown" -> stringValue("y")))
+    ctx.getCachedProperty(prop("n", "p")) should equal(stringValue("p"))
+    ctxClone.toMap should equal(Map("n" -> VirtualValues.node(43), "unknown" -> stringValue("z"), "x" -> stringValue("x")))
+    ctxClone.getCachedProperty(prop("n", "p")) should equal(stringValue("q"))
+  }
+
+  test("mergeWith slotted context should not remove missing keys") {
+    // given
+    val lhs = SlottedExecutionContext(slots)
+    lhs.set("n", node, "x", stringValue("x"))
+    val rhs = SlottedExecutionContext(slots)
+    rhs.set("r", relationship, "x", stringValue("y"))
+    rhs.setCachedProperty(prop("n", "p"), stringValue("p"))
+
+    // when
+    lhs.mergeWith(rhs)
+
+    // then
+    lhs.toMap should equal(Map("n" -> node, "r" -> relationship, "x" -> stringValue("y")))
+    lhs.getLongAt(slots("r").offset) should equal(7)
+    lhs.getCachedProperty(prop("n", "p")) should equal(stringValue("p"))
+  }
+
+  test("mergeWith between map and slotted contexts") {
+    // given
+    val slotted = SlottedExecutionContext(slots)
+    slotted.set("n", node)
+    val map = ExecutionContext.from("r" -> relationship, "unknown" -> stringValue("y"))
+    map.setCachedProperty(prop("n", "p"), stringValue("p"))
+
+    // when
+    slotted.mergeWith(map)
+
+    // then
+    slotted.toMap should equal(Map("n" -> node, "r" -> relationship, "unknown" -> stringValue("y")))
+    slotted.getLongAt(slots("r").offset) should equal(7)
+    slotted.getCachedProperty(prop("n", "p")) should equal(stringValue("p"))
+
+    // when
+    val other = ExecutionContext.empty
+    other.mergeWith(slotted)
+
+    // then
+    other.toMap should equal(slotted.toMap)
+    other.getCachedProperty(prop("n", "p")) should equal(stringValue("p"))
+  }
+
+  private def prop(node: String, prop: String) =
+    CachedNodeProperty(node, PropertyKeyName(prop)(InputPosition.NONE))(InputPosition.NONE)
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.compiled
+
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.{never, times, verify, when}
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken
+import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.PropertyKey
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext}
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.storable.Values
+import org.neo4j.values.storable.Values.{longValue, stringValue}
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+import org.opencypher.v9_0.util.{ArithmeticException, CypherTypeException}
+
+class ExpressionCompilerTest extends CypherFunSuite {
+
+  private val ctx = ExecutionContext.from("x" -> longValue(3), "s" -> stringValue("a"), "n" -> Values.NO_VALUE)
+  private val state = QueryStateHelper.emptyWith(params = VirtualValues.map(
+    Array("p", "map"),
+    Array(longValue(10), VirtualValues.map(Array("name", "age"), Array(stringValue("Alice"), longValue(42))))))
+
+  private val x = Variable("x")
+  private val n = Variable("n")
+
+  test("should evaluate compiled arithmetic like the interpreter") {
+    assertSameResult(Add(x, Literal(1)))
+    assertSameResult(Subtract(ParameterExpression("p"), x))
+    assertSameResult(Multiply(Add(x, x), Literal(2.5)))
+    assertSameResult(Divide(ParameterExpression("p"), x))
+    assertSameResult(Modulo(ParameterExpression("p"), x))
+    assertSameResult(Pow(x, Literal(2)))
+    assertSameResult(Add(Variable("s"), x))
+  }
+
+  test("should propagate null through compiled arithmetic") {
+    assertSameResult(Add(x, n))
+    assertSameResult(Multiply(n, x))
+    assertSameResult(Divide(n, x))
+    assertSameResult(Pow(x, Literal(null)))
+  }
+
+  test("should evaluate compiled predicates like the interpreter") {
+    assertSameResult(Equals(x, Literal(3)))
+    assertSameResult(Equals(x, n))
+    assertSameResult(LessThan(x, ParameterExpression("p")))
+    assertSameResult(LessThanOrEqual(x, Literal(3)))
+    assertSameResult(GreaterThan(x, n))
+    assertSameResult(GreaterThanOrEqual(Variable("s"), x))
+    assertSameResult(Not(GreaterThan(x, Literal(5))))
+    assertSameResult(Not(GreaterThan(x, n)))
+    assertSameResult(Xor(Equals(x, Literal(3)), LessThan(x, Literal(5))))
+    assertSameResult(Xor(Equals(x, Literal(3)), LessThan(x, n)))
+    assertSameResult(IsNull(n))
+    assertSameResult(Not(IsNull(Add(x, Literal(1)))))
+  }
+
+  test("should look up properties in compiled code") {
+    assertSameResult(Property(ParameterExpression("map"), PropertyKey("name")))
+    assertSameResult(Property(ParameterExpression("map"), PropertyKey("missing")))
+    assertSameResult(Property(n, PropertyKey("name")))
+    assertSameResult(GreaterThan(Property(ParameterExpression("map"), PropertyKey("age")), Literal(40)))
+  }
+
+  test("should look up node properties by the token resolved at compile time") {
+    val (query, nodeOps) = queryWithNodeProperty(propertyKeyId = 7)
+    val state = QueryStateHelper.emptyWith(query = query)
+    val compiled = new ExpressionCompiler().compile(Property(Variable("a"), KeyToken.Resolved("name", 7, PropertyKey)))
+    val row = ExecutionContext.from("a" -> VirtualValues.node(3))
+
+    compiled(row, state) should equal(stringValue("Alice"))
+    compiled(row, state) should equal(stringValue("Alice"))
+
+    verify(nodeOps, times(2)).getProperty(3, 7)
+    verify(query, never()).getOptPropertyKeyId(anyString())
+  }
+
+  test("should look up node properties by name while the token is unresolved") {
+    val (query, nodeOps) = queryWithNodeProperty(propertyKeyId = 7)
+    when(query.getOptPropertyKeyId("name")).thenReturn(None, Some(7))
+    val state = QueryStateHelper.emptyWith(query = query)
+    val compiled = new ExpressionCompiler().compile(Property(Variable("a"), PropertyKey("name")))
+    val row = ExecutionContext.from("a" -> VirtualValues.node(3))
+
+    compiled(row, state) should equal(Values.NO_VALUE)
+    compiled(row, state) should equal(stringValue("Alice"))
+
+    verify(query, times(2)).getOptPropertyKeyId("name")
+    verify(nodeOps, times(1)).getProperty(3, 7)
+  }
+
+  test("should fail like the interpreter") {
+    val compiler = new ExpressionCompiler()
+
+    intercept[ArithmeticException](compiler.compile(Divide(x, Literal(0)))(ctx, state))
+    intercept[CypherTypeException](compiler.compile(Add(x, Literal(true)))(ctx, state))
+    intercept[CypherTypeException](compiler.compile(Property(x, PropertyKey("name")))(ctx, state))
+    intercept[NotFoundException](compiler.compile(Add(Variable("missing"), x))(ctx, state))
+  }
+
+  test("should compile the supported parts below unsupported expressions") {
+    val compiler = new ExpressionCompiler()
+    val left = GreaterThan(x, Literal(1))
+    val right = Equals(Variable("s"), Literal("a"))
+
+    val compiled = compiler.compile(Ands(left, right))
+
+    compiled should be(an[Ands])
+    compiled.arguments.map {
+      case CompiledPredicate(original, _) => original
+      case other => fail(s"$other was not compiled")
+    } should equal(Seq(left, right))
+    compiled(ctx, state) should equal(Values.TRUE)
+  }
+
+  test("should leave trivial and unsupported expressions alone") {
+    val compiler = new ExpressionCompiler()
+    val unsupported = ContainerIndex(ParameterExpression("map"), Literal("name"))
+
+    compiler.compile(x) should be theSameInstanceAs x
+    compiler.compile(Literal(1)) should equal(Literal(1))
+    compiler.compile(unsupported) should be theSameInstanceAs unsupported
+  }
+
+  // node 3 has the value "Alice" for the given property key
+  private def queryWithNodeProperty(propertyKeyId: Int) = {
+    val nodeOps = mock[Operations[NodeValue]]
+    when(nodeOps.getProperty(3, propertyKeyId)).thenReturn(stringValue("Alice"))
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    (query, nodeOps)
+  }
+
+  private def assertSameResult(expression: Expression) = {
+    val compiled = new ExpressionCompiler().compile(expression)
+
+    compiled should not equal expression
+    compiled(ctx, state) should equal(expression(ctx, state))
+  }
+}
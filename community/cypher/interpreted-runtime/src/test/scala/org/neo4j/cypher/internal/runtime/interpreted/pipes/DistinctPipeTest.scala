@@ -24,7 +24,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper._
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.{Expression, Literal, Multiply, Variable}
 import org.opencypher.v9_0.util.symbols._
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
-import org.neo4j.values.storable.Values.stringArray
+import org.neo4j.values.storable.Values.{intValue, stringArray}
 import org.neo4j.values.virtual.MapValue
 
 import scala.collection.JavaConverters._
@@ -79,6 +79,20 @@ class DistinctPipeTest extends CypherFunSuite {
     result.head("x").asInstanceOf[MapValue].get("prop") should equal(stringArray("a", "b"))
   }
 
+  test("distinct input that does not fit in the memory budget of the query") {
+    //GIVEN
+    val pipe = createDistinctPipe((0 until 1000).map(i => Map[String, Any]("x" -> i % 300)).toList)
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    //WHEN
+    val result = pipe.createResults(state).toList
+
+    //THEN
+    result.map(_("x")).toSet should equal((0 until 300).map(intValue).toSet)
+    result should have size 300
+    state.memoryManager.spilled(pipe.id) should not be empty
+  }
+
   def createDistinctPipe(input: List[Map[String, Any]], expressions: Map[String, Expression] = Map("x" -> Variable("x"))) = {
     val source = new FakePipe(input, "x" -> CTNumber)
     DistinctPipe(source, expressions)()
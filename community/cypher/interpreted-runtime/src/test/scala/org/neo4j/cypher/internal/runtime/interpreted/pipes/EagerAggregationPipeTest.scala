@@ -25,7 +25,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType.P
 import org.opencypher.v9_0.util.symbols._
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.Values
+import org.neo4j.values.storable.{IntValue, Values}
 import org.neo4j.values.storable.Values.{intValue, longValue, stringValue}
 import org.neo4j.values.virtual.VirtualValues
 
@@ -144,6 +144,22 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> longValue(3))))
   }
 
+  test("should aggregate groups that do not fit in the memory budget of the query") {
+    val source = new FakePipe((0 until 1000).map(i => Map[String, Any]("a" -> i % 100, "b" -> i)), createSymbolTableFor("a"))
+
+    val grouping = createReturnItemsFor("a")
+    val aggregation = Map("count(*)" -> CountStar(), "sum(b)" -> Sum(Variable("b")))
+    val aggregationPipe = EagerAggregationPipe(source, grouping, aggregation)()
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    val result = aggregationPipe.createResults(state).map(_.toMap).toList
+
+    result.sortBy(_("a").asInstanceOf[IntValue].value()) should equal((0 until 100).map(a => Map[String, AnyValue](
+      "a" -> intValue(a), "count(*)" -> longValue(10), "sum(b)" -> longValue((0 until 10).map(_ * 100 + a).sum))))
+    state.memoryManager.spilled(aggregationPipe.id) should not be empty
+    state.query.resources.allResources shouldBe empty
+  }
+
   private def createSymbolTableFor(name: String): (String, CypherType) = name -> CTNode
 
   private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.toMap).toList
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext}
 import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryContextAdaptation, QueryStateHelper}
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values.intValue
 
 class EagerPipeTest extends CypherFunSuite {
 
@@ -44,4 +45,18 @@ class EagerPipeTest extends CypherFunSuite {
     lazyIterator shouldBe empty
     resultIterator should not be empty
   }
+
+  test("should keep the order of rows that do not fit in the memory budget of the query") {
+    // Given
+    val src = new FakePipe((0 until 100).map(i => Map[String, Any]("x" -> i)))
+    val eager = EagerPipe(src)()
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    // When
+    val result = eager.createResults(state).toList
+
+    // Then
+    result.map(_("x")) should equal((0 until 100).map(intValue))
+    state.memoryManager.spilled(eager.id).map(_.rows) should equal(Some(100))
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.ForkJoinPool
+
+import org.mockito.Mockito.{atLeastOnce, never, times, verify, when, withSettings}
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions._
+import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.LessThan
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.parallel.WorkerPool
+import org.neo4j.cypher.internal.runtime.{QueryContext, QueryTransactionalContext, ResourceManager}
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.internal.kernel.api.Transaction
+import org.neo4j.kernel.api.txstate.TxStateHolder
+import org.neo4j.values.storable.Values.{NO_VALUE, intValue, longValue}
+import org.opencypher.v9_0.util.symbols._
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class ParallelPipeTest extends CypherFunSuite {
+
+  private val pool = new WorkerPool(2, ForkJoinPool.commonPool())
+
+  private def rows(count: Int) = new FakePipe((0 until count).map(i => Map[String, Any]("x" -> i, "k" -> i % 3)),
+                                              "x" -> CTInteger, "k" -> CTInteger)
+
+  private def stateWithChanges(changes: Boolean,
+                               workerTransactionalContext: QueryTransactionalContext = mock[QueryTransactionalContext]): QueryState = {
+    val transaction = mock[Transaction](withSettings().extraInterfaces(classOf[TxStateHolder]))
+    when(transaction.asInstanceOf[TxStateHolder].hasTxStateWithChanges).thenReturn(changes)
+    val transactionalContext = mock[QueryTransactionalContext]
+    when(transactionalContext.transaction).thenReturn(transaction)
+
+    val worker = mock[QueryContext]
+    when(worker.resources).thenReturn(new ResourceManager)
+    when(worker.transactionalContext).thenReturn(workerTransactionalContext)
+
+    val query = mock[QueryContext]
+    when(query.resources).thenReturn(new ResourceManager)
+    when(query.transactionalContext).thenReturn(transactionalContext)
+    when(query.createNewQueryContext()).thenReturn(worker)
+    QueryStateHelper.emptyWith(query = query)
+  }
+
+  test("should apply the chain to the rows of all morsels") {
+    val chain = FilterPipe(ArgumentPipe()(), LessThan(Variable("x"), Literal(500)))()
+    val pipe = ParallelPipe(rows(1000), chain, None, null, pool, morselSize = 10)()
+    val workerTransactionalContext = mock[QueryTransactionalContext]
+
+    val result = pipe.createResults(stateWithChanges(false, workerTransactionalContext)).map(_("x")).toList
+
+    result should have size 500
+    result.toSet should equal((0 until 500).map(intValue).toSet)
+    verify(workerTransactionalContext, times(100)).close(true)
+  }
+
+  test("should merge the partial aggregations of all morsels") {
+    val aggregation = EagerAggregationPipe(ArgumentPipe()(), Map("k" -> Variable("k")),
+                                           Map("count" -> CountStar(), "sum" -> Sum(Variable("x")), "max" -> Max(Variable("x"))))()
+    val pipe = ParallelPipe(rows(1000), ArgumentPipe()(), Some(aggregation), null, pool, morselSize = 7)()
+
+    val result = pipe.createResults(stateWithChanges(false)).map(row => row("k") -> (row("count"), row("sum"), row("max"))).toMap
+
+    result should equal(Map(
+      intValue(0) -> (longValue(334), longValue(166833), intValue(999)),
+      intValue(1) -> (longValue(333), longValue(166167), intValue(997)),
+      intValue(2) -> (longValue(333), longValue(166500), intValue(998))))
+  }
+
+  test("should aggregate nothing into a single row without grouping keys") {
+    val aggregation = EagerAggregationPipe(ArgumentPipe()(), Map.empty,
+                                           Map("count" -> CountStar(), "max" -> Max(Variable("x"))))()
+    val pipe = ParallelPipe(rows(0), ArgumentPipe()(), Some(aggregation), null, pool, morselSize = 10)()
+
+    val result = pipe.createResults(stateWithChanges(false)).map(row => (row("count"), row("max"))).toList
+
+    result should equal(List((longValue(0), NO_VALUE)))
+  }
+
+  test("should execute the serial pipe when the transaction has changes") {
+    val serial = new FakePipe(List(Map[String, Any]("x" -> 42)), "x" -> CTInteger)
+    val pipe = ParallelPipe(rows(1000), ArgumentPipe()(), None, serial, pool, morselSize = 10)()
+    val state = stateWithChanges(true)
+
+    pipe.createResults(state).map(_("x")).toList should equal(List(intValue(42)))
+    verify(state.query, never()).createNewQueryContext()
+  }
+
+  test("should rethrow what failed on a worker and roll back its transaction") {
+    val chain = FilterPipe(ArgumentPipe()(), LessThan(Variable("x"), Variable("missing")))()
+    val pipe = ParallelPipe(rows(100), chain, None, null, pool, morselSize = 10)()
+    val workerTransactionalContext = mock[QueryTransactionalContext]
+
+    intercept[NotFoundException](pipe.createResults(stateWithChanges(false, workerTransactionalContext)).toList)
+    verify(workerTransactionalContext, never()).close(true)
+    verify(workerTransactionalContext, atLeastOnce()).close(false)
+  }
+}
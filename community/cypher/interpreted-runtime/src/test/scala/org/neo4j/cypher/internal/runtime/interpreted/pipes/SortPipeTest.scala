@@ -93,4 +93,27 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("should sort input that does not fit in the memory budget of the query") {
+    val input = (0 until 5000).map(i => MutableMap[String, Any]("x" -> (i * 7919) % 5000, "i" -> i))
+    val source = new FakePipe(input, "x" -> CTNumber, "i" -> CTNumber)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    val result = sortPipe.createResults(state).toList
+
+    result.map(_("x")) should equal((0 until 5000).map(intValue))
+    state.memoryManager.spilled(sortPipe.id).map(_.files) should equal(Some(5))
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should keep the order of equal rows when sorting on disk") {
+    val input = (0 until 3000).map(i => MutableMap[String, Any]("x" -> i % 2, "i" -> i))
+    val source = new FakePipe(input, "x" -> CTNumber, "i" -> CTNumber)
+    val sortPipe = new SortPipe(source, List(Ascending("x")))()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithMemoryBudget(1)).toList
+
+    result.map(_("i")) should equal(((0 until 3000 by 2) ++ (1 until 3000 by 2)).map(intValue))
+  }
 }
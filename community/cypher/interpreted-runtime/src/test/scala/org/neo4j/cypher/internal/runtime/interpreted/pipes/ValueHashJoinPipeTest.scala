@@ -28,7 +28,8 @@ import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QuerySta
 import org.opencypher.v9_0.util.symbols._
 import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.Values.{doubleArray, intArray, intValue}
+import org.neo4j.values.storable.IntValue
+import org.neo4j.values.storable.Values.{NO_VALUE, doubleArray, intArray, intValue}
 
 class ValueHashJoinPipeTest extends CypherFunSuite {
 
@@ -181,6 +182,27 @@ class ValueHashJoinPipeTest extends CypherFunSuite {
   }
 
 
+  test("should join inputs that do not fit in the memory budget of the query") {
+    // given
+    val queryState = QueryStateHelper.emptyWithMemoryBudget(1)
+
+    val left = newMockedPipe(SymbolTable(Map("a" -> CTInteger)))
+    when(left.createResults(queryState)).thenReturn(rows("a", (0 until 500).map(i => intValue(i % 250)): _*))
+
+    val right = newMockedPipe(SymbolTable(Map("b" -> CTInteger)))
+    when(right.createResults(queryState)).thenReturn(rows("b", (100 until 400).map(intValue) :+ NO_VALUE: _*))
+
+    // when
+    val pipe = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)()
+    val result = pipe.createResults(queryState).toList
+
+    // then
+    result.map(row => (row("a"), row("b"))).sortBy(_._1.asInstanceOf[IntValue].value()) should equal(
+      (100 until 250).flatMap(i => Seq.fill(2)((intValue(i), intValue(i)))))
+    queryState.memoryManager.spilled(pipe.id) should not be empty
+    queryState.query.resources.allResources shouldBe empty
+  }
+
   private def row(values: (String, AnyValue)*) = ExecutionContext.from(values: _*)
 
   private def rows(variable: String, values: AnyValue*): Iterator[ExecutionContext] =
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.time.ZoneId
+
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityExecutionContextFactory
+import org.neo4j.cypher.internal.runtime.interpreted.{ExecutionContext, QueryStateHelper}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem.{Cartesian, WGS84}
+import org.neo4j.values.storable.Values._
+import org.neo4j.values.storable.{DateTimeValue, DateValue, DurationValue, LocalTimeValue}
+import org.neo4j.values.virtual.VirtualValues
+import org.opencypher.v9_0.util.test_helpers.CypherFunSuite
+
+class SpillFileTest extends CypherFunSuite {
+
+  private val values: Seq[AnyValue] = Seq(
+    NO_VALUE,
+    booleanValue(true),
+    byteValue(-7),
+    shortValue(1234),
+    intValue(Int.MinValue),
+    longValue(Long.MaxValue),
+    floatValue(1.5f),
+    doubleValue(Math.PI),
+    stringValue("hello åäö"),
+    charValue('x'),
+    stringArray("a", "b"),
+    intArray(Array(1, 2, 3)),
+    byteArray(Array[Byte](1, 2)),
+    pointValue(Cartesian, 1.0, 2.0),
+    pointValue(WGS84, 12.9, 55.6),
+    DurationValue.duration(1, 2, 3, 4),
+    DateValue.date(2018, 6, 13),
+    LocalTimeValue.localTime(12, 30, 15, 100),
+    DateTimeValue.datetime(1528900000L, 17L, ZoneId.of("Europe/Stockholm")),
+    VirtualValues.list(intValue(1), stringValue("two"), NO_VALUE),
+    VirtualValues.map(Array("k1", "k2"), Array(longValue(42), VirtualValues.list(doubleValue(0.5))))
+  )
+
+  test("should read back the rows that were written, in order") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+    val file = new SpillFile(new SpilledRowKeys, new SpillStatistics, state.query)
+    val rows = values.zipWithIndex.map {
+      case (value, i) => ExecutionContext.from("value" -> value, "index" -> intValue(i))
+    }
+
+    rows.foreach(file.write)
+    val read = file.read(CommunityExecutionContextFactory()).toList
+
+    read.map(_.toMap) should equal(rows.map(_.toMap))
+  }
+
+  test("should count what was written") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+    val statistics = new SpillStatistics
+    val file = new SpillFile(new SpilledRowKeys, statistics, state.query)
+
+    file.write(ExecutionContext.from("x" -> stringValue("a")))
+    file.write(ExecutionContext.from("x" -> stringValue("b")))
+
+    file.rows should equal(2)
+    statistics.rows should equal(2)
+    statistics.files should equal(1)
+    statistics.bytes should be > 0L
+  }
+
+  test("should release the file once all rows have been read") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+    val file = new SpillFile(new SpilledRowKeys, new SpillStatistics, state.query)
+    file.write(ExecutionContext.from("x" -> intValue(1)))
+    state.query.resources.allResources should contain(file)
+
+    val rows = file.read(CommunityExecutionContextFactory())
+    state.query.resources.allResources should contain(file)
+
+    rows.toList should have size 1
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should release a file without rows as soon as it is read") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+    val file = new SpillFile(new SpilledRowKeys, new SpillStatistics, state.query)
+
+    file.read(CommunityExecutionContextFactory()) shouldBe empty
+    state.query.resources.allResources shouldBe empty
+  }
+
+  test("should release a discarded file") {
+    val state = QueryStateHelper.emptyWithMemoryBudget(1)
+    val file = new SpillFile(new SpilledRowKeys, new SpillStatistics, state.query)
+    file.write(ExecutionContext.from("x" -> intValue(1)))
+
+    file.discard()
+
+    state.query.resources.allResources shouldBe empty
+  }
+}
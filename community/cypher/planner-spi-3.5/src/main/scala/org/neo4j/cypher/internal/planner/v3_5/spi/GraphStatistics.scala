@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.planner.v3_5.spi
 
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bound
 import org.opencypher.v9_0.util.Cardinality
 import org.opencypher.v9_0.util.LabelId
 import org.opencypher.v9_0.util.RelTypeId
@@ -67,6 +68,31 @@ trait GraphStatistics {
       indexPropertyExistsSelectivity(:X, prop) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE has(x.prop)|
    */
   def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity]
+
+  /*
+      Probability of any node in the index to have the given value, estimated from the value histogram of the index.
+      None if there is no histogram with values of the same kind.
+
+      indexPropertyValueSelectivity(:X, prop, v) = s => |MATCH (a:X) WHERE has(x.prop)| * s = |MATCH (a:X) WHERE x.prop = v|
+   */
+  def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] = None
+
+  /*
+      Probability of any node in the index to have a value that isn't known when planning, like a parameter,
+      estimated from the value histogram of the index. The value is assumed to be looked up about as often as it
+      occurs, so skewed values weigh in more than in uniqueValueSelectivity. None if there is no histogram.
+
+      indexPropertyAverageValueSelectivity(:X, prop) = s => |MATCH (a:X) WHERE has(x.prop)| * s = |MATCH (a:X) WHERE x.prop = $v|
+   */
+  def indexPropertyAverageValueSelectivity(index: IndexDescriptor): Option[Selectivity] = None
+
+  /*
+      Probability of any node in the index to have a value within the given bounds, estimated from the value histogram
+      of the index. None if there is no histogram with values of the same kind.
+
+      indexPropertyRangeSelectivity(:X, prop, Some(>= v), None) = s => |MATCH (a:X) WHERE has(x.prop)| * s = |MATCH (a:X) WHERE x.prop >= v|
+   */
+  def indexPropertyRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] = None
 }
 
 class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatistics {
@@ -82,6 +108,15 @@ class DelegatingGraphStatistics(delegate: GraphStatistics) extends GraphStatisti
   override def indexPropertyExistsSelectivity(index: IndexDescriptor): Option[Selectivity] =
     delegate.indexPropertyExistsSelectivity(index)
 
+  override def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] =
+    delegate.indexPropertyValueSelectivity(index, value)
+
+  override def indexPropertyRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] =
+    delegate.indexPropertyRangeSelectivity(index, lower, upper)
+
+  override def indexPropertyAverageValueSelectivity(index: IndexDescriptor): Option[Selectivity] =
+    delegate.indexPropertyAverageValueSelectivity(index)
+
   override def nodesAllCardinality(): Cardinality = delegate.nodesAllCardinality()
 }
 
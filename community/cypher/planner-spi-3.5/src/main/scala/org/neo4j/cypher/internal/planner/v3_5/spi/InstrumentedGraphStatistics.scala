@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.planner.v3_5.spi
 import java.lang.Math.abs
 import java.lang.Math.max
 
+import org.neo4j.cypher.internal.v3_5.logical.plans.Bound
 import org.opencypher.v9_0.util.Cardinality
 import org.opencypher.v9_0.util.LabelId
 import org.opencypher.v9_0.util.RelTypeId
@@ -35,6 +36,9 @@ case object NodesAllCardinality extends StatisticsKey
 case class CardinalityByLabelsAndRelationshipType(lhs: Option[LabelId], relType: Option[RelTypeId], rhs: Option[LabelId]) extends StatisticsKey
 case class IndexSelectivity(index: IndexDescriptor) extends StatisticsKey
 case class IndexPropertyExistsSelectivity(index: IndexDescriptor) extends StatisticsKey
+case class IndexPropertyValueSelectivity(index: IndexDescriptor, value: Any) extends StatisticsKey
+case class IndexPropertyRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]) extends StatisticsKey
+case class IndexPropertyAverageValueSelectivity(index: IndexDescriptor) extends StatisticsKey
 
 class MutableGraphStatisticsSnapshot(val map: mutable.Map[StatisticsKey, Double] = mutable.Map.empty) {
   def freeze: GraphStatisticsSnapshot = GraphStatisticsSnapshot(map.toMap)
@@ -56,6 +60,12 @@ case class GraphStatisticsSnapshot(statsValues: Map[StatisticsKey, Double] = Map
         instrumented.uniqueValueSelectivity(index)
       case IndexPropertyExistsSelectivity(index) =>
         instrumented.indexPropertyExistsSelectivity(index)
+      case IndexPropertyValueSelectivity(index, value) =>
+        instrumented.indexPropertyValueSelectivity(index, value)
+      case IndexPropertyRangeSelectivity(index, lower, upper) =>
+        instrumented.indexPropertyRangeSelectivity(index, lower, upper)
+      case IndexPropertyAverageValueSelectivity(index) =>
+        instrumented.indexPropertyAverageValueSelectivity(index)
     }
     snapshot.freeze
   }
@@ -101,5 +111,23 @@ case class InstrumentedGraphStatistics(inner: GraphStatistics, snapshot: Mutable
     selectivity
   }
 
+  override def indexPropertyValueSelectivity(index: IndexDescriptor, value: Any): Option[Selectivity] = {
+    val selectivity = inner.indexPropertyValueSelectivity(index, value)
+    snapshot.map.getOrElseUpdate(IndexPropertyValueSelectivity(index, value), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
+  override def indexPropertyRangeSelectivity(index: IndexDescriptor, lower: Option[Bound[Any]], upper: Option[Bound[Any]]): Option[Selectivity] = {
+    val selectivity = inner.indexPropertyRangeSelectivity(index, lower, upper)
+    snapshot.map.getOrElseUpdate(IndexPropertyRangeSelectivity(index, lower, upper), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
+  override def indexPropertyAverageValueSelectivity(index: IndexDescriptor): Option[Selectivity] = {
+    val selectivity = inner.indexPropertyAverageValueSelectivity(index)
+    snapshot.map.getOrElseUpdate(IndexPropertyAverageValueSelectivity(index), selectivity.fold(0.0)(_.factor))
+    selectivity
+  }
+
   override def nodesAllCardinality(): Cardinality = snapshot.map.getOrElseUpdate(NodesAllCardinality, inner.nodesAllCardinality().amount)
 }
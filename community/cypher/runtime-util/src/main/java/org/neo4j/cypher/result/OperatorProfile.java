@@ -52,6 +52,22 @@ public interface OperatorProfile
      */
     long pageCacheMisses();
 
+    /**
+     * Rows written to disk by this operator, because they did not fit in the memory budget of the query.
+     */
+    default long spilledRows()
+    {
+        return NO_DATA;
+    }
+
+    /**
+     * Bytes written to disk by this operator, because its rows did not fit in the memory budget of the query.
+     */
+    default long spilledBytes()
+    {
+        return NO_DATA;
+    }
+
     default double pageCacheHitRatio()
     {
         return ( pageCacheHits() == NO_DATA || pageCacheMisses() == NO_DATA ) ?
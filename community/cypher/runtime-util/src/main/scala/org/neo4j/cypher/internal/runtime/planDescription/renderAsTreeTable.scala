@@ -34,13 +34,15 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
   private val PAGE_CACHE_HITS = "Page Cache Hits"
   private val PAGE_CACHE_MISSES = "Page Cache Misses"
   private val PAGE_CACHE_HIT_RATIO = "Page Cache Hit Ratio"
+  private val SPILLED_ROWS = "Spilled Rows"
+  private val SPILLED_BYTES = "Spilled Bytes"
   private val TIME = "Time (ms)"
   private val ORDER = "Order"
   val VARIABLES = "Variables"
   val MAX_VARIABLE_COLUMN_WIDTH = 100
   private val OTHER = "Other"
-  private val HEADERS = Seq(OPERATOR, ESTIMATED_ROWS, ROWS, HITS, PAGE_CACHE_HITS, PAGE_CACHE_MISSES, PAGE_CACHE_HIT_RATIO, TIME,
-    ORDER, VARIABLES, OTHER)
+  private val HEADERS = Seq(OPERATOR, ESTIMATED_ROWS, ROWS, HITS, PAGE_CACHE_HITS, PAGE_CACHE_MISSES, PAGE_CACHE_HIT_RATIO,
+    SPILLED_ROWS, SPILLED_BYTES, TIME, ORDER, VARIABLES, OTHER)
   private val newLine = System.lineSeparator()
 
   def apply(plan: InternalPlanDescription): String = {
@@ -150,6 +152,8 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
     case PageCacheHits(count) => mapping(PAGE_CACHE_HITS, Right(count.toString), columns)
     case PageCacheMisses(count) => mapping(PAGE_CACHE_MISSES, Right(count.toString), columns)
     case PageCacheHitRatio(ratio) => mapping(PAGE_CACHE_HIT_RATIO, Right("%.4f".format(ratio)), columns)
+    case SpilledRows(count) => mapping(SPILLED_ROWS, Right(count.toString), columns)
+    case SpilledBytes(count) => mapping(SPILLED_BYTES, Right(count.toString), columns)
     case Time(nanos) => mapping(TIME, Right("%.3f".format(nanos/1000000.0)), columns)
     case Order(providedOrder) => mapping(ORDER, Left(PlanDescriptionArgumentSerializer.serializeProvidedOrder(providedOrder)), columns)
     case _ => None
@@ -172,6 +176,8 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
         !x.isInstanceOf[PageCacheHits] &&
         !x.isInstanceOf[PageCacheMisses] &&
         !x.isInstanceOf[PageCacheHitRatio] &&
+        !x.isInstanceOf[SpilledRows] &&
+        !x.isInstanceOf[SpilledBytes] &&
         !x.isInstanceOf[EstimatedRows] &&
         !x.isInstanceOf[Order] &&
         !x.isInstanceOf[Planner] &&
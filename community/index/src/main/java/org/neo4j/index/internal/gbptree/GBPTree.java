@@ -31,13 +31,17 @@ import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -54,6 +58,8 @@ import static org.neo4j.index.internal.gbptree.Header.CARRY_OVER_PREVIOUS_HEADER
 import static org.neo4j.index.internal.gbptree.Header.replace;
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 
 /**
  * A generation-aware B+tree (GB+Tree) implementation directly atop a {@link PageCache} with no caching in between.
@@ -267,6 +273,12 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final TreeNode<KEY,VALUE> bTreeNode;
 
+    /**
+     * Creates {@link TreeNode} instances of the format of this tree. {@link #parallelWriter() Parallel writers} each
+     * need their own, because tree nodes keep scratch state while changing a node.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
     /**
      * A free-list of released ids. Acquiring new ids involves first trying out the free-list and then,
      * as a fall-back allocate a new id at the end of the store.
@@ -274,10 +286,29 @@ public class GBPTree<KEY,VALUE> implements Closeable
     private final FreeListIdProvider freeList;
 
     /**
-     * A single instance {@link Writer} because tree only supports single writer.
+     * A single instance {@link Writer} because tree only supports single exclusive writer,
+     * see {@link #parallelWriter()} for writers which can be used concurrently.
      */
     private final SingleWriter writer;
 
+    /**
+     * Coordinates {@link ParallelWriter parallel writers}. Changes which are local to a single leaf are made
+     * holding the read lock and changes to tree structure, e.g. splits, merges and new successors, holding the
+     * write lock. Internal nodes can therefore only change when no other parallel writer is in the middle of a change.
+     */
+    private final StampedLock structureLock = new StampedLock();
+
+    /**
+     * Number of structure changes made by parallel writers, guarded by {@link #structureLock}. Lets parallel writers
+     * know when their cached path down the tree needs to be re-read from root.
+     */
+    private long structureChanges;
+
+    /**
+     * Striped locks excluding parallel writers from each others leaves, selected by leaf id.
+     */
+    private final Object[] leafLocks = newLeafLocks();
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -294,7 +325,8 @@ public class GBPTree<KEY,VALUE> implements Closeable
      *     <li>Checkpoint and close</li>
      *     <li>Write and checkpoint</li>
      * </ul>
-     * For those scenarios, writer lock is taken.
+     * For those scenarios, writer lock is taken. {@link #parallelWriter() Parallel writers} take the writer lock
+     * in shared mode, i.e. they exclude all of the above, but not each other.
      * <p>
      * If cleaning of crash pointers is needed the tree can not be allowed to perform a checkpoint until that job
      * has finished. For this scenario, cleaner lock is taken.
@@ -482,6 +514,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
             }
             this.bTreeNode = format.create( pageSize, layout );
+            this.treeNodeFormat = format;
             this.freeList = new FreeListIdProvider( pagedFile, pageSize, rootId, FreeListIdProvider.NO_MONITOR );
             this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout ) );
 
@@ -1044,11 +1077,113 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Returns a {@link Writer} able to modify the index, i.e. insert and remove keys/values, concurrently with other
+     * writers returned from this method. Each returned writer must only be used by a single thread at a time and
+     * must be closed after usage, typically by using try-with-resource clause.
+     * <p>
+     * Parallel writers take the writer lock in shared mode and so a parallel writer can not be acquired while
+     * the {@link #writer() single writer} is acquired, and vice versa. Checkpoint waits for all parallel writers
+     * to be closed.
+     * <p>
+     * Changes which only affect a single leaf are made in parallel, excluding other parallel writers only from
+     * that leaf. Changes which need to alter the structure of the tree, e.g. splitting or merging leaves or creating
+     * a successor of a stable leaf, waits for changes in progress to complete and are then made exclusively.
+     * Readers are unaffected, they see the same kind of changes as when there's a single writer.
+     * A {@link ValueMerger} may be asked to merge the same key twice if the first merged value couldn't be
+     * written without a structure change.
+     *
+     * @return a new {@link Writer} which can be used concurrently with other parallel writers.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        assertRecoveryCleanSuccessful();
+        ParallelWriter parallelWriter = new ParallelWriter( new InternalTreeLogic<>( freeList, treeNodeFormat.create( pageSize, layout ), layout ) );
+        parallelWriter.initialize();
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
+    /**
+     * Returns a {@link Writer} which builds this tree bottom-up from entries given in ascending key order,
+     * typically used when populating an index from already sorted data. The tree must be empty.
+     * Leaves are filled completely and written left to right and internal levels are built on top of them as leaves
+     * fill up, which is much cheaper than inserting the entries one by one from root and leaves all pages tightly packed.
+     * <p>
+     * Only {@link Writer#put(Object, Object)} and {@link Writer#merge(Object, Object, ValueMerger)} are supported and
+     * keys must be given in ascending order, where a key equal to the previous key is merged with it.
+     * The built tree becomes visible to readers when the returned writer is closed. Like {@link #writer()}
+     * the returned writer is exclusive and must be closed before another writer can be acquired or checkpoint can
+     * complete.
+     *
+     * @return a {@link Writer} for bulk loading this empty tree.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if this tree isn't empty.
+     */
+    public Writer<KEY,VALUE> bulkWriter() throws IOException
+    {
+        assertRecoveryCleanSuccessful();
+        BulkWriter bulkWriter = new BulkWriter();
+        bulkWriter.initialize();
+        changesSinceLastCheckpoint = true;
+        return bulkWriter;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
     }
 
+    /**
+     * Handles structure changes which propagated all the way up to root, i.e. new root or new root successor.
+     */
+    private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
+            InternalTreeLogic<KEY,VALUE> treeLogic, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( cursor, treeLogic, newRootId, unstableGeneration );
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( cursor, treeLogic, structurePropagation.midChild, unstableGeneration );
+        }
+        structurePropagation.clear();
+    }
+
+    private void setRoot( PageCursor cursor, InternalTreeLogic<KEY,VALUE> treeLogic, long rootPointer, long unstableGeneration )
+    {
+        long rootId = GenerationSafePointerPair.pointer( rootPointer );
+        setRoot( rootId, unstableGeneration );
+        treeLogic.initialize( cursor );
+    }
+
+    private static Object[] newLeafLocks()
+    {
+        Object[] leafLocks = new Object[1024];
+        for ( int i = 0; i < leafLocks.length; i++ )
+        {
+            leafLocks[i] = new Object();
+        }
+        return leafLocks;
+    }
+
+    private Object leafLock( long leafId )
+    {
+        return leafLocks[(int) (leafId & (leafLocks.length - 1))];
+    }
+
     /**
      * Bump unstable generation, increasing the gap between stable and unstable generation. All pointers and tree nodes
      * with generation in this gap are considered to be 'crashed' and will be cleaned up by {@link CleanupJob}
@@ -1196,7 +1331,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
     private class SingleWriter implements Writer<KEY,VALUE>
     {
         /**
-         * Currently an index only supports one concurrent writer and so this boolean will act as
+         * This writer is exclusive, i.e. there can only be one at a time, and so this boolean will act as
          * guard so that only one writer ever exist.
          */
         private final AtomicBoolean writerTaken = new AtomicBoolean();
@@ -1297,13 +1432,6 @@ public class GBPTree<KEY,VALUE> implements Closeable
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1332,25 +1460,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
 
         private void handleStructureChanges() throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
-            {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
-
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-            }
-            else if ( structurePropagation.hasMidChildUpdate )
-            {
-                setRoot( structurePropagation.midChild );
-            }
-            structurePropagation.clear();
+            GBPTree.this.handleStructureChanges( cursor, structurePropagation, treeLogic, stableGeneration, unstableGeneration );
         }
 
         @Override
@@ -1375,6 +1485,503 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    private class ParallelWriter implements Writer<KEY,VALUE>
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private PageCursor cursor;
+        private boolean closed;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        // Value of structureChanges when path in treeLogic was last known to be valid
+        private long seenStructureChanges = -1;
+
+        ParallelWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
+        {
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.treeLogic = treeLogic;
+        }
+
+        void initialize() throws IOException
+        {
+            lock.sharedWriterLock();
+            boolean success = false;
+            try
+            {
+                cursor = pagedFile.io( 0L /*Ignored*/, PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            try
+            {
+                if ( !mergeInLeaf( key, value, valueMerger ) )
+                {
+                    long stamp = structureLock.writeLock();
+                    try
+                    {
+                        goToRoot();
+                        structureChanges++;
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger,
+                                stableGeneration, unstableGeneration );
+                        handleStructureChanges( cursor, structurePropagation, treeLogic, stableGeneration, unstableGeneration );
+                        seenStructureChanges = structureChanges;
+                    }
+                    finally
+                    {
+                        structureLock.unlockWrite( stamp );
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result;
+            try
+            {
+                VALUE into = layout.newValue();
+                InternalTreeLogic.LeafRemoval removal = removeFromLeaf( key, into );
+                if ( removal == InternalTreeLogic.LeafRemoval.NEEDS_STRUCTURE_CHANGE )
+                {
+                    long stamp = structureLock.writeLock();
+                    try
+                    {
+                        goToRoot();
+                        structureChanges++;
+                        result = treeLogic.remove( cursor, structurePropagation, key, into,
+                                stableGeneration, unstableGeneration );
+                        handleStructureChanges( cursor, structurePropagation, treeLogic, stableGeneration, unstableGeneration );
+                        seenStructureChanges = structureChanges;
+                    }
+                    finally
+                    {
+                        structureLock.unlockWrite( stamp );
+                    }
+                }
+                else
+                {
+                    result = removal == InternalTreeLogic.LeafRemoval.REMOVED ? into : null;
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        private boolean mergeInLeaf( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger ) throws IOException
+        {
+            long stamp = structureLock.readLock();
+            try
+            {
+                moveToLeaf( key );
+                synchronized ( leafLock( cursor.getCurrentPageId() ) )
+                {
+                    return treeLogic.insertInLeafWithoutStructureChange( cursor, key, value, valueMerger, unstableGeneration );
+                }
+            }
+            finally
+            {
+                structureLock.unlockRead( stamp );
+            }
+        }
+
+        private InternalTreeLogic.LeafRemoval removeFromLeaf( KEY key, VALUE into ) throws IOException
+        {
+            long stamp = structureLock.readLock();
+            try
+            {
+                moveToLeaf( key );
+                synchronized ( leafLock( cursor.getCurrentPageId() ) )
+                {
+                    return treeLogic.removeFromLeafWithoutStructureChange( cursor, key, into, unstableGeneration );
+                }
+            }
+            finally
+            {
+                structureLock.unlockRead( stamp );
+            }
+        }
+
+        /**
+         * Internal nodes don't change while holding {@link #structureLock} and so the path from previous change
+         * can be reused, unless there has been structure changes since then.
+         */
+        private void moveToLeaf( KEY key ) throws IOException
+        {
+            if ( seenStructureChanges != structureChanges )
+            {
+                goToRoot();
+            }
+            treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+        }
+
+        private void goToRoot() throws IOException
+        {
+            root.goTo( cursor );
+            treeLogic.initialize( cursor );
+            seenStructureChanges = structureChanges;
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close parallel writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closed = true;
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+            lock.sharedWriterUnlock();
+        }
+    }
+
+    private class BulkWriter implements Writer<KEY,VALUE>
+    {
+        // Node being filled on each level, leaf level at index 0 and root level last
+        private final List<BulkLevel> levels = new ArrayList<>();
+        private final KEY lastKey = layout.newKey();
+        private final KEY lastKeyInLeaf = layout.newKey();
+        private final KEY splitter = layout.newKey();
+        private final VALUE readValue = layout.newValue();
+        private boolean closed;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        void initialize() throws IOException
+        {
+            lock.writerLock();
+            boolean success = false;
+            try
+            {
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+                {
+                    boolean empty;
+                    do
+                    {
+                        empty = TreeNode.isLeaf( cursor ) && TreeNode.keyCount( cursor ) == 0;
+                    }
+                    while ( cursor.shouldRetry() );
+                    checkOutOfBounds( cursor );
+                    if ( !empty )
+                    {
+                        throw new IllegalStateException( "Can only bulk load empty tree, but " + GBPTree.this + " has entries" );
+                    }
+                }
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    lock.writerUnlock();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            try
+            {
+                bTreeNode.validateKeyValueSize( key, value );
+                if ( levels.isEmpty() )
+                {
+                    levels.add( new BulkLevel( newNode( LEAF, TreeNode.NO_NODE_FLAG ) ) );
+                }
+                else
+                {
+                    int compare = layout.compare( key, lastKey );
+                    if ( compare < 0 )
+                    {
+                        throw new IllegalArgumentException( "Keys must be bulk loaded in ascending order, but got " + key +
+                                " after " + lastKey );
+                    }
+                    if ( compare == 0 )
+                    {
+                        value = mergeWithLast( key, value, valueMerger );
+                        if ( value == null )
+                        {
+                            return;
+                        }
+                    }
+                }
+                append( key, value );
+                layout.copyKey( key, lastKey );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        /**
+         * @return value which still needs to be appended, otherwise {@code null} if merge was completed.
+         */
+        private VALUE mergeWithLast( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            BulkLevel leaf = levels.get( 0 );
+            int pos = leaf.keyCount - 1;
+            bTreeNode.valueAt( leaf.cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( lastKey, key, readValue, value );
+            if ( mergedValue == null || bTreeNode.setValueAt( leaf.cursor, mergedValue, pos ) )
+            {
+                return null;
+            }
+            // Merged value differs in size, remove last entry and append it again with the merged value
+            bTreeNode.removeKeyValueAt( leaf.cursor, pos, leaf.keyCount );
+            leaf.setKeyCount( pos );
+            return mergedValue;
+        }
+
+        private void append( KEY key, VALUE value ) throws IOException
+        {
+            BulkLevel leaf = levels.get( 0 );
+            Overflow overflow = bTreeNode.leafOverflow( leaf.cursor, leaf.keyCount, key, value );
+            if ( overflow == Overflow.YES )
+            {
+                bTreeNode.keyAt( leaf.cursor, lastKeyInLeaf, leaf.keyCount - 1, LEAF );
+                layout.minimalSplitter( lastKeyInLeaf, key, splitter );
+                long previousLeafId = leaf.cursor.getCurrentPageId();
+                long newLeafId = startNextNode( leaf, LEAF );
+                appendToParent( 1, splitter, newLeafId, previousLeafId );
+            }
+            else if ( overflow == Overflow.NO_NEED_DEFRAG )
+            {
+                bTreeNode.defragmentLeaf( leaf.cursor );
+            }
+            bTreeNode.insertKeyValueAt( leaf.cursor, key, value, leaf.keyCount, leaf.keyCount );
+            leaf.setKeyCount( leaf.keyCount + 1 );
+            checkOutOfBounds( leaf.cursor );
+        }
+
+        /**
+         * Appends {@code key} and {@code child} to internal node on {@code level}, creating that level if it doesn't exist.
+         * If the internal node is full, the key is instead propagated to the level above and a new internal node
+         * started with {@code child} as its first child. No internal node is left without children this way.
+         */
+        private void appendToParent( int level, KEY key, long child, long leftChild ) throws IOException
+        {
+            if ( level == levels.size() )
+            {
+                BulkLevel parent = new BulkLevel( newNode( INTERNAL, TreeNode.NO_NODE_FLAG ) );
+                bTreeNode.setChildAt( parent.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+                levels.add( parent );
+            }
+
+            BulkLevel parent = levels.get( level );
+            Overflow overflow = bTreeNode.internalOverflow( parent.cursor, parent.keyCount, key );
+            if ( overflow == Overflow.YES )
+            {
+                long previousNodeId = parent.cursor.getCurrentPageId();
+                long newNodeId = startNextNode( parent, INTERNAL );
+                bTreeNode.setChildAt( parent.cursor, child, 0, stableGeneration, unstableGeneration );
+                appendToParent( level + 1, key, newNodeId, previousNodeId );
+            }
+            else
+            {
+                if ( overflow == Overflow.NO_NEED_DEFRAG )
+                {
+                    bTreeNode.defragmentInternal( parent.cursor );
+                }
+                bTreeNode.insertKeyAndRightChildAt( parent.cursor, key, child, parent.keyCount, parent.keyCount,
+                        stableGeneration, unstableGeneration );
+                parent.setKeyCount( parent.keyCount + 1 );
+            }
+            checkOutOfBounds( parent.cursor );
+        }
+
+        /**
+         * Moves the cursor of {@code level} from its current, full, node to a new right sibling.
+         *
+         * @return id of the new node.
+         */
+        private long startNextNode( BulkLevel level, TreeNode.Type type ) throws IOException
+        {
+            long newNodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            long previousNodeId = level.cursor.getCurrentPageId();
+            TreeNode.setRightSibling( level.cursor, newNodeId, stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( level.cursor, "new sibling", newNodeId );
+            initializeNode( level.cursor, type, previousNodeId );
+            level.keyCount = 0;
+            return newNodeId;
+        }
+
+        private PageCursor newNode( TreeNode.Type type, long leftSibling ) throws IOException
+        {
+            long nodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursor cursor = pagedFile.io( nodeId, PagedFile.PF_SHARED_WRITE_LOCK );
+            boolean success = false;
+            try
+            {
+                PageCursorUtil.goTo( cursor, "new node", nodeId );
+                initializeNode( cursor, type, leftSibling );
+                success = true;
+                return cursor;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    cursor.close();
+                }
+            }
+        }
+
+        private void initializeNode( PageCursor cursor, TreeNode.Type type, long leftSibling )
+        {
+            if ( type == LEAF )
+            {
+                bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            }
+            TreeNode.setLeftSibling( cursor, leftSibling, stableGeneration, unstableGeneration );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            throw new UnsupportedOperationException( "Bulk writer can only add entries" );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closed = true;
+            try
+            {
+                if ( !levels.isEmpty() )
+                {
+                    // Top level always has a single node, which becomes the new root
+                    long newRootId = levels.get( levels.size() - 1 ).cursor.getCurrentPageId();
+                    closeLevels();
+                    long oldRootId = root.id();
+                    setRoot( newRootId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                }
+            }
+            finally
+            {
+                closeLevels();
+                lock.writerUnlock();
+            }
+        }
+
+        private void closeLevels()
+        {
+            for ( BulkLevel level : levels )
+            {
+                level.cursor.close();
+            }
+            levels.clear();
+        }
+    }
+
+    /**
+     * Node currently being filled on one level of a tree being bulk loaded.
+     */
+    private static class BulkLevel
+    {
+        private final PageCursor cursor;
+        private int keyCount;
+
+        BulkLevel( PageCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+
+        void setKeyCount( int keyCount )
+        {
+            this.keyCount = keyCount;
+            TreeNode.setKeyCount( cursor, keyCount );
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
@@ -29,6 +29,11 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    // Set by a writer waiting for shared writers to leave, keeps new shared writers out so that the writer isn't starved
+    private static final long writerPendingBit = 0x00000000_00000004L;
+    // Remaining bits count number of shared writers, which are mutually exclusive with the writer lock, but not each other
+    private static final long sharedWriterUnit = 0x00000000_00000008L;
+    private static final long sharedWritersMask = ~(writerLockBit | cleanerLockBit | writerPendingBit);
     private volatile long state;
 
     // Used for testing
@@ -49,6 +54,27 @@ class GBPTreeLock
         doUnlock( writerLockBit );
     }
 
+    void sharedWriterLock()
+    {
+        doLock( 0, sharedWriterUnit );
+    }
+
+    void sharedWriterUnlock()
+    {
+        long currentState;
+        long newState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & sharedWritersMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock shared writer lock that isn't locked" );
+            }
+            newState = currentState - sharedWriterUnit;
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
+    }
+
     void cleanerLock()
     {
         doLock( cleanerLockBit );
@@ -70,19 +96,33 @@ class GBPTreeLock
     }
 
     private void doLock( long targetLockBit )
+    {
+        doLock( targetLockBit, 0 );
+    }
+
+    private void doLock( long targetLockBit, long sharedWriters )
     {
         long currentState;
         long newState;
         do
         {
             currentState = state;
-            while ( !canLock( currentState, targetLockBit ) )
+            while ( !canLock( currentState, targetLockBit, sharedWriters ) )
             {
+                if ( mustAnnounceWriter( currentState, targetLockBit ) )
+                {
+                    UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState | writerPendingBit );
+                }
                 // sleep
                 sleep();
                 currentState = state;
             }
-            newState = currentState | targetLockBit;
+            newState = (currentState | targetLockBit) + sharedWriters;
+            if ( (targetLockBit & writerLockBit) != 0 )
+            {
+                // Another waiting writer announces itself again the next time it finds shared writers in its way
+                newState &= ~writerPendingBit;
+            }
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
@@ -102,9 +142,24 @@ class GBPTreeLock
         while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
-    private boolean canLock( long state, long targetLockBit )
+    private boolean canLock( long state, long targetLockBit, long sharedWriters )
+    {
+        if ( (state & targetLockBit) != 0 )
+        {
+            return false;
+        }
+        if ( (targetLockBit & writerLockBit) != 0 && (state & sharedWritersMask) != 0 )
+        {
+            // Writer lock waits for all shared writers to leave
+            return false;
+        }
+        // Shared writers wait for the writer lock to be released, and let waiting writers go first
+        return sharedWriters == 0 || (state & (writerLockBit | writerPendingBit)) == 0;
+    }
+
+    private boolean mustAnnounceWriter( long state, long targetLockBit )
     {
-        return (state & targetLockBit) == 0;
+        return (targetLockBit & writerLockBit) != 0 && (state & sharedWritersMask) != 0 && (state & writerPendingBit) == 0;
     }
 
     private boolean canUnlock( long state, long targetLockBit )
@@ -716,6 +716,119 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Moves cursor to the leaf covering {@code key}, same as {@link #insert(PageCursor, StructurePropagation, Object,
+     * Object, ValueMerger, long, long) insert} and {@link #remove(PageCursor, StructurePropagation, Object, Object, long,
+     * long) remove} do before changing the leaf. Nothing is changed in the tree.
+     * <p>
+     * Used together with {@link #insertInLeafWithoutStructureChange(PageCursor, Object, Object, ValueMerger, long)} and
+     * {@link #removeFromLeafWithoutStructureChange(PageCursor, Object, Object, long)} by writers which may run concurrently
+     * with each other, but never concurrently with structure changes. Such writers can therefore descend the tree
+     * without coordination and only need to exclude each other from the leaf they end up in.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first insert/remove since
+     * {@link #initialize(PageCursor)}) or at where last insert/remove left it.
+     * @param key key to find leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Inserts {@code key} and {@code value} into the leaf {@code cursor} is at, but only if that can be done without
+     * changing tree structure, i.e. leaf is already of unstable generation and will not split. Leaf is left untouched
+     * if a structure change is needed and caller should then fall back to
+     * {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, long, long) insert}.
+     * <p>
+     * Caller is responsible for excluding other writers from this leaf.
+     *
+     * @param cursor {@link PageCursor} pinned to leaf covering {@code key}, see
+     * {@link #moveToLeaf(PageCursor, Object, long, long)}.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if insert was completed, otherwise {@code false} if it requires a structure change.
+     */
+    boolean insertInLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger,
+            long unstableGeneration )
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return false;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+            // Values which differ in size needs to be moved around in the leaf, leave that to a structure changing insert
+            return mergedValue == null || bTreeNode.setValueAt( cursor, mergedValue, pos );
+        }
+
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            return false;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return true;
+    }
+
+    /**
+     * Removes {@code key} from the leaf {@code cursor} is at, but only if that can be done without changing tree
+     * structure, i.e. leaf is already of unstable generation and will not underflow. Leaf is left untouched
+     * if a structure change is needed and caller should then fall back to
+     * {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long) remove}.
+     * <p>
+     * Caller is responsible for excluding other writers from this leaf.
+     *
+     * @param cursor {@link PageCursor} pinned to leaf covering {@code key}, see
+     * {@link #moveToLeaf(PageCursor, Object, long, long)}.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return outcome of the removal, see {@link LeafRemoval}.
+     */
+    LeafRemoval removeFromLeafWithoutStructureChange( PageCursor cursor, KEY key, VALUE into, long unstableGeneration )
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( !isHit( search ) )
+        {
+            return LeafRemoval.NOT_FOUND;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration || bTreeNode.leafUnderflowAfterRemove( cursor, keyCount, pos ) )
+        {
+            return LeafRemoval.NEEDS_STRUCTURE_CHANGE;
+        }
+
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos );
+        return LeafRemoval.REMOVED;
+    }
+
+    enum LeafRemoval
+    {
+        REMOVED,
+        NOT_FOUND,
+        NEEDS_STRUCTURE_CHANGE
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
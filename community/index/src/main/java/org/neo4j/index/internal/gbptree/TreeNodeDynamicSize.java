@@ -590,6 +590,18 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos )
+    {
+        // Removed key and value becomes dead space and its slot in offset array is freed
+        int removedSpace = totalSpaceOfKeyValue( cursor, pos ) - bytesKeyOffset();
+        int allocSpace = getAllocSpace( cursor, keyCount - 1, LEAF );
+        int deadSpace = getDeadSpace( cursor ) + removedSpace;
+        int availableSpace = allocSpace + deadSpace;
+
+        return availableSpace > halfSpace;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -31,6 +31,7 @@ import org.neo4j.helpers.collection.Pair;
 import org.neo4j.test.Race;
 import org.neo4j.test.rule.concurrent.OtherThreadRule;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -50,6 +51,8 @@ public class GBPTreeLockTest
 
     @Rule
     public final OtherThreadRule<Void> executor = new OtherThreadRule<>();
+    @Rule
+    public final OtherThreadRule<Void> writerExecutor = new OtherThreadRule<>();
 
     @Test
     public void test_UU_UL_UU() throws Exception
@@ -161,6 +164,80 @@ public class GBPTreeLockTest
         assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock );
     }
 
+    @Test
+    public void sharedWritersShouldNotBlockEachOther()
+    {
+        // given
+        lock.sharedWriterLock();
+        lock.sharedWriterLock();
+
+        // then
+        lock.sharedWriterUnlock();
+        lock.sharedWriterUnlock();
+        assertThrow( lock::sharedWriterUnlock );
+        assertUU();
+    }
+
+    @Test
+    public void writerLockShouldWaitForSharedWriters() throws Exception
+    {
+        lock.sharedWriterLock();
+        copy = lock.copy();
+        assertBlock( copy::writerLock, copy::sharedWriterUnlock );
+        copy = lock.copy();
+        assertBlock( copy::writerAndCleanerLock, copy::sharedWriterUnlock );
+    }
+
+    @Test
+    public void sharedWriterShouldWaitForWriterLock() throws Exception
+    {
+        lock.writerLock();
+        copy = lock.copy();
+        assertBlock( copy::sharedWriterLock, copy::writerUnlock );
+    }
+
+    @Test
+    public void sharedWriterShouldWaitForWaitingWriter() throws Exception
+    {
+        // given
+        lock.sharedWriterLock();
+        Future<Object> writer = writerExecutor.execute( state ->
+        {
+            lock.writerLock();
+            return null;
+        } );
+        writerExecutor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "doLock" ) );
+
+        // when
+        Future<Object> sharedWriter = executor.execute( state ->
+        {
+            lock.sharedWriterLock();
+            return null;
+        } );
+        executor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "doLock" ) );
+        lock.sharedWriterUnlock();
+
+        // then
+        writer.get();
+        assertFalse( sharedWriter.isDone() );
+        lock.writerUnlock();
+        sharedWriter.get();
+        lock.sharedWriterUnlock();
+        assertUU();
+    }
+
+    @Test
+    public void test_race_ULvsShared() throws Throwable
+    {
+        assertBothSucceeds( lock::cleanerLock, lock::sharedWriterLock );
+    }
+
+    @Test( timeout = 10_000 )
+    public void test_race_LUvsShared() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::writerLock, lock::sharedWriterLock );
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
@@ -273,6 +350,7 @@ public class GBPTreeLockTest
 
     private void assertUU()
     {
+        assertThrow( lock::sharedWriterUnlock );
         assertThrow( lock::writerUnlock );
         assertThrow( lock::cleanerUnlock );
         assertThrow( lock::writerAndCleanerUnlock );
@@ -49,6 +49,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -1088,6 +1089,417 @@ public class GBPTreeTest
         }
     }
 
+    /* Parallel writer tests */
+
+    @Test( timeout = 60_000L )
+    public void parallelWritersShouldInsertAndRemoveConcurrently() throws Exception
+    {
+        // GIVEN
+        int threads = 4;
+        int keysPerThread = 5_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            List<Future<?>> writers = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                int thread = i;
+                writers.add( executor.submit( throwing( () ->
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = index.parallelWriter() )
+                    {
+                        for ( int k = 0; k < keysPerThread; k++ )
+                        {
+                            long key = (long) k * threads + thread;
+                            writer.put( new MutableLong( key ), new MutableLong( key ) );
+                        }
+                        for ( int k = 0; k < keysPerThread; k += 3 )
+                        {
+                            long key = (long) k * threads + thread;
+                            assertEquals( key, writer.remove( new MutableLong( key ) ).longValue() );
+                        }
+                    }
+                } ) ) );
+            }
+            for ( Future<?> writer : writers )
+            {
+                writer.get();
+            }
+
+            // THEN
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek =
+                    index.seek( new MutableLong( 0 ), new MutableLong( Long.MAX_VALUE ) ) )
+            {
+                for ( long key = 0; key < (long) keysPerThread * threads; key++ )
+                {
+                    if ( (key / threads) % 3 != 0 )
+                    {
+                        assertTrue( seek.next() );
+                        assertEquals( key, seek.get().key().longValue() );
+                        assertEquals( key, seek.get().value().longValue() );
+                    }
+                }
+                assertFalse( seek.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test( timeout = 60_000L )
+    public void parallelWritersShouldInsertAndRemoveDynamicSizeKeysConcurrently() throws Exception
+    {
+        // GIVEN
+        int threads = 4;
+        int keysPerThread = 5_000;
+        SimpleByteArrayLayout dynamicLayout = new SimpleByteArrayLayout();
+        try ( GBPTree<RawBytes,RawBytes> index = new GBPTreeBuilder<>( createPageCache( DEFAULT_PAGE_SIZE ), indexFile, dynamicLayout ).build() )
+        {
+            // WHEN removing and inserting again, which leaves dead space in leaves for inserts to defragment
+            List<Future<?>> writers = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                int thread = i;
+                writers.add( executor.submit( throwing( () ->
+                {
+                    try ( Writer<RawBytes,RawBytes> writer = index.parallelWriter() )
+                    {
+                        for ( int k = 0; k < keysPerThread; k++ )
+                        {
+                            long key = (long) k * threads + thread;
+                            writer.put( dynamicLayout.key( key ), dynamicLayout.value( key ) );
+                        }
+                        for ( int round = 0; round < 10; round++ )
+                        {
+                            for ( int k = round % 3; k < keysPerThread; k += 3 )
+                            {
+                                writer.remove( dynamicLayout.key( (long) k * threads + thread ) );
+                            }
+                            for ( int k = round % 3; k < keysPerThread; k += 3 )
+                            {
+                                long key = (long) k * threads + thread;
+                                writer.put( dynamicLayout.key( key ), dynamicLayout.value( key ) );
+                            }
+                        }
+                    }
+                } ) ) );
+            }
+            for ( Future<?> writer : writers )
+            {
+                writer.get();
+            }
+
+            // THEN
+            try ( RawCursor<Hit<RawBytes,RawBytes>,IOException> seek =
+                    index.seek( dynamicLayout.key( 0 ), dynamicLayout.key( Long.MAX_VALUE ) ) )
+            {
+                for ( long key = 0; key < (long) keysPerThread * threads; key++ )
+                {
+                    assertTrue( seek.next() );
+                    assertEquals( key, dynamicLayout.keySeed( seek.get().key() ) );
+                    assertEquals( key, dynamicLayout.valueSeed( seek.get().value() ) );
+                }
+                assertFalse( seek.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test( timeout = 5_000L )
+    public void parallelWritersShouldNotLockOutEachOther() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build();
+              Writer<MutableLong,MutableLong> writer1 = index.parallelWriter();
+              Writer<MutableLong,MutableLong> writer2 = index.parallelWriter() )
+        {
+            // WHEN
+            writer1.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+            writer2.put( new MutableLong( 2 ), new MutableLong( 2 ) );
+
+            // THEN
+            assertEquals( 2, writer1.remove( new MutableLong( 2 ) ).longValue() );
+            assertEquals( 1, writer2.remove( new MutableLong( 1 ) ).longValue() );
+        }
+    }
+
+    @Test( timeout = 5_000L )
+    public void parallelWriterShouldLockOutWriter() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            Future<?> writerClose;
+            try ( Writer<MutableLong,MutableLong> parallelWriter = index.parallelWriter() )
+            {
+                parallelWriter.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+
+                // WHEN
+                writerClose = executor.submit( throwing( () -> index.writer().close() ) );
+
+                // THEN
+                shouldWait( writerClose );
+            }
+            writerClose.get();
+        }
+    }
+
+    @Test( timeout = 5_000L )
+    public void checkPointShouldWaitForParallelWriter() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            Barrier.Control barrier = new Barrier.Control();
+            Future<?> write = executor.submit( throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = index.parallelWriter() )
+                {
+                    writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                    barrier.reached();
+                }
+            } ) );
+            barrier.awaitUninterruptibly();
+            Future<?> checkpoint = executor.submit( throwing( () -> index.checkpoint( UNLIMITED ) ) );
+            shouldWait( checkpoint );
+
+            // THEN
+            barrier.release();
+            checkpoint.get();
+            write.get();
+        }
+    }
+
+    @Test( timeout = 30_000L )
+    public void checkPointShouldMakeProgressUnderContinuousParallelWriters() throws Exception
+    {
+        // GIVEN
+        ExecutorService relay = Executors.newFixedThreadPool( 2 );
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger holders = new AtomicInteger();
+        AtomicInteger writes = new AtomicInteger();
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // Two writers that each keep their parallel writer open until the other one has opened its own,
+            // so that there is always a parallel writer open unless a waiting writer keeps new ones out
+            List<Future<?>> writers = new ArrayList<>();
+            for ( int i = 0; i < 2; i++ )
+            {
+                writers.add( relay.submit( throwing( () ->
+                {
+                    while ( !stop.get() )
+                    {
+                        try ( Writer<MutableLong,MutableLong> writer = index.parallelWriter() )
+                        {
+                            long key = writes.incrementAndGet();
+                            writer.put( new MutableLong( key ), new MutableLong( key ) );
+                            holders.incrementAndGet();
+                            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( 5 );
+                            while ( holders.get() < 2 && System.nanoTime() < deadline && !stop.get() )
+                            {
+                                LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( 100 ) );
+                            }
+                            holders.decrementAndGet();
+                        }
+                    }
+                } ) ) );
+            }
+            while ( writes.get() < 100 )
+            {
+                LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+            }
+
+            // WHEN
+            index.checkpoint( UNLIMITED );
+
+            // THEN
+            stop.set( true );
+            for ( Future<?> writer : writers )
+            {
+                writer.get();
+            }
+        }
+        finally
+        {
+            stop.set( true );
+            relay.shutdown();
+        }
+    }
+
+    /* Bulk writer tests */
+
+    @Test
+    public void bulkWriterShouldBuildTreeFromSortedEntries() throws Exception
+    {
+        // GIVEN
+        int count = 50_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            try ( Writer<MutableLong,MutableLong> writer = index.bulkWriter() )
+            {
+                for ( long key = 0; key < count; key++ )
+                {
+                    writer.put( new MutableLong( key ), new MutableLong( key * 2 ) );
+                }
+            }
+
+            // THEN
+            assertSeekAll( index, 0, count, 1 );
+            assertTrue( index.consistencyCheck() );
+
+            // and WHEN tree is modified after bulk load
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long key = 0; key < count; key += 2 )
+                {
+                    assertEquals( key * 2, writer.remove( new MutableLong( key ) ).longValue() );
+                }
+                writer.put( new MutableLong( count + 1 ), new MutableLong( (count + 1) * 2 ) );
+            }
+
+            // THEN
+            assertSeekAll( index, 1, count + 2, 2 );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void bulkWriterShouldMergeEqualConsecutiveKeys() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            try ( Writer<MutableLong,MutableLong> writer = index.bulkWriter() )
+            {
+                writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                writer.put( new MutableLong( 1 ), new MutableLong( 2 ) );
+                writer.merge( new MutableLong( 2 ), new MutableLong( 4 ), ValueMergers.overwrite() );
+                writer.merge( new MutableLong( 2 ), new MutableLong( 5 ), ValueMergers.keepExisting() );
+            }
+
+            // THEN
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek =
+                    index.seek( new MutableLong( 0 ), new MutableLong( Long.MAX_VALUE ) ) )
+            {
+                assertTrue( seek.next() );
+                assertEquals( 1, seek.get().key().longValue() );
+                assertEquals( 2, seek.get().value().longValue() );
+                assertTrue( seek.next() );
+                assertEquals( 2, seek.get().key().longValue() );
+                assertEquals( 4, seek.get().value().longValue() );
+                assertFalse( seek.next() );
+            }
+        }
+    }
+
+    @Test
+    public void bulkWriterShouldThrowOnKeysOutOfOrder() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build();
+              Writer<MutableLong,MutableLong> writer = index.bulkWriter() )
+        {
+            writer.put( new MutableLong( 2 ), new MutableLong( 2 ) );
+
+            try
+            {
+                // WHEN
+                writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // THEN good
+            }
+        }
+    }
+
+    @Test
+    public void bulkWriterShouldThrowOnNonEmptyTree() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+            }
+
+            try
+            {
+                // WHEN
+                index.bulkWriter();
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // THEN good
+            }
+
+            // and the writer lock must have been released
+            index.writer().close();
+        }
+    }
+
+    @Test
+    public void bulkWriterShouldLockOutWriter() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build();
+              Writer<MutableLong,MutableLong> ignored = index.bulkWriter() )
+        {
+            // WHEN
+            Future<?> write = executor.submit( throwing( () -> index.writer().close() ) );
+
+            // THEN
+            shouldWait( write );
+        }
+    }
+
+    @Test
+    public void bulkLoadedTreeShouldSurviveCheckpointAndReopen() throws Exception
+    {
+        // GIVEN
+        int count = 10_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.bulkWriter() )
+            {
+                for ( long key = 0; key < count; key++ )
+                {
+                    writer.put( new MutableLong( key ), new MutableLong( key * 2 ) );
+                }
+            }
+
+            // WHEN
+            index.checkpoint( UNLIMITED );
+        }
+
+        // THEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            assertSeekAll( index, 0, count, 1 );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    private static void assertSeekAll( GBPTree<MutableLong,MutableLong> index, long from, long to, long stride ) throws IOException
+    {
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek =
+                index.seek( new MutableLong( 0 ), new MutableLong( Long.MAX_VALUE ) ) )
+        {
+            for ( long key = from; key < to; key += stride )
+            {
+                assertTrue( seek.next() );
+                assertEquals( key, seek.get().key().longValue() );
+                assertEquals( key * 2, seek.get().value().longValue() );
+            }
+            assertFalse( seek.next() );
+        }
+    }
+
     /* Cleaner test */
 
     @Test
@@ -569,6 +569,35 @@ public abstract class TreeNodeTestBase<KEY,VALUE>
         assertContent( expectedKeys, expectedValues, expectedKeyCount );
     }
 
+    @Test
+    void leafUnderflowAfterRemoveShouldMatchUnderflowAfterActualRemove()
+    {
+        // GIVEN
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 0;
+        while ( true )
+        {
+            KEY newKey = key( random.nextLong() );
+            VALUE newValue = value( random.nextLong() );
+            if ( node.leafOverflow( cursor, keyCount, newKey, newValue ) != Overflow.NO )
+            {
+                break;
+            }
+            node.insertKeyValueAt( cursor, newKey, newValue, keyCount, keyCount );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+        }
+
+        // WHEN/THEN
+        while ( keyCount > 0 )
+        {
+            int position = random.nextInt( keyCount );
+            boolean expectedUnderflow = node.leafUnderflowAfterRemove( cursor, keyCount, position );
+            node.removeKeyValueAt( cursor, position, keyCount );
+            TreeNode.setKeyCount( cursor, --keyCount );
+            assertEquals( expectedUnderflow, node.leafUnderflow( cursor, keyCount ) );
+        }
+    }
+
     private void assertContent( List<KEY> expectedKeys, List<VALUE> expectedValues, int expectedKeyCount )
     {
         KEY actualKey = layout.newKey();
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Throughput of faulting pages in and out of a file which is several times larger than the page cache, with buffered
+ * and with direct I/O. With buffered I/O, the file is also cached by the operating system, so some of the faults
+ * are served from memory that is used a second time, while direct I/O always goes to the device.
+ * <p>
+ * The resident set size of the JVM and the size of the operating system page cache, as read from {@code /proc},
+ * are reported as secondary results, to show how much memory the two modes use in addition to the page cache.
+ * Direct I/O is only used when both the JVM and the file system support it. Otherwise the benchmark runs with
+ * buffered I/O, which shows as a {@code directIOUsed} result of zero.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class DirectIOBenchmark extends PageCacheBenchmarkState
+{
+    @Param( {"false", "true"} )
+    public boolean directIO;
+
+    @Param( "0.0" )
+    public double dirtyRatio;
+
+    private SingleFilePageSwapperFactory swapperFactory;
+
+    @Override
+    @Setup( Level.Trial )
+    public void setUpPageCache() throws IOException
+    {
+        if ( fileSizeMiB <= cacheSizeMiB )
+        {
+            // Default to a file that is four times the size of the cache, unless explicitly configured otherwise.
+            fileSizeMiB = cacheSizeMiB * 4;
+        }
+        super.setUpPageCache();
+    }
+
+    @Override
+    protected SingleFilePageSwapperFactory swapperFactory()
+    {
+        swapperFactory = new SingleFilePageSwapperFactory( directIO );
+        return swapperFactory;
+    }
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class MemoryUsage
+    {
+        public long directIOUsed;
+        public long residentSetMiB;
+        public long osPageCacheMiB;
+
+        // Sampled when an iteration starts, which after the warmup is the memory used by the previous iteration
+        @Setup( Level.Iteration )
+        public void sample( DirectIOBenchmark benchmark )
+        {
+            directIOUsed = benchmark.swapperFactory.isDirectIO() ? 1 : 0;
+            residentSetMiB = procValueMiB( "/proc/self/status", "VmRSS:" );
+            osPageCacheMiB = procValueMiB( "/proc/meminfo", "Cached:" );
+        }
+    }
+
+    private static long procValueMiB( String file, String key )
+    {
+        Path path = Paths.get( file );
+        try
+        {
+            for ( String line : Files.readAllLines( path ) )
+            {
+                if ( line.startsWith( key ) )
+                {
+                    // Values are given in kB, like "VmRSS:     123456 kB"
+                    long kiB = Long.parseLong( line.substring( key.length() ).trim().split( "\\s+" )[0] );
+                    return kiB >> 10;
+                }
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // Not on Linux, or unexpected format
+        }
+        return -1;
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PagedFile pagedFile;
+        PageCursor reader;
+        long pageCount;
+        long nextPageId;
+        double dirtyRatio;
+
+        @Setup( Level.Trial )
+        public void openCursors( DirectIOBenchmark benchmark ) throws IOException
+        {
+            pagedFile = benchmark.pagedFile;
+            reader = pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            pageCount = benchmark.pageCount;
+            dirtyRatio = benchmark.dirtyRatio;
+            nextPageId = ThreadLocalRandom.current().nextLong( pageCount );
+        }
+
+        @TearDown( Level.Trial )
+        public void closeCursors()
+        {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    public long sequentialRead( Cursors cursors, MemoryUsage memoryUsage ) throws IOException
+    {
+        long pageId = cursors.nextPageId;
+        cursors.nextPageId = pageId + 1 == cursors.pageCount ? 0 : pageId + 1;
+        return PinBenchmark.read( cursors.reader, pageId );
+    }
+
+    @Benchmark
+    public long randomReadOrWrite( Cursors cursors, MemoryUsage memoryUsage ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long pageId = rng.nextLong( cursors.pageCount );
+        if ( cursors.dirtyRatio > 0 && rng.nextDouble() < cursors.dirtyRatio )
+        {
+            PinBenchmark.write( cursors.pagedFile, pageId );
+            return pageId;
+        }
+        return PinBenchmark.read( cursors.reader, pageId );
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Pin latency when the mapped file is several times larger than the page cache, so that most pins have to fault
+ * the page in, and the eviction thread, or the faulting thread itself, has to evict pages to make room.
+ * <p>
+ * The {@code dirtyRatio} controls how many of the random pins are write pins, which means the evicted pages also
+ * need to be flushed before they can be reused.
+ */
+@BenchmarkMode( Mode.SampleTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class FaultBenchmark extends PageCacheBenchmarkState
+{
+    @Param( "0.0" )
+    public double dirtyRatio;
+
+    @Override
+    @Setup( Level.Trial )
+    public void setUpPageCache() throws IOException
+    {
+        if ( fileSizeMiB <= cacheSizeMiB )
+        {
+            // Default to a file that is four times the size of the cache, unless explicitly configured otherwise.
+            fileSizeMiB = cacheSizeMiB * 4;
+        }
+        super.setUpPageCache();
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PagedFile pagedFile;
+        PageCursor reader;
+        long pageCount;
+        long nextPageId;
+        double dirtyRatio;
+
+        @Setup( Level.Trial )
+        public void openCursors( FaultBenchmark benchmark ) throws IOException
+        {
+            pagedFile = benchmark.pagedFile;
+            reader = pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            pageCount = benchmark.pageCount;
+            dirtyRatio = benchmark.dirtyRatio;
+            // Spread the threads out over the file, so they don't all fault the same pages in lock-step.
+            nextPageId = ThreadLocalRandom.current().nextLong( pageCount );
+        }
+
+        @TearDown( Level.Trial )
+        public void closeCursors()
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Sequential pins, like those of a store scan, which also exercise the read-ahead of the page cursors.
+     */
+    @Benchmark
+    public long sequentialPin( Cursors cursors ) throws IOException
+    {
+        long pageId = cursors.nextPageId;
+        cursors.nextPageId = pageId + 1 == cursors.pageCount ? 0 : pageId + 1;
+        return PinBenchmark.read( cursors.reader, pageId );
+    }
+
+    @Benchmark
+    public long randomPin( Cursors cursors ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long pageId = rng.nextLong( cursors.pageCount );
+        if ( cursors.dirtyRatio > 0 && rng.nextDouble() < cursors.dirtyRatio )
+        {
+            PinBenchmark.write( cursors.pagedFile, pageId );
+            return pageId;
+        }
+        return PinBenchmark.read( cursors.reader, pageId );
+    }
+}
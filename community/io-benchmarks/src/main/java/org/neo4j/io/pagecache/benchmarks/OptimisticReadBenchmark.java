@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Optimistic reads through the {@code OffHeapPageLock} while a writer keeps modifying the same small set of
+ * hot pages. Besides the read and write throughput, the {@code retries} counter reports how often a reader had to
+ * redo its read because {@link PageCursor#shouldRetry()} detected an overlapping write.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class OptimisticReadBenchmark extends PageCacheBenchmarkState
+{
+    @Param( "16" )
+    public int hotPages;
+
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class ReadRetries
+    {
+        public long retries;
+
+        @Setup( Level.Iteration )
+        public void reset()
+        {
+            retries = 0;
+        }
+    }
+
+    @State( Scope.Thread )
+    public static class Cursor
+    {
+        PagedFile pagedFile;
+        PageCursor reader;
+        int hotPages;
+
+        @Setup( Level.Trial )
+        public void openCursors( OptimisticReadBenchmark benchmark ) throws IOException
+        {
+            pagedFile = benchmark.pagedFile;
+            reader = pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            hotPages = (int) Math.min( benchmark.hotPages, benchmark.pageCount );
+        }
+
+        @TearDown( Level.Trial )
+        public void closeCursors()
+        {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    @Group( "contended" )
+    @GroupThreads( 3 )
+    public long read( Cursor cursor, ReadRetries counters ) throws IOException
+    {
+        PageCursor reader = cursor.reader;
+        reader.next( ThreadLocalRandom.current().nextInt( cursor.hotPages ) );
+        long sum;
+        for ( ;; )
+        {
+            sum = 0;
+            int pageSize = reader.getCurrentPageSize();
+            for ( int offset = 0; offset < pageSize; offset += Long.BYTES )
+            {
+                sum += reader.getLong( offset );
+            }
+            if ( !reader.shouldRetry() )
+            {
+                return sum;
+            }
+            counters.retries++;
+        }
+    }
+
+    @Benchmark
+    @Group( "contended" )
+    @GroupThreads( 1 )
+    public void write( Cursor cursor ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        try ( PageCursor writer = cursor.pagedFile.io( rng.nextInt( cursor.hotPages ), PF_SHARED_WRITE_LOCK ) )
+        {
+            writer.next();
+            writer.putLong( rng.nextInt( writer.getCurrentPageSize() / Long.BYTES ) * Long.BYTES, rng.nextLong() );
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Shared state for the page cache benchmarks: a {@link MuninnPageCache} on the real file system, with a single
+ * mapped file of {@link #fileSizeMiB} that is fully written before the measurements start.
+ * <p>
+ * When the file is larger than {@link #cacheSizeMiB}, the benchmarks run under cache pressure and will page fault
+ * and evict pages continuously.
+ */
+@State( Scope.Benchmark )
+public abstract class PageCacheBenchmarkState
+{
+    @Param( "64" )
+    public int fileSizeMiB;
+
+    @Param( "128" )
+    public int cacheSizeMiB;
+
+    private FileSystemAbstraction fs;
+    private ThreadPoolJobScheduler jobScheduler;
+    private File directory;
+    protected PageCache pageCache;
+    protected PagedFile pagedFile;
+    protected long pageCount;
+
+    @Setup( Level.Trial )
+    public void setUpPageCache() throws IOException
+    {
+        fs = new DefaultFileSystemAbstraction();
+        jobScheduler = new ThreadPoolJobScheduler();
+        directory = Files.createTempDirectory( getClass().getSimpleName() ).toFile();
+
+        SingleFilePageSwapperFactory swapperFactory = swapperFactory();
+        swapperFactory.open( fs, Configuration.EMPTY );
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( cacheSizeMiB + "m", GlobalMemoryTracker.INSTANCE );
+        pageCache = new MuninnPageCache( swapperFactory, allocator, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
+                EmptyVersionContextSupplier.EMPTY, jobScheduler, evictionPolicy() );
+
+        int pageSize = pageCache.pageSize();
+        pageCount = ((long) fileSizeMiB << 20) / pageSize;
+        pagedFile = pageCache.map( new File( directory, "benchmark-store" ), pageSize, CREATE );
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                cursor.next( pageId );
+                for ( int offset = 0; offset < pageSize; offset += Long.BYTES )
+                {
+                    cursor.putLong( offset, pageId );
+                }
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    protected SingleFilePageSwapperFactory swapperFactory()
+    {
+        return new SingleFilePageSwapperFactory();
+    }
+
+    protected EvictionPolicy evictionPolicy()
+    {
+        return EvictionPolicy.CLOCK;
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDownPageCache() throws Exception
+    {
+        pagedFile.close();
+        pageCache.close();
+        jobScheduler.close();
+        fs.close();
+        FileUtils.deleteRecursively( directory );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all the page cache benchmarks, or those matching the first argument, once for every thread count given
+ * in the remaining arguments. By default the thread counts are 1, 2, 4 and 8.
+ * <p>
+ * Individual benchmarks can also be run directly with {@code java -jar target/benchmarks.jar}, which accepts all
+ * the normal JMH options.
+ */
+public class PageCacheBenchmarks
+{
+    private PageCacheBenchmarks()
+    {
+    }
+
+    public static void main( String[] args ) throws RunnerException
+    {
+        String include = args.length > 0 ? args[0] : PageCacheBenchmarks.class.getPackage().getName();
+        int[] threadCounts = {1, 2, 4, 8};
+        if ( args.length > 1 )
+        {
+            threadCounts = new int[args.length - 1];
+            for ( int i = 1; i < args.length; i++ )
+            {
+                threadCounts[i - 1] = Integer.parseInt( args[i] );
+            }
+        }
+
+        for ( int threads : threadCounts )
+        {
+            Options options = new OptionsBuilder()
+                    .include( include )
+                    .threads( threads )
+                    .build();
+            new Runner( options ).run();
+        }
+    }
+}
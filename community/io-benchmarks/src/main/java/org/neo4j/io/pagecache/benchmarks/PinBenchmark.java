@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Pin and unpin throughput of {@code MuninnReadPageCursor} and {@code MuninnWritePageCursor} when the whole file
+ * fits in the page cache, for sequential and random page access.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PinBenchmark extends PageCacheBenchmarkState
+{
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PagedFile pagedFile;
+        PageCursor reader;
+        long pageCount;
+        long nextPageId;
+
+        @Setup( Level.Trial )
+        public void openCursors( PinBenchmark benchmark ) throws IOException
+        {
+            pagedFile = benchmark.pagedFile;
+            reader = pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            pageCount = benchmark.pageCount;
+            // Spread the threads out over the file, so they don't all pin the same pages in lock-step.
+            nextPageId = ThreadLocalRandom.current().nextLong( pageCount );
+        }
+
+        @TearDown( Level.Trial )
+        public void closeCursors()
+        {
+            reader.close();
+        }
+
+        long nextSequentialPageId()
+        {
+            long pageId = nextPageId;
+            nextPageId = pageId + 1 == pageCount ? 0 : pageId + 1;
+            return pageId;
+        }
+
+        long nextRandomPageId()
+        {
+            return ThreadLocalRandom.current().nextLong( pageCount );
+        }
+    }
+
+    @Benchmark
+    public long sequentialRead( Cursors cursors ) throws IOException
+    {
+        return read( cursors.reader, cursors.nextSequentialPageId() );
+    }
+
+    @Benchmark
+    public long randomRead( Cursors cursors ) throws IOException
+    {
+        return read( cursors.reader, cursors.nextRandomPageId() );
+    }
+
+    @Benchmark
+    public void sequentialWrite( Cursors cursors ) throws IOException
+    {
+        write( cursors.pagedFile, cursors.nextSequentialPageId() );
+    }
+
+    @Benchmark
+    public void randomWrite( Cursors cursors ) throws IOException
+    {
+        write( cursors.pagedFile, cursors.nextRandomPageId() );
+    }
+
+    static long read( PageCursor cursor, long pageId ) throws IOException
+    {
+        long value;
+        cursor.next( pageId );
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+
+    /**
+     * A write cursor keeps its page write locked until it moves on, so writes use a new cursor every time. Otherwise
+     * a benchmark thread that stops between invocations would block the other threads on the page it last wrote to.
+     */
+    static void write( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK ) )
+        {
+            cursor.next();
+            cursor.putLong( 0, pageId );
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Pin latency of a skewed random read workload, while another thread keeps scanning through the whole file, which
+ * is several times larger than the page cache. This compares how well the eviction policies protect the frequently
+ * used pages from being pushed out of the cache by the scan.
+ * <p>
+ * The random reads follow a Zipfian distribution, so a small set of pages gets most of the pins, like the
+ * hot records of a real workload. The latency of the scan is reported as well, since the scan pays for evicting
+ * the pages it faults in.
+ */
+@BenchmarkMode( Mode.SampleTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ScanResistanceBenchmark extends PageCacheBenchmarkState
+{
+    @Param( {"CLOCK", "SCAN_RESISTANT"} )
+    public String evictionPolicy;
+
+    @Param( "0.99" )
+    public double zipfianConstant;
+
+    private ZipfianGenerator zipfian;
+
+    @Override
+    @Setup( Level.Trial )
+    public void setUpPageCache() throws IOException
+    {
+        if ( fileSizeMiB <= cacheSizeMiB )
+        {
+            // Default to a file that is four times the size of the cache, unless explicitly configured otherwise.
+            fileSizeMiB = cacheSizeMiB * 4;
+        }
+        super.setUpPageCache();
+        zipfian = new ZipfianGenerator( pageCount, zipfianConstant );
+    }
+
+    @Override
+    protected EvictionPolicy evictionPolicy()
+    {
+        return EvictionPolicy.valueOf( evictionPolicy );
+    }
+
+    @State( Scope.Thread )
+    public static class Cursors
+    {
+        PageCursor reader;
+        ZipfianGenerator zipfian;
+        long pageCount;
+        long nextPageId;
+
+        @Setup( Level.Trial )
+        public void openCursors( ScanResistanceBenchmark benchmark ) throws IOException
+        {
+            reader = benchmark.pagedFile.io( 0, PF_SHARED_READ_LOCK );
+            zipfian = benchmark.zipfian;
+            pageCount = benchmark.pageCount;
+        }
+
+        @TearDown( Level.Trial )
+        public void closeCursors()
+        {
+            reader.close();
+        }
+
+        long nextScanPageId()
+        {
+            long pageId = nextPageId;
+            nextPageId = pageId + 1 == pageCount ? 0 : pageId + 1;
+            return pageId;
+        }
+    }
+
+    @Benchmark
+    @Group( "scanResistance" )
+    @GroupThreads( 3 )
+    public long zipfianRead( Cursors cursors ) throws IOException
+    {
+        return PinBenchmark.read( cursors.reader, cursors.zipfian.next( ThreadLocalRandom.current() ) );
+    }
+
+    @Benchmark
+    @Group( "scanResistance" )
+    @GroupThreads( 1 )
+    public long scan( Cursors cursors ) throws IOException
+    {
+        return PinBenchmark.read( cursors.reader, cursors.nextScanPageId() );
+    }
+
+    /**
+     * Draws page ids from a Zipfian distribution, using the method by Gray et al., from "Quickly Generating
+     * Billion-Record Synthetic Databases", which is also what YCSB uses. Page id 0 is the most popular page.
+     * <p>
+     * The generator is immutable, so it can be shared by all the benchmark threads.
+     */
+    static final class ZipfianGenerator
+    {
+        private final long items;
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        ZipfianGenerator( long items, double theta )
+        {
+            this.items = items;
+            this.theta = theta;
+            double zeta2 = zeta( 2, theta );
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetan = zeta( items, theta );
+            this.eta = (1 - Math.pow( 2.0 / items, 1 - theta )) / (1 - zeta2 / zetan);
+        }
+
+        long next( ThreadLocalRandom rng )
+        {
+            double u = rng.nextDouble();
+            double uz = u * zetan;
+            if ( uz < 1.0 )
+            {
+                return 0;
+            }
+            if ( uz < 1.0 + Math.pow( 0.5, theta ) )
+            {
+                return 1;
+            }
+            return Math.min( items - 1, (long) (items * Math.pow( eta * u - eta + 1, alpha )) );
+        }
+
+        private static double zeta( long n, double theta )
+        {
+            double sum = 0;
+            for ( long i = 1; i <= n; i++ )
+            {
+                sum += 1 / Math.pow( i, theta );
+            }
+            return sum;
+        }
+    }
+}
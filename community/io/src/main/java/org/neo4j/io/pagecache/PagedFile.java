@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.LongConsumer;
 
 /**
  * The representation of a file that has been mapped into the associated page cache.
@@ -60,8 +61,14 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * The pages that follow the pinned pages will be faulted in ahead of time, in the background, so the cursor finds
+     * them in memory when it gets to them. Page cache implementations may also start reading ahead for cursors that
+     * have been moving sequentially forward for a while, even without this flag.
+     * <p>
+     * This has no effect when combined with {@link #PF_NO_FAULT}.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -174,6 +181,60 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Load the given range of file pages into the page cache, unless they are already in memory.
+     * <p>
+     * This is a hint for warming up the cache ahead of the pages being accessed, and it does not pin or lock anything
+     * on behalf of the caller. Pages beyond the end of the file are ignored, and the file is never grown.
+     * Implementations are encouraged to read consecutive pages with as few IO operations as possible.
+     *
+     * @param startPageId the file-page-id of the first page to load.
+     * @param pageCount the number of consecutive pages to load, starting from {@code startPageId}.
+     * @return the number of pages that were read from the file, i.e. not counting the pages that were already cached.
+     * @throws IOException if there was an error reading from the underlying file.
+     */
+    default long prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        long loaded = 0;
+        long endPageId = Math.min( startPageId + pageCount, getLastPageId() + 1 );
+        try ( PageCursor probe = io( startPageId, PF_SHARED_READ_LOCK | PF_NO_FAULT );
+              PageCursor cursor = io( startPageId, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId = startPageId; pageId < endPageId; pageId++ )
+            {
+                if ( probe.next( pageId ) && probe.getCurrentPageId() == PageCursor.UNBOUND_PAGE_ID && cursor.next( pageId ) )
+                {
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Visit the file-page-ids of the pages of this file that are currently in memory, in ascending order.
+     * <p>
+     * This is meant for taking profiles of what is in the cache. The result is only a snapshot, since pages can be
+     * faulted in and evicted concurrently with the visit, and the visit itself should not fault in any pages.
+     *
+     * @param visitor the consumer of the file-page-ids of the pages that are in memory.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    default void visitCachedPages( LongConsumer visitor ) throws IOException
+    {
+        try ( PageCursor cursor = io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            while ( cursor.next() )
+            {
+                long pageId = cursor.getCurrentPageId();
+                if ( pageId != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    visitor.accept( pageId );
+                }
+            }
+        }
+    }
+
     /**
      * Release a handle to a paged file.
      * <p>
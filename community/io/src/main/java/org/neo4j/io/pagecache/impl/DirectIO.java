@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+
+import org.neo4j.io.fs.StoreFileChannel;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Opens file channels which bypass the operating system page cache, using the {@code DIRECT} open option that
+ * the JDK offers from Java 10 and onwards on platforms that support it. On older JVMs direct I/O is never
+ * {@link #isSupported() supported}, and swappers use normal buffered I/O.
+ * <p>
+ * Direct I/O requires buffers, file offsets and transfer sizes to be multiples of the block size of the file store.
+ * The buffers are taken care of by the page cache through {@link SingleFilePageSwapperFactory#getRequiredBufferAlignment()}.
+ * Files whose page size is a multiple of the block size are read and written in place. Other files, like the record
+ * stores whose pages hold a whole number of records, are read and written through block aligned buffers by
+ * {@link SingleFilePageSwapper}, see {@link #blockSize(File)}.
+ */
+final class DirectIO
+{
+    /**
+     * Alignment of the page buffers when direct I/O is enabled. Must be a multiple of the block size of any file
+     * store opened with direct I/O.
+     */
+    static final int BUFFER_ALIGNMENT = 4096;
+
+    private static final OpenOption DIRECT = findDirectOpenOption();
+    private static final MethodHandle GET_BLOCK_SIZE = findGetBlockSize();
+
+    private DirectIO()
+    {
+    }
+
+    /**
+     * @return whether or not this JVM is able to open files for direct I/O.
+     */
+    static boolean isSupported()
+    {
+        return DIRECT != null && GET_BLOCK_SIZE != null;
+    }
+
+    /**
+     * @param file existing file to check.
+     * @return whether or not the given file can be opened with direct I/O.
+     */
+    static boolean canOpen( File file )
+    {
+        return whyNotOpen( file ) == null;
+    }
+
+    /**
+     * @param file existing file to check.
+     * @return {@code null} if the given file can be opened with direct I/O, otherwise the reason why it can't.
+     */
+    static String whyNotOpen( File file )
+    {
+        if ( !isSupported() )
+        {
+            return "direct I/O is not supported by this JVM";
+        }
+        long blockSize;
+        try
+        {
+            blockSize = blockSize( file );
+        }
+        catch ( IOException e )
+        {
+            return "the block size of the file store is unknown: " + e;
+        }
+        if ( blockSize <= 0 || BUFFER_ALIGNMENT % blockSize != 0 )
+        {
+            return "the block size " + blockSize + " of the file store is not supported";
+        }
+        try
+        {
+            // Some file systems, like tmpfs, refuse to open files for direct I/O
+            open( file ).close();
+            return null;
+        }
+        catch ( Throwable e )
+        {
+            return "the file system refused direct I/O: " + e;
+        }
+    }
+
+    /**
+     * @param file existing file on a file store which supports direct I/O, see {@link #isSupported()}.
+     * @return the block size of the file store of the given file, which all direct I/O offsets and sizes must be
+     * multiples of.
+     */
+    static int blockSize( File file ) throws IOException
+    {
+        FileStore fileStore = Files.getFileStore( file.toPath() );
+        try
+        {
+            return Math.toIntExact( (long) GET_BLOCK_SIZE.invoke( fileStore ) );
+        }
+        catch ( IOException e )
+        {
+            throw e;
+        }
+        catch ( Throwable e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    static StoreFileChannel open( File file ) throws IOException
+    {
+        return new StoreFileChannel( FileChannel.open( file.toPath(), READ, WRITE, DIRECT ) );
+    }
+
+    private static OpenOption findDirectOpenOption()
+    {
+        try
+        {
+            Class<?> extendedOpenOption = Class.forName( "com.sun.nio.file.ExtendedOpenOption" );
+            for ( Object option : extendedOpenOption.getEnumConstants() )
+            {
+                if ( "DIRECT".equals( ((Enum<?>) option).name() ) )
+                {
+                    return (OpenOption) option;
+                }
+            }
+        }
+        catch ( ClassNotFoundException e )
+        {
+            // Not available on this JVM
+        }
+        return null;
+    }
+
+    private static MethodHandle findGetBlockSize()
+    {
+        try
+        {
+            return MethodHandles.publicLookup().findVirtual( FileStore.class, "getBlockSize", MethodType.methodType( long.class ) );
+        }
+        catch ( NoSuchMethodException | IllegalAccessException e )
+        {
+            // Not available on this JVM
+            return null;
+        }
+    }
+}
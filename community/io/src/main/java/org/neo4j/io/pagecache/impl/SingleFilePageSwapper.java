@@ -84,6 +84,8 @@ public class SingleFilePageSwapper implements PageSwapper
             UnsafeUtil.getFieldOffset( SingleFilePageSwapper.class, "fileSize" );
 
     private static final ThreadLocal<ByteBuffer> proxyCache = new ThreadLocal<>();
+    private static final ThreadLocal<BounceBuffer> bounceBufferCache = new ThreadLocal<>();
+    private static final int blockLockStripes = 64;
     private static final MethodHandle positionLockGetter = getPositionLockGetter();
 
     private static int stripeMask( int count )
@@ -118,6 +120,22 @@ public class SingleFilePageSwapper implements PageSwapper
         return createAndGetNewBuffer( buffer, bufferLength );
     }
 
+    /**
+     * A block aligned buffer of the given size, for reading and writing pages which share blocks with their neighbours.
+     * The buffer is kept per thread and reused, so it must not be used after the next call.
+     */
+    private static ByteBuffer bounceBuffer( int size ) throws IOException
+    {
+        BounceBuffer bounceBuffer = bounceBufferCache.get();
+        if ( bounceBuffer == null || bounceBuffer.capacity < size )
+        {
+            bounceBuffer = new BounceBuffer( size );
+            bounceBufferCache.set( bounceBuffer );
+        }
+        UnsafeUtil.initDirectByteBuffer( bounceBuffer.buffer, bounceBuffer.address, size );
+        return bounceBuffer.buffer;
+    }
+
     private static ByteBuffer createAndGetNewBuffer( long buffer, int bufferLength ) throws IOException
     {
         ByteBuffer buf;
@@ -142,6 +160,16 @@ public class SingleFilePageSwapper implements PageSwapper
     private final boolean hasPositionLock;
     private final int channelStripeCount;
     private final int channelStripeMask;
+    private final boolean directIO;
+    // Block size of the file store when direct I/O is used for a page size which isn't a multiple of it, otherwise 0.
+    // Pages then share their first and last block with their neighbours, and are read and written as whole blocks
+    // through a bounce buffer. Writes read, modify and write back the blocks, under the locks of the shared blocks.
+    private final int sharedBlockSize;
+    private final Object[] blockLocks;
+    // Writing whole blocks can extend the file beyond the end of the last page, which is truncated away again.
+    // Writes that can extend the file are serialised by this lock, which also guards increases of physicalFileSize.
+    private final Object fileExtensionLock = new Object();
+    private volatile long physicalFileSize;
 
     // Guarded by synchronized(this). See tryReopen() and close().
     private boolean closed;
@@ -151,9 +179,27 @@ public class SingleFilePageSwapper implements PageSwapper
 
     public SingleFilePageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean noChannelStriping )
             throws IOException
+    {
+        this( file, fs, filePageSize, onEviction, noChannelStriping, false );
+    }
+
+    /**
+     * @param directIO whether or not to open the file with {@link DirectIO direct I/O}, bypassing the operating system
+     * page cache. Must only be {@code true} if {@link DirectIO#canOpen(File)} for this file.
+     */
+    SingleFilePageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean noChannelStriping,
+            boolean directIO ) throws IOException
     {
         this.fs = fs;
         this.file = file;
+        this.directIO = directIO;
+        int blockSize = directIO ? DirectIO.blockSize( file ) : 0;
+        this.sharedBlockSize = blockSize != 0 && filePageSize % blockSize != 0 ? blockSize : 0;
+        this.blockLocks = new Object[sharedBlockSize != 0 ? blockLockStripes : 0];
+        for ( int i = 0; i < blockLocks.length; i++ )
+        {
+            blockLocks[i] = new Object();
+        }
         if ( noChannelStriping )
         {
             this.channelStripeCount = 1;
@@ -167,11 +213,12 @@ public class SingleFilePageSwapper implements PageSwapper
         this.channels = new StoreChannel[channelStripeCount];
         for ( int i = 0; i < channelStripeCount; i++ )
         {
-            channels[i] = fs.open( file, OpenMode.READ_WRITE );
+            channels[i] = openChannel();
         }
         this.filePageSize = filePageSize;
         this.onEviction = onEviction;
-        increaseFileSizeTo( channels[tokenChannelStripe].size() );
+        this.physicalFileSize = channels[tokenChannelStripe].size();
+        increaseFileSizeTo( physicalFileSize );
 
         try
         {
@@ -185,6 +232,11 @@ public class SingleFilePageSwapper implements PageSwapper
                 && StoreFileChannelUnwrapper.unwrap( channels[0] ).getClass() == sun.nio.ch.FileChannelImpl.class;
     }
 
+    private StoreChannel openChannel() throws IOException
+    {
+        return directIO ? DirectIO.open( file ) : fs.open( file, OpenMode.READ_WRITE );
+    }
+
     private void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
@@ -255,7 +307,8 @@ public class SingleFilePageSwapper implements PageSwapper
             {
                 read = channel.read( bufferProxy, fileOffset + readTotal );
             }
-            while ( read != -1 && (readTotal += read) < filePageSize );
+            // A short direct read means end of file, and reading on from an unaligned offset isn't allowed anyway
+            while ( read != -1 && (readTotal += read) < filePageSize && !directIO );
 
             // Zero-fill the rest.
             assert readTotal >= 0 && filePageSize <= bufferSize && readTotal <= filePageSize : format(
@@ -313,6 +366,10 @@ public class SingleFilePageSwapper implements PageSwapper
         {
             if ( fileOffset < getCurrentFileSize() )
             {
+                if ( sharedBlockSize != 0 )
+                {
+                    return readSharedBlocks( filePageId, new long[]{bufferAddress}, 0, 1 );
+                }
                 return swapIn( channel( filePageId ), bufferAddress, bufferSize, fileOffset, filePageSize );
             }
             else
@@ -343,6 +400,11 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length ) throws IOException
     {
+        if ( sharedBlockSize != 0 )
+        {
+            return readSharedBlocksAndRetryIfInterrupted( startFilePageId, bufferAddresses, arrayOffset, length,
+                    MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+        }
         if ( positionLockGetter != null && hasPositionLock )
         {
             try
@@ -412,7 +474,8 @@ public class SingleFilePageSwapper implements PageSwapper
                 {
                     read = channel.read( srcs );
                 }
-                while ( read != -1 && (readTotal += read) < toRead );
+                // A short direct read means end of file, see swapIn
+                while ( read != -1 && (readTotal += read) < toRead && !directIO );
                 return readTotal;
             }
         }
@@ -436,6 +499,57 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
+    private long readSharedBlocksAndRetryIfInterrupted( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length,
+            int attemptsLeft ) throws IOException
+    {
+        try
+        {
+            return readSharedBlocks( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        catch ( ClosedChannelException e )
+        {
+            tryReopen( startFilePageId, e );
+
+            if ( attemptsLeft < 1 )
+            {
+                throw new IOException( "IO failed due to interruption", e );
+            }
+
+            boolean interrupted = Thread.interrupted();
+            long bytesRead = readSharedBlocksAndRetryIfInterrupted( startFilePageId, bufferAddresses, arrayOffset, length, attemptsLeft - 1 );
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return bytesRead;
+        }
+    }
+
+    /**
+     * Reads the blocks that the given consecutive pages are in, in one go, and copies the pages out of them.
+     * Reads take no locks, because a concurrent write of a neighbouring page writes back the bytes of these pages
+     * unchanged.
+     */
+    private long readSharedBlocks( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( startFilePageId );
+        long pagesSize = ((long) filePageSize) * length;
+        long blocksOffset = fileOffset - fileOffset % sharedBlockSize;
+        ByteBuffer blocks = bounceBuffer( Math.toIntExact( blockAligned( fileOffset + pagesSize ) - blocksOffset ) );
+        // A short direct read means end of file, see swapIn
+        int read = channel( startFilePageId ).read( blocks, blocksOffset );
+        long pagesAddress = UnsafeUtil.getDirectByteBufferAddress( blocks ) + (fileOffset - blocksOffset);
+        long pagesRead = Math.max( 0, Math.min( pagesSize, read - (fileOffset - blocksOffset) ) );
+        for ( int i = 0; i < length; i++ )
+        {
+            long address = bufferAddresses[arrayOffset + i];
+            int bytes = (int) Math.max( 0, Math.min( filePageSize, pagesRead - ((long) filePageSize) * i ) );
+            UnsafeUtil.copyMemory( pagesAddress + ((long) filePageSize) * i, address, bytes );
+            UnsafeUtil.setMemory( address + bytes, filePageSize - bytes, MuninnPageCache.ZERO_BYTE );
+        }
+        return pagesRead;
+    }
+
     private int readPositionedVectoredFallback(
             long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length ) throws IOException
     {
@@ -460,6 +574,10 @@ public class SingleFilePageSwapper implements PageSwapper
         increaseFileSizeTo( fileOffset + filePageSize );
         try
         {
+            if ( sharedBlockSize != 0 )
+            {
+                return writeSharedBlocks( filePageId, new long[]{bufferAddress}, 0, 1 );
+            }
             StoreChannel channel = channel( filePageId );
             return swapOut( bufferAddress, fileOffset, channel );
         }
@@ -485,6 +603,12 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
     {
+        if ( sharedBlockSize != 0 )
+        {
+            increaseFileSizeTo( pageIdToPosition( startFilePageId ) + (((long) filePageSize) * length) );
+            return writeSharedBlocksAndRetryIfInterrupted( startFilePageId, bufferAddresses, arrayOffset, length,
+                    MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+        }
         if ( positionLockGetter != null && hasPositionLock )
         {
             try
@@ -569,6 +693,98 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
+    private long writeSharedBlocksAndRetryIfInterrupted( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length,
+            int attemptsLeft ) throws IOException
+    {
+        try
+        {
+            return writeSharedBlocks( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        catch ( ClosedChannelException e )
+        {
+            tryReopen( startFilePageId, e );
+
+            if ( attemptsLeft < 1 )
+            {
+                throw new IOException( "IO failed due to interruption", e );
+            }
+
+            boolean interrupted = Thread.interrupted();
+            long bytesWritten = writeSharedBlocksAndRetryIfInterrupted( startFilePageId, bufferAddresses, arrayOffset, length, attemptsLeft - 1 );
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return bytesWritten;
+        }
+    }
+
+    /**
+     * Writes the given consecutive pages by reading the blocks they are in, copying the pages into them, and writing
+     * the blocks back. Only the first and the last block can be shared with neighbouring pages, so only their locks
+     * are taken, always the lower stripe first.
+     */
+    private long writeSharedBlocks( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( startFilePageId );
+        long pagesEnd = fileOffset + ((long) filePageSize) * length;
+        long blocksOffset = fileOffset - fileOffset % sharedBlockSize;
+        long blocksEnd = blockAligned( pagesEnd );
+        int firstStripe = blockLockStripe( blocksOffset );
+        int lastStripe = blockLockStripe( blocksEnd - sharedBlockSize );
+        synchronized ( blockLocks[Math.min( firstStripe, lastStripe )] )
+        {
+            synchronized ( blockLocks[Math.max( firstStripe, lastStripe )] )
+            {
+                if ( blocksEnd <= physicalFileSize )
+                {
+                    writeBlocks( startFilePageId, bufferAddresses, arrayOffset, length, fileOffset, blocksOffset, blocksEnd );
+                }
+                else
+                {
+                    synchronized ( fileExtensionLock )
+                    {
+                        writeBlocks( startFilePageId, bufferAddresses, arrayOffset, length, fileOffset, blocksOffset, blocksEnd );
+                        long newPhysicalFileSize = Math.max( physicalFileSize, pagesEnd );
+                        // Cut off the rest of the last block, so that the file doesn't seem to have another page
+                        channel( startFilePageId ).truncate( newPhysicalFileSize );
+                        physicalFileSize = newPhysicalFileSize;
+                    }
+                }
+            }
+        }
+        return pagesEnd - fileOffset;
+    }
+
+    private void writeBlocks( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length, long fileOffset,
+            long blocksOffset, long blocksEnd ) throws IOException
+    {
+        StoreChannel channel = channel( startFilePageId );
+        ByteBuffer blocks = bounceBuffer( Math.toIntExact( blocksEnd - blocksOffset ) );
+        long blocksAddress = UnsafeUtil.getDirectByteBufferAddress( blocks );
+        // A short direct read means end of file, see swapIn
+        int read = Math.max( 0, channel.read( blocks, blocksOffset ) );
+        UnsafeUtil.setMemory( blocksAddress + read, blocks.capacity() - read, MuninnPageCache.ZERO_BYTE );
+        long pagesAddress = blocksAddress + (fileOffset - blocksOffset);
+        for ( int i = 0; i < length; i++ )
+        {
+            UnsafeUtil.copyMemory( bufferAddresses[arrayOffset + i], pagesAddress + ((long) filePageSize) * i, filePageSize );
+        }
+        blocks.clear();
+        channel.writeAll( blocks, blocksOffset );
+    }
+
+    private long blockAligned( long fileOffset )
+    {
+        long misalignment = fileOffset % sharedBlockSize;
+        return misalignment == 0 ? fileOffset : fileOffset + sharedBlockSize - misalignment;
+    }
+
+    private int blockLockStripe( long blockOffset )
+    {
+        return (int) ((blockOffset / sharedBlockSize) & (blockLockStripes - 1));
+    }
+
     private Object positionLock( FileChannel channel )
     {
         sun.nio.ch.FileChannelImpl impl = (FileChannelImpl) channel;
@@ -670,7 +886,7 @@ public class SingleFilePageSwapper implements PageSwapper
 
         try
         {
-            channels[stripe] = fs.open( file, OpenMode.READ_WRITE );
+            channels[stripe] = openChannel();
             if ( stripe == tokenChannelStripe )
             {
                 // The closing of a FileChannel also releases all associated file locks.
@@ -793,7 +1009,11 @@ public class SingleFilePageSwapper implements PageSwapper
         setCurrentFileSize( 0 );
         try
         {
-            channel( tokenFilePageId ).truncate( 0 );
+            synchronized ( fileExtensionLock )
+            {
+                channel( tokenFilePageId ).truncate( 0 );
+                physicalFileSize = 0;
+            }
         }
         catch ( ClosedChannelException e )
         {
@@ -821,4 +1041,28 @@ public class SingleFilePageSwapper implements PageSwapper
                 ", file=" + file +
                 '}';
     }
+
+    private static final class BounceBuffer
+    {
+        // Keeps the memory of the aligned buffer reachable
+        private final ByteBuffer memory;
+        private final ByteBuffer buffer;
+        private final long address;
+        private final int capacity;
+
+        BounceBuffer( int capacity ) throws IOException
+        {
+            this.capacity = capacity;
+            memory = ByteBuffer.allocateDirect( capacity + DirectIO.BUFFER_ALIGNMENT );
+            address = UnsafeUtil.alignedMemory( UnsafeUtil.getDirectByteBufferAddress( memory ), DirectIO.BUFFER_ALIGNMENT );
+            try
+            {
+                buffer = UnsafeUtil.newDirectByteBuffer( address, capacity );
+            }
+            catch ( Exception e )
+            {
+                throw new IOException( e );
+            }
+        }
+    }
 }
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.nio.file.NoSuchFileException;
 
 import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -31,17 +32,79 @@ import org.neo4j.io.pagecache.PageSwapperFactory;
 
 /**
  * A factory for SingleFilePageSwapper instances.
+ * <p>
+ * Direct I/O can be requested, in which case files on the real file system are opened so that they bypass the
+ * operating system page cache, whenever the JVM and the file system allow for it.
+ * Other files are accessed with normal buffered I/O.
  *
  * @see org.neo4j.io.pagecache.impl.SingleFilePageSwapper
+ * @see DirectIO
  */
 public class SingleFilePageSwapperFactory implements PageSwapperFactory
 {
+    /**
+     * Told about files which are accessed with buffered I/O, even though direct I/O is used by the factory.
+     */
+    public interface DirectIOMonitor
+    {
+        void bufferedIOFallback( File file, String reason );
+    }
+
+    private static final DirectIOMonitor NO_MONITOR = ( file, reason ) ->
+    {
+    };
+
+    private boolean directIORequested;
+    private DirectIOMonitor directIOMonitor = NO_MONITOR;
     private FileSystemAbstraction fs;
+    private boolean directIO;
+
+    public SingleFilePageSwapperFactory()
+    {
+        this( false );
+    }
+
+    /**
+     * @param directIO whether or not to use direct I/O where possible.
+     */
+    public SingleFilePageSwapperFactory( boolean directIO )
+    {
+        this.directIORequested = directIO;
+    }
+
+    /**
+     * Requests direct I/O for a factory created with the default constructor, like factories loaded as services.
+     * Must be called before the factory is {@link #open(FileSystemAbstraction, Configuration) opened}.
+     *
+     * @param directIO whether or not to use direct I/O where possible.
+     */
+    public void setDirectIORequested( boolean directIO )
+    {
+        this.directIORequested = directIO;
+    }
+
+    /**
+     * @param directIOMonitor told about every file which falls back to buffered I/O when direct I/O is used,
+     * like files on a file store which refuses direct I/O.
+     */
+    public void setDirectIOMonitor( DirectIOMonitor directIOMonitor )
+    {
+        this.directIOMonitor = directIOMonitor;
+    }
 
     @Override
     public void open( FileSystemAbstraction fs, Configuration config )
     {
         this.fs = fs;
+        this.directIO = directIORequested && DirectIO.isSupported() && fs instanceof DefaultFileSystemAbstraction;
+    }
+
+    /**
+     * @return whether or not swappers from this factory use direct I/O for the files that allow it.
+     */
+    public boolean isDirectIO()
+    {
+        return directIO;
     }
 
     @Override
@@ -63,7 +126,17 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
                 throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
             }
         }
-        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping );
+        boolean useDirectIO = false;
+        if ( directIO )
+        {
+            String reason = DirectIO.whyNotOpen( file );
+            useDirectIO = reason == null;
+            if ( !useDirectIO )
+            {
+                directIOMonitor.bufferedIOFallback( file, reason );
+            }
+        }
+        return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping, useDirectIO );
     }
 
     @Override
@@ -87,6 +160,6 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
     @Override
     public long getRequiredBufferAlignment()
     {
-        return 1;
+        return directIO ? DirectIO.BUFFER_ALIGNMENT : 1;
     }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The policies that the {@link MuninnPageCache} can use to choose which pages to evict, when it needs free pages.
+ * <p>
+ * Either way, the eviction sweeps over the pages like the arm of a clock, and it is up to the policy to decide if the
+ * page under the arm should be evicted, or if the arm should move on to the next page.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The CLOCK policy. Every page carries a small usage counter, that is incremented every time the page is pinned,
+     * and decremented every time the clock arm passes over it. A page is evicted when its counter reaches zero.
+     * <p>
+     * This policy approximates LRU, which also means that a scan through more pages than fit in the cache, will
+     * eventually evict every other page.
+     */
+    CLOCK
+    {
+        @Override
+        PageSelector createSelector( int pageCount )
+        {
+            return ( pages, pageRef ) -> pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef );
+        }
+    },
+    /**
+     * A scan resistant variant of the {@link #CLOCK} policy, in the spirit of 2Q, which keeps frequently used pages in
+     * the cache while large scans pass through it.
+     *
+     * @see ScanResistantPageSelector
+     */
+    SCAN_RESISTANT
+    {
+        @Override
+        PageSelector createSelector( int pageCount )
+        {
+            return new ScanResistantPageSelector( pageCount );
+        }
+    };
+
+    abstract PageSelector createSelector( int pageCount );
+
+    /**
+     * The part of an eviction policy that is consulted by the clock arm.
+     */
+    interface PageSelector
+    {
+        /**
+         * Called when the clock arm reaches the given page, both by the background eviction thread and by threads
+         * that evict pages cooperatively. The page might not be loaded, in which case it cannot be evicted. This is
+         * allowed to update the usage counter of the page.
+         *
+         * @param pages the page list of the page cache.
+         * @param pageRef the reference to the page under the clock arm.
+         * @return {@code true} if the page should be evicted, or {@code false} if the clock arm should move on.
+         */
+        boolean shouldEvict( PageList pages, long pageRef );
+    }
+}
@@ -104,6 +104,24 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except this method does not wait if a latch is already installed for the
+     * given (or any colliding) identifier, but returns {@code null} right away. This makes it safe to use for
+     * threads that are already holding other latches from this map.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        Latch latch = new Latch();
+        if ( compareAndSetLatch( index, null, latch ) )
+        {
+            latch.latchMap = this;
+            latch.index = index;
+            return latch;
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
@@ -30,6 +30,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -126,6 +128,19 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // This is the largest number of pages that a page cursor will read ahead of itself, when it is moving sequentially
+    // forward through a file. This will be truncated to be no more than 1/16th of the number of pages in the cache,
+    // and read-ahead is disabled entirely when that is too few pages to be worth it.
+    private static final int readAheadPages = getInteger( MuninnPageCache.class, "readAheadPages", 32 );
+
+    // This is how many pages a page cursor must have pinned in strictly sequential order, before it starts reading
+    // ahead, if it was not opened with the PF_READ_AHEAD flag. Set this to 0 to only read ahead for that flag.
+    private static final int sequentialReadAheadThreshold = getInteger(
+            MuninnPageCache.class, "sequentialReadAheadThreshold", 8 );
+
+    // This is how many read-ahead jobs can run concurrently.
+    private static final int readAheadParallelism = getInteger( MuninnPageCache.class, "readAheadParallelism", 4 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -154,10 +169,13 @@ public class MuninnPageCache implements PageCache
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
     private final int keepFree;
+    final int readAheadWindow;
+    final int readAheadThreshold;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    private final EvictionPolicy.PageSelector pageSelector;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
@@ -192,6 +210,9 @@ public class MuninnPageCache implements PageCache
     // Only used by ensureThreadsInitialised while holding the monitor lock on this MuninnPageCache instance.
     private boolean threadsInitialised;
 
+    // The executor for read-ahead jobs, or null if read-ahead is disabled. Written by ensureThreadsInitialised.
+    private volatile Executor readAheadExecutor;
+
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
 
@@ -251,7 +272,32 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler );
+        this( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                EvictionPolicy.CLOCK );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide
+     *        access to thread local version context
+     * @param evictionPolicy the policy that decides which pages to evict, when the page cache needs free pages
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                evictionPolicy );
     }
 
     /**
@@ -268,6 +314,20 @@ public class MuninnPageCache implements PageCache
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                EvictionPolicy.CLOCK );
+    }
+
+    private MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -281,6 +341,9 @@ public class MuninnPageCache implements PageCache
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        int window = Math.min( readAheadPages, maxPages / 16 );
+        this.readAheadWindow = window < 4 ? 0 : window;
+        this.readAheadThreshold = sequentialReadAheadThreshold;
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
@@ -288,6 +351,7 @@ public class MuninnPageCache implements PageCache
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        this.pageSelector = evictionPolicy.createSelector( maxPages );
         this.scheduler = jobScheduler;
 
         setFreelistHead( new AtomicInteger() );
@@ -493,6 +557,10 @@ public class MuninnPageCache implements PageCache
         try
         {
             scheduler.schedule( Group.PAGE_CACHE, new EvictionTask( this ) );
+            if ( readAheadWindow > 0 )
+            {
+                readAheadExecutor = scheduler.workStealingExecutor( Group.PAGE_CACHE_READ_AHEAD, readAheadParallelism );
+            }
         }
         catch ( Exception e )
         {
@@ -509,6 +577,26 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Run the given read-ahead job in the background. Read-ahead is only a hint, so the job is silently dropped if it
+     * cannot be run.
+     */
+    void readAhead( Runnable job )
+    {
+        Executor executor = readAheadExecutor;
+        if ( executor != null )
+        {
+            try
+            {
+                executor.execute( job );
+            }
+            catch ( RejectedExecutionException ignore )
+            {
+                // The job scheduler is shutting down.
+            }
+        }
+    }
+
     synchronized void unmap( MuninnPagedFile file )
     {
         if ( file.decrementRefCount() )
@@ -856,7 +944,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pageSelector.shouldEvict( pages, pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -915,9 +1003,9 @@ public class MuninnPageCache implements PageCache
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
+     * Scan through all the pages, one by one, and ask the eviction policy if they should be evicted.
+     * For the CLOCK policy, this decrements their usage stamps, and if a usage reaches zero, we
+     * try-write-locking it, and if we get that lock, we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
@@ -995,7 +1083,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pageSelector.shouldEvict( pages, pageRef ) )
             {
                 try
                 {
@@ -38,6 +38,7 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
@@ -70,6 +71,13 @@ abstract class MuninnPageCursor extends PageCursor
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
+    private boolean readAhead;
+    private int readAheadWindow;
+    private int readAheadThreshold;
+    private long lastPinnedPageId;
+    private int sequentialPins;
+    // The read-ahead has been requested for all file pages up to, but excluding, this one.
+    private long readAheadEndPageId;
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -102,6 +110,12 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.readAheadWindow = noFault ? 0 : pagedFile.pageCache.readAheadWindow;
+        this.readAheadThreshold = pagedFile.pageCache.readAheadThreshold;
+        this.readAhead = isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
+        this.sequentialPins = 0;
+        this.readAheadEndPageId = 0;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -264,6 +278,10 @@ abstract class MuninnPageCursor extends PageCursor
      */
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
+        if ( readAheadWindow > 0 )
+        {
+            readAheadOf( filePageId );
+        }
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
@@ -314,6 +332,36 @@ abstract class MuninnPageCursor extends PageCursor
         }
     }
 
+    /**
+     * Ask for the pages after the given page to be faulted in, in the background, if this cursor either has the
+     * {@link PagedFile#PF_READ_AHEAD} flag, or has been moving sequentially forward through the file for a while. We
+     * ask for a whole window of pages at a time, and ask for the next window once we are half way through the current.
+     */
+    private void readAheadOf( long filePageId ) throws IOException
+    {
+        if ( filePageId == lastPinnedPageId + 1 )
+        {
+            sequentialPins++;
+        }
+        else
+        {
+            sequentialPins = 0;
+            readAheadEndPageId = 0;
+        }
+        lastPinnedPageId = filePageId;
+
+        boolean sequential = readAheadThreshold > 0 && sequentialPins >= readAheadThreshold;
+        if ( (readAhead | sequential) && filePageId + readAheadWindow / 2 >= readAheadEndPageId )
+        {
+            long startPageId = Math.max( filePageId + 1, readAheadEndPageId );
+            readAheadEndPageId = filePageId + 1 + readAheadWindow;
+            if ( startPageId <= pagedFile.getLastPageId() )
+            {
+                pagedFile.readAhead( startPageId, (int) (readAheadEndPageId - startPageId) );
+            }
+        }
+    }
+
     private int[][] expandTranslationTableCapacity( int chunkId )
     {
         return pagedFile.expandCapacity( chunkId );
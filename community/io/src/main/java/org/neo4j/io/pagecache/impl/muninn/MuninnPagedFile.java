@@ -24,6 +24,10 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
@@ -37,6 +41,8 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
@@ -58,6 +64,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long headerStateRefCountMask = 0x7FFF_0000_0000_0000L;
     private static final long headerStateLastPageIdMask = 0x8000_FFFF_FFFF_FFFFL;
     private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+    // The longest run of pages that is prefetched with a single vectored read.
+    private static final int maxPrefetchRunLength = 128;
 
     final MuninnPageCache pageCache;
     final int filePageSize;
@@ -75,6 +83,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     // Guarded by the monitor lock on MuninnPageCache (map and unmap)
     private boolean deleteOnClose;
 
+    // Background read-aheads hold the read lock while they fault pages in. Closing the swapper takes the write lock,
+    // and never releases it, so it waits for the running read-aheads, and makes any queued read-ahead do nothing.
+    private final ReadWriteLock readAheadLock = new ReentrantReadWriteLock();
+
     // Used to trace the causes of any exceptions from getLastPageId.
     private volatile Exception closeStackTrace;
 
@@ -207,6 +219,191 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    @Override
+    public long prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        long endPageId = Math.min( startPageId + pageCount, getLastPageId() + 1 );
+        int maxRunLength = (int) Math.max( 0, Math.min( endPageId - startPageId, maxPrefetchRunLength ) );
+        LatchMap.Latch[] latches = new LatchMap.Latch[maxRunLength];
+        long[] pageRefs = new long[maxRunLength];
+        long[] bufferAddresses = new long[maxRunLength];
+        long pagesLoaded = 0;
+        long filePageId = startPageId;
+        while ( filePageId < endPageId )
+        {
+            // Latch the longest run of pages that are not in memory, starting at the current file page. We never wait
+            // for latches while holding others, since colliding latches could then deadlock us. Instead, the run ends
+            // at the first page that is in memory, or that we cannot latch right away.
+            long runStartPageId = filePageId;
+            int runLength = 0;
+            while ( filePageId < endPageId && runLength < maxRunLength )
+            {
+                int[] chunk = chunkOf( filePageId );
+                long chunkOffset = computeChunkOffset( filePageId );
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    break;
+                }
+                LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch == null )
+                {
+                    break;
+                }
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    latch.release();
+                    break;
+                }
+                latches[runLength++] = latch;
+                filePageId++;
+            }
+
+            if ( runLength == 0 )
+            {
+                // Either the page is already in memory, or someone else is busy faulting it, or a page that collides
+                // with it, in. Whatever the case, we skip it.
+                filePageId++;
+            }
+            else
+            {
+                prefetchRun( runStartPageId, runLength, latches, pageRefs, bufferAddresses );
+                pagesLoaded += runLength;
+            }
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Asynchronously fault in the given range of pages that are not already in memory, on behalf of a page cursor that
+     * is expected to pin them soon.
+     */
+    void readAhead( long startPageId, int pageCount )
+    {
+        pageCache.readAhead( () ->
+        {
+            Lock lock = readAheadLock.readLock();
+            if ( !lock.tryLock() )
+            {
+                return; // The file is being unmapped.
+            }
+            try
+            {
+                prefetch( startPageId, pageCount );
+            }
+            catch ( Exception ignore )
+            {
+                // Read-ahead is only a hint. Any cursor that needs these pages will fault them in, and see the
+                // exception, itself.
+            }
+            finally
+            {
+                lock.unlock();
+                cursorFactory.getPageCursorTracer().reportEvents();
+            }
+        } );
+    }
+
+    /**
+     * Fault in the given run of latched file pages, using a single vectored read. The latches are always released.
+     */
+    private void prefetchRun( long startFilePageId, int length, LatchMap.Latch[] latches, long[] pageRefs,
+            long[] bufferAddresses ) throws IOException
+    {
+        PageCursorTracer tracer = cursorFactory.getPageCursorTracer();
+        PinEvent[] pinEvents = new PinEvent[length];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[length];
+        int pagesGrabbed = 0;
+        boolean bound = false;
+        try
+        {
+            for ( ; pagesGrabbed < length; pagesGrabbed++ )
+            {
+                pinEvents[pagesGrabbed] = tracer.beginPin( false, startFilePageId + pagesGrabbed, swapper );
+                faultEvents[pagesGrabbed] = pinEvents[pagesGrabbed].beginPageFault();
+                long pageRef = grabFreeAndExclusivelyLockedPage( faultEvents[pagesGrabbed] );
+                pageRefs[pagesGrabbed] = pageRef;
+                initBuffer( pageRef );
+            }
+            // Make sure we are not racing with unmapping, before we potentially reopen the file channel.
+            getLastPageId();
+            bound = true;
+            long bytesRead = fault( pageRefs, bufferAddresses, length, swapper, swapperId, startFilePageId );
+            for ( int i = 0; i < length; i++ )
+            {
+                long pageRef = pageRefs[i];
+                // Publish the page in the translation table before unlocking it, for the same reason as in
+                // MuninnPageCursor.pageFault: the eviction callback expects to find it there.
+                UnsafeUtil.putIntVolatile( chunkOf( startFilePageId + i ), computeChunkOffset( startFilePageId + i ),
+                        toId( pageRef ) );
+                unlockExclusive( pageRef );
+                latches[i].release();
+                faultEvents[i].addBytesRead( Math.max( 0, Math.min( filePageSize, bytesRead - (long) i * filePageSize ) ) );
+                faultEvents[i].setCachePageId( toId( pageRef ) );
+                faultEvents[i].done();
+                pinEvents[i].done();
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                if ( i < pagesGrabbed )
+                {
+                    if ( bound )
+                    {
+                        // The pages are considered loaded, though not bound, so eviction will pick them up again.
+                        unlockExclusive( pageRefs[i] );
+                    }
+                    else
+                    {
+                        // The pages are not loaded, and eviction would never get around to them, so we hand them back.
+                        pageCache.addFreePageToFreelist( pageRefs[i] );
+                    }
+                }
+                latches[i].release();
+                if ( faultEvents[i] != null )
+                {
+                    faultEvents[i].done( throwable );
+                    pinEvents[i].done();
+                }
+            }
+            throw throwable;
+        }
+    }
+
+    @Override
+    public void visitCachedPages( LongConsumer visitor ) throws IOException
+    {
+        long lastPageId = getLastPageId();
+        int[][] tt = this.translationTable;
+        for ( long filePageId = 0; filePageId <= lastPageId; filePageId++ )
+        {
+            int chunkId = computeChunkId( filePageId );
+            if ( chunkId >= tt.length )
+            {
+                break;
+            }
+            // Look at the binding of the page without locking it or touching its usage counter, so the profile does
+            // not make the page any hotter than it already is. This is racy with eviction, which is fine for a snapshot.
+            int pageId = UnsafeUtil.getIntVolatile( tt[chunkId], computeChunkOffset( filePageId ) );
+            if ( pageId != UNMAPPED_TTE && isBoundTo( deref( pageId ), swapperId, filePageId ) )
+            {
+                visitor.accept( filePageId );
+            }
+        }
+    }
+
+    private int[] chunkOf( long filePageId )
+    {
+        int chunkId = computeChunkId( filePageId );
+        int[][] tt = translationTable;
+        if ( tt.length <= chunkId )
+        {
+            tt = expandCapacity( chunkId );
+        }
+        return tt[chunkId];
+    }
+
     @Override
     public int pageSize()
     {
@@ -238,6 +435,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     void closeSwapper() throws IOException
     {
+        readAheadLock.writeLock().lock();
+
         // We don't set closeStackTrace in close(), because the reference count may keep the file open.
         // But if we get here, to close the swapper, then we are definitely unmapping!
         closeStackTrace = new Exception( "tracing paged file closing" );
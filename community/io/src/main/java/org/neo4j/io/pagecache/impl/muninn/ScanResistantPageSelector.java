@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * The page selector for the {@link EvictionPolicy#SCAN_RESISTANT} eviction policy.
+ * <p>
+ * Pages that have not been pinned again since they were faulted in, are on probation. This is what a scan leaves
+ * behind, since it pins every page once. Probationary pages are evicted as soon as the clock arm reaches them, just
+ * like with the CLOCK policy. The difference is in how the pages that have been pinned repeatedly are treated: they
+ * are protected, and their usage counters are only decremented when the protected pages take up more than a given
+ * share of the page cache. When a scan floods the cache with probationary pages, the eviction therefore feeds on
+ * those, instead of wearing down the usage counters of the working set. The protected pages still age and get
+ * evicted when they stop being used, once the working set has grown past its share.
+ * <p>
+ * The number of protected pages is estimated by counting them as the clock arms pass over them, over as many steps as
+ * there are pages in the cache. The counters behind that estimate are updated without any synchronisation, by the
+ * background eviction thread and by the threads that evict cooperatively. This is benignly racy, since we only need
+ * an estimate.
+ */
+final class ScanResistantPageSelector implements EvictionPolicy.PageSelector
+{
+    private static final int probationaryPercentage = getInteger( ScanResistantPageSelector.class, "probationaryPercentage", 25 );
+
+    private final int pageCount;
+    private final int protectedPagesLimit;
+    private int pagesVisited;
+    private int protectedPagesVisited;
+    private int protectedPages;
+    private int pagesSkipped;
+
+    ScanResistantPageSelector( int pageCount )
+    {
+        this.pageCount = pageCount;
+        this.protectedPagesLimit = (int) ((long) pageCount * (100 - probationaryPercentage) / 100);
+    }
+
+    @Override
+    public boolean shouldEvict( PageList pages, long pageRef )
+    {
+        if ( ++pagesVisited >= pageCount )
+        {
+            protectedPages = protectedPagesVisited;
+            protectedPagesVisited = 0;
+            pagesVisited = 0;
+        }
+        if ( !pages.isLoaded( pageRef ) )
+        {
+            return false;
+        }
+
+        if ( pages.getUsageCounter( pageRef ) <= 1 )
+        {
+            pagesSkipped = 0;
+            return pages.decrementUsage( pageRef );
+        }
+        protectedPagesVisited++;
+        // Don't skip more than a full sweep at a time, though. If the probationary pages are all locked, or the
+        // estimate is stale, then we have to fall back to ageing the protected pages, to be sure we make progress.
+        if ( protectedPages <= protectedPagesLimit && pagesSkipped < pageCount )
+        {
+            pagesSkipped++;
+            return false;
+        }
+        return pages.decrementUsage( pageRef );
+    }
+}
@@ -19,6 +19,10 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -90,4 +94,13 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The counters of each currently mapped file, or an empty map if the tracer does not keep counters per
+     * file. Only the per file tracer does that, since it costs a bit of overhead on every pin.
+     */
+    default Map<File,PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.emptyMap();
+    }
 }
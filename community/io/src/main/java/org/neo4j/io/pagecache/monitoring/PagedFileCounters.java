@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+/**
+ * The PagedFileCounters exposes the page cache counters of a single mapped file.
+ *
+ * @see PageCacheCounters#pagedFileCounters()
+ */
+public interface PagedFileCounters
+{
+    /**
+     * @return The number of page faults in this file observed thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of pages of this file that were evicted thus far.
+     */
+    long evictions();
+
+    /**
+     * @return The number of page pins in this file observed thus far.
+     */
+    long pins();
+
+    /**
+     * @return The number of page cache hits in this file so far.
+     */
+    long hits();
+
+    /**
+     * @return The number of page flushes to this file observed thus far.
+     */
+    long flushes();
+
+    /**
+     * @return The sum total of bytes read in from this file by page faults.
+     */
+    long bytesRead();
+
+    /**
+     * @return The sum total of bytes written to this file through flushes.
+     */
+    long bytesWritten();
+
+    /**
+     * @return The cache hit ratio of this file observed thus far.
+     */
+    double hitRatio();
+
+    /**
+     * @return The page fault latency histogram of this file. The count at index {@code i} is the number of page faults
+     * that took at least 2^i nanoseconds, but less than 2^(i+1) nanoseconds. Index 0 also counts the faults that took
+     * no measurable time.
+     */
+    long[] faultLatencyHistogram();
+
+    /**
+     * @param percentile The percentile to get, between 0 and 100.
+     * @return An upper bound of the page fault latency, in nanoseconds, that the given percentile of the page faults
+     * of this file stayed below, or 0 if there were no page faults.
+     */
+    long faultLatencyPercentile( double percentile );
+}
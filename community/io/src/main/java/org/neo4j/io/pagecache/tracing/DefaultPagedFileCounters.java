@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.helpers.MathUtil;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+
+/**
+ * The counters of a single mapped file, as kept by the {@link PerFilePageCacheTracer}.
+ * <p>
+ * Page fault latencies are counted in a histogram with one bucket per power of two nanoseconds, which is precise
+ * enough to tell cache hits in the operating system apart from device reads, and cheap enough to update on every
+ * page fault.
+ */
+public class DefaultPagedFileCounters implements PagedFileCounters
+{
+    private static final int LATENCY_BUCKETS = Long.SIZE;
+
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder pins = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicLongArray faultLatencies = new AtomicLongArray( LATENCY_BUCKETS );
+
+    public void pin()
+    {
+        pins.increment();
+    }
+
+    public void hit()
+    {
+        hits.increment();
+    }
+
+    public void fault( long bytesRead, long latencyNanos )
+    {
+        faults.increment();
+        this.bytesRead.add( bytesRead );
+        faultLatencies.incrementAndGet( latencyBucket( latencyNanos ) );
+    }
+
+    public void eviction()
+    {
+        evictions.increment();
+    }
+
+    public void flush( long bytesWritten )
+    {
+        flushes.increment();
+        this.bytesWritten.add( bytesWritten );
+    }
+
+    private static int latencyBucket( long latencyNanos )
+    {
+        return latencyNanos <= 0 ? 0 : LATENCY_BUCKETS - 1 - Long.numberOfLeadingZeros( latencyNanos );
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public long pins()
+    {
+        return pins.sum();
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long flushes()
+    {
+        return flushes.sum();
+    }
+
+    @Override
+    public long bytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long bytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public double hitRatio()
+    {
+        return MathUtil.portion( hits(), faults() );
+    }
+
+    @Override
+    public long[] faultLatencyHistogram()
+    {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for ( int i = 0; i < LATENCY_BUCKETS; i++ )
+        {
+            histogram[i] = faultLatencies.get( i );
+        }
+        return histogram;
+    }
+
+    @Override
+    public long faultLatencyPercentile( double percentile )
+    {
+        long[] histogram = faultLatencyHistogram();
+        long total = 0;
+        for ( long count : histogram )
+        {
+            total += count;
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = (long) Math.ceil( total * Math.min( 100, Math.max( 0, percentile ) ) / 100 );
+        long seen = 0;
+        for ( int i = 0; i < LATENCY_BUCKETS - 1; i++ )
+        {
+            seen += histogram[i];
+            if ( seen >= rank )
+            {
+                return (1L << (i + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+import org.neo4j.io.pagecache.tracing.cursor.PerFilePageCursorTracer;
+
+/**
+ * A PageCacheTracer that, in addition to the global counters of the {@link DefaultPageCacheTracer}, keeps
+ * {@link DefaultPagedFileCounters counters} for each mapped file, such that it is possible to tell which files are
+ * responsible for the page faults and evictions.
+ * <p>
+ * Pins, hits and page faults are counted by the {@link PerFilePageCursorTracer}, which must be used together with
+ * this tracer. Evictions and flushes are attributed to the file of the evicted or flushed page.
+ * The counters of a file are dropped when the file is unmapped.
+ */
+public class PerFilePageCacheTracer extends DefaultPageCacheTracer
+{
+    private final Map<File,DefaultPagedFileCounters> fileCounters = new ConcurrentHashMap<>();
+
+    private final FlushEventOpportunity flushEventOpportunity =
+            ( filePageId, cachePageId, swapper ) -> new FileFlushEvent( countersOf( swapper ) );
+
+    private final EvictionRunEvent evictionRunEvent = new EvictionRunEvent()
+    {
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return new FileEvictionEvent();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    private final MajorFlushEvent majorFlushEvent = new MajorFlushEvent()
+    {
+        @Override
+        public FlushEventOpportunity flushEventOpportunity()
+        {
+            return flushEventOpportunity;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    @Override
+    public void mappedFile( File file )
+    {
+        super.mappedFile( file );
+        fileCounters.put( file, new DefaultPagedFileCounters() );
+    }
+
+    @Override
+    public void unmappedFile( File file )
+    {
+        super.unmappedFile( file );
+        fileCounters.remove( file );
+    }
+
+    /**
+     * @return the counters of the file of the given swapper, or {@code null} if the file is not mapped.
+     */
+    public DefaultPagedFileCounters countersOf( PageSwapper swapper )
+    {
+        return swapper == null ? null : fileCounters.get( swapper.file() );
+    }
+
+    @Override
+    public Map<File,PagedFileCounters> pagedFileCounters()
+    {
+        return Collections.unmodifiableMap( fileCounters );
+    }
+
+    @Override
+    public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
+    {
+        return evictionRunEvent;
+    }
+
+    @Override
+    public MajorFlushEvent beginFileFlush( PageSwapper swapper )
+    {
+        return majorFlushEvent;
+    }
+
+    @Override
+    public MajorFlushEvent beginCacheFlush()
+    {
+        return majorFlushEvent;
+    }
+
+    private class FileFlushEvent implements FlushEvent
+    {
+        private final DefaultPagedFileCounters counters;
+        private long bytes;
+
+        FileFlushEvent( DefaultPagedFileCounters counters )
+        {
+            this.counters = counters;
+        }
+
+        @Override
+        public void addBytesWritten( long bytes )
+        {
+            this.bytes += bytes;
+            bytesWritten.add( bytes );
+        }
+
+        @Override
+        public void done()
+        {
+            flushes.increment();
+            if ( counters != null )
+            {
+                counters.flush( bytes );
+            }
+        }
+
+        @Override
+        public void done( IOException exception )
+        {
+            done();
+        }
+
+        @Override
+        public void addPagesFlushed( int pageCount )
+        {
+        }
+    }
+
+    private class FileEvictionEvent implements EvictionEvent
+    {
+        private DefaultPagedFileCounters counters;
+
+        @Override
+        public void setFilePageId( long filePageId )
+        {
+        }
+
+        @Override
+        public void setSwapper( PageSwapper swapper )
+        {
+            counters = countersOf( swapper );
+        }
+
+        @Override
+        public FlushEventOpportunity flushEventOpportunity()
+        {
+            return flushEventOpportunity;
+        }
+
+        @Override
+        public void threwException( IOException exception )
+        {
+            evictionExceptions.increment();
+        }
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+            evictions.increment();
+            if ( counters != null )
+            {
+                counters.eviction();
+            }
+        }
+    }
+}
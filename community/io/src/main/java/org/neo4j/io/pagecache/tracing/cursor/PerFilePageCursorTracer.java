@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing.cursor;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.tracing.DefaultPagedFileCounters;
+import org.neo4j.io.pagecache.tracing.EvictionEvent;
+import org.neo4j.io.pagecache.tracing.FlushEvent;
+import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PerFilePageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+
+/**
+ * A page cursor tracer that, in addition to what the {@link DefaultPageCursorTracer} counts, counts pins, hits, page
+ * faults, page fault latencies, evictions and flushes in the counters of the file that they happen in.
+ * <p>
+ * The file counters are kept by the {@link PerFilePageCacheTracer}. If this tracer is used with any other page cache
+ * tracer, then it only counts what the {@link DefaultPageCursorTracer} counts.
+ * <p>
+ * The latency of a page fault is measured from when the first of the currently outstanding page faults of this
+ * tracer began, so the pages of a read-ahead all get the latency of the read-ahead as a whole.
+ */
+public class PerFilePageCursorTracer extends DefaultPageCursorTracer
+{
+    private PerFilePageCacheTracer fileTracer;
+    private PageSwapper cachedSwapper;
+    private DefaultPagedFileCounters cachedCounters;
+
+    private final FilePinEvent pinEvent = new FilePinEvent();
+    private final FileFaultEvent faultEvent = new FileFaultEvent();
+    private final FileEvictionEvent evictionEvent = new FileEvictionEvent();
+    private final FileFlushEvent flushEvent = new FileFlushEvent();
+
+    @Override
+    public void init( PageCacheTracer pageCacheTracer )
+    {
+        super.init( pageCacheTracer );
+        PerFilePageCacheTracer newFileTracer =
+                pageCacheTracer instanceof PerFilePageCacheTracer ? (PerFilePageCacheTracer) pageCacheTracer : null;
+        if ( newFileTracer != fileTracer )
+        {
+            fileTracer = newFileTracer;
+            cachedSwapper = null;
+            cachedCounters = null;
+        }
+    }
+
+    private DefaultPagedFileCounters countersOf( PageSwapper swapper )
+    {
+        if ( fileTracer == null )
+        {
+            return null;
+        }
+        if ( swapper != cachedSwapper )
+        {
+            cachedCounters = fileTracer.countersOf( swapper );
+            cachedSwapper = swapper;
+        }
+        return cachedCounters;
+    }
+
+    @Override
+    public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
+    {
+        PinEvent delegate = super.beginPin( writeLock, filePageId, swapper );
+        DefaultPagedFileCounters counters = countersOf( swapper );
+        if ( counters != null )
+        {
+            counters.pin();
+        }
+        pinEvent.delegate = delegate;
+        pinEvent.counters = counters;
+        pinEvent.faulted = false;
+        return pinEvent;
+    }
+
+    private class FilePinEvent implements PinEvent
+    {
+        PinEvent delegate;
+        DefaultPagedFileCounters counters;
+        boolean faulted;
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public PageFaultEvent beginPageFault()
+        {
+            faulted = true;
+            faultEvent.begin( delegate.beginPageFault(), counters );
+            return faultEvent;
+        }
+
+        @Override
+        public void hit()
+        {
+            delegate.hit();
+            if ( counters != null && !faulted )
+            {
+                counters.hit();
+            }
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+        }
+    }
+
+    private class FileFaultEvent implements PageFaultEvent
+    {
+        private PageFaultEvent delegate;
+        private DefaultPagedFileCounters counters;
+        private int outstandingFaults;
+        private long startNanos;
+        private long bytes;
+
+        void begin( PageFaultEvent delegate, DefaultPagedFileCounters counters )
+        {
+            this.delegate = delegate;
+            this.counters = counters;
+            if ( outstandingFaults++ == 0 )
+            {
+                startNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void addBytesRead( long bytes )
+        {
+            delegate.addBytesRead( bytes );
+            this.bytes += bytes;
+        }
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+            completed();
+        }
+
+        @Override
+        public void done( Throwable throwable )
+        {
+            delegate.done( throwable );
+            completed();
+        }
+
+        private void completed()
+        {
+            if ( counters != null )
+            {
+                counters.fault( bytes, System.nanoTime() - startNanos );
+            }
+            bytes = 0;
+            outstandingFaults = Math.max( 0, outstandingFaults - 1 );
+        }
+
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            evictionEvent.begin( delegate.beginEviction() );
+            return evictionEvent;
+        }
+    }
+
+    private class FileEvictionEvent implements EvictionEvent, FlushEventOpportunity
+    {
+        private EvictionEvent delegate;
+        private DefaultPagedFileCounters counters;
+
+        void begin( EvictionEvent delegate )
+        {
+            this.delegate = delegate;
+            this.counters = null;
+        }
+
+        @Override
+        public void setFilePageId( long filePageId )
+        {
+            delegate.setFilePageId( filePageId );
+        }
+
+        @Override
+        public void setSwapper( PageSwapper swapper )
+        {
+            delegate.setSwapper( swapper );
+            counters = countersOf( swapper );
+        }
+
+        @Override
+        public FlushEventOpportunity flushEventOpportunity()
+        {
+            return this;
+        }
+
+        @Override
+        public FlushEvent beginFlush( long filePageId, long cachePageId, PageSwapper swapper )
+        {
+            flushEvent.begin( delegate.flushEventOpportunity().beginFlush( filePageId, cachePageId, swapper ),
+                    countersOf( swapper ) );
+            return flushEvent;
+        }
+
+        @Override
+        public void threwException( IOException exception )
+        {
+            delegate.threwException( exception );
+        }
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+            if ( counters != null )
+            {
+                counters.eviction();
+            }
+        }
+    }
+
+    private static class FileFlushEvent implements FlushEvent
+    {
+        private FlushEvent delegate;
+        private DefaultPagedFileCounters counters;
+        private long bytes;
+
+        void begin( FlushEvent delegate, DefaultPagedFileCounters counters )
+        {
+            this.delegate = delegate;
+            this.counters = counters;
+            this.bytes = 0;
+        }
+
+        @Override
+        public void addBytesWritten( long bytes )
+        {
+            delegate.addBytesWritten( bytes );
+            this.bytes += bytes;
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+            if ( counters != null )
+            {
+                counters.flush( bytes );
+            }
+        }
+
+        @Override
+        public void done( IOException exception )
+        {
+            delegate.done( exception );
+            if ( counters != null )
+            {
+                counters.flush( bytes );
+            }
+        }
+
+        @Override
+        public void addPagesFlushed( int pageCount )
+        {
+            delegate.addPagesFlushed( pageCount );
+        }
+    }
+}
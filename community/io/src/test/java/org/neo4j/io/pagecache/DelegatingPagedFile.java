@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.LongConsumer;
 
 public class DelegatingPagedFile implements PagedFile
 {
@@ -78,4 +79,16 @@ public class DelegatingPagedFile implements PagedFile
     {
         delegate.flushAndForce( limiter );
     }
+
+    @Override
+    public long prefetch( long startPageId, int pageCount ) throws IOException
+    {
+        return delegate.prefetch( startPageId, pageCount );
+    }
+
+    @Override
+    public void visitCachedPages( LongConsumer visitor ) throws IOException
+    {
+        delegate.visitCachedPages( visitor );
+    }
 }
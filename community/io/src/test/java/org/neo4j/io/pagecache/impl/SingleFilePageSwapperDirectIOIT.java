@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@ExtendWith( TestDirectoryExtension.class )
+class SingleFilePageSwapperDirectIOIT
+{
+    private static final int PAGE_SIZE = 8192;
+    // Record stores use a page size which is a whole number of records, like 8190 for 15 byte records
+    private static final int RECORD_PAGE_SIZE = PAGE_SIZE - PAGE_SIZE % 15;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private final MemoryAllocator mman = MemoryAllocator.createAllocator( "1 MiB", new LocalMemoryTracker() );
+    private DefaultFileSystemAbstraction fs;
+    private SingleFilePageSwapperFactory factory;
+    private File file;
+
+    @BeforeEach
+    void setUp()
+    {
+        fs = new DefaultFileSystemAbstraction();
+        factory = new SingleFilePageSwapperFactory( true );
+        factory.open( fs, Configuration.EMPTY );
+        file = testDirectory.file( "store" );
+    }
+
+    @AfterEach
+    void tearDown() throws IOException
+    {
+        factory.close();
+        fs.close();
+        mman.close();
+    }
+
+    @Test
+    void mustNotUseDirectIOUnlessRequested()
+    {
+        SingleFilePageSwapperFactory bufferedFactory = new SingleFilePageSwapperFactory();
+        bufferedFactory.open( fs, Configuration.EMPTY );
+        assertFalse( bufferedFactory.isDirectIO() );
+        assertEquals( 1, bufferedFactory.getRequiredBufferAlignment() );
+    }
+
+    @Test
+    void mustNotUseDirectIOOnVirtualFileSystem() throws IOException
+    {
+        try ( EphemeralFileSystemAbstraction ephemeralFs = new EphemeralFileSystemAbstraction() )
+        {
+            SingleFilePageSwapperFactory ephemeralFactory = new SingleFilePageSwapperFactory( true );
+            ephemeralFactory.open( ephemeralFs, Configuration.EMPTY );
+            assertFalse( ephemeralFactory.isDirectIO() );
+        }
+    }
+
+    @Test
+    void directIOFactoryMustRequireAlignedBuffers()
+    {
+        assumeTrue( DirectIO.isSupported() );
+        assertTrue( factory.isDirectIO() );
+        assertEquals( DirectIO.BUFFER_ALIGNMENT, factory.getRequiredBufferAlignment() );
+    }
+
+    @Test
+    void mustUseDirectIOForPageSizesWhichAreNotAMultipleOfTheBlockSize() throws IOException
+    {
+        assumeTrue( factory.isDirectIO() );
+        fs.create( file ).close();
+        assumeTrue( DirectIO.canOpen( file ) );
+        List<File> fallbacks = new ArrayList<>();
+        factory.setDirectIOMonitor( ( fallbackFile, reason ) -> fallbacks.add( fallbackFile ) );
+
+        factory.createPageSwapper( file, RECORD_PAGE_SIZE, filePageId -> {}, false, false ).close();
+        assertEquals( emptyList(), fallbacks );
+    }
+
+    @Test
+    void mustReadBackNeighbouringPagesWrittenConcurrentlyWhenPagesShareBlocks() throws Exception
+    {
+        assumeTrue( factory.isDirectIO() );
+        fs.create( file ).close();
+        assumeTrue( DirectIO.canOpen( file ) );
+
+        int pageCount = 32;
+        long[] pages = new long[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = newPage();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        PageSwapper swapper = factory.createPageSwapper( file, RECORD_PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            for ( int round = 0; round < 4; round++ )
+            {
+                List<Future<Long>> writes = new ArrayList<>();
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    int filePageId = i;
+                    fill( pages[i], RECORD_PAGE_SIZE, value( round, filePageId ) );
+                    writes.add( executor.submit( () -> swapper.write( filePageId, pages[filePageId] ) ) );
+                }
+                for ( Future<Long> write : writes )
+                {
+                    assertEquals( RECORD_PAGE_SIZE, (long) write.get() );
+                }
+
+                long page = newPage();
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertEquals( RECORD_PAGE_SIZE, swapper.read( i, page, PAGE_SIZE ) );
+                    assertFilled( page, RECORD_PAGE_SIZE, value( round, i ) );
+                }
+            }
+            assertEquals( pageCount, swapper.getLastPageId() + 1 );
+        }
+        finally
+        {
+            executor.shutdown();
+            swapper.close();
+        }
+        // Whole blocks are written, but the file must not seem to have more pages
+        assertEquals( (long) RECORD_PAGE_SIZE * pageCount, fs.getFileSize( file ) );
+    }
+
+    @Test
+    void mustReadAndWriteVectoredPagesWhichShareBlocks() throws IOException
+    {
+        assumeTrue( factory.isDirectIO() );
+        fs.create( file ).close();
+        assumeTrue( DirectIO.canOpen( file ) );
+
+        long[] pages = {newPage(), newPage(), newPage()};
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            fill( pages[i], RECORD_PAGE_SIZE, i + 1 );
+        }
+        PageSwapper swapper = factory.createPageSwapper( file, RECORD_PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            assertEquals( 3L * RECORD_PAGE_SIZE, swapper.write( 1, pages, 0, 3 ) );
+
+            long[] readPages = {newPage(), newPage(), newPage(), newPage(), newPage()};
+            assertEquals( 4L * RECORD_PAGE_SIZE, swapper.read( 0, readPages, PAGE_SIZE, 0, readPages.length ) );
+            assertFilled( readPages[0], RECORD_PAGE_SIZE, 0 );
+            for ( int i = 0; i < pages.length; i++ )
+            {
+                assertFilled( readPages[i + 1], RECORD_PAGE_SIZE, i + 1 );
+            }
+            assertFilled( readPages[4], RECORD_PAGE_SIZE, 0 );
+        }
+        finally
+        {
+            swapper.close();
+        }
+        assertEquals( 4L * RECORD_PAGE_SIZE, fs.getFileSize( file ) );
+    }
+
+    @Test
+    void mustReadBackPagesWrittenWithDirectIO() throws IOException
+    {
+        assumeTrue( factory.isDirectIO() );
+        fs.create( file ).close();
+        assumeTrue( DirectIO.canOpen( file ) );
+
+        long[] pages = {newPage(), newPage(), newPage()};
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            fill( pages[i], i + 1 );
+        }
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            assertEquals( PAGE_SIZE, swapper.write( 0, pages[0] ) );
+            assertEquals( 2L * PAGE_SIZE, swapper.write( 1, pages, 1, 2 ) );
+            swapper.force();
+
+            long page = newPage();
+            for ( int i = 0; i < pages.length; i++ )
+            {
+                assertEquals( PAGE_SIZE, swapper.read( i, page, PAGE_SIZE ) );
+                assertFilled( page, i + 1 );
+            }
+            assertEquals( 3, swapper.getLastPageId() + 1 );
+        }
+        finally
+        {
+            swapper.close();
+        }
+        assertEquals( 3L * PAGE_SIZE, fs.getFileSize( file ) );
+    }
+
+    @Test
+    void mustReadPartialLastPageWithDirectIO() throws IOException
+    {
+        assumeTrue( factory.isDirectIO() );
+        int partialSize = PAGE_SIZE / 2 + 3;
+        try ( StoreChannel channel = fs.open( file, OpenMode.READ_WRITE ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( PAGE_SIZE + partialSize );
+            while ( buffer.hasRemaining() )
+            {
+                buffer.put( (byte) 7 );
+            }
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+        assumeTrue( DirectIO.canOpen( file ) );
+
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            long page = newPage();
+            fill( page, 1 );
+            assertEquals( partialSize, swapper.read( 1, page, PAGE_SIZE ) );
+            for ( int i = 0; i < PAGE_SIZE; i++ )
+            {
+                assertEquals( i < partialSize ? 7 : 0, UnsafeUtil.getByte( page + i ) );
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    @Test
+    void mustReadPagesAcrossEndOfFileWithVectoredDirectIO() throws IOException
+    {
+        assumeTrue( factory.isDirectIO() );
+        int fileSize = PAGE_SIZE + PAGE_SIZE / 2 + 3;
+        try ( StoreChannel channel = fs.open( file, OpenMode.READ_WRITE ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( fileSize );
+            while ( buffer.hasRemaining() )
+            {
+                buffer.put( (byte) 7 );
+            }
+            buffer.flip();
+            channel.writeAll( buffer );
+        }
+        assumeTrue( DirectIO.canOpen( file ) );
+
+        PageSwapper swapper = factory.createPageSwapper( file, PAGE_SIZE, filePageId -> {}, false, false );
+        try
+        {
+            long[] pages = {newPage(), newPage(), newPage()};
+            for ( long page : pages )
+            {
+                fill( page, 1 );
+            }
+            assertEquals( fileSize, swapper.read( 0, pages, PAGE_SIZE, 0, pages.length ) );
+            for ( int i = 0; i < PAGE_SIZE * pages.length; i++ )
+            {
+                long page = pages[i / PAGE_SIZE];
+                assertEquals( i < fileSize ? 7 : 0, UnsafeUtil.getByte( page + i % PAGE_SIZE ) );
+            }
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    private long newPage()
+    {
+        return mman.allocateAligned( PAGE_SIZE, DirectIO.BUFFER_ALIGNMENT );
+    }
+
+    private static int value( int round, int filePageId )
+    {
+        return (round * 31 + filePageId) % 100 + 1;
+    }
+
+    private static void fill( long page, int value )
+    {
+        fill( page, PAGE_SIZE, value );
+    }
+
+    private static void fill( long page, int size, int value )
+    {
+        UnsafeUtil.setMemory( page, size, (byte) value );
+    }
+
+    private static void assertFilled( long page, int value )
+    {
+        assertFilled( page, PAGE_SIZE, value );
+    }
+
+    private static void assertFilled( long page, int size, int value )
+    {
+        for ( int i = 0; i < size; i++ )
+        {
+            assertEquals( value, UnsafeUtil.getByte( page + i ) );
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
@@ -43,14 +44,17 @@ import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PerFilePageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.PerFilePageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
@@ -67,6 +71,7 @@ import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
@@ -152,6 +157,217 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void prefetchMustLoadPagesThatAreNotInMemory() throws Exception
+    {
+        RecordingPageCursorTracer cursorTracer = new RecordingPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<RecordingPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, cursorTracerSupplier ) )
+        {
+            generateFileWithRecords( file( "a" ), recordCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 3, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                assertEquals( 9, pagedFile.prefetch( 0, 10 ) );
+                assertEquals( 10, cursorTracer.faults() );
+
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    for ( int i = 0; i < 10; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+                assertEquals( 10, cursorTracer.faults() );
+            }
+        }
+    }
+
+    @Test
+    void prefetchMustIgnorePagesBeyondEndOfFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            assertEquals( 2, pagedFile.prefetch( 0, 10 ) );
+            assertEquals( 0, pagedFile.prefetch( 2, 10 ) );
+            assertEquals( 2, pagedFile.getLastPageId() + 1 );
+        }
+    }
+
+    @Test
+    void perFileTracersMustCountPinsAndFaultsOfEachFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        PerFilePageCacheTracer tracer = new PerFilePageCacheTracer();
+        PerFilePageCursorTracer cursorTracer = new PerFilePageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<PerFilePageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, tracer, cursorTracerSupplier );
+              PagedFile pagedFileA = map( pageCache, file( "a" ), 8 );
+              PagedFile pagedFileB = map( pageCache, file( "b" ), 8 ) )
+        {
+            for ( int i = 0; i < 2; i++ )
+            {
+                try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            cursorTracer.reportEvents();
+
+            PagedFileCounters countersA = tracer.pagedFileCounters().get( pagedFileA.file() );
+            PagedFileCounters countersB = tracer.pagedFileCounters().get( pagedFileB.file() );
+            assertEquals( 2, countersA.pins() );
+            assertEquals( 1, countersA.faults() );
+            assertEquals( 1, countersA.hits() );
+            assertEquals( 8, countersA.bytesRead() );
+            assertEquals( 2, countersB.pins() );
+            assertEquals( 2, countersB.faults() );
+            assertEquals( 0, countersB.hits() );
+            assertEquals( 3, tracer.faults() );
+            assertEquals( tracer.evictions(), countersA.evictions() + countersB.evictions() );
+        }
+        assertTrue( tracer.pagedFileCounters().isEmpty() );
+    }
+
+    @Test
+    void visitCachedPagesMustVisitPagesInMemory() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 2, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next( 2 ) );
+                    assertTrue( cursor.next( 5 ) );
+                    assertTrue( cursor.next( 11 ) );
+                }
+                List<Long> cachedPages = new ArrayList<>();
+                pagedFile.visitCachedPages( cachedPages::add );
+                assertThat( cachedPages, is( Arrays.asList( 2L, 5L, 11L ) ) );
+            }
+        }
+    }
+
+    @Test
+    void readAheadFlagMustLoadFollowingPagesInTheBackground() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 160, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                    awaitCachedPages( pagedFile, 1, pageCache.readAheadWindow );
+                }
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sequentialPinsMustStartReadAhead() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 160, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordCount, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < pageCache.readAheadThreshold; i++ )
+                {
+                    assertTrue( cursor.next() );
+                }
+                awaitCachedPages( pagedFile, pageCache.readAheadThreshold, pageCache.readAheadWindow );
+            }
+        }
+    }
+
+    private static void awaitCachedPages( PagedFile pagedFile, long startPageId, int pageCount )
+    {
+        List<Long> expectedPages = new ArrayList<>();
+        for ( long pageId = startPageId; pageId < startPageId + pageCount; pageId++ )
+        {
+            expectedPages.add( pageId );
+        }
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            List<Long> cachedPages = new ArrayList<>();
+            while ( !cachedPages.containsAll( expectedPages ) )
+            {
+                Thread.sleep( 10 );
+                cachedPages.clear();
+                pagedFile.visitCachedPages( cachedPages::add );
+            }
+        } );
+    }
+
+    @Test
+    void scanResistantEvictionMustKeepFrequentlyUsedPagesThroughScans() throws Exception
+    {
+        fixture.evictionPolicy = EvictionPolicy.SCAN_RESISTANT;
+        int cachePages = 100;
+        int hotPages = 10;
+        try ( MuninnPageCache pageCache = createPageCache( fs, cachePages, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL ) )
+        {
+            // The file is several times larger than the page cache, and so is every scan through it.
+            generateFileWithRecords( file( "a" ), 4 * cachePages * recordsPerFilePage, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                List<Long> hotPageIds = new ArrayList<>();
+                for ( int i = 0; i < 4; i++ )
+                {
+                    try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                    {
+                        for ( long pageId = 0; pageId < hotPages; pageId++ )
+                        {
+                            assertTrue( cursor.next( pageId ) );
+                            hotPageIds.add( pageId );
+                        }
+                    }
+                }
+
+                for ( int scan = 0; scan < 3; scan++ )
+                {
+                    try ( PageCursor cursor = pagedFile.io( hotPages, PF_SHARED_READ_LOCK ) )
+                    {
+                        while ( cursor.next() )
+                        {
+                            verifyRecordsMatchExpected( cursor );
+                        }
+                    }
+                    List<Long> cachedPages = new ArrayList<>();
+                    pagedFile.visitCachedPages( cachedPages::add );
+                    assertThat( cachedPages.subList( 0, hotPages ), is( hotPageIds.subList( 0, hotPages ) ) );
+                }
+            }
+        }
+    }
+
     @Test
     void mustFlushDirtyPagesOnEvictingFirstPage() throws Exception
     {
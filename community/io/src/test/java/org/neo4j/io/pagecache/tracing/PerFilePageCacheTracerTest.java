@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PerFilePageCursorTracer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerFilePageCacheTracerTest
+{
+    private PerFilePageCacheTracer tracer;
+    private PageCursorTracer cursorTracer;
+    private PageSwapper swapperA;
+    private PageSwapper swapperB;
+
+    @BeforeEach
+    void setUp()
+    {
+        tracer = new PerFilePageCacheTracer();
+        cursorTracer = new PerFilePageCursorTracer();
+        cursorTracer.init( tracer );
+        swapperA = new DummyPageSwapper( "a", (int) ByteUnit.kibiBytes( 8 ) );
+        swapperB = new DummyPageSwapper( "b", (int) ByteUnit.kibiBytes( 8 ) );
+        tracer.mappedFile( swapperA.file() );
+        tracer.mappedFile( swapperB.file() );
+    }
+
+    @Test
+    void mustCountPinsHitsAndFaultsPerFile()
+    {
+        pinAndHit( swapperA );
+        pinAndHit( swapperA );
+        pinFaultAndHit( swapperA, 100 );
+        pinFaultAndHit( swapperB, 200 );
+        pinFaultAndHit( swapperB, 300 );
+
+        PagedFileCounters a = counters( swapperA );
+        assertEquals( 3, a.pins() );
+        assertEquals( 2, a.hits() );
+        assertEquals( 1, a.faults() );
+        assertEquals( 100, a.bytesRead() );
+
+        PagedFileCounters b = counters( swapperB );
+        assertEquals( 2, b.pins() );
+        assertEquals( 0, b.hits() );
+        assertEquals( 2, b.faults() );
+        assertEquals( 500, b.bytesRead() );
+        assertEquals( 2, Arrays.stream( b.faultLatencyHistogram() ).sum() );
+        assertTrue( b.faultLatencyPercentile( 100 ) > 0 );
+
+        // The global counters are still kept
+        assertEquals( 5, cursorTracer.pins() );
+        assertEquals( 3, cursorTracer.faults() );
+        cursorTracer.reportEvents();
+        assertEquals( 3, tracer.faults() );
+        assertEquals( 2, tracer.hits() );
+    }
+
+    @Test
+    void mustAttributeEvictionsAndFlushesToTheFileOfTheEvictedPage() throws Exception
+    {
+        PinEvent pinEvent = cursorTracer.beginPin( false, 0, swapperA );
+        PageFaultEvent faultEvent = pinEvent.beginPageFault();
+        try ( EvictionEvent evictionEvent = faultEvent.beginEviction() )
+        {
+            evictionEvent.setSwapper( swapperB );
+            FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( 0, 0, swapperB );
+            flushEvent.addBytesWritten( 12 );
+            flushEvent.done();
+        }
+        faultEvent.done();
+        pinEvent.done();
+
+        try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( 1 );
+              EvictionEvent evictionEvent = evictionRunEvent.beginEviction() )
+        {
+            evictionEvent.setSwapper( swapperA );
+            evictionEvent.threwException( new IOException() );
+        }
+
+        try ( MajorFlushEvent fileFlush = tracer.beginFileFlush( swapperA ) )
+        {
+            FlushEvent flushEvent = fileFlush.flushEventOpportunity().beginFlush( 0, 0, swapperA );
+            flushEvent.addBytesWritten( 20 );
+            flushEvent.done();
+        }
+
+        PagedFileCounters a = counters( swapperA );
+        assertEquals( 1, a.evictions() );
+        assertEquals( 1, a.flushes() );
+        assertEquals( 20, a.bytesWritten() );
+        PagedFileCounters b = counters( swapperB );
+        assertEquals( 1, b.evictions() );
+        assertEquals( 1, b.flushes() );
+        assertEquals( 12, b.bytesWritten() );
+
+        cursorTracer.reportEvents();
+        assertEquals( 2, tracer.evictions() );
+        assertEquals( 1, tracer.evictionExceptions() );
+        assertEquals( 2, tracer.flushes() );
+        assertEquals( 32, tracer.bytesWritten() );
+    }
+
+    @Test
+    void mustMeasureReadAheadFaultsFromTheFirstFault()
+    {
+        PinEvent[] pinEvents = new PinEvent[4];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[pinEvents.length];
+        for ( int i = 0; i < pinEvents.length; i++ )
+        {
+            pinEvents[i] = cursorTracer.beginPin( false, i, swapperA );
+            faultEvents[i] = pinEvents[i].beginPageFault();
+        }
+        for ( int i = 0; i < pinEvents.length; i++ )
+        {
+            faultEvents[i].addBytesRead( 10 );
+            faultEvents[i].done();
+            pinEvents[i].done();
+        }
+
+        PagedFileCounters a = counters( swapperA );
+        assertEquals( 4, a.faults() );
+        assertEquals( 40, a.bytesRead() );
+        assertEquals( 4, Arrays.stream( a.faultLatencyHistogram() ).sum() );
+    }
+
+    @Test
+    void mustForgetUnmappedFiles()
+    {
+        pinAndHit( swapperA );
+        tracer.unmappedFile( swapperA.file() );
+
+        assertFalse( tracer.pagedFileCounters().containsKey( swapperA.file() ) );
+        assertTrue( tracer.pagedFileCounters().containsKey( swapperB.file() ) );
+
+        // Events for pages of unmapped files are still counted globally
+        pinAndHit( swapperA );
+        assertEquals( 2, cursorTracer.hits() );
+    }
+
+    @Test
+    void mustNotKeepFileCountersWithOtherPageCacheTracers()
+    {
+        DefaultPageCacheTracer defaultTracer = new DefaultPageCacheTracer();
+        cursorTracer.init( defaultTracer );
+        pinFaultAndHit( swapperA, 100 );
+
+        assertEquals( 0, counters( swapperA ).faults() );
+        assertTrue( defaultTracer.pagedFileCounters().isEmpty() );
+        assertEquals( 1, cursorTracer.faults() );
+    }
+
+    @Test
+    void latencyPercentilesMustBeUpperBoundsOfPowerOfTwoBuckets()
+    {
+        DefaultPagedFileCounters counters = new DefaultPagedFileCounters();
+        assertEquals( 0, counters.faultLatencyPercentile( 50 ) );
+
+        counters.fault( 0, 0 );
+        counters.fault( 0, 1000 );
+        counters.fault( 0, 1000 );
+        counters.fault( 0, 1_000_000 );
+
+        long[] histogram = counters.faultLatencyHistogram();
+        assertEquals( 1, histogram[0] );
+        assertEquals( 2, histogram[9] );
+        assertEquals( 1, histogram[19] );
+        assertEquals( 1, counters.faultLatencyPercentile( 25 ) );
+        assertEquals( 1023, counters.faultLatencyPercentile( 50 ) );
+        assertEquals( 1023, counters.faultLatencyPercentile( 75 ) );
+        assertEquals( (1 << 20) - 1, counters.faultLatencyPercentile( 100 ) );
+    }
+
+    private PagedFileCounters counters( PageSwapper swapper )
+    {
+        return tracer.pagedFileCounters().get( swapper.file() );
+    }
+
+    private void pinAndHit( PageSwapper swapper )
+    {
+        PinEvent pinEvent = cursorTracer.beginPin( true, 0, swapper );
+        pinEvent.hit();
+        pinEvent.done();
+    }
+
+    private void pinFaultAndHit( PageSwapper swapper, long bytes )
+    {
+        PinEvent pinEvent = cursorTracer.beginPin( true, 0, swapper );
+        PageFaultEvent faultEvent = pinEvent.beginPageFault();
+        faultEvent.addBytesRead( bytes );
+        faultEvent.done();
+        pinEvent.hit();
+        pinEvent.done();
+    }
+}
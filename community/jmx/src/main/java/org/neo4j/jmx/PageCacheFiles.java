@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx;
+
+import javax.management.MBeanOperationInfo;
+
+@ManagementInterface( name = PageCacheFiles.NAME )
+@Description( "Page cache statistics for each mapped file. " +
+        "These are only collected when the unsupported.dbms.tracer setting is 'per_file'" )
+public interface PageCacheFiles
+{
+    String NAME = "Page cache files";
+
+    @Description( "The mapped files that there are page cache statistics for" )
+    String[] getFiles();
+
+    @Description( value = "The number of page faults in the given file", impact = MBeanOperationInfo.INFO )
+    long faults( String file );
+
+    @Description( value = "The number of pages of the given file that were evicted", impact = MBeanOperationInfo.INFO )
+    long evictions( String file );
+
+    @Description( value = "The number of page pins in the given file", impact = MBeanOperationInfo.INFO )
+    long pins( String file );
+
+    @Description( value = "The number of page cache hits in the given file", impact = MBeanOperationInfo.INFO )
+    long hits( String file );
+
+    @Description( value = "The page cache hit ratio of the given file", impact = MBeanOperationInfo.INFO )
+    double hitRatio( String file );
+
+    @Description( value = "The number of page flushes to the given file", impact = MBeanOperationInfo.INFO )
+    long flushes( String file );
+
+    @Description( value = "The number of bytes read from the given file by page faults",
+            impact = MBeanOperationInfo.INFO )
+    long bytesRead( String file );
+
+    @Description( value = "The number of bytes written to the given file by flushes",
+            impact = MBeanOperationInfo.INFO )
+    long bytesWritten( String file );
+
+    @Description( value = "The page fault latency histogram of the given file, where index i is the number of " +
+            "page faults that took between 2^i and 2^(i+1) nanoseconds", impact = MBeanOperationInfo.INFO )
+    long[] faultLatencyHistogram( String file );
+
+    @Description( value = "An upper bound of the page fault latency in nanoseconds, that the given percentile " +
+            "(between 0 and 100) of the page faults in the given file stayed below", impact = MBeanOperationInfo.INFO )
+    long faultLatencyPercentile( String file, double percentile );
+}
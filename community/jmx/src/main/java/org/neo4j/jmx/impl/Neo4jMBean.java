@@ -19,6 +19,7 @@
  */
 package org.neo4j.jmx.impl;
 
+import java.lang.reflect.Method;
 import javax.management.DynamicMBean;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanFeatureInfo;
@@ -156,14 +157,15 @@ public abstract class Neo4jMBean extends StandardMBean
     {
         if ( prefixes == null || prefixes.length == 0 )
         {
-            try
+            // Operations can take parameters, so look them up by name only
+            for ( Method method : type.getMethods() )
             {
-                return type.getMethod( methodName ).getAnnotation( Description.class );
-            }
-            catch ( Exception e )
-            {
-                return null;
+                if ( method.getName().equals( methodName ) )
+                {
+                    return method.getAnnotation( Description.class );
+                }
             }
+            return null;
         }
         else
         {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx.impl;
+
+import java.io.File;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.jmx.PageCacheFiles;
+
+@Service.Implementation( ManagementBeanProvider.class )
+public final class PageCacheFilesBean extends ManagementBeanProvider
+{
+    @SuppressWarnings( "WeakerAccess" ) // Bean needs public constructor
+    public PageCacheFilesBean()
+    {
+        super( PageCacheFiles.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new PageCacheFilesImpl( management );
+    }
+
+    static class PageCacheFilesImpl extends Neo4jMBean implements PageCacheFiles
+    {
+        private final PageCacheTracer pageCacheTracer;
+
+        PageCacheFilesImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            this.pageCacheTracer = management.resolveDependency( PageCacheTracer.class );
+        }
+
+        @Override
+        public String[] getFiles()
+        {
+            return pageCacheTracer.pagedFileCounters().keySet().stream().map( File::getPath ).sorted().toArray( String[]::new );
+        }
+
+        @Override
+        public long faults( String file )
+        {
+            return count( file, PagedFileCounters::faults );
+        }
+
+        @Override
+        public long evictions( String file )
+        {
+            return count( file, PagedFileCounters::evictions );
+        }
+
+        @Override
+        public long pins( String file )
+        {
+            return count( file, PagedFileCounters::pins );
+        }
+
+        @Override
+        public long hits( String file )
+        {
+            return count( file, PagedFileCounters::hits );
+        }
+
+        @Override
+        public double hitRatio( String file )
+        {
+            PagedFileCounters counters = counters( file );
+            return counters == null ? 0d : counters.hitRatio();
+        }
+
+        @Override
+        public long flushes( String file )
+        {
+            return count( file, PagedFileCounters::flushes );
+        }
+
+        @Override
+        public long bytesRead( String file )
+        {
+            return count( file, PagedFileCounters::bytesRead );
+        }
+
+        @Override
+        public long bytesWritten( String file )
+        {
+            return count( file, PagedFileCounters::bytesWritten );
+        }
+
+        @Override
+        public long[] faultLatencyHistogram( String file )
+        {
+            PagedFileCounters counters = counters( file );
+            return counters == null ? new long[0] : counters.faultLatencyHistogram();
+        }
+
+        @Override
+        public long faultLatencyPercentile( String file, double percentile )
+        {
+            return count( file, counters -> counters.faultLatencyPercentile( percentile ) );
+        }
+
+        private long count( String file, ToLongFunction<PagedFileCounters> counter )
+        {
+            PagedFileCounters counters = counters( file );
+            return counters == null ? 0 : counter.applyAsLong( counters );
+        }
+
+        private PagedFileCounters counters( String file )
+        {
+            Map<File,PagedFileCounters> fileCounters = pageCacheTracer.pagedFileCounters();
+            return fileCounters.get( new File( file ) );
+        }
+    }
+}
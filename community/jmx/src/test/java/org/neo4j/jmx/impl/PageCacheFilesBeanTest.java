@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPagedFileCounters;
+import org.neo4j.io.pagecache.tracing.DummyPageSwapper;
+import org.neo4j.io.pagecache.tracing.PerFilePageCacheTracer;
+import org.neo4j.jmx.PageCacheFiles;
+import org.neo4j.kernel.NeoStoreDataSource;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.transaction.state.DataSourceManager;
+import org.neo4j.kernel.impl.util.Dependencies;
+import org.neo4j.kernel.internal.KernelData;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PageCacheFilesBeanTest
+{
+    private final PerFilePageCacheTracer tracer = new PerFilePageCacheTracer();
+    private PageCacheFiles bean;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        Dependencies dependencies = new Dependencies();
+        dependencies.satisfyDependency( tracer );
+        NeoStoreDataSource dataSource = mock( NeoStoreDataSource.class );
+        when( dataSource.getDependencyResolver() ).thenReturn( dependencies );
+        when( dataSource.getDatabaseLayout() ).thenReturn( DatabaseLayout.of( new File( "graph.db" ) ) );
+        Config config = Config.defaults();
+        DataSourceManager dataSourceManager = new DataSourceManager( config );
+        dataSourceManager.register( dataSource );
+        dataSourceManager.start();
+
+        KernelData kernelData = new KernelData( new EphemeralFileSystemAbstraction(), mock( PageCache.class ), new File( "graph.db" ), config,
+                dataSourceManager );
+        PageCacheFilesBean provider = new PageCacheFilesBean();
+        bean = (PageCacheFiles) provider.createMBean( new ManagementData( provider, kernelData, ManagementSupport.load() ) );
+    }
+
+    @Test
+    void mustExposeCountersOfMappedFiles()
+    {
+        File fileA = new File( "a" );
+        File fileB = new File( "b" );
+        tracer.mappedFile( fileB );
+        tracer.mappedFile( fileA );
+        DefaultPagedFileCounters counters = tracer.countersOf( new DummyPageSwapper( "a", 8192 ) );
+        counters.pin();
+        counters.pin();
+        counters.hit();
+        counters.fault( 8192, 1000 );
+        counters.eviction();
+        counters.flush( 8192 );
+
+        assertArrayEquals( new String[]{fileA.getPath(), fileB.getPath()}, bean.getFiles() );
+        assertEquals( 2, bean.pins( "a" ) );
+        assertEquals( 1, bean.hits( "a" ) );
+        assertEquals( 1, bean.faults( "a" ) );
+        assertEquals( 0.5, bean.hitRatio( "a" ), 0.0001 );
+        assertEquals( 1, bean.evictions( "a" ) );
+        assertEquals( 1, bean.flushes( "a" ) );
+        assertEquals( 8192, bean.bytesRead( "a" ) );
+        assertEquals( 8192, bean.bytesWritten( "a" ) );
+        assertEquals( 1, bean.faultLatencyHistogram( "a" )[9] );
+        assertEquals( 1023, bean.faultLatencyPercentile( "a", 99 ) );
+        assertEquals( 0, bean.faults( "b" ) );
+    }
+
+    @Test
+    void mustReportNothingForFilesWithoutCounters()
+    {
+        assertEquals( 0, bean.getFiles().length );
+        assertEquals( 0, bean.faults( "a" ) );
+        assertEquals( 0, bean.faultLatencyHistogram( "a" ).length );
+    }
+}
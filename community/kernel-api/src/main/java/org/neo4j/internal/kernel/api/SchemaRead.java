@@ -28,6 +28,7 @@ import org.neo4j.internal.kernel.api.exceptions.schema.SchemaKernelException;
 import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
 import org.neo4j.internal.kernel.api.schema.constraints.ConstraintDescriptor;
 import org.neo4j.register.Register;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
@@ -147,6 +148,15 @@ public interface SchemaRead
      */
     long indexSize( IndexReference index ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the distribution of the values in the index, as seen by the latest sampling of it.
+     *
+     * @param index The index of interest
+     * @return The value histogram of the index, or {@code null} if no histogram has been sampled for it
+     * @throws IndexNotFoundKernelException if the index is not there
+     */
+    IndexValueHistogram indexValueHistogram( IndexReference index ) throws IndexNotFoundKernelException;
+
     /**
      * Count the number of index entries for the given nodeId and value.
      *
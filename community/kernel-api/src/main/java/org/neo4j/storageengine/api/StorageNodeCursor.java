@@ -24,6 +24,16 @@ package org.neo4j.storageengine.api;
  */
 public interface StorageNodeCursor extends StorageEntityScanCursor
 {
+    /**
+     * Initializes this cursor so that it will scan over the next batch of nodes of the given {@code scan}.
+     *
+     * @param scan the scan to claim the batch from.
+     * @param sizeHint the approximate number of node ids in the batch. The actual batch may be larger, for example to align it with
+     * the pages of the underlying storage.
+     * @return {@code true} if a batch was claimed, or {@code false} if there were no more nodes to scan.
+     */
+    boolean scanBatch( AllNodeScan scan, int sizeHint );
+
     /**
      * @return label ids of the node this cursor currently is placed at.
      */
@@ -33,6 +33,7 @@ import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
@@ -293,6 +294,15 @@ public interface StorageReader extends AutoCloseable
      */
     double indexUniqueValuesPercentage( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException;
 
+    /**
+     * Returns the distribution of the values in the given index, as seen by the latest sampling of it.
+     *
+     * @param descriptor {@link SchemaDescriptor} to get the value distribution for.
+     * @return the value histogram of the index, or {@code null} if no histogram has been sampled for it.
+     * @throws IndexNotFoundKernelException if no such index exists.
+     */
+    IndexValueHistogram indexValueHistogram( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException;
+
     long nodesGetCount();
 
     long relationshipsGetCount();
@@ -320,6 +330,11 @@ public interface StorageReader extends AutoCloseable
      */
     StorageNodeCursor allocateNodeCursor();
 
+    /**
+     * @return a new {@link AllNodeScan} for spreading a scan over all nodes over multiple {@link StorageNodeCursor cursors}.
+     */
+    AllNodeScan allNodeScan();
+
     /**
      * @return a new {@link StoragePropertyCursor} capable of reading property data from the underlying storage.
      */
@@ -339,4 +354,10 @@ public interface StorageReader extends AutoCloseable
      * @return a new {@link StorageRelationshipScanCursor} capable of reading relationship data from the underlying storage.
      */
     StorageRelationshipScanCursor allocateRelationshipScanCursor();
+
+    /**
+     * @return a new {@link AllRelationshipsScan} for spreading a scan over all relationships over multiple
+     * {@link StorageRelationshipScanCursor cursors}.
+     */
+    AllRelationshipsScan allRelationshipsScan();
 }
@@ -31,4 +31,15 @@ public interface StorageRelationshipScanCursor extends StorageRelationshipCursor
      * @param type relationship type to scan over, or -1 for all relationships regardless of type.
      */
     void scan( int type );
+
+    /**
+     * Initializes this cursor so that it will scan over the next batch of relationships of the given {@code scan}.
+     *
+     * @param scan the scan to claim the batch from.
+     * @param type relationship type to scan over, or -1 for all relationships regardless of type.
+     * @param sizeHint the approximate number of relationship ids in the batch. The actual batch may be larger, for example to
+     * align it with the pages of the underlying storage.
+     * @return {@code true} if a batch was claimed, or {@code false} if there were no more relationships to scan.
+     */
+    boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint );
 }
@@ -19,11 +19,14 @@
  */
 package org.neo4j.storageengine.api.schema;
 
+import java.util.Objects;
+
 public final class IndexSample
 {
     private final long indexSize;
     private final long uniqueValues;
     private final long sampleSize;
+    private final IndexValueHistogram histogram;
 
     public IndexSample()
     {
@@ -31,10 +34,16 @@ public final class IndexSample
     }
 
     public IndexSample( long indexSize, long uniqueValues, long sampleSize )
+    {
+        this( indexSize, uniqueValues, sampleSize, null );
+    }
+
+    public IndexSample( long indexSize, long uniqueValues, long sampleSize, IndexValueHistogram histogram )
     {
         this.indexSize = indexSize;
         this.uniqueValues = uniqueValues;
         this.sampleSize = sampleSize;
+        this.histogram = histogram;
     }
 
     public long indexSize()
@@ -52,6 +61,14 @@ public final class IndexSample
         return sampleSize;
     }
 
+    /**
+     * @return distribution of the values in the index, or {@code null} if the sampler doesn't build histograms.
+     */
+    public IndexValueHistogram histogram()
+    {
+        return histogram;
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -64,7 +81,8 @@ public final class IndexSample
             return false;
         }
         IndexSample that = (IndexSample) o;
-        return indexSize == that.indexSize && uniqueValues == that.uniqueValues && sampleSize == that.sampleSize;
+        return indexSize == that.indexSize && uniqueValues == that.uniqueValues && sampleSize == that.sampleSize &&
+               Objects.equals( histogram, that.histogram );
     }
 
     @Override
@@ -73,6 +91,7 @@ public final class IndexSample
         int result = (int) (indexSize ^ (indexSize >>> 32));
         result = 31 * result + (int) (uniqueValues ^ (uniqueValues >>> 32));
         result = 31 * result + (int) (sampleSize ^ (sampleSize >>> 32));
+        result = 31 * result + Objects.hashCode( histogram );
         return result;
     }
 
@@ -83,6 +102,7 @@ public final class IndexSample
                "indexSize=" + indexSize +
                ", uniqueValues=" + uniqueValues +
                ", sampleSize=" + sampleSize +
+               ", histogram=" + histogram +
                '}';
     }
 }
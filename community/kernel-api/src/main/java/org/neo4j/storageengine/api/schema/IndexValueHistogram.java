@@ -0,0 +1,594 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+import org.neo4j.values.storable.Values;
+
+/**
+ * Distribution of the values in a single property index, as seen by the latest sampling of that index.
+ * <p>
+ * The distribution is described by an equi-depth histogram, i.e. buckets of consecutive values which each hold
+ * roughly the same number of index entries, together with the most common values and their exact entry counts.
+ * Only values of the {@link #isDescribed(ValueGroup) described value groups} end up in buckets; entries of other
+ * groups only add to {@link #totalCount()}. A bucket never spans more than one value group.
+ * <p>
+ * All selectivities are fractions of {@link #totalCount()}, i.e. of the entries in the index.
+ */
+public final class IndexValueHistogram
+{
+    public static final int DEFAULT_BUCKETS = 100;
+    public static final int DEFAULT_MOST_COMMON_VALUES = 20;
+
+    private static final Comparator<Bucket> BUCKET_ORDER = ( a, b ) -> Values.COMPARATOR.compare( a.upper, b.upper );
+    private static final Comparator<Bucket> MOST_COMMON_FIRST = ( a, b ) -> Long.compare( b.count, a.count );
+
+    private final long totalCount;
+    private final Value[] lowerBounds;
+    private final Value[] upperBounds;
+    private final long[] bucketCounts;
+    private final long[] bucketDistinctValues;
+    private final Value[] mostCommonValues;
+    private final long[] mostCommonCounts;
+
+    /**
+     * @param totalCount number of entries in the index.
+     * @param lowerBounds lowest value of each bucket.
+     * @param upperBounds highest value of each bucket, buckets ordered by these.
+     * @param bucketCounts number of entries in each bucket.
+     * @param bucketDistinctValues number of distinct values in each bucket.
+     * @param mostCommonValues the most common values, most common first.
+     * @param mostCommonCounts number of entries of each of the most common values.
+     */
+    public IndexValueHistogram( long totalCount, Value[] lowerBounds, Value[] upperBounds, long[] bucketCounts,
+            long[] bucketDistinctValues, Value[] mostCommonValues, long[] mostCommonCounts )
+    {
+        if ( lowerBounds.length != upperBounds.length || lowerBounds.length != bucketCounts.length ||
+             lowerBounds.length != bucketDistinctValues.length )
+        {
+            throw new IllegalArgumentException( "Bucket bounds and counts differ in length" );
+        }
+        if ( mostCommonValues.length != mostCommonCounts.length )
+        {
+            throw new IllegalArgumentException( "Most common values and their counts differ in length" );
+        }
+        this.totalCount = totalCount;
+        this.lowerBounds = lowerBounds;
+        this.upperBounds = upperBounds;
+        this.bucketCounts = bucketCounts;
+        this.bucketDistinctValues = bucketDistinctValues;
+        this.mostCommonValues = mostCommonValues;
+        this.mostCommonCounts = mostCommonCounts;
+    }
+
+    /**
+     * @param group value group to check.
+     * @return whether values of the given group are put in buckets, as opposed to only being counted.
+     */
+    public static boolean isDescribed( ValueGroup group )
+    {
+        return group == ValueGroup.NUMBER || group == ValueGroup.TEXT || group == ValueGroup.BOOLEAN;
+    }
+
+    public long totalCount()
+    {
+        return totalCount;
+    }
+
+    public int buckets()
+    {
+        return bucketCounts.length;
+    }
+
+    public Value bucketLowerBound( int bucket )
+    {
+        return lowerBounds[bucket];
+    }
+
+    public Value bucketUpperBound( int bucket )
+    {
+        return upperBounds[bucket];
+    }
+
+    public long bucketCount( int bucket )
+    {
+        return bucketCounts[bucket];
+    }
+
+    public long bucketDistinctValues( int bucket )
+    {
+        return bucketDistinctValues[bucket];
+    }
+
+    public int mostCommonValues()
+    {
+        return mostCommonValues.length;
+    }
+
+    public Value mostCommonValue( int index )
+    {
+        return mostCommonValues[index];
+    }
+
+    public long mostCommonValueCount( int index )
+    {
+        return mostCommonCounts[index];
+    }
+
+    /**
+     * Estimates are only backed by sampled data for value groups that had entries when the index was sampled.
+     *
+     * @param group value group to check.
+     * @return whether this histogram has seen any values of the given group.
+     */
+    public boolean covers( ValueGroup group )
+    {
+        for ( Value upperBound : upperBounds )
+        {
+            if ( upperBound.valueGroup() == group )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value value to look for.
+     * @return estimated fraction of the index entries which have the given value.
+     */
+    public double equalitySelectivity( Value value )
+    {
+        if ( totalCount == 0 )
+        {
+            return 0d;
+        }
+        for ( int i = 0; i < mostCommonValues.length; i++ )
+        {
+            if ( Values.COMPARATOR.compare( mostCommonValues[i], value ) == 0 )
+            {
+                return (double) mostCommonCounts[i] / totalCount;
+            }
+        }
+
+        int bucket = bucketOf( value );
+        if ( bucket < 0 )
+        {
+            return 0d;
+        }
+        // The most common values are known exactly, so leave them out of the average frequency of the bucket
+        long count = bucketCounts[bucket];
+        long distinctValues = bucketDistinctValues[bucket];
+        for ( int i = 0; i < mostCommonValues.length; i++ )
+        {
+            if ( contains( bucket, mostCommonValues[i] ) )
+            {
+                count -= mostCommonCounts[i];
+                distinctValues--;
+            }
+        }
+        if ( count <= 0 || distinctValues <= 0 )
+        {
+            return 0d;
+        }
+        double frequency = (double) count / distinctValues;
+        if ( mostCommonValues.length > 0 )
+        {
+            // A value not among the most common values cannot be more common than the least common of those
+            frequency = Math.min( frequency, mostCommonCounts[mostCommonCounts.length - 1] );
+        }
+        return frequency / totalCount;
+    }
+
+    /**
+     * The equality selectivity for a value that isn't known up front, like a query parameter, assuming that it is
+     * looked up about as often as it occurs in the index. This is the {@link #equalitySelectivity(Value) equality
+     * selectivity} averaged over the entries in the buckets, so that skewed values weigh in as much as they occur.
+     *
+     * @return estimated fraction of the index entries which have the same value as an entry picked at random,
+     * or {@code 0} if no entries are in buckets.
+     */
+    public double averageEqualitySelectivity()
+    {
+        long bucketedCount = 0;
+        double sumOfSquaredCounts = 0;
+        for ( long mostCommonCount : mostCommonCounts )
+        {
+            sumOfSquaredCounts += (double) mostCommonCount * mostCommonCount;
+        }
+        for ( int bucket = 0; bucket < bucketCounts.length; bucket++ )
+        {
+            bucketedCount += bucketCounts[bucket];
+            // Same as for equalitySelectivity, the values in the bucket that aren't among the most common values
+            // share the remaining entries evenly
+            long count = bucketCounts[bucket];
+            long distinctValues = bucketDistinctValues[bucket];
+            for ( int i = 0; i < mostCommonValues.length; i++ )
+            {
+                if ( contains( bucket, mostCommonValues[i] ) )
+                {
+                    count -= mostCommonCounts[i];
+                    distinctValues--;
+                }
+            }
+            if ( count > 0 && distinctValues > 0 )
+            {
+                double frequency = (double) count / distinctValues;
+                if ( mostCommonValues.length > 0 )
+                {
+                    frequency = Math.min( frequency, mostCommonCounts[mostCommonCounts.length - 1] );
+                }
+                sumOfSquaredCounts += count * frequency;
+            }
+        }
+        if ( bucketedCount == 0 || totalCount == 0 )
+        {
+            return 0d;
+        }
+        return sumOfSquaredCounts / bucketedCount / totalCount;
+    }
+
+    /**
+     * Only values of the same value group as the given bounds are considered to be within the range, just like
+     * for range queries.
+     *
+     * @param from lower bound of the range, or {@code null} if the range has no lower bound.
+     * @param fromInclusive whether or not {@code from} itself is part of the range.
+     * @param to upper bound of the range, or {@code null} if the range has no upper bound.
+     * @param toInclusive whether or not {@code to} itself is part of the range.
+     * @return estimated fraction of the index entries which have a value in the given range.
+     */
+    public double rangeSelectivity( Value from, boolean fromInclusive, Value to, boolean toInclusive )
+    {
+        if ( from == null && to == null )
+        {
+            throw new IllegalArgumentException( "A range needs at least one bound" );
+        }
+        if ( totalCount == 0 )
+        {
+            return 0d;
+        }
+        ValueGroup group = from != null ? from.valueGroup() : to.valueGroup();
+        double entries = 0;
+        for ( int i = 0; i < upperBounds.length; i++ )
+        {
+            if ( upperBounds[i].valueGroup() == group )
+            {
+                entries += bucketCounts[i] * fractionInRange( i, from, fromInclusive, to, toInclusive );
+            }
+        }
+        return Math.min( 1d, entries / totalCount );
+    }
+
+    private double fractionInRange( int bucket, Value from, boolean fromInclusive, Value to, boolean toInclusive )
+    {
+        Value lower = lowerBounds[bucket];
+        Value upper = upperBounds[bucket];
+        if ( from != null && !isAbove( upper, from, fromInclusive ) )
+        {
+            return 0d;
+        }
+        if ( to != null && !isBelow( lower, to, toInclusive ) )
+        {
+            return 0d;
+        }
+        boolean lowerInside = from == null || isAbove( lower, from, fromInclusive );
+        boolean upperInside = to == null || isBelow( upper, to, toInclusive );
+        if ( lowerInside && upperInside )
+        {
+            return 1d;
+        }
+        if ( lower.valueGroup() != ValueGroup.NUMBER )
+        {
+            // No way to interpolate, assume that half of the bucket is in the range
+            return 0.5d;
+        }
+        double low = ((NumberValue) lower).doubleValue();
+        double high = ((NumberValue) upper).doubleValue();
+        if ( high <= low )
+        {
+            return 1d;
+        }
+        double start = lowerInside ? low : Math.max( low, ((NumberValue) from).doubleValue() );
+        double end = upperInside ? high : Math.min( high, ((NumberValue) to).doubleValue() );
+        return Math.max( 0d, Math.min( 1d, (end - start) / (high - low) ) );
+    }
+
+    private static boolean isAbove( Value value, Value bound, boolean inclusive )
+    {
+        int comparison = Values.COMPARATOR.compare( value, bound );
+        return comparison > 0 || (comparison == 0 && inclusive);
+    }
+
+    private static boolean isBelow( Value value, Value bound, boolean inclusive )
+    {
+        int comparison = Values.COMPARATOR.compare( value, bound );
+        return comparison < 0 || (comparison == 0 && inclusive);
+    }
+
+    private boolean contains( int bucket, Value value )
+    {
+        return Values.COMPARATOR.compare( lowerBounds[bucket], value ) <= 0 &&
+               Values.COMPARATOR.compare( upperBounds[bucket], value ) >= 0;
+    }
+
+    private int bucketOf( Value value )
+    {
+        // Find the first bucket with an upper bound not lower than the value
+        int low = 0;
+        int high = upperBounds.length - 1;
+        while ( low <= high )
+        {
+            int mid = (low + high) >>> 1;
+            if ( Values.COMPARATOR.compare( upperBounds[mid], value ) < 0 )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return low < upperBounds.length && contains( low, value ) ? low : -1;
+    }
+
+    /**
+     * Combines histograms of disjoint parts of one index, e.g. the parts of a fusion index.
+     *
+     * @param histograms histograms of the parts which have one.
+     * @param totalCount number of entries in the whole index, including parts without a histogram.
+     * @return the combined histogram, or {@code null} if none of the parts had a histogram.
+     */
+    public static IndexValueHistogram combine( Iterable<IndexValueHistogram> histograms, long totalCount )
+    {
+        List<Bucket> buckets = new ArrayList<>();
+        List<Bucket> mostCommon = new ArrayList<>();
+        boolean any = false;
+        for ( IndexValueHistogram histogram : histograms )
+        {
+            any = true;
+            for ( int i = 0; i < histogram.buckets(); i++ )
+            {
+                buckets.add( new Bucket( histogram.lowerBounds[i], histogram.upperBounds[i], histogram.bucketCounts[i],
+                        histogram.bucketDistinctValues[i] ) );
+            }
+            for ( int i = 0; i < histogram.mostCommonValues(); i++ )
+            {
+                mostCommon.add( new Bucket( histogram.mostCommonValues[i], histogram.mostCommonValues[i],
+                        histogram.mostCommonCounts[i], 1 ) );
+            }
+        }
+        if ( !any )
+        {
+            return null;
+        }
+        mostCommon.sort( MOST_COMMON_FIRST );
+        return create( totalCount, buckets, mostCommon.subList( 0, Math.min( mostCommon.size(), DEFAULT_MOST_COMMON_VALUES ) ) );
+    }
+
+    private static IndexValueHistogram create( long totalCount, List<Bucket> buckets, List<Bucket> mostCommon )
+    {
+        buckets.sort( BUCKET_ORDER );
+        int size = buckets.size();
+        Value[] lowerBounds = new Value[size];
+        Value[] upperBounds = new Value[size];
+        long[] bucketCounts = new long[size];
+        long[] bucketDistinctValues = new long[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            Bucket bucket = buckets.get( i );
+            lowerBounds[i] = bucket.lower;
+            upperBounds[i] = bucket.upper;
+            bucketCounts[i] = bucket.count;
+            bucketDistinctValues[i] = bucket.distinctValues;
+        }
+        Value[] mostCommonValues = new Value[mostCommon.size()];
+        long[] mostCommonCounts = new long[mostCommon.size()];
+        for ( int i = 0; i < mostCommonValues.length; i++ )
+        {
+            mostCommonValues[i] = mostCommon.get( i ).lower;
+            mostCommonCounts[i] = mostCommon.get( i ).count;
+        }
+        return new IndexValueHistogram( totalCount, lowerBounds, upperBounds, bucketCounts, bucketDistinctValues,
+                mostCommonValues, mostCommonCounts );
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        IndexValueHistogram that = (IndexValueHistogram) o;
+        return totalCount == that.totalCount && Arrays.equals( lowerBounds, that.lowerBounds ) &&
+               Arrays.equals( upperBounds, that.upperBounds ) && Arrays.equals( bucketCounts, that.bucketCounts ) &&
+               Arrays.equals( bucketDistinctValues, that.bucketDistinctValues ) &&
+               Arrays.equals( mostCommonValues, that.mostCommonValues ) &&
+               Arrays.equals( mostCommonCounts, that.mostCommonCounts );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (totalCount ^ (totalCount >>> 32));
+        result = 31 * result + Arrays.hashCode( upperBounds );
+        result = 31 * result + Arrays.hashCode( bucketCounts );
+        result = 31 * result + Arrays.hashCode( mostCommonValues );
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "IndexValueHistogram{" +
+               "totalCount=" + totalCount +
+               ", buckets=" + bucketCounts.length +
+               ", mostCommonValues=" + Arrays.toString( mostCommonValues ) +
+               '}';
+    }
+
+    /**
+     * Builds an {@link IndexValueHistogram} in a single pass over the values of an index, in index order.
+     * <p>
+     * Since the number of entries isn't known up front, buckets start out holding a single value. Whenever twice
+     * the wanted number of buckets have been filled, neighbouring buckets are merged pairwise and the depth of
+     * the buckets to come is doubled. This leaves between one and two times the wanted number of buckets.
+     */
+    public static class Builder
+    {
+        private final int wantedBuckets;
+        private final int mostCommonValues;
+        private final List<Bucket> buckets = new ArrayList<>();
+        private final PriorityQueue<Bucket> mostCommon;
+        private Bucket current;
+        private long depth = 1;
+        private long totalCount;
+
+        public Builder()
+        {
+            this( DEFAULT_BUCKETS, DEFAULT_MOST_COMMON_VALUES );
+        }
+
+        public Builder( int wantedBuckets, int mostCommonValues )
+        {
+            this.wantedBuckets = wantedBuckets;
+            this.mostCommonValues = mostCommonValues;
+            this.mostCommon = new PriorityQueue<>( MOST_COMMON_FIRST.reversed() );
+        }
+
+        /**
+         * Adds a distinct value. Values must be added in index order, i.e. ascending order within a value group,
+         * and each value only once.
+         *
+         * @param value the value.
+         * @param count number of index entries with this value.
+         */
+        public void add( Value value, long count )
+        {
+            totalCount += count;
+            ValueGroup group = value.valueGroup();
+            if ( !isDescribed( group ) )
+            {
+                return;
+            }
+
+            if ( mostCommonValues > 0 && (mostCommon.size() < mostCommonValues || mostCommon.peek().count < count) )
+            {
+                mostCommon.add( new Bucket( value, value, count, 1 ) );
+                if ( mostCommon.size() > mostCommonValues )
+                {
+                    mostCommon.poll();
+                }
+            }
+
+            if ( current != null && (current.count >= depth || current.upper.valueGroup() != group) )
+            {
+                closeCurrent();
+            }
+            if ( current == null )
+            {
+                current = new Bucket( value, value, 0, 0 );
+            }
+            current.upper = value;
+            current.count += count;
+            current.distinctValues++;
+        }
+
+        /**
+         * Adds entries which don't go into any bucket, e.g. entries with multiple values in a composite index.
+         *
+         * @param count number of index entries.
+         */
+        public void addUndescribed( long count )
+        {
+            totalCount += count;
+        }
+
+        public IndexValueHistogram build()
+        {
+            if ( current != null )
+            {
+                closeCurrent();
+            }
+            List<Bucket> mostCommonList = new ArrayList<>( mostCommon );
+            mostCommonList.sort( MOST_COMMON_FIRST );
+            return create( totalCount, new ArrayList<>( buckets ), mostCommonList );
+        }
+
+        private void closeCurrent()
+        {
+            buckets.add( current );
+            current = null;
+            if ( buckets.size() >= wantedBuckets * 2 )
+            {
+                mergeBuckets();
+            }
+        }
+
+        private void mergeBuckets()
+        {
+            List<Bucket> merged = new ArrayList<>( wantedBuckets + 1 );
+            for ( int i = 0; i < buckets.size(); i++ )
+            {
+                Bucket bucket = buckets.get( i );
+                if ( i + 1 < buckets.size() && buckets.get( i + 1 ).upper.valueGroup() == bucket.upper.valueGroup() )
+                {
+                    Bucket next = buckets.get( ++i );
+                    bucket.upper = next.upper;
+                    bucket.count += next.count;
+                    bucket.distinctValues += next.distinctValues;
+                }
+                merged.add( bucket );
+            }
+            buckets.clear();
+            buckets.addAll( merged );
+            depth *= 2;
+        }
+    }
+
+    private static class Bucket
+    {
+        private final Value lower;
+        private Value upper;
+        private long count;
+        private long distinctValues;
+
+        Bucket( Value lower, Value upper, long count, long distinctValues )
+        {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+            this.distinctValues = distinctValues;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+/**
+ * Shared state of a scan over all nodes with a given label, which hands out batches of the node id space to
+ * {@link IndexProgressor.NodeLabelClient clients}, possibly on different threads. Each node is handed out in exactly one batch.
+ */
+public interface LabelScan
+{
+    /**
+     * Claims the next batch of this scan.
+     *
+     * @param client the client to communicate the nodes of the batch to.
+     * @param sizeHint the approximate size of the batch, counted in node ids.
+     * @return an {@link IndexProgressor} over the nodes with the label in the claimed batch, or {@code null} if there were no more
+     * batches to claim. The progressor must be closed by the caller.
+     */
+    IndexProgressor nextBatch( IndexProgressor.NodeLabelClient client, int sizeHint );
+}
@@ -46,6 +46,15 @@ public interface LabelScanReader extends Resource
      */
     void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId );
 
+    /**
+     * Creates a scan over the nodes with <code>labelId</code>, which can be split up into batches read from multiple threads.
+     * The scan doesn't depend on this reader and may be used after it has been closed.
+     *
+     * @param labelId label token id
+     * @return a {@link LabelScan} over the nodes with the given label.
+     */
+    LabelScan nodeLabelScan( int labelId );
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
@@ -19,6 +19,9 @@
  */
 package org.neo4j.internal.kernel.api;
 
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -605,6 +608,102 @@ public abstract class NodeTransactionStateTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    public void shouldSeeAddedAndNotDeletedNodesInParallelScan() throws Exception
+    {
+        // Given
+        Node deleted = createNode();
+        Node kept = createNode();
+
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction();
+              NodeCursor first = tx.cursors().allocateNodeCursor();
+              NodeCursor second = tx.cursors().allocateNodeCursor() )
+        {
+            // when
+            long added = tx.dataWrite().nodeCreate();
+            tx.dataWrite().nodeDelete( deleted.node );
+            Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+            scan.initialize( first );
+            scan.initialize( second );
+
+            // then
+            MutableLongSet seen = new LongHashSet();
+            while ( first.next() )
+            {
+                assertTrue( seen.add( first.nodeReference() ) );
+            }
+            while ( second.next() )
+            {
+                assertTrue( seen.add( second.nodeReference() ) );
+            }
+            assertTrue( seen.contains( added ) );
+            assertTrue( seen.contains( kept.node ) );
+            assertFalse( seen.contains( deleted.node ) );
+        }
+    }
+
+    @Test
+    public void shouldSeeTransactionStateAsOfCreationOfParallelScan() throws Exception
+    {
+        // Given
+        Node deletedLater = createNode();
+
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction();
+              NodeCursor cursor = tx.cursors().allocateNodeCursor() )
+        {
+            // when
+            long added = tx.dataWrite().nodeCreate();
+            Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+            long addedLater = tx.dataWrite().nodeCreate();
+            tx.dataWrite().nodeDelete( deletedLater.node );
+            scan.initialize( cursor );
+
+            // then
+            MutableLongSet seen = new LongHashSet();
+            while ( cursor.next() )
+            {
+                seen.add( cursor.nodeReference() );
+            }
+            assertTrue( seen.contains( added ) );
+            assertTrue( seen.contains( deletedLater.node ) );
+            assertFalse( seen.contains( addedLater ) );
+        }
+    }
+
+    @Test
+    public void shouldSeeTransactionStateInParallelLabelScan() throws Exception
+    {
+        // Given
+        Node removed = createNode( "label" );
+        Node kept = createNode( "label" );
+        Node updated = createNode();
+
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction();
+              NodeLabelIndexCursor first = tx.cursors().allocateNodeLabelIndexCursor();
+              NodeLabelIndexCursor second = tx.cursors().allocateNodeLabelIndexCursor() )
+        {
+            // when
+            int label = removed.labels[0];
+            tx.dataWrite().nodeRemoveLabel( removed.node, label );
+            tx.dataWrite().nodeAddLabel( updated.node, label );
+            Scan<NodeLabelIndexCursor> scan = tx.dataRead().nodeLabelScan( label );
+            scan.initialize( first );
+            scan.initialize( second );
+
+            // then
+            MutableLongSet seen = new LongHashSet();
+            while ( first.next() )
+            {
+                assertTrue( seen.add( first.nodeReference() ) );
+            }
+            while ( second.next() )
+            {
+                assertTrue( seen.add( second.nodeReference() ) );
+            }
+            assertEquals( LongSets.immutable.of( kept.node, updated.node ), seen );
+        }
+    }
+
     @Ignore
     public void shouldNotFindDeletedNodeInDisjunctionLabelScan() throws Exception
     {
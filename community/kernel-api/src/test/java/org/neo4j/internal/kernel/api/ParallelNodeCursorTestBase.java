@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.Label.label;
+
+public abstract class ParallelNodeCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int N_NODES = 10000;
+    private static final int N_WORKERS = 4;
+
+    private static MutableLongSet NODE_IDS;
+    private static MutableLongSet FOO_NODE_IDS;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        NODE_IDS = new LongHashSet();
+        FOO_NODE_IDS = new LongHashSet();
+        List<Node> deleted = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < N_NODES; i++ )
+            {
+                Node node = i % 3 == 0 ? graphDb.createNode( label( "Foo" ) ) : graphDb.createNode();
+                if ( i % 7 == 0 )
+                {
+                    deleted.add( node );
+                }
+                else
+                {
+                    NODE_IDS.add( node.getId() );
+                    if ( i % 3 == 0 )
+                    {
+                        FOO_NODE_IDS.add( node.getId() );
+                    }
+                }
+            }
+            tx.success();
+        }
+
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( Node node : deleted )
+            {
+                node.delete();
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanAllNodesWithSingleCursor()
+    {
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            // when
+            read.allNodesScan().initialize( nodes );
+
+            // then
+            assertEquals( NODE_IDS, drain( nodes, NodeCursor::nodeReference ) );
+        }
+    }
+
+    @Test
+    public void shouldSplitNodesBetweenCursors()
+    {
+        try ( NodeCursor first = cursors.allocateNodeCursor();
+              NodeCursor second = cursors.allocateNodeCursor() )
+        {
+            // when
+            Scan<NodeCursor> scan = read.allNodesScan();
+            scan.initialize( first );
+            scan.initialize( second );
+            MutableLongSet seen = new LongHashSet();
+            boolean firstHasNext = true;
+            boolean secondHasNext = true;
+            while ( firstHasNext || secondHasNext )
+            {
+                if ( firstHasNext && (firstHasNext = first.next()) )
+                {
+                    assertTrue( "should see each node only once", seen.add( first.nodeReference() ) );
+                }
+                if ( secondHasNext && (secondHasNext = second.next()) )
+                {
+                    assertTrue( "should see each node only once", seen.add( second.nodeReference() ) );
+                }
+            }
+
+            // then
+            assertEquals( NODE_IDS, seen );
+        }
+    }
+
+    @Test
+    public void shouldScanAllNodesFromConcurrentWorkers() throws Exception
+    {
+        // given
+        Scan<NodeCursor> scan = read.allNodesScan();
+        List<NodeCursor> workerCursors = new ArrayList<>();
+        for ( int i = 0; i < N_WORKERS; i++ )
+        {
+            NodeCursor cursor = cursors.allocateNodeCursor();
+            scan.initialize( cursor );
+            workerCursors.add( cursor );
+        }
+
+        // when
+        List<LongSet> results = runConcurrently( workerCursors, NodeCursor::nodeReference );
+
+        // then
+        assertEquals( NODE_IDS, union( results ) );
+    }
+
+    @Test
+    public void shouldScanLabelledNodesFromConcurrentWorkers() throws Exception
+    {
+        // given
+        Scan<NodeLabelIndexCursor> scan = read.nodeLabelScan( token.nodeLabel( "Foo" ) );
+        List<NodeLabelIndexCursor> workerCursors = new ArrayList<>();
+        for ( int i = 0; i < N_WORKERS; i++ )
+        {
+            NodeLabelIndexCursor cursor = cursors.allocateNodeLabelIndexCursor();
+            scan.initialize( cursor );
+            workerCursors.add( cursor );
+        }
+
+        // when
+        List<LongSet> results = runConcurrently( workerCursors, NodeLabelIndexCursor::nodeReference );
+
+        // then
+        assertEquals( FOO_NODE_IDS, union( results ) );
+    }
+
+    @Test
+    public void shouldNotFindAnythingWhenAllBatchesAreClaimed()
+    {
+        try ( NodeCursor first = cursors.allocateNodeCursor();
+              NodeCursor second = cursors.allocateNodeCursor() )
+        {
+            // given
+            Scan<NodeCursor> scan = read.allNodesScan();
+            scan.initialize( first );
+            drain( first, NodeCursor::nodeReference );
+
+            // when
+            scan.initialize( second );
+
+            // then
+            assertFalse( second.next() );
+        }
+    }
+
+    private static <C extends Cursor> List<LongSet> runConcurrently( List<C> workerCursors, ToLongFunction<C> reference )
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( workerCursors.size() );
+        try
+        {
+            List<Future<LongSet>> futures = new ArrayList<>();
+            for ( C cursor : workerCursors )
+            {
+                futures.add( executor.submit( () -> drain( cursor, reference ) ) );
+            }
+            List<LongSet> results = new ArrayList<>();
+            for ( Future<LongSet> future : futures )
+            {
+                results.add( future.get() );
+            }
+            return results;
+        }
+        finally
+        {
+            executor.shutdown();
+            workerCursors.forEach( Cursor::close );
+        }
+    }
+
+    private static <C extends Cursor> LongSet drain( C cursor, ToLongFunction<C> reference )
+    {
+        MutableLongSet seen = new LongHashSet();
+        while ( cursor.next() )
+        {
+            assertTrue( "should see each node only once", seen.add( reference.applyAsLong( cursor ) ) );
+        }
+        return seen;
+    }
+
+    private static LongSet union( List<LongSet> results )
+    {
+        MutableLongSet union = new LongHashSet();
+        for ( LongSet result : results )
+        {
+            for ( long id : result.toArray() )
+            {
+                assertTrue( "should see each node only once", union.add( id ) );
+            }
+        }
+        return union;
+    }
+}
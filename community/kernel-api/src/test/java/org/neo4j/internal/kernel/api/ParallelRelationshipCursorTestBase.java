@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api;
+
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+public abstract class ParallelRelationshipCursorTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int N_RELATIONSHIPS = 10000;
+    private static final int N_WORKERS = 4;
+
+    private static MutableLongSet RELATIONSHIP_IDS;
+    private static MutableLongSet KNOWS_RELATIONSHIP_IDS;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        RELATIONSHIP_IDS = new LongHashSet();
+        KNOWS_RELATIONSHIP_IDS = new LongHashSet();
+        List<Relationship> deleted = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            Node a = graphDb.createNode();
+            Node b = graphDb.createNode();
+            for ( int i = 0; i < N_RELATIONSHIPS; i++ )
+            {
+                Relationship relationship = a.createRelationshipTo( b, withName( i % 3 == 0 ? "KNOWS" : "LIKES" ) );
+                if ( i % 7 == 0 )
+                {
+                    deleted.add( relationship );
+                }
+                else
+                {
+                    RELATIONSHIP_IDS.add( relationship.getId() );
+                    if ( i % 3 == 0 )
+                    {
+                        KNOWS_RELATIONSHIP_IDS.add( relationship.getId() );
+                    }
+                }
+            }
+            tx.success();
+        }
+
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( Relationship relationship : deleted )
+            {
+                relationship.delete();
+            }
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanAllRelationshipsWithSingleCursor()
+    {
+        try ( RelationshipScanCursor relationships = cursors.allocateRelationshipScanCursor() )
+        {
+            // when
+            read.allRelationshipsScan().initialize( relationships );
+
+            // then
+            assertEquals( RELATIONSHIP_IDS, drain( relationships ) );
+        }
+    }
+
+    @Test
+    public void shouldSplitRelationshipsBetweenCursors()
+    {
+        try ( RelationshipScanCursor first = cursors.allocateRelationshipScanCursor();
+              RelationshipScanCursor second = cursors.allocateRelationshipScanCursor() )
+        {
+            // when
+            Scan<RelationshipScanCursor> scan = read.allRelationshipsScan();
+            scan.initialize( first );
+            scan.initialize( second );
+            MutableLongSet seen = new LongHashSet();
+            boolean firstHasNext = true;
+            boolean secondHasNext = true;
+            while ( firstHasNext || secondHasNext )
+            {
+                if ( firstHasNext && (firstHasNext = first.next()) )
+                {
+                    assertTrue( "should see each relationship only once", seen.add( first.relationshipReference() ) );
+                }
+                if ( secondHasNext && (secondHasNext = second.next()) )
+                {
+                    assertTrue( "should see each relationship only once", seen.add( second.relationshipReference() ) );
+                }
+            }
+
+            // then
+            assertEquals( RELATIONSHIP_IDS, seen );
+        }
+    }
+
+    @Test
+    public void shouldScanAllRelationshipsFromConcurrentWorkers() throws Exception
+    {
+        // given
+        Scan<RelationshipScanCursor> scan = read.allRelationshipsScan();
+
+        // when
+        LongSet seen = runConcurrently( scan );
+
+        // then
+        assertEquals( RELATIONSHIP_IDS, seen );
+    }
+
+    @Test
+    public void shouldScanRelationshipsOfTypeFromConcurrentWorkers() throws Exception
+    {
+        // given
+        int knows = token.relationshipType( "KNOWS" );
+        Scan<RelationshipScanCursor> scan = read.relationshipTypeScan( knows );
+
+        // when
+        LongSet seen = runConcurrently( scan );
+
+        // then
+        assertEquals( KNOWS_RELATIONSHIP_IDS, seen );
+    }
+
+    @Test
+    public void shouldNotFindAnythingWhenAllBatchesAreClaimed()
+    {
+        try ( RelationshipScanCursor first = cursors.allocateRelationshipScanCursor();
+              RelationshipScanCursor second = cursors.allocateRelationshipScanCursor() )
+        {
+            // given
+            Scan<RelationshipScanCursor> scan = read.allRelationshipsScan();
+            scan.initialize( first );
+            drain( first );
+
+            // when
+            scan.initialize( second );
+
+            // then
+            assertFalse( second.next() );
+        }
+    }
+
+    private LongSet runConcurrently( Scan<RelationshipScanCursor> scan ) throws Exception
+    {
+        List<RelationshipScanCursor> workerCursors = new ArrayList<>();
+        for ( int i = 0; i < N_WORKERS; i++ )
+        {
+            RelationshipScanCursor cursor = cursors.allocateRelationshipScanCursor();
+            scan.initialize( cursor );
+            workerCursors.add( cursor );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( N_WORKERS );
+        try
+        {
+            List<Future<LongSet>> futures = new ArrayList<>();
+            for ( RelationshipScanCursor cursor : workerCursors )
+            {
+                futures.add( executor.submit( () -> drain( cursor ) ) );
+            }
+            MutableLongSet union = new LongHashSet();
+            for ( Future<LongSet> future : futures )
+            {
+                for ( long id : future.get().toArray() )
+                {
+                    assertTrue( "should see each relationship only once", union.add( id ) );
+                }
+            }
+            return union;
+        }
+        finally
+        {
+            executor.shutdown();
+            workerCursors.forEach( Cursor::close );
+        }
+    }
+
+    private static LongSet drain( RelationshipScanCursor cursor )
+    {
+        MutableLongSet seen = new LongHashSet();
+        while ( cursor.next() )
+        {
+            assertTrue( "should see each relationship only once", seen.add( cursor.relationshipReference() ) );
+        }
+        return seen;
+    }
+}
@@ -186,6 +186,124 @@ public abstract class RelationshipTransactionStateTestBase<G extends KernelAPIWr
         }
     }
 
+    @Test
+    public void shouldSeeAddedAndNotDeletedRelationshipsInParallelScan() throws Exception
+    {
+        int type;
+        long n1, n2, deleted, kept;
+        try ( Transaction tx = beginTransaction() )
+        {
+            n1 = tx.dataWrite().nodeCreate();
+            n2 = tx.dataWrite().nodeCreate();
+            type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" );
+            deleted = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            kept = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction();
+              RelationshipScanCursor first = tx.cursors().allocateRelationshipScanCursor();
+              RelationshipScanCursor second = tx.cursors().allocateRelationshipScanCursor() )
+        {
+            long added = tx.dataWrite().relationshipCreate( n2, type, n1 );
+            tx.dataWrite().relationshipDelete( deleted );
+            Scan<RelationshipScanCursor> scan = tx.dataRead().allRelationshipsScan();
+            scan.initialize( first );
+            scan.initialize( second );
+
+            MutableLongSet seen = new LongHashSet();
+            while ( first.next() )
+            {
+                assertTrue( "should see each relationship only once", seen.add( first.relationshipReference() ) );
+            }
+            while ( second.next() )
+            {
+                assertTrue( "should see each relationship only once", seen.add( second.relationshipReference() ) );
+            }
+            assertTrue( seen.contains( added ) );
+            assertTrue( seen.contains( kept ) );
+            assertFalse( seen.contains( deleted ) );
+        }
+    }
+
+    @Test
+    public void shouldSeeTransactionStateAsOfCreationOfParallelScan() throws Exception
+    {
+        int type;
+        long n1, n2, deletedLater;
+        try ( Transaction tx = beginTransaction() )
+        {
+            n1 = tx.dataWrite().nodeCreate();
+            n2 = tx.dataWrite().nodeCreate();
+            type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" );
+            deletedLater = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction();
+              RelationshipScanCursor cursor = tx.cursors().allocateRelationshipScanCursor() )
+        {
+            long added = tx.dataWrite().relationshipCreate( n2, type, n1 );
+            Scan<RelationshipScanCursor> scan = tx.dataRead().allRelationshipsScan();
+            long addedLater = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.dataWrite().relationshipDelete( deletedLater );
+            scan.initialize( cursor );
+
+            MutableLongSet seen = new LongHashSet();
+            while ( cursor.next() )
+            {
+                seen.add( cursor.relationshipReference() );
+                if ( cursor.relationshipReference() == added )
+                {
+                    assertEquals( type, cursor.type() );
+                    assertEquals( n2, cursor.sourceNodeReference() );
+                    assertEquals( n1, cursor.targetNodeReference() );
+                }
+            }
+            assertTrue( seen.contains( added ) );
+            assertTrue( seen.contains( deletedLater ) );
+            assertFalse( seen.contains( addedLater ) );
+        }
+    }
+
+    @Test
+    public void shouldOnlySeeAddedRelationshipsOfTypeInParallelTypeScan() throws Exception
+    {
+        long n1, n2;
+        try ( Transaction tx = beginTransaction() )
+        {
+            n1 = tx.dataWrite().nodeCreate();
+            n2 = tx.dataWrite().nodeCreate();
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction();
+              RelationshipScanCursor first = tx.cursors().allocateRelationshipScanCursor();
+              RelationshipScanCursor second = tx.cursors().allocateRelationshipScanCursor() )
+        {
+            int type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" );
+            int otherType = tx.tokenWrite().relationshipTypeGetOrCreateForName( "S" );
+            long added = tx.dataWrite().relationshipCreate( n1, type, n2 );
+            tx.dataWrite().relationshipCreate( n1, otherType, n2 );
+            Scan<RelationshipScanCursor> scan = tx.dataRead().relationshipTypeScan( type );
+            scan.initialize( first );
+            scan.initialize( second );
+
+            MutableLongSet seen = new LongHashSet();
+            while ( first.next() )
+            {
+                assertEquals( type, first.type() );
+                assertTrue( "should see each relationship only once", seen.add( first.relationshipReference() ) );
+            }
+            while ( second.next() )
+            {
+                assertEquals( type, second.type() );
+                assertTrue( "should see each relationship only once", seen.add( second.relationshipReference() ) );
+            }
+            assertTrue( seen.contains( added ) );
+        }
+    }
+
     @Test
     public void shouldSeeRelationshipInTransaction() throws Exception
     {
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.values.storable.DateValue.epochDate;
+import static org.neo4j.values.storable.ValueGroup.DATE;
+import static org.neo4j.values.storable.ValueGroup.NUMBER;
+import static org.neo4j.values.storable.ValueGroup.TEXT;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.intValue;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+public class IndexValueHistogramTest
+{
+    private static final double DELTA = 0.0001;
+
+    @Test
+    public void shouldKeepNumberOfBucketsWithinBoundsForManyValues()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 10, 0 );
+
+        // when
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            builder.add( intValue( i ), 1 );
+        }
+        IndexValueHistogram histogram = builder.build();
+
+        // then
+        assertEquals( 10_000, histogram.totalCount() );
+        assertTrue( histogram.buckets() >= 10 && histogram.buckets() < 20 );
+        long entries = 0;
+        for ( int i = 0; i < histogram.buckets(); i++ )
+        {
+            entries += histogram.bucketCount( i );
+        }
+        assertEquals( 10_000, entries );
+    }
+
+    @Test
+    public void shouldEstimateRangesOfUniformlyDistributedNumbers()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 10, 0 );
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            builder.add( intValue( i ), 1 );
+        }
+        IndexValueHistogram histogram = builder.build();
+
+        // then
+        assertEquals( 0.1, histogram.rangeSelectivity( longValue( 900 ), true, null, false ), 0.01 );
+        assertEquals( 0.5, histogram.rangeSelectivity( null, false, doubleValue( 499.5 ), false ), 0.01 );
+        assertEquals( 0.25, histogram.rangeSelectivity( intValue( 250 ), true, intValue( 500 ), false ), 0.01 );
+        assertEquals( 0.0, histogram.rangeSelectivity( intValue( 2_000 ), true, null, false ), DELTA );
+        assertEquals( 1.0, histogram.rangeSelectivity( intValue( -1 ), true, null, false ), DELTA );
+    }
+
+    @Test
+    public void shouldOnlyCountValuesOfSameGroupAsRangeBounds()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 10, 0 );
+        builder.add( intValue( 1 ), 10 );
+        builder.add( stringValue( "a" ), 30 );
+        builder.add( epochDate( 1 ), 60 );
+        IndexValueHistogram histogram = builder.build();
+
+        // then
+        assertEquals( 0.1, histogram.rangeSelectivity( intValue( 0 ), true, null, false ), DELTA );
+        assertEquals( 0.3, histogram.rangeSelectivity( null, false, stringValue( "b" ), false ), DELTA );
+        assertTrue( histogram.covers( NUMBER ) );
+        assertTrue( histogram.covers( TEXT ) );
+        assertFalse( histogram.covers( DATE ) );
+    }
+
+    @Test
+    public void shouldEstimateEqualityOfSkewedValuesFromMostCommonValues()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 4, 2 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            builder.add( intValue( i ), i == 42 ? 901 : 1 );
+        }
+        IndexValueHistogram histogram = builder.build();
+
+        // then
+        assertEquals( 0.901, histogram.equalitySelectivity( intValue( 42 ) ), DELTA );
+        assertEquals( 0.901, histogram.equalitySelectivity( doubleValue( 42.0 ) ), DELTA );
+        assertEquals( 0.001, histogram.equalitySelectivity( intValue( 7 ) ), DELTA );
+        assertEquals( 0.0, histogram.equalitySelectivity( intValue( 1_000 ) ), DELTA );
+        assertEquals( 0.0, histogram.equalitySelectivity( stringValue( "42" ) ), DELTA );
+    }
+
+    @Test
+    public void shouldWeighSkewedValuesByTheirCountsInAverageEquality()
+    {
+        // given
+        IndexValueHistogram.Builder uniform = new IndexValueHistogram.Builder( 4, 2 );
+        IndexValueHistogram.Builder skewed = new IndexValueHistogram.Builder( 4, 2 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            uniform.add( intValue( i ), 10 );
+            skewed.add( intValue( i ), i == 42 ? 901 : 1 );
+        }
+
+        // then
+        assertEquals( 0.01, uniform.build().averageEqualitySelectivity(), DELTA );
+        // 0.901 for nine out of ten lookups, 0.001 for the rest
+        assertEquals( 0.8119, skewed.build().averageEqualitySelectivity(), DELTA );
+        assertEquals( 0.0, new IndexValueHistogram.Builder().build().averageEqualitySelectivity(), DELTA );
+    }
+
+    @Test
+    public void shouldCombineHistogramsOfDisjointParts()
+    {
+        // given
+        IndexValueHistogram.Builder numbers = new IndexValueHistogram.Builder( 4, 2 );
+        numbers.add( intValue( 1 ), 10 );
+        numbers.add( intValue( 2 ), 20 );
+        IndexValueHistogram.Builder strings = new IndexValueHistogram.Builder( 4, 2 );
+        strings.add( stringValue( "a" ), 30 );
+
+        // when
+        IndexValueHistogram combined = IndexValueHistogram.combine( asList( strings.build(), numbers.build() ), 100 );
+
+        // then
+        assertEquals( 100, combined.totalCount() );
+        assertEquals( 0.3, combined.equalitySelectivity( stringValue( "a" ) ), DELTA );
+        assertEquals( 0.2, combined.equalitySelectivity( intValue( 2 ) ), DELTA );
+        assertEquals( 0.3, combined.rangeSelectivity( intValue( 0 ), true, intValue( 10 ), true ), DELTA );
+        assertNull( IndexValueHistogram.combine( asList(), 100 ) );
+    }
+}
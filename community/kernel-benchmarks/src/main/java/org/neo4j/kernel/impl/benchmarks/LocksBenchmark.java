@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.LocksFactory;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.locking.community.CommunityLocksFactory;
+import org.neo4j.kernel.impl.locking.striped.StripedLocksFactory;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.RELATIONSHIP;
+import static org.neo4j.storageengine.api.lock.LockTracer.NONE;
+
+/**
+ * Lock throughput of the {@link Locks} implementations for a write transaction shaped workload: every operation
+ * takes shared locks on a couple of nodes, exclusive locks on a couple of relationships and nodes, and then releases
+ * them all, like a transaction that creates relationships between existing nodes. Run with different thread counts,
+ * and fewer {@code resources} for more contention.
+ * <p>
+ * The resource ids are locked in ascending order, so the workload itself never deadlocks.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class LocksBenchmark
+{
+    @Param( {"community", "striped"} )
+    public String lockManager;
+
+    @Param( {"1000000"} )
+    public int resources;
+
+    @Param( {"4"} )
+    public int locksPerTransaction;
+
+    Locks locks;
+
+    @Setup( Level.Trial )
+    public void setUpLocks()
+    {
+        LocksFactory factory = StripedLocksFactory.KEY.equals( lockManager ) ? new StripedLocksFactory() : new CommunityLocksFactory();
+        locks = factory.newInstance( Config.defaults(), Clocks.systemClock(), ResourceTypes.values() );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDownLocks()
+    {
+        locks.close();
+    }
+
+    @State( Scope.Thread )
+    public static class Transaction
+    {
+        Locks.Client client;
+        long[] sharedNodes;
+        long[] exclusiveNodes;
+        long[] exclusiveRelationships;
+
+        @Setup( Level.Trial )
+        public void newClient( LocksBenchmark benchmark )
+        {
+            client = benchmark.locks.newClient();
+            sharedNodes = new long[benchmark.locksPerTransaction];
+            exclusiveNodes = new long[benchmark.locksPerTransaction];
+            exclusiveRelationships = new long[benchmark.locksPerTransaction];
+        }
+
+        @TearDown( Level.Trial )
+        public void closeClient()
+        {
+            client.close();
+        }
+
+        void randomize( int resources )
+        {
+            ThreadLocalRandom rng = ThreadLocalRandom.current();
+            // Shared and exclusive node ids come from separate halves of the id space, so a transaction never
+            // tries to upgrade one of its own locks.
+            int half = resources / 2;
+            for ( int i = 0; i < sharedNodes.length; i++ )
+            {
+                sharedNodes[i] = rng.nextInt( half );
+                exclusiveNodes[i] = half + rng.nextInt( half );
+                exclusiveRelationships[i] = rng.nextInt( resources );
+            }
+            Arrays.sort( sharedNodes );
+            Arrays.sort( exclusiveNodes );
+            Arrays.sort( exclusiveRelationships );
+        }
+    }
+
+    @Benchmark
+    public void lockAndRelease( Transaction tx )
+    {
+        tx.randomize( resources );
+        Locks.Client client = tx.client;
+        client.acquireShared( NONE, NODE, tx.sharedNodes );
+        client.acquireExclusive( NONE, NODE, tx.exclusiveNodes );
+        client.acquireExclusive( NONE, RELATIONSHIP, tx.exclusiveRelationships );
+        client.releaseExclusive( RELATIONSHIP, tx.exclusiveRelationships );
+        client.releaseExclusive( NODE, tx.exclusiveNodes );
+        client.releaseShared( NODE, tx.sharedNodes );
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.internal.kernel.api.Kernel;
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.internal.kernel.api.Transaction;
+import org.neo4j.internal.kernel.api.security.LoginContext;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+/**
+ * Relationship scan throughput of the parallel {@code Read#allRelationshipsScan()} and
+ * {@code Read#relationshipTypeScan(int)} scans with a given number of worker threads, against the single threaded
+ * {@code Read#allRelationshipsScan(RelationshipScanCursor)} and {@code Read#relationshipTypeScan(int, RelationshipScanCursor)}
+ * scans. The store is built once per trial and fits in the page cache, so the numbers are about cursor and page cache
+ * overhead rather than disk. {@link #singleThreadedScan()} does not depend on {@code workers}; run it with one value only.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ParallelRelationshipScanBenchmark
+{
+    private static final int NODES = 10_000;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param( {"1", "2", "4", "8"} )
+    public int workers;
+
+    @Param( {"false", "true"} )
+    public boolean byType;
+
+    @Param( {"1000000"} )
+    public int relationships;
+
+    private File storeDir;
+    private GraphDatabaseAPI db;
+    private Kernel kernel;
+    private int type;
+    private ExecutorService executor;
+
+    @Setup( Level.Trial )
+    public void createStore() throws Exception
+    {
+        storeDir = Files.createTempDirectory( "relationship-scan" ).toFile();
+        db = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.pagecache_memory, "1g" )
+                .newGraphDatabase();
+        RelationshipType knows = RelationshipType.withName( "KNOWS" );
+        RelationshipType likes = RelationshipType.withName( "LIKES" );
+        Node[] nodes = new Node[NODES];
+        try ( org.neo4j.graphdb.Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                nodes[i] = db.createNode();
+            }
+            tx.success();
+        }
+        for ( int created = 0; created < relationships; created += BATCH_SIZE )
+        {
+            try ( org.neo4j.graphdb.Transaction tx = db.beginTx() )
+            {
+                for ( int i = created; i < Math.min( relationships, created + BATCH_SIZE ); i++ )
+                {
+                    // A quarter of the relationships are of the type that the type scans look for
+                    nodes[i % NODES].createRelationshipTo( nodes[(i * 31) % NODES], i % 4 == 0 ? knows : likes );
+                }
+                tx.success();
+            }
+        }
+        kernel = db.getDependencyResolver().resolveDependency( Kernel.class );
+        try ( Transaction tx = beginTransaction() )
+        {
+            type = tx.tokenRead().relationshipType( knows.name() );
+        }
+        executor = Executors.newFixedThreadPool( workers );
+    }
+
+    @TearDown( Level.Trial )
+    public void deleteStore() throws IOException
+    {
+        executor.shutdown();
+        db.shutdown();
+        FileUtils.deleteRecursively( storeDir );
+    }
+
+    @Benchmark
+    public long singleThreadedScan() throws Exception
+    {
+        try ( Transaction tx = beginTransaction();
+              RelationshipScanCursor cursor = tx.cursors().allocateRelationshipScanCursor() )
+        {
+            if ( byType )
+            {
+                tx.dataRead().relationshipTypeScan( type, cursor );
+            }
+            else
+            {
+                tx.dataRead().allRelationshipsScan( cursor );
+            }
+            return drain( cursor );
+        }
+    }
+
+    @Benchmark
+    public long parallelScan() throws Exception
+    {
+        try ( Transaction tx = beginTransaction() )
+        {
+            Scan<RelationshipScanCursor> scan = byType ? tx.dataRead().relationshipTypeScan( type ) : tx.dataRead().allRelationshipsScan();
+            List<RelationshipScanCursor> cursors = new ArrayList<>( workers );
+            try
+            {
+                for ( int i = 0; i < workers; i++ )
+                {
+                    RelationshipScanCursor cursor = tx.cursors().allocateRelationshipScanCursor();
+                    cursors.add( cursor );
+                    scan.initialize( cursor );
+                }
+                List<Future<Long>> scans = new ArrayList<>( workers );
+                for ( RelationshipScanCursor cursor : cursors )
+                {
+                    scans.add( executor.submit( () -> drain( cursor ) ) );
+                }
+                long sum = 0;
+                for ( Future<Long> worker : scans )
+                {
+                    sum += worker.get();
+                }
+                return sum;
+            }
+            finally
+            {
+                cursors.forEach( RelationshipScanCursor::close );
+            }
+        }
+    }
+
+    private Transaction beginTransaction() throws Exception
+    {
+        return kernel.beginTransaction( Transaction.Type.implicit, LoginContext.AUTH_DISABLED );
+    }
+
+    private static long drain( RelationshipScanCursor cursor )
+    {
+        long sum = 0;
+        while ( cursor.next() )
+        {
+            sum += cursor.sourceNodeReference() + cursor.targetNodeReference();
+        }
+        return sum;
+    }
+}
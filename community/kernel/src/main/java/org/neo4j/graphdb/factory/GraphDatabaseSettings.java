@@ -35,6 +35,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.AdvertisedSocketAddress;
 import org.neo4j.helpers.ListenSocketAddress;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.kernel.configuration.BoltConnectorValidator;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
@@ -235,11 +236,18 @@ public class GraphDatabaseSettings implements LoadableConfig
             "simply not performed and execution continues." )
     public static final Setting<Boolean> cypher_lenient_create_relationship = setting( "cypher.lenient_create_relationship", BOOLEAN, FALSE );
 
+    @Description( "The amount of heap memory that the sorting, aggregating, distinct, eager and hash join operators of a single " +
+            "Cypher query may use together to hold rows. An operator that would exceed it writes rows to temporary files " +
+            "instead and continues with an external merge sort, or a partitioned aggregation or join. Only the interpreted " +
+            "runtime spills rows. Zero means 'unlimited'." )
+    public static final Setting<Long> cypher_query_memory_budget =
+            buildSetting( "cypher.query_memory_budget", BYTES, "0" ).constraint( min( 0L ) ).build();
+
     @Description( "Set this to specify the default runtime for the default language version." )
     @Internal
     public static final Setting<String> cypher_runtime = setting(
             "unsupported.cypher.runtime",
-        optionsIgnoreCase( "INTERPRETED", "COMPILED", "SLOTTED" , "MORSEL", DEFAULT ), DEFAULT );
+        optionsIgnoreCase( "INTERPRETED", "COMPILED", "SLOTTED" , "MORSEL", "PARALLEL", DEFAULT ), DEFAULT );
 
     @Description( "Choose the expression engine. The default is to only compile expressions that are hot, if 'COMPILED' " +
                   "is chosen all expressions will be compiled directly and if 'INTERPRETED' is chosen expressions will " +
@@ -253,6 +261,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> cypher_expression_recompilation_limit =
             buildSetting( "unsupported.cypher.expression_recompilation_limit", INTEGER, "1" ).constraint( min( 0 ) ).build();
 
+    @Description( "Use array backed rows, with slots assigned when the plan is built, in the interpreted runtime. " +
+                  "Node and relationship ids are kept in primitive slots, which makes copying rows cheaper." )
+    @Internal
+    public static final Setting<Boolean> cypher_interpreted_slotted_rows =
+            setting( "unsupported.cypher.interpreted_slotted_rows", BOOLEAN, FALSE );
+
     @Description( "Enable tracing of compilation in cypher." )
     @Internal
     public static final Setting<Boolean> cypher_compiler_tracing = setting( "unsupported.cypher.compiler_tracing", BOOLEAN, FALSE );
@@ -261,6 +275,18 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Integer> query_cache_size =
             buildSetting( "dbms.query_cache_size", INTEGER, "1000" ).constraint( min( 0 ) ).build();
 
+    @Description( "The number of the most frequently executed queries in the query cache to record when the database " +
+                  "stops, so that they can be planned again when it starts, before it accepts Bolt connections. " +
+                  "This avoids planning the whole workload while serving it after a restart. 0 disables this." )
+    public static final Setting<Integer> query_cache_warmup_size =
+            buildSetting( "dbms.query_cache_warmup_size", INTEGER, "0" ).constraint( min( 0 ) ).build();
+
+    @Description( "The maximum time the database waits for the query cache warmup when it starts, before it accepts " +
+                  "Bolt connections. Queries that have not been planned by then are planned in the background, " +
+                  "while the database serves its workload." )
+    public static final Setting<Duration> query_cache_warmup_timeout =
+            setting( "dbms.query_cache_warmup_timeout", DURATION, "5m" );
+
     @Description( "The threshold when a plan is considered stale. If any of the underlying " +
                   "statistics used to create the plan have changed more than this value, " +
                   "the plan will be considered stale and will be replanned. Change is calculated as " +
@@ -478,6 +504,13 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Duration> counts_store_rotation_timeout =
             setting( "unsupported.dbms.counts_store_rotation_timeout", DURATION, "10m" );
 
+    @Description( "Use a counts store backed by a GB+Tree instead of the rotating counts store. The GB+Tree counts store " +
+            "only flushes the changed pages on checkpoint. It is kept in a separate file, which is rebuilt from the node " +
+            "and relationship stores when missing." )
+    @Internal
+    public static final Setting<Boolean> counts_store_gbptree =
+            setting( "unsupported.dbms.counts_store_gbptree", BOOLEAN, FALSE );
+
     @Description( "Minimum time interval after last rotation of the user log before it may be rotated again." )
     public static final Setting<Duration> store_user_log_rotation_delay =
             setting( "dbms.logs.user.rotation.delay", DURATION, "300s" );
@@ -701,6 +734,35 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Internal
     public static final Setting<Boolean> fail_on_corrupted_log_files = setting("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOLEAN, TRUE );
 
+    @Description( "Append transactions to the transaction log from a dedicated thread, which writes and forces " +
+            "transactions from many committing threads in batches." )
+    @Internal
+    public static final Setting<Boolean> tx_log_async_appender =
+            setting( "unsupported.dbms.tx_log.async_appender", BOOLEAN, FALSE );
+
+    @Description( "Maximum number of commit requests that the asynchronous transaction log appender writes and " +
+            "forces as one batch." )
+    @Internal
+    public static final Setting<Integer> tx_log_async_appender_max_batch_size =
+            buildSetting( "unsupported.dbms.tx_log.async_appender.max_batch_size", INTEGER, "256" ).constraint( min( 1 ) ).build();
+
+    @Description( "Maximum time that the asynchronous transaction log appender waits for more commit requests " +
+            "before forcing a batch that isn't full. The default of zero forces as soon as the previous force is done." )
+    @Internal
+    public static final Setting<Duration> tx_log_async_appender_max_batch_latency =
+            setting( "unsupported.dbms.tx_log.async_appender.max_batch_latency", DURATION, "0ms" );
+
+    @Description( "Number of threads used to apply transactions during recovery. Transactions that do not touch " +
+            "the same records are applied concurrently. The default of 1 recovers one transaction at a time." )
+    @Internal
+    public static final Setting<Integer> recovery_parallel_workers =
+            buildSetting( "unsupported.dbms.recovery.parallel_workers", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
+    @Description( "Maximum number of transactions that are applied as one concurrent batch during parallel recovery." )
+    @Internal
+    public static final Setting<Integer> recovery_parallel_batch_size =
+            buildSetting( "unsupported.dbms.recovery.parallel_batch_size", INTEGER, "1000" ).constraint( min( 1 ) ).build();
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
@@ -743,18 +805,54 @@ public class GraphDatabaseSettings implements LoadableConfig
 
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-                  "warmup after a restart, reducing the mean time to performance. " +
-                  "This feature available in Neo4j Enterprise Edition." )
+                  "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             setting( "unsupported.dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
 
     @Internal
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior." )
     public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
 
+    @Internal
+    @Description( "Keep profiles of the cached pages of a database in the profiles directory of that database, and " +
+            "load the profiled pages back in when the database starts. This is off by default, since the profiles are " +
+            "then included in dumps of the database. It only has an effect when page cache warmup is enabled, " +
+            "which it is by default." )
+    public static final Setting<Boolean> pagecache_warmup_profiles_in_database_directory =
+            setting( "unsupported.dbms.memory.pagecache.warmup.profiles_in_database_directory", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "Whether the page cache warmup should be done before the database becomes available, " +
+            "or in the background, concurrently with the database serving queries." )
+    public static final Setting<Boolean> pagecache_warmup_blocking =
+            setting( "unsupported.dbms.memory.pagecache.warmup.blocking", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "Limit the number of pages per second that a background page cache warmup is allowed to load, " +
+            "to leave IO capacity for the queries that run concurrently with it. " +
+            "Set this to -1 to disable the limit." )
+    public static final Setting<Integer> pagecache_warmup_pages_per_second_limit =
+            setting( "unsupported.dbms.memory.pagecache.warmup.pages_per_second.limit", INTEGER, "-1" );
+
+    @Internal
+    @Description( "The policy that the page cache uses to choose which pages to evict, when it needs free pages. " +
+            "CLOCK approximates least-recently-used, while SCAN_RESISTANT keeps the frequently used pages in the " +
+            "cache while large scans pass through it." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            setting( "unsupported.dbms.memory.pagecache.eviction_policy", optionsIgnoreCase( EvictionPolicy.class ),
+                    EvictionPolicy.CLOCK.name() );
+
+    @Internal
+    @Description( "Whether the page cache should use direct I/O for the store files, bypassing the operating system " +
+            "page cache, so that store data isn't cached in memory twice. This requires a JVM of version 10 or later " +
+            "and a file system which supports direct I/O. Pages of record stores, whose page size isn't a multiple of the " +
+            "file system block size, are read and written through whole blocks. Files which can't be opened for direct " +
+            "I/O still use buffered I/O, and a warning is logged for each of them." )
+    public static final Setting<Boolean> pagecache_direct_io =
+            setting( "unsupported.dbms.memory.pagecache.direct_io", BOOLEAN, FALSE );
+
     @Description( "Allows the enabling or disabling of the file watcher service." +
             " This is an auxiliary service but should be left enabled in almost all cases." )
     public static final Setting<Boolean> filewatcher_enabled = setting( "dbms.filewatcher.enabled", BOOLEAN, TRUE );
@@ -1077,6 +1175,13 @@ public class GraphDatabaseSettings implements LoadableConfig
             .constraint( min( 0L ) )
             .build();
 
+    @Description( "The maximum amount of off-heap memory that a single transaction can use to store its transaction state data. " +
+            "A transaction that needs more fails. Zero means 'unlimited'. Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+    public static final Setting<Long> tx_state_max_off_heap_memory_per_transaction = buildSetting(
+            "dbms.tx_state.max_off_heap_memory_per_transaction", BYTES, "0" )
+            .constraint( min( 0L ) )
+            .build();
+
     @Description( "Defines the maximum size of an off-heap memory block that can be cached to speed up allocations for transaction state data. " +
             "The value must be a power of 2." )
     public static final Setting<Long> tx_state_off_heap_max_cacheable_block_size = buildSetting(
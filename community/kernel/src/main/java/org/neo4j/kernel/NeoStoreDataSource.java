@@ -83,6 +83,7 @@ import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ReentrantLockService;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
@@ -99,6 +100,7 @@ import org.neo4j.kernel.impl.storemigration.monitoring.VisibleMigrationProgressM
 import org.neo4j.kernel.impl.storemigration.participant.StoreMigrator;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
+import org.neo4j.kernel.impl.transaction.log.AsyncTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogVersionUpgradeChecker;
@@ -128,6 +130,7 @@ import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotationImpl;
 import org.neo4j.kernel.impl.transaction.state.DefaultIndexProviderMap;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
+import org.neo4j.kernel.impl.transaction.stats.TransactionLogBatchStats;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.impl.util.SynchronizedArrayIdOrderingQueue;
 import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
@@ -155,6 +158,7 @@ import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.internal.LogService;
 import org.neo4j.resources.CpuClock;
 import org.neo4j.resources.HeapAllocation;
+import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreFileMetadata;
@@ -426,6 +430,11 @@ public class NeoStoreDataSource extends LifecycleAdapter
         }
 
         life.add( new DatabaseDiagnostics( dataSourceDependencies.resolveDependency( DiagnosticsManager.class ), this, databaseInfo ) );
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_profiles_in_database_directory ) )
+        {
+            life.add( new PageCacheWarmer( fs, pageCache, scheduler, databaseLayout.databaseDirectory(), config,
+                    logService.getInternalLog( PageCacheWarmer.class ) ) );
+        }
         life.add( databaseAvailability );
         life.setLast( lifecycleToTriggerCheckPointOnShutdown() );
 
@@ -535,9 +544,25 @@ public class NeoStoreDataSource extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( monitors.newMonitor( LogRotation.Monitor.class ), logFiles, databaseHealth );
 
-        final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
-                databaseHealth ) );
+        final TransactionAppender appender;
+        if ( config.get( GraphDatabaseSettings.tx_log_async_appender ) )
+        {
+            // Batch sizes and force times of the appender are made available to metrics through these counters
+            TransactionLogBatchStats batchStats = dataSourceDependencies.satisfyDependency( new TransactionLogBatchStats() );
+            monitors.addMonitorListener( batchStats );
+            appender = life.add( new AsyncTransactionAppender(
+                    logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                    databaseHealth, scheduler.threadFactory( Group.TRANSACTION_LOG_APPENDER ), tracers.transactionTracer,
+                    monitors.newMonitor( AsyncTransactionAppender.Monitor.class ),
+                    config.get( GraphDatabaseSettings.tx_log_async_appender_max_batch_size ),
+                    config.get( GraphDatabaseSettings.tx_log_async_appender_max_batch_latency ).toNanos(), TimeUnit.NANOSECONDS ) );
+        }
+        else
+        {
+            appender = life.add( new BatchingTransactionAppender(
+                    logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
+                    databaseHealth ) );
+        }
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors,
                         failOnCorruptedLogFiles );
@@ -571,7 +596,9 @@ public class NeoStoreDataSource extends LifecycleAdapter
             LogVersionRepository logVersionRepository )
     {
         RecoveryService recoveryService = new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                logicalTransactionStore, logVersionRepository, positionMonitor );
+                logicalTransactionStore, logVersionRepository, positionMonitor, recoveryMonitor,
+                config.get( GraphDatabaseSettings.recovery_parallel_workers ),
+                config.get( GraphDatabaseSettings.recovery_parallel_batch_size ), scheduler );
         CorruptedLogsTruncator logsTruncator = new CorruptedLogsTruncator( databaseLayout.databaseDirectory(), logFiles, fileSystemAbstraction );
         ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ) );
         Recovery recovery = new Recovery( recoveryService, logsTruncator, recoveryMonitor, progressReporter, failOnCorruptedLogFiles );
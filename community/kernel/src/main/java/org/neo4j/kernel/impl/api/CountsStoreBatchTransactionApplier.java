@@ -22,26 +22,26 @@ package org.neo4j.kernel.impl.api;
 import java.io.IOException;
 import java.util.Optional;
 
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
 public class CountsStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
 {
-    private final CountsTracker countsTracker;
-    private CountsTracker.Updater countsUpdater;
+    private final CountsStore countsStore;
+    private CountsAccessor.Updater countsUpdater;
     private final TransactionApplicationMode mode;
 
-    public CountsStoreBatchTransactionApplier( CountsTracker countsTracker, TransactionApplicationMode mode )
+    public CountsStoreBatchTransactionApplier( CountsStore countsStore, TransactionApplicationMode mode )
     {
-        this.countsTracker = countsTracker;
+        this.countsStore = countsStore;
         this.mode = mode;
     }
 
     @Override
     public TransactionApplier startTx( CommandsToApply transaction )
     {
-        Optional<CountsAccessor.Updater> result = countsTracker.apply( transaction.transactionId() );
+        Optional<CountsAccessor.Updater> result = countsStore.apply( transaction.transactionId() );
         result.ifPresent( updater -> this.countsUpdater = updater );
         assert this.countsUpdater != null || mode == TransactionApplicationMode.RECOVERY;
 
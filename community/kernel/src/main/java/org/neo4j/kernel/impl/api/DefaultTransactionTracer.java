@@ -166,6 +166,12 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         return transactionEvent;
     }
 
+    @Override
+    public LogAppendEvent beginLogBatchAppend()
+    {
+        return logAppendEvent;
+    }
+
     @Override
     public long numberOfLogRotationEvents()
     {
@@ -33,5 +33,6 @@ public class IndexCountsRemover
     public void remove()
     {
         storeView.replaceIndexCounts( indexId, 0, 0, 0 );
+        storeView.replaceIndexHistogram( indexId, null );
     }
 }
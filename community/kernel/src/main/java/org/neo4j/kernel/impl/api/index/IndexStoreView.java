@@ -29,6 +29,7 @@ import org.neo4j.kernel.api.index.NodePropertyAccessor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.storageengine.api.EntityType;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.util.VisibleForTesting;
 import org.neo4j.values.storable.Value;
@@ -84,6 +85,10 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
 
     void replaceIndexCounts( long indexId, long uniqueElements, long maxUniqueElements, long indexSize );
 
+    IndexValueHistogram indexHistogram( long indexId );
+
+    void replaceIndexHistogram( long indexId, IndexValueHistogram histogram );
+
     void incrementIndexUpdates( long indexId, long updatesDelta );
 
     @SuppressWarnings( "rawtypes" )
@@ -150,6 +155,17 @@ public interface IndexStoreView extends NodePropertyAccessor, PropertyLoader
         {
         }
 
+        @Override
+        public IndexValueHistogram indexHistogram( long indexId )
+        {
+            return null;
+        }
+
+        @Override
+        public void replaceIndexHistogram( long indexId, IndexValueHistogram histogram )
+        {
+        }
+
         @Override
         public EntityUpdates nodeAsUpdates( long nodeId )
         {
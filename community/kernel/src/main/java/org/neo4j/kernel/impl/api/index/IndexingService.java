@@ -76,6 +76,7 @@ import org.neo4j.register.Registers;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.values.storable.Value;
 
@@ -475,6 +476,11 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         }
     }
 
+    public IndexValueHistogram indexValueHistogram( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return storeView.indexHistogram( indexMapRef.getOnlineIndexId( descriptor ) );
+    }
+
     @Override
     public void validateBeforeCommit( SchemaDescriptor index, Value[] tuple )
     {
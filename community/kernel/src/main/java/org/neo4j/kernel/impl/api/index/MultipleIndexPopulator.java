@@ -301,6 +301,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     private void resetIndexCountsForPopulation( IndexPopulation indexPopulation )
     {
         storeView.replaceIndexCounts( indexPopulation.indexId, 0, 0, 0 );
+        storeView.replaceIndexHistogram( indexPopulation.indexId, null );
     }
 
     void flipAfterPopulation( boolean verifyBeforeFlipping )
@@ -574,6 +575,7 @@ public class MultipleIndexPopulator implements IndexPopulator
                             }
                             IndexSample sample = populator.sampleResult();
                             storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(), sample.indexSize() );
+                            storeView.replaceIndexHistogram( indexId, sample.histogram() );
                             populator.close( true );
                             schemaState.clear();
                             return true;
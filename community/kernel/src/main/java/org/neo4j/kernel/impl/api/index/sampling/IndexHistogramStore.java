@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
+import org.neo4j.values.storable.BooleanValue;
+import org.neo4j.values.storable.FloatingPointValue;
+import org.neo4j.values.storable.IntegralValue;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.TextValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Keeps the {@link IndexValueHistogram value histograms} of sampled indexes, by index id.
+ * <p>
+ * Histograms live in memory and are written to a file next to the counts store on {@link #flush()}, if any of them
+ * changed since the previous flush. Histograms can always be sampled again from the indexes, so a missing or
+ * unreadable file only means that there are no histograms until the indexes are sampled again.
+ */
+public class IndexHistogramStore
+{
+    public static final String FILE_NAME = "neostore.indexhistograms.db";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final byte INTEGRAL = 0;
+    private static final byte FLOATING_POINT = 1;
+    private static final byte TEXT = 2;
+    private static final byte BOOLEAN = 3;
+
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final Log log;
+    private final ConcurrentMap<Long,IndexValueHistogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean changed;
+
+    /**
+     * Creates a store which only keeps histograms in memory.
+     */
+    public IndexHistogramStore()
+    {
+        this( null, null, NullLog.getInstance() );
+    }
+
+    public IndexHistogramStore( FileSystemAbstraction fs, File file, LogProvider logProvider )
+    {
+        this( fs, file, logProvider.getLog( IndexHistogramStore.class ) );
+    }
+
+    private IndexHistogramStore( FileSystemAbstraction fs, File file, Log log )
+    {
+        this.fs = fs;
+        this.file = file;
+        this.log = log;
+    }
+
+    /**
+     * @param indexId id of the index.
+     * @return the histogram of the index, or {@code null} if there is none.
+     */
+    public IndexValueHistogram histogram( long indexId )
+    {
+        return histograms.get( indexId );
+    }
+
+    /**
+     * @param indexId id of the index.
+     * @param histogram the new histogram of the index, or {@code null} to remove the histogram of the index.
+     */
+    public void replace( long indexId, IndexValueHistogram histogram )
+    {
+        IndexValueHistogram previous = histogram == null ? histograms.remove( indexId ) : histograms.put( indexId, histogram );
+        if ( previous != histogram )
+        {
+            changed = true;
+        }
+    }
+
+    /**
+     * Reads the histograms written by the latest {@link #flush()}.
+     */
+    public void load()
+    {
+        if ( file == null || !fs.fileExists( file ) )
+        {
+            return;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( fs.openAsInputStream( file ) ) ) )
+        {
+            int version = in.readInt();
+            if ( version != FORMAT_VERSION )
+            {
+                log.warn( "Ignoring index histograms in %s of unknown format version %d", file, version );
+                return;
+            }
+            int count = in.readInt();
+            for ( int i = 0; i < count; i++ )
+            {
+                long indexId = in.readLong();
+                histograms.put( indexId, readHistogram( in ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            histograms.clear();
+            log.warn( "Unable to read index histograms from " + file + ", indexes need to be sampled again", e );
+        }
+        changed = false;
+    }
+
+    /**
+     * Writes all histograms to file, if they have changed since they were last written.
+     */
+    public synchronized void flush()
+    {
+        if ( file == null || !changed )
+        {
+            return;
+        }
+        changed = false;
+        File tempFile = new File( file.getParentFile(), file.getName() + ".tmp" );
+        try
+        {
+            try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( fs.openAsOutputStream( tempFile, false ) ) ) )
+            {
+                Map<Long,IndexValueHistogram> snapshot = new HashMap<>( histograms );
+                out.writeInt( FORMAT_VERSION );
+                out.writeInt( snapshot.size() );
+                for ( Map.Entry<Long,IndexValueHistogram> entry : snapshot.entrySet() )
+                {
+                    out.writeLong( entry.getKey() );
+                    writeHistogram( out, entry.getValue() );
+                }
+            }
+            fs.renameFile( tempFile, file, REPLACE_EXISTING );
+        }
+        catch ( IOException e )
+        {
+            changed = true;
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static void writeHistogram( DataOutputStream out, IndexValueHistogram histogram ) throws IOException
+    {
+        out.writeLong( histogram.totalCount() );
+        out.writeInt( histogram.buckets() );
+        for ( int i = 0; i < histogram.buckets(); i++ )
+        {
+            writeValue( out, histogram.bucketLowerBound( i ) );
+            writeValue( out, histogram.bucketUpperBound( i ) );
+            out.writeLong( histogram.bucketCount( i ) );
+            out.writeLong( histogram.bucketDistinctValues( i ) );
+        }
+        out.writeInt( histogram.mostCommonValues() );
+        for ( int i = 0; i < histogram.mostCommonValues(); i++ )
+        {
+            writeValue( out, histogram.mostCommonValue( i ) );
+            out.writeLong( histogram.mostCommonValueCount( i ) );
+        }
+    }
+
+    private static IndexValueHistogram readHistogram( DataInputStream in ) throws IOException
+    {
+        long totalCount = in.readLong();
+        int buckets = in.readInt();
+        Value[] lowerBounds = new Value[buckets];
+        Value[] upperBounds = new Value[buckets];
+        long[] bucketCounts = new long[buckets];
+        long[] bucketDistinctValues = new long[buckets];
+        for ( int i = 0; i < buckets; i++ )
+        {
+            lowerBounds[i] = readValue( in );
+            upperBounds[i] = readValue( in );
+            bucketCounts[i] = in.readLong();
+            bucketDistinctValues[i] = in.readLong();
+        }
+        int mostCommon = in.readInt();
+        Value[] mostCommonValues = new Value[mostCommon];
+        long[] mostCommonCounts = new long[mostCommon];
+        for ( int i = 0; i < mostCommon; i++ )
+        {
+            mostCommonValues[i] = readValue( in );
+            mostCommonCounts[i] = in.readLong();
+        }
+        return new IndexValueHistogram( totalCount, lowerBounds, upperBounds, bucketCounts, bucketDistinctValues,
+                mostCommonValues, mostCommonCounts );
+    }
+
+    private static void writeValue( DataOutputStream out, Value value ) throws IOException
+    {
+        if ( value instanceof IntegralValue )
+        {
+            out.writeByte( INTEGRAL );
+            out.writeLong( ((NumberValue) value).longValue() );
+        }
+        else if ( value instanceof FloatingPointValue )
+        {
+            out.writeByte( FLOATING_POINT );
+            out.writeDouble( ((NumberValue) value).doubleValue() );
+        }
+        else if ( value instanceof TextValue )
+        {
+            byte[] bytes = ((TextValue) value).stringValue().getBytes( UTF_8 );
+            out.writeByte( TEXT );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+        else if ( value instanceof BooleanValue )
+        {
+            out.writeByte( BOOLEAN );
+            out.writeBoolean( ((BooleanValue) value).booleanValue() );
+        }
+        else
+        {
+            throw new IllegalArgumentException( "Histograms can not contain " + value );
+        }
+    }
+
+    private static Value readValue( DataInputStream in ) throws IOException
+    {
+        byte type = in.readByte();
+        switch ( type )
+        {
+        case INTEGRAL:
+            return Values.longValue( in.readLong() );
+        case FLOATING_POINT:
+            return Values.doubleValue( in.readDouble() );
+        case TEXT:
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully( bytes );
+            return Values.utf8Value( bytes );
+        case BOOLEAN:
+            return Values.booleanValue( in.readBoolean() );
+        default:
+            throw new IOException( "Unknown histogram value type " + type );
+        }
+    }
+}
@@ -73,6 +73,7 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                     {
                         storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(),
                                 sample.indexSize() );
+                        storeView.replaceIndexHistogram( indexId, sample.histogram() );
                         durationLogger.markAsFinished();
                         log.debug(
                                 format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
@@ -26,13 +26,14 @@ import org.eclipse.collections.api.set.primitive.LongSet;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
-import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.storageengine.api.RelationshipDirection;
 
-import static java.lang.Math.toIntExact;
-
 /**
  * Maintains relationships that have been added for a specific node.
  * <p/>
@@ -68,20 +69,22 @@ public class RelationshipChangesForNode
     }
 
     private final DiffStrategy diffStrategy;
+    private final CollectionsFactory collectionsFactory;
 
     private MutableIntObjectMap<MutableLongSet> outgoing;
     private MutableIntObjectMap<MutableLongSet> incoming;
     private MutableIntObjectMap<MutableLongSet> loops;
 
-    public RelationshipChangesForNode( DiffStrategy diffStrategy )
+    public RelationshipChangesForNode( DiffStrategy diffStrategy, CollectionsFactory collectionsFactory )
     {
         this.diffStrategy = diffStrategy;
+        this.collectionsFactory = collectionsFactory;
     }
 
     public void addRelationship( long relId, int typeId, RelationshipDirection direction )
     {
         final MutableIntObjectMap<MutableLongSet> relTypeToRelsMap = getTypeToRelMapForDirection( direction );
-        final MutableLongSet rels = relTypeToRelsMap.getIfAbsentPut( typeId, LongHashSet::new );
+        final MutableLongSet rels = relTypeToRelsMap.getIfAbsentPut( typeId, collectionsFactory::newLongSet );
 
         rels.add( relId );
     }
@@ -224,10 +227,11 @@ public class RelationshipChangesForNode
             return ImmutableEmptyLongIterator.INSTANCE;
         }
 
-        final int size = toIntExact( map.sumOfInt( LongSet::size ) );
-        final MutableLongSet ids = new LongHashSet( size );
-        map.values().forEach( ids::addAll );
-        return ids.longIterator();
+        // A relationship has a single type and direction in relation to this node, so the sets are disjoint
+        // and can be iterated one after the other, instead of being copied into one set on heap
+        final List<LongIterator> ids = new ArrayList<>( map.size() );
+        map.forEachValue( relationships -> ids.add( relationships.freeze().longIterator() ) );
+        return PrimitiveLongCollections.concat( ids );
     }
 
     private static LongIterator primitiveIdsByType( IntObjectMap<MutableLongSet> map, int type )
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.LabelScan;
+
+/**
+ * {@link LabelScan} over a {@link NativeLabelScanStore}. Batches are whole {@link LabelScanKey#idRange id ranges} of a label,
+ * so that each batch is read from the tree by a single seek over a contiguous range of keys.
+ */
+class NativeLabelScan implements LabelScan
+{
+    private final GBPTree<LabelScanKey,LabelScanValue> index;
+    private final int labelId;
+    private final long highestRange;
+    private final AtomicLong nextRange = new AtomicLong();
+
+    NativeLabelScan( GBPTree<LabelScanKey,LabelScanValue> index, int labelId )
+    {
+        this.index = index;
+        this.labelId = labelId;
+        this.highestRange = highestRange( index, labelId );
+    }
+
+    @Override
+    public IndexProgressor nextBatch( IndexProgressor.NodeLabelClient client, int sizeHint )
+    {
+        long ranges = Math.max( 1, (sizeHint + LabelScanValue.RANGE_SIZE - 1) / LabelScanValue.RANGE_SIZE );
+        long fromRange = nextRange.getAndAdd( ranges );
+        if ( fromRange > highestRange )
+        {
+            return null;
+        }
+
+        try
+        {
+            RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor =
+                    index.seek( new LabelScanKey( labelId, fromRange ), new LabelScanKey( labelId, fromRange + ranges ) );
+            // The progressor closes its own cursor, there's no reader around to keep track of it
+            return new LabelScanValueIndexProgressor( cursor, Collections.emptySet(), client );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static long highestRange( GBPTree<LabelScanKey,LabelScanValue> index, int labelId )
+    {
+        // Seek backwards to find the last range of this label
+        try ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor =
+                      index.seek( new LabelScanKey( labelId, Long.MAX_VALUE ), new LabelScanKey( labelId, -1 ) ) )
+        {
+            return cursor.next() ? cursor.get().key().idRange : -1;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
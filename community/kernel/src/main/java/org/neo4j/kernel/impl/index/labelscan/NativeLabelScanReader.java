@@ -34,6 +34,7 @@ import org.neo4j.graphdb.index.Index;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.LabelScan;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 
 import static org.neo4j.kernel.impl.index.labelscan.NativeLabelScanWriter.rangeOf;
@@ -129,6 +130,12 @@ class NativeLabelScanReader implements LabelScanReader
         client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
     }
 
+    @Override
+    public LabelScan nodeLabelScan( int labelId )
+    {
+        return new NativeLabelScan( index, labelId );
+    }
+
     private List<PrimitiveLongResourceIterator> iteratorsForLabels( long fromId, int[] labelIds )
     {
         List<PrimitiveLongResourceIterator> iterators = new ArrayList<>();
@@ -27,9 +27,12 @@ import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
 import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
+import org.neo4j.values.storable.Value;
 
 /**
  * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #result()}.
+ * Since the scan visits the values in order it also builds the {@link IndexValueHistogram} of the index.
  *
  * @param <KEY> type of keys in tree.
  * @param <VALUE> type of values in tree.
@@ -56,6 +59,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         highest.initialize( Long.MAX_VALUE );
         highest.initValuesAsHighest();
         KEY prev = layout.newKey();
+        IndexValueHistogram.Builder histogram = new IndexValueHistogram.Builder();
         try ( RawCursor<Hit<KEY,VALUE>,IOException> seek = gbpTree.seek( lowest, highest ) )
         {
             long sampledValues = 0;
@@ -67,6 +71,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                 prev = layout.copyKey( seek.get().key(), prev );
                 sampledValues++;
                 uniqueValues++;
+                long duplicates = 1;
 
                 // Then do the rest
                 while ( seek.next() )
@@ -75,13 +80,17 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     if ( layout.compareValue( prev, hit.key() ) != 0 )
                     {
                         uniqueValues++;
+                        addToHistogram( histogram, prev, duplicates );
+                        duplicates = 0;
                         layout.copyKey( hit.key(), prev );
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
+                    duplicates++;
                 }
+                addToHistogram( histogram, prev, duplicates );
             }
-            return new IndexSample( sampledValues, uniqueValues, sampledValues );
+            return new IndexSample( sampledValues, uniqueValues, sampledValues, histogram.build() );
         }
         catch ( IOException e )
         {
@@ -89,6 +98,20 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         }
     }
 
+    private static void addToHistogram( IndexValueHistogram.Builder histogram, NativeIndexKey<?> key, long count )
+    {
+        Value[] values = key.asValues();
+        if ( values.length == 1 )
+        {
+            histogram.add( values[0], count );
+        }
+        else
+        {
+            // Composite keys are only counted, the histogram describes single property indexes
+            histogram.addUndescribed( count );
+        }
+    }
+
     @Override
     public IndexSample result( int numDocs )
     {
@@ -45,14 +45,12 @@ import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLIN
 public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> extends NativeIndex<KEY,VALUE>
         implements IndexAccessor
 {
-    private final NativeIndexUpdater<KEY,VALUE> singleUpdater;
     final NativeIndexHeaderWriter headerWriter;
 
     NativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<KEY,VALUE> layout,
             IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter )
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor );
-        singleUpdater = new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
         headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter );
     }
 
@@ -70,13 +68,17 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         }
     }
 
+    /**
+     * Each updater writes using its own {@link org.neo4j.index.internal.gbptree.GBPTree#parallelWriter() parallel writer},
+     * so several updaters can be open, and used by different threads, at the same time.
+     */
     @Override
     public NativeIndexUpdater<KEY, VALUE> newUpdater( IndexUpdateMode mode )
     {
         assertOpen();
         try
         {
-            return singleUpdater.initialize( tree.writer() );
+            return new NativeIndexUpdater<>( layout.newKey(), layout.newValue() ).initialize( tree.parallelWriter() );
         }
         catch ( IOException e )
         {
@@ -66,14 +66,9 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     static final byte BYTE_ONLINE = 1;
     static final byte BYTE_POPULATING = 2;
 
-    private final KEY treeKey;
-    private final VALUE treeValue;
     private final UniqueIndexSampler uniqueSampler;
     private final Consumer<PageCursor> additionalHeaderWriter;
 
-    private ConflictDetectingValueMerger<KEY,VALUE> mainConflictDetector;
-    private ConflictDetectingValueMerger<KEY,VALUE> updatesConflictDetector;
-
     private byte[] failureBytes;
     private boolean dropped;
     private boolean closed;
@@ -82,8 +77,6 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
             StoreIndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter, OpenOption... openOptions )
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor, withNoStriping( openOptions ) );
-        this.treeKey = layout.newKey();
-        this.treeValue = layout.newValue();
         this.additionalHeaderWriter = additionalHeaderWriter;
         switch ( descriptor.type() )
         {
@@ -99,7 +92,8 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     }
 
     /**
-     * Because index population is effectively single-threaded. For parallel population each thread has its own part so single-threaded even there.
+     * Because the file of a populating index is new, so its pages are mostly created rather than read from the channel,
+     * even when several threads add to it. For parallel population each thread has its own part.
      */
     private static OpenOption[] withNoStriping( OpenOption[] openOptions )
     {
@@ -124,15 +118,11 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
 
         deleteFileIfPresent( fileSystem, storeFile );
         instantiateTree( RecoveryCleanupWorkCollector.immediate(), headerWriter );
-
-        // true:  tree uniqueness is (value,entityId)
-        // false: tree uniqueness is (value) <-- i.e. more strict
-        mainConflictDetector = getMainConflictDetector();
-        // for updates we have to have uniqueness on (value,entityId) to allow for intermediary violating updates.
-        // there are added conflict checks after updates have been applied.
-        updatesConflictDetector = new ConflictDetectingValueMerger<>( true );
     }
 
+    // Conflict detectors keep state between a merge and the following conflict check, so each call which adds updates gets its own.
+    // true:  tree uniqueness is (value,entityId)
+    // false: tree uniqueness is (value) <-- i.e. more strict
     ConflictDetectingValueMerger<KEY,VALUE> getMainConflictDetector()
     {
         return new ConflictDetectingValueMerger<>( descriptor.type() == GENERAL );
@@ -161,7 +151,7 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
     @Override
     public void add( Collection<? extends IndexEntryUpdate<?>> updates ) throws IndexEntryConflictException
     {
-        processUpdates( updates, mainConflictDetector );
+        processUpdates( updates, getMainConflictDetector() );
     }
 
     @Override
@@ -178,7 +168,9 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
 
     IndexUpdater newPopulatingUpdater()
     {
-        IndexUpdater updater = new CollectingIndexUpdater( updates -> processUpdates( updates, updatesConflictDetector ) );
+        // for updates we have to have uniqueness on (value,entityId) to allow for intermediary violating updates.
+        // there are added conflict checks after updates have been applied.
+        IndexUpdater updater = new CollectingIndexUpdater( updates -> processUpdates( updates, new ConflictDetectingValueMerger<>( true ) ) );
         if ( descriptor.type() == UNIQUE && canCheckConflictsWithoutStoreAccess() )
         {
             // The index population detects conflicts on the fly, however for updates coming in we're in a position
@@ -276,10 +268,16 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
         tree.checkpoint( IOLimiter.UNLIMITED, new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter ) );
     }
 
+    /**
+     * Updates are written using a {@link GBPTree#parallelWriter() parallel writer}, so that several threads can add
+     * to this populator at the same time.
+     */
     private void processUpdates( Iterable<? extends IndexEntryUpdate<?>> indexEntryUpdates, ConflictDetectingValueMerger<KEY,VALUE> conflictDetector )
             throws IndexEntryConflictException
     {
-        try ( Writer<KEY,VALUE> writer = tree.writer() )
+        KEY treeKey = layout.newKey();
+        VALUE treeValue = layout.newValue();
+        try ( Writer<KEY,VALUE> writer = tree.parallelWriter() )
         {
             for ( IndexEntryUpdate<?> indexEntryUpdate : indexEntryUpdates )
             {
@@ -69,7 +69,7 @@ public class NumberIndexProvider extends NativeIndexProvider<NumberIndexKey,Nati
     @Override
     protected IndexPopulator newIndexPopulator( File storeFile, NumberLayout layout, StoreIndexDescriptor descriptor )
     {
-        return new WorkSyncedNativeIndexPopulator<>( new NumberIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor ) );
+        return new NumberIndexPopulator( pageCache, fs, storeFile, layout, monitor, descriptor );
     }
 
     @Override
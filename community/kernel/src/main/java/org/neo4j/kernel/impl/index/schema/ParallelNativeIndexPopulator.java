@@ -43,6 +43,7 @@ import org.neo4j.util.VisibleForTesting;
 
 import static org.neo4j.helpers.collection.Iterables.safeForAll;
 import static org.neo4j.io.IOUtils.closeAll;
+import static org.neo4j.storageengine.api.schema.IndexDescriptor.Type.UNIQUE;
 
 /**
  * Takes a somewhat high-level approach to parallelizing index population. It could be done lower level and more efficiently,
@@ -134,6 +135,7 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
     @Override
     public void verifyDeferredConstraints( NodePropertyAccessor nodePropertyAccessor ) throws IndexEntryConflictException
     {
+        // Uniqueness is only checked within each part when adding, conflicts between parts are found when merging them
         ensureMerged();
         completePopulator.verifyDeferredConstraints( nodePropertyAccessor );
     }
@@ -142,6 +144,11 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
     public IndexUpdater newPopulatingUpdater( NodePropertyAccessor accessor )
     {
         // Native index populators don't make use of NodePropertyAccessor, so just ignore it
+        if ( merged )
+        {
+            // The parts are no longer read from, so updates must go straight into the complete index
+            return completePopulator.newPopulatingUpdater();
+        }
 
         // Don't have an explicit updatesPopulator, instead record these updates and then each populator will have to apply next time they notice.
         return new CollectingIndexUpdater( updates ->
@@ -164,7 +171,7 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
         {
             if ( populationCompletedSuccessfully )
             {
-                ensureMerged();
+                ensureMergedWithoutConflicts();
                 completePopulator.close( true );
             }
             else
@@ -200,14 +207,14 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
     @Override
     public IndexSample sampleResult()
     {
-        ensureMerged();
+        ensureMergedWithoutConflicts();
         return completePopulator.sampleResult();
     }
 
     @Override
     public void consistencyCheck()
     {
-        ensureMerged();
+        ensureMergedWithoutConflicts();
         completePopulator.consistencyCheck();
     }
 
@@ -215,8 +222,10 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
      * Will ensure that the merge have been done. This is a method which is called in several places because depending on population
      * parameters and scenarios different methods of this populator will be considered the first method after population to operate
      * on the complete index.
+     *
+     * @throws IndexEntryConflictException if this is a unique index and different parts contain the same value.
      */
-    private void ensureMerged()
+    private void ensureMerged() throws IndexEntryConflictException
     {
         if ( !merged )
         {
@@ -230,24 +239,47 @@ class ParallelNativeIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends
             {
                 throw new UncheckedIOException( e );
             }
-            catch ( IndexEntryConflictException e )
-            {
-                throw new IllegalStateException( e );
-            }
         }
     }
 
-    private void mergeParts() throws IOException
+    private void ensureMergedWithoutConflicts()
+    {
+        try
+        {
+            ensureMerged();
+        }
+        catch ( IndexEntryConflictException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private void mergeParts() throws IOException, IndexEntryConflictException
     {
         KEY from = layout.newKey();
         KEY to = layout.newKey();
         initKeysAsLowestAndHighest( from, to );
-        try ( Writer<KEY,VALUE> writer = completePopulator.tree.writer();
+        boolean unique = completePopulator.descriptor.type() == UNIQUE;
+        KEY previous = layout.newKey();
+        boolean hasPrevious = false;
+        // The parts are sorted runs and the complete tree is still empty, so it can be built bottom-up from the merged parts
+        try ( Writer<KEY,VALUE> writer = completePopulator.tree.bulkWriter();
               CombinedPartSeeker<KEY,VALUE> combinedPartSeeker = new CombinedPartSeeker<>( layout, partSeekers( from, to ) ) )
         {
             while ( combinedPartSeeker.next() )
             {
-                writer.put( combinedPartSeeker.key(), combinedPartSeeker.value() );
+                KEY key = combinedPartSeeker.key();
+                if ( unique )
+                {
+                    // Updates are applied to all parts, so the same entity may occur in several of them
+                    if ( hasPrevious && layout.compareValue( previous, key ) == 0 && previous.getEntityId() != key.getEntityId() )
+                    {
+                        throw new IndexEntryConflictException( previous.getEntityId(), key.getEntityId(), key.asValues() );
+                    }
+                    layout.copyKey( key, previous );
+                    hasPrevious = true;
+                }
+                writer.put( key, combinedPartSeeker.value() );
             }
         }
     }
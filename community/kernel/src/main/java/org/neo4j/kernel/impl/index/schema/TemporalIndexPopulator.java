@@ -43,7 +43,7 @@ import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
 import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexBase.forAll;
 import static org.neo4j.kernel.impl.index.schema.fusion.FusionIndexSampler.combineSamples;
 
-class TemporalIndexPopulator extends TemporalIndexCache<WorkSyncedNativeIndexPopulator<?,?>> implements IndexPopulator
+class TemporalIndexPopulator extends TemporalIndexCache<NativeIndexPopulator<?,?>> implements IndexPopulator
 {
     TemporalIndexPopulator( StoreIndexDescriptor descriptor, IndexSamplingConfig samplingConfig, TemporalIndexFiles temporalIndexFiles, PageCache pageCache,
                             FileSystemAbstraction fs, IndexProvider.Monitor monitor )
@@ -54,7 +54,7 @@ class TemporalIndexPopulator extends TemporalIndexCache<WorkSyncedNativeIndexPop
     @Override
     public synchronized void create()
     {
-        forAll( p -> p.getActual().clear(), this );
+        forAll( p -> p.clear(), this );
 
         // We must make sure to have at least one subindex:
         // to be able to persist failure and to have the right state in the beginning
@@ -151,7 +151,7 @@ class TemporalIndexPopulator extends TemporalIndexCache<WorkSyncedNativeIndexPop
         }
     }
 
-    static class PartFactory implements TemporalIndexCache.Factory<WorkSyncedNativeIndexPopulator<?,?>>
+    static class PartFactory implements TemporalIndexCache.Factory<NativeIndexPopulator<?,?>>
     {
         private final PageCache pageCache;
         private final FileSystemAbstraction fs;
@@ -172,46 +172,46 @@ class TemporalIndexPopulator extends TemporalIndexCache<WorkSyncedNativeIndexPop
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newDate()
+        public NativeIndexPopulator<?,?> newDate()
         {
             return create( temporalIndexFiles.date() );
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newLocalDateTime()
+        public NativeIndexPopulator<?,?> newLocalDateTime()
         {
             return create( temporalIndexFiles.localDateTime() );
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newZonedDateTime()
+        public NativeIndexPopulator<?,?> newZonedDateTime()
         {
             return create( temporalIndexFiles.zonedDateTime() );
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newLocalTime()
+        public NativeIndexPopulator<?,?> newLocalTime()
         {
             return create( temporalIndexFiles.localTime() );
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newZonedTime()
+        public NativeIndexPopulator<?,?> newZonedTime()
         {
             return create( temporalIndexFiles.zonedTime() );
         }
 
         @Override
-        public WorkSyncedNativeIndexPopulator<?,?> newDuration()
+        public NativeIndexPopulator<?,?> newDuration()
         {
             return create( temporalIndexFiles.duration() );
         }
 
-        private <KEY extends NativeIndexSingleValueKey<KEY>> WorkSyncedNativeIndexPopulator<KEY,?> create( TemporalIndexFiles.FileLayout<KEY> fileLayout )
+        private <KEY extends NativeIndexSingleValueKey<KEY>> NativeIndexPopulator<KEY,?> create( TemporalIndexFiles.FileLayout<KEY> fileLayout )
         {
             PartPopulator<KEY> populator = new PartPopulator<>( pageCache, fs, fileLayout, monitor, descriptor );
             populator.create();
-            return new WorkSyncedNativeIndexPopulator<>( populator );
+            return populator;
         }
     }
 }
@@ -26,6 +26,7 @@ import org.neo4j.helpers.Exceptions;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 
 public class FusionIndexSampler implements IndexSampler
 {
@@ -65,12 +66,17 @@ public class FusionIndexSampler implements IndexSampler
         long indexSize = 0;
         long uniqueValues = 0;
         long sampleSize = 0;
+        List<IndexValueHistogram> histograms = new ArrayList<>();
         for ( IndexSample sample : samples )
         {
             indexSize += sample.indexSize();
             uniqueValues += sample.uniqueValues();
             sampleSize += sample.sampleSize();
+            if ( sample.histogram() != null )
+            {
+                histograms.add( sample.histogram() );
+            }
         }
-        return new IndexSample( indexSize, uniqueValues, sampleSize );
+        return new IndexSample( indexSize, uniqueValues, sampleSize, IndexValueHistogram.combine( histograms, indexSize ) );
     }
 }
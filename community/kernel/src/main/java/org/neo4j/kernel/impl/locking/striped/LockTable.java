@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The {@link ResourceLock locks} of one {@link ResourceType}, spread over a number of independent stripes by resource
+ * id, so that clients locking different resources rarely touch the same map segments and counters.
+ * <p>
+ * Locks are created on demand and removed again when the last holder releases them, so the table only ever
+ * contains the locks that are held or being waited for.
+ */
+final class LockTable
+{
+    private final ResourceType resourceType;
+    private final ConcurrentHashMap<Long,ResourceLock>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings( "unchecked" )
+    LockTable( ResourceType resourceType, int stripeCount )
+    {
+        if ( Integer.bitCount( stripeCount ) != 1 )
+        {
+            throw new IllegalArgumentException( "Stripe count must be a power of two, but was " + stripeCount );
+        }
+        this.resourceType = resourceType;
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * @return the live lock for the given resource, creating it if needed. The returned lock may still be marked
+     * dead by a concurrent release, which callers detect when trying to acquire it.
+     */
+    ResourceLock lock( long resourceId )
+    {
+        ConcurrentHashMap<Long,ResourceLock> stripe = stripe( resourceId );
+        Long key = resourceId;
+        ResourceLock lock = stripe.get( key );
+        while ( lock == null || lock.isDead() )
+        {
+            if ( lock != null )
+            {
+                // Help the releasing client with removing the dead lock, so we can install a fresh one.
+                stripe.remove( key, lock );
+            }
+            ResourceLock created = new ResourceLock( resourceType, resourceId );
+            lock = stripe.putIfAbsent( key, created );
+            if ( lock == null )
+            {
+                return created;
+            }
+        }
+        return lock;
+    }
+
+    void remove( ResourceLock lock )
+    {
+        stripe( lock.resourceId() ).remove( lock.resourceId(), lock );
+    }
+
+    void forEach( Consumer<ResourceLock> consumer )
+    {
+        for ( ConcurrentHashMap<Long,ResourceLock> stripe : stripes )
+        {
+            for ( ResourceLock lock : stripe.values() )
+            {
+                if ( lock.isHeld() )
+                {
+                    consumer.accept( lock );
+                }
+            }
+        }
+    }
+
+    private ConcurrentHashMap<Long,ResourceLock> stripe( long resourceId )
+    {
+        // Mix the high bits in, since ids are allocated in sequence and locked in runs.
+        long hash = resourceId ^ (resourceId >>> 17) ^ (resourceId >>> 31);
+        return stripes[(int) hash & stripeMask];
+    }
+}
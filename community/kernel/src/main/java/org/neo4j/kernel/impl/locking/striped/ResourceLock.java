@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The lock on a single resource, managed through a single state word that is only ever updated with compare-and-set.
+ * <p>
+ * The lower 32 bits of the state count the number of clients that hold a shared lock, the {@link #EXCLUSIVE} bit
+ * tells if a client holds the exclusive lock. A client that holds a shared lock can upgrade it, if it is the only
+ * shared holder, and a client that holds the exclusive lock can also take a shared lock on the same resource.
+ * <p>
+ * When the last lock is released, the lock is marked {@link #DEAD} and removed from its {@link LockTable}. Clients
+ * that find a dead lock must look it up again, which will give them a fresh lock instance.
+ * <p>
+ * The owner and holder fields are only there for deadlock detection and introspection; the state word alone decides
+ * who gets the lock.
+ */
+final class ResourceLock
+{
+    enum Acquisition
+    {
+        ACQUIRED,
+        CONTENDED,
+        DEAD
+    }
+
+    private static final AtomicLongFieldUpdater<ResourceLock> STATE =
+            AtomicLongFieldUpdater.newUpdater( ResourceLock.class, "state" );
+
+    private static final long SHARED_MASK = 0xFFFF_FFFFL;
+    private static final long EXCLUSIVE = 1L << 32;
+    private static final long DEAD = 1L << 33;
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final Set<StripedLockClient> sharedHolders = ConcurrentHashMap.newKeySet();
+    private volatile StripedLockClient exclusiveOwner;
+    @SuppressWarnings( "unused" ) // accessed through the STATE updater
+    private volatile long state;
+
+    ResourceLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    Acquisition tryAcquireShared( StripedLockClient client )
+    {
+        long s;
+        do
+        {
+            s = state;
+            if ( (s & DEAD) != 0 )
+            {
+                return Acquisition.DEAD;
+            }
+            if ( (s & EXCLUSIVE) != 0 && exclusiveOwner != client )
+            {
+                return Acquisition.CONTENDED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, s, s + 1 ) );
+        sharedHolders.add( client );
+        return Acquisition.ACQUIRED;
+    }
+
+    /**
+     * @param client the client acquiring the exclusive lock.
+     * @param holdsShared {@code true} if the given client already holds a shared lock on this resource, in which case
+     * this is an upgrade that succeeds only if no other client holds a shared lock.
+     */
+    Acquisition tryAcquireExclusive( StripedLockClient client, boolean holdsShared )
+    {
+        long expectedSharedHolders = holdsShared ? 1 : 0;
+        long s;
+        do
+        {
+            s = state;
+            if ( (s & DEAD) != 0 )
+            {
+                return Acquisition.DEAD;
+            }
+            if ( (s & EXCLUSIVE) != 0 || (s & SHARED_MASK) != expectedSharedHolders )
+            {
+                return Acquisition.CONTENDED;
+            }
+        }
+        while ( !STATE.compareAndSet( this, s, s | EXCLUSIVE ) );
+        exclusiveOwner = client;
+        return Acquisition.ACQUIRED;
+    }
+
+    /**
+     * @return {@code true} if this was the last lock held on this resource, and the lock is now dead.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        sharedHolders.remove( client );
+        return STATE.decrementAndGet( this ) == 0 && markDead();
+    }
+
+    /**
+     * @return {@code true} if this was the last lock held on this resource, and the lock is now dead.
+     */
+    boolean releaseExclusive()
+    {
+        exclusiveOwner = null;
+        return STATE.addAndGet( this, -EXCLUSIVE ) == 0 && markDead();
+    }
+
+    private boolean markDead()
+    {
+        return STATE.compareAndSet( this, 0, DEAD );
+    }
+
+    boolean isDead()
+    {
+        return (state & DEAD) != 0;
+    }
+
+    boolean isHeld()
+    {
+        long s = state;
+        return s != 0 && (s & DEAD) == 0;
+    }
+
+    /**
+     * Tells if the given client, waiting for this lock in the given mode, is blocked by the given holder.
+     */
+    boolean isBlockedBy( StripedLockClient holder, boolean exclusiveWaiter )
+    {
+        return exclusiveOwner == holder || (exclusiveWaiter && sharedHolders.contains( holder ));
+    }
+
+    StripedLockClient exclusiveOwner()
+    {
+        return exclusiveOwner;
+    }
+
+    Set<StripedLockClient> sharedHolders()
+    {
+        return sharedHolders;
+    }
+
+    String describe()
+    {
+        long s = state;
+        StripedLockClient owner = exclusiveOwner;
+        return String.format( "%s(%d)[exclusive=%s, sharedHolders=%d]", resourceType, resourceId,
+                (s & EXCLUSIVE) != 0 ? owner : "none", s & SHARED_MASK );
+    }
+
+    @Override
+    public String toString()
+    {
+        return describe();
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.block.procedure.primitive.IntObjectProcedure;
+import org.eclipse.collections.api.map.primitive.LongObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.locking.striped.ResourceLock.Acquisition;
+import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
+import org.neo4j.storageengine.api.lock.LockTracer;
+import org.neo4j.storageengine.api.lock.LockWaitEvent;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.storageengine.api.lock.WaitStrategy;
+
+import static java.lang.String.format;
+
+/**
+ * Lock client of the {@link StripedLockManager}.
+ * <p>
+ * Re-entrant acquisitions are counted in client local maps, so only the first acquisition and the last release of a
+ * lock touch the shared {@link ResourceLock}. A client that cannot get a lock right away publishes the lock it waits
+ * for, and then periodically checks if the holders of that lock are, directly or transitively, waiting for a lock
+ * held by this client. If so, and this is the youngest client in the cycle, the acquisition fails with a
+ * {@link DeadlockDetectedException}. Clients that do not wait never pay for deadlock detection.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    private static final AtomicInteger CLIENT_IDS = new AtomicInteger();
+    /** Deadlock detection runs when a client starts waiting, and after every this many retries. */
+    private static final int DEADLOCK_DETECTION_INTERVAL = 32;
+
+    private final int clientId = CLIENT_IDS.incrementAndGet();
+    private final LockTable[] lockTables;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+
+    private final MutableIntObjectMap<MutableLongObjectMap<HeldLock>> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongObjectMap<HeldLock>> exclusiveLocks = new IntObjectHashMap<>();
+
+    // See CommunityLockClient for how this is used to stop and close the client while it is in use.
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+
+    // Only written by the thread using this client, read by other clients doing deadlock detection.
+    private volatile ResourceLock waitingFor;
+    private volatile boolean waitingForExclusive;
+
+    StripedLockClient( LockTable[] lockTables, Clock clock, long lockAcquisitionTimeoutMillis )
+    {
+        this.lockTables = lockTables;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = lockAcquisitionTimeoutMillis;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held != null )
+                {
+                    held.count++;
+                }
+                else
+                {
+                    localLocks.put( resourceId, new HeldLock( acquire( tracer, resourceType, resourceId, false ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+            throws AcquireLockTimeoutException
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( held != null )
+                {
+                    held.count++;
+                }
+                else
+                {
+                    localLocks.put( resourceId, new HeldLock( acquire( tracer, resourceType, resourceId, true ) ) );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            HeldLock held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                held.count++;
+                return true;
+            }
+            ResourceLock lock = tryAcquire( resourceType, resourceId, true );
+            if ( lock != null )
+            {
+                localLocks.put( resourceId, new HeldLock( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            HeldLock held = localLocks.get( resourceId );
+            if ( held != null )
+            {
+                held.count++;
+                return true;
+            }
+            ResourceLock lock = tryAcquire( resourceType, resourceId, false );
+            if ( lock != null )
+            {
+                localLocks.put( resourceId, new HeldLock( lock ) );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( LongObjectMap<HeldLock> localLocks, long resourceId )
+    {
+        HeldLock held = localLocks.get( resourceId );
+        if ( held != null )
+        {
+            held.count++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( --held.count == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseShared( held.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongObjectMap<HeldLock> localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                HeldLock held = localLocks.get( resourceId );
+                if ( --held.count == 0 )
+                {
+                    localLocks.remove( resourceId );
+                    releaseExclusive( held.lock );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        if ( stateHolder.stopClient() )
+        {
+            waitForActiveClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForActiveClientsToLeave();
+        releaseLocks();
+    }
+
+    private void waitForActiveClientsToLeave()
+    {
+        // Waiting clients check the stopped state on every retry, so they will leave shortly.
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        }
+    }
+
+    private void releaseLocks()
+    {
+        exclusiveLocks.forEachValue( locks -> locks.forEachValue( held -> releaseExclusive( held.lock ) ) );
+        sharedLocks.forEachValue( locks -> locks.forEachValue( held -> releaseShared( held.lock ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return clientId;
+    }
+
+    @Override
+    public Stream<? extends ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        exclusiveLocks.forEachKeyValue( collectActiveLocks( locks, ActiveLock.Factory.EXCLUSIVE_LOCK ) );
+        sharedLocks.forEachKeyValue( collectActiveLocks( locks, ActiveLock.Factory.SHARED_LOCK ) );
+        return locks.stream();
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        long[] count = new long[1];
+        exclusiveLocks.forEachValue( locks -> count[0] += locks.size() );
+        sharedLocks.forEachValue( locks -> count[0] += locks.size() );
+        return count[0];
+    }
+
+    private static IntObjectProcedure<LongObjectMap<HeldLock>> collectActiveLocks(
+            List<ActiveLock> locks, ActiveLock.Factory activeLock )
+    {
+        return ( typeId, heldLocks ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            heldLocks.forEachKey( resourceId -> locks.add( activeLock.create( resourceType, resourceId ) ) );
+        };
+    }
+
+    private ResourceLock tryAcquire( ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        LockTable lockTable = lockTables[resourceType.typeId()];
+        boolean holdsShared = exclusive && holdsShared( resourceType, resourceId );
+        for ( ;; )
+        {
+            ResourceLock lock = lockTable.lock( resourceId );
+            Acquisition acquisition = exclusive ? lock.tryAcquireExclusive( this, holdsShared ) : lock.tryAcquireShared( this );
+            if ( acquisition != Acquisition.DEAD )
+            {
+                return acquisition == Acquisition.ACQUIRED ? lock : null;
+            }
+        }
+    }
+
+    private ResourceLock acquire( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        ResourceLock lock = tryAcquire( resourceType, resourceId, exclusive );
+        return lock != null ? lock : waitForLock( tracer, resourceType, resourceId, exclusive );
+    }
+
+    private ResourceLock waitForLock( LockTracer tracer, ResourceType resourceType, long resourceId, boolean exclusive )
+    {
+        LockTable lockTable = lockTables[resourceType.typeId()];
+        boolean holdsShared = exclusive && holdsShared( resourceType, resourceId );
+        @SuppressWarnings( "unchecked" )
+        WaitStrategy<AcquireLockTimeoutException> waitStrategy = resourceType.waitStrategy();
+        long timeBoundary = clock.millis() + lockAcquisitionTimeoutMillis;
+        LockWaitEvent waitEvent = tracer.waitForLock( exclusive, resourceType, resourceId );
+        waitingForExclusive = exclusive;
+        try
+        {
+            long iteration = 0;
+            for ( ;; )
+            {
+                ResourceLock lock = lockTable.lock( resourceId );
+                waitingFor = lock;
+                Acquisition acquisition = exclusive ? lock.tryAcquireExclusive( this, holdsShared ) : lock.tryAcquireShared( this );
+                if ( acquisition == Acquisition.ACQUIRED )
+                {
+                    return lock;
+                }
+                if ( acquisition == Acquisition.DEAD )
+                {
+                    continue;
+                }
+                if ( stateHolder.isStopped() )
+                {
+                    throw new LockClientStoppedException( this );
+                }
+                if ( lockAcquisitionTimeoutMillis > 0 && timeBoundary < clock.millis() )
+                {
+                    throw new LockAcquisitionTimeoutException( resourceType, resourceId, lockAcquisitionTimeoutMillis );
+                }
+                if ( iteration % DEADLOCK_DETECTION_INTERVAL == 0 && isDeadlocked( lock, exclusive ) )
+                {
+                    throw new DeadlockDetectedException( format( "%s can't acquire %s lock on %s(%d), because holders " +
+                            "of that lock are waiting for locks held by this client, and this is the youngest " +
+                            "client in the wait cycle. Lock held as: %s", this, exclusive ? "exclusive" : "shared",
+                            resourceType, resourceId, lock.describe() ) );
+                }
+                waitStrategy.apply( iteration++ );
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+            waitEvent.close();
+        }
+    }
+
+    /**
+     * Follow the wait-for edges from the given lock, which this client waits for, to see if they lead back to this
+     * client. Other waiting clients publish their {@link #waitingFor} lock, so this only looks at the locks that are
+     * actually being waited for. To avoid that every client in a cycle aborts, only the youngest client in the cycle,
+     * the one with the highest id, reports the deadlock.
+     */
+    private boolean isDeadlocked( ResourceLock lock, boolean exclusive )
+    {
+        Set<StripedLockClient> visited = new HashSet<>();
+        visited.add( this );
+        StripedLockClient owner = lock.exclusiveOwner();
+        if ( owner != null && owner != this && leadsBackToThisClient( owner, clientId, visited ) )
+        {
+            return true;
+        }
+        if ( exclusive )
+        {
+            for ( StripedLockClient holder : lock.sharedHolders() )
+            {
+                if ( holder != this && leadsBackToThisClient( holder, clientId, visited ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean leadsBackToThisClient( StripedLockClient client, int youngestInPath, Set<StripedLockClient> visited )
+    {
+        ResourceLock lock = client.waitingFor;
+        boolean exclusive = client.waitingForExclusive;
+        if ( lock == null || client.waitingFor != lock || !visited.add( client ) )
+        {
+            // Not waiting, or we have already followed this client.
+            return false;
+        }
+        youngestInPath = Math.max( youngestInPath, client.clientId );
+        if ( lock.isBlockedBy( this, exclusive ) )
+        {
+            return youngestInPath == clientId;
+        }
+        StripedLockClient owner = lock.exclusiveOwner();
+        if ( owner != null && owner != client && leadsBackToThisClient( owner, youngestInPath, visited ) )
+        {
+            return true;
+        }
+        if ( exclusive )
+        {
+            for ( StripedLockClient holder : lock.sharedHolders() )
+            {
+                if ( holder != client && leadsBackToThisClient( holder, youngestInPath, visited ) )
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean holdsShared( ResourceType resourceType, long resourceId )
+    {
+        MutableLongObjectMap<HeldLock> localLocks = sharedLocks.get( resourceType.typeId() );
+        return localLocks != null && localLocks.containsKey( resourceId );
+    }
+
+    private void releaseShared( ResourceLock lock )
+    {
+        if ( lock.releaseShared( this ) )
+        {
+            lockTables[lock.resourceType().typeId()].remove( lock );
+        }
+    }
+
+    private void releaseExclusive( ResourceLock lock )
+    {
+        if ( lock.releaseExclusive() )
+        {
+            lockTables[lock.resourceType().typeId()].remove( lock );
+        }
+    }
+
+    private MutableLongObjectMap<HeldLock> localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    private MutableLongObjectMap<HeldLock> localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongObjectHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), clientId );
+    }
+
+    private static class HeldLock
+    {
+        final ResourceLock lock;
+        int count = 1;
+
+        HeldLock( ResourceLock lock )
+        {
+            this.lock = lock;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.time.Clock;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * A {@link Locks} implementation where every held lock is a {@link ResourceLock} with a single compare-and-set state
+ * word, kept in a striped {@link LockTable} per {@link ResourceType}. Acquiring an uncontended lock never blocks or
+ * takes a monitor, and there is no global wait-for graph: deadlock detection is done by the waiting clients
+ * themselves, by following the holders of the lock they wait for.
+ * <p>
+ * Selected with {@link GraphDatabaseSettings#lock_manager} set to {@code striped}.
+ */
+public class StripedLockManager implements Locks
+{
+    static final int DEFAULT_STRIPES = 64;
+
+    private final LockTable[] lockTables;
+    private final Clock clock;
+    private final long lockAcquisitionTimeoutMillis;
+    private volatile boolean closed;
+
+    public StripedLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        this.clock = clock;
+        this.lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toMillis();
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        lockTables = new LockTable[maxTypeId + 1];
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            lockTables[resourceType.typeId()] = new LockTable( resourceType, DEFAULT_STRIPES );
+        }
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( lockTables, clock, lockAcquisitionTimeoutMillis );
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( LockTable lockTable : lockTables )
+        {
+            if ( lockTable != null )
+            {
+                lockTable.forEach( lock -> visitor.visit( lock.resourceType(), lock.resourceId(), lock.describe(), 0,
+                        System.identityHashCode( lock ) ) );
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
@@ -71,11 +71,14 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.register.Register;
+import org.neo4j.storageengine.api.AllNodeScan;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.SchemaRule;
@@ -255,6 +258,18 @@ public class AllStoreHolder extends Read
         return storageReader.getLabelScanReader();
     }
 
+    @Override
+    AllNodeScan storageNodeScan()
+    {
+        return storageReader.allNodeScan();
+    }
+
+    @Override
+    AllRelationshipsScan storageRelationshipScan()
+    {
+        return storageReader.allRelationshipsScan();
+    }
+
     @Override
     ExplicitIndex explicitNodeIndex( String indexName ) throws ExplicitIndexNotFoundKernelException
     {
@@ -562,6 +577,16 @@ public class AllStoreHolder extends Read
         return storageReader.indexSize( schema );
     }
 
+    @Override
+    public IndexValueHistogram indexValueHistogram( IndexReference index ) throws IndexNotFoundKernelException
+    {
+        assertValidIndex( index );
+        SchemaDescriptor schema = index.schema();
+        acquireSharedSchemaLock( schema );
+        ktx.assertOpen();
+        return storageReader.indexValueHistogram( schema );
+    }
+
     @Override
     public long nodesCountIndexed( IndexReference index, long nodeId, int propertyKeyId, Value value ) throws KernelException
     {
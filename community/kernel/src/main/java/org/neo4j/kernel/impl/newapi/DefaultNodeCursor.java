@@ -43,6 +43,7 @@ class DefaultNodeCursor implements NodeCursor
     private LongIterator addedNodes;
     private StorageNodeCursor storeCursor;
     private long single;
+    private NodeCursorScan parallelScan;
 
     private final DefaultCursors pool;
 
@@ -57,15 +58,31 @@ class DefaultNodeCursor implements NodeCursor
         storeCursor.scan();
         this.read = read;
         this.single = NO_ID;
+        this.parallelScan = null;
         this.hasChanges = HasChanges.MAYBE;
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Initializes this cursor as one of the workers of a parallel scan. Added and removed nodes are the ones captured when the
+     * scan was created, shared by all cursors of the scan, while the added nodes are only returned by a single cursor.
+     */
+    void scan( NodeCursorScan scan, Read read )
+    {
+        this.read = read;
+        this.single = NO_ID;
+        this.parallelScan = scan;
+        this.hasChanges = scan.hasChanges() ? HasChanges.YES : HasChanges.NO;
+        this.addedNodes = scan.claimAddedNodes();
+        scan.scanBatch( storeCursor );
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
         this.read = read;
         this.single = reference;
+        this.parallelScan = null;
         this.hasChanges = HasChanges.MAYBE;
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
@@ -183,22 +200,32 @@ class DefaultNodeCursor implements NodeCursor
             return true;
         }
 
-        while ( storeCursor.next() )
+        do
         {
-            if ( !hasChanges || !read.txState().nodeIsDeletedInThisTx( storeCursor.entityReference() ) )
+            while ( storeCursor.next() )
             {
-                return true;
+                if ( !hasChanges || !isDeleted( storeCursor.entityReference() ) )
+                {
+                    return true;
+                }
             }
         }
+        while ( parallelScan != null && parallelScan.scanBatch( storeCursor ) );
         return false;
     }
 
+    private boolean isDeleted( long node )
+    {
+        return parallelScan != null ? parallelScan.isRemoved( node ) : read.txState().nodeIsDeletedInThisTx( node );
+    }
+
     @Override
     public void close()
     {
         if ( !isClosed() )
         {
             read = null;
+            parallelScan = null;
             hasChanges = HasChanges.MAYBE;
             addedNodes = ImmutableEmptyLongIterator.INSTANCE;
             storeCursor.close();
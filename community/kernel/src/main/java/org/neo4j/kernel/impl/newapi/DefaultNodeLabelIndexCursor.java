@@ -42,6 +42,7 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
     private LabelSet labels;
     private LongIterator added;
     private LongSet removed;
+    private NodeLabelIndexCursorScan parallelScan;
 
     private final DefaultCursors pool;
 
@@ -55,6 +56,7 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
     public void scan( IndexProgressor progressor, boolean providesLabels, int label )
     {
         super.initialize( progressor );
+        parallelScan = null;
         if ( read.hasTxStateWithChanges() )
         {
             final LongDiffSets changes = read.txState().nodesWithLabelChanged( label );
@@ -63,6 +65,19 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
         }
     }
 
+    /**
+     * Initializes this cursor as one of the workers of a parallel label scan, which will keep claiming batches from the
+     * given scan until there are no more.
+     */
+    void scan( NodeLabelIndexCursorScan scan )
+    {
+        IndexProgressor progressor = scan.nextBatch( this );
+        super.initialize( progressor != null ? progressor : IndexProgressor.EMPTY );
+        parallelScan = scan;
+        added = scan.claimAdded();
+        removed = scan.removed();
+    }
+
     @Override
     public void unionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
     {
@@ -109,10 +124,23 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
             this.node = added.next();
             return true;
         }
-        else
+        if ( innerNext() )
+        {
+            return true;
+        }
+        if ( parallelScan != null )
         {
-            return innerNext();
+            IndexProgressor progressor;
+            while ( (progressor = parallelScan.nextBatch( this )) != null )
+            {
+                super.initialize( progressor );
+                if ( innerNext() )
+                {
+                    return true;
+                }
+            }
         }
+        return false;
     }
 
     public void setRead( Read read )
@@ -147,7 +175,9 @@ class DefaultNodeLabelIndexCursor extends IndexCursor<IndexProgressor>
             node = NO_ID;
             labels = null;
             read = null;
+            added = null;
             removed = null;
+            parallelScan = null;
 
             pool.accept( this );
         }
@@ -45,6 +45,16 @@ abstract class DefaultRelationshipCursor<STORECURSOR extends StorageRelationship
         this.checkHasChanges = true;
     }
 
+    /**
+     * Initializes this cursor with a transaction state snapshot which has already been taken, e.g. one shared with other cursors.
+     */
+    protected void init( Read read, boolean hasChanges )
+    {
+        this.read = read;
+        this.hasChanges = hasChanges;
+        this.checkHasChanges = false;
+    }
+
     @Override
     public long relationshipReference()
     {
@@ -33,6 +33,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
     private int type;
     private long single;
     private LongIterator addedRelationships;
+    private RelationshipCursorScan parallelScan;
 
     DefaultRelationshipScanCursor( DefaultCursors pool, StorageRelationshipScanCursor storeCursor )
     {
@@ -44,15 +45,32 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         storeCursor.scan( type );
         this.type = type;
         this.single = NO_ID;
+        this.parallelScan = null;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Initializes this cursor as one of the workers of a parallel scan. Added and removed relationships are the ones captured
+     * when the scan was created, shared by all cursors of the scan, while the added relationships are only returned by a
+     * single cursor.
+     */
+    void scan( RelationshipCursorScan scan, Read read )
+    {
+        this.type = scan.type();
+        this.single = NO_ID;
+        this.parallelScan = scan;
+        init( read, scan.hasChanges() );
+        this.addedRelationships = scan.claimAddedRelationships();
+        scan.scanBatch( storeCursor );
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
         type = -1;
         this.single = reference;
+        this.parallelScan = null;
         init( read );
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
@@ -65,26 +83,44 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
 
         if ( hasChanges && addedRelationships.hasNext() )
         {
-            read.txState().relationshipVisit( addedRelationships.next(), storeCursor );
+            if ( parallelScan != null )
+            {
+                parallelScan.addedRelationshipVisit( addedRelationships.next(), storeCursor );
+            }
+            else
+            {
+                read.txState().relationshipVisit( addedRelationships.next(), storeCursor );
+            }
             return true;
         }
 
-        while ( storeCursor.next() )
+        do
         {
-            if ( !hasChanges || !read.txState().relationshipIsDeletedInThisTx( storeCursor.entityReference() ) )
+            while ( storeCursor.next() )
             {
-                return true;
+                if ( !hasChanges || !isDeleted( storeCursor.entityReference() ) )
+                {
+                    return true;
+                }
             }
         }
+        while ( parallelScan != null && parallelScan.scanBatch( storeCursor ) );
         return false;
     }
 
+    private boolean isDeleted( long relationship )
+    {
+        return parallelScan != null ? parallelScan.isRemoved( relationship )
+                                    : read.txState().relationshipIsDeletedInThisTx( relationship );
+    }
+
     @Override
     public void close()
     {
         if ( !isClosed() )
         {
             read = null;
+            parallelScan = null;
             storeCursor.close();
 
             pool.accept( this );
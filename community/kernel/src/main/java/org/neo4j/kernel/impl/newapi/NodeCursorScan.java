@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.storageengine.api.AllNodeScan;
+import org.neo4j.storageengine.api.StorageNodeCursor;
+
+/**
+ * {@link Scan} over all nodes. Each initialized cursor reads batches of node ids from the store until there are no more,
+ * and nodes added in the transaction are returned by the first cursor that is initialized. The added and removed nodes are
+ * captured when the scan is created, so cursors on other threads never read the transaction state to find them.
+ */
+final class NodeCursorScan implements Scan<NodeCursor>
+{
+    private static final int BATCH_SIZE = 4096;
+
+    private final AllNodeScan storageScan;
+    private final Read read;
+    private final boolean hasChanges;
+    private final LongSet addedNodes;
+    private final LongSet removedNodes;
+    private final AtomicBoolean addedNodesClaimed = new AtomicBoolean();
+
+    NodeCursorScan( AllNodeScan storageScan, Read read )
+    {
+        this.storageScan = storageScan;
+        this.read = read;
+        this.hasChanges = read.hasTxStateWithChanges();
+        this.addedNodes = hasChanges ? read.txState().addedAndRemovedNodes().getAdded().freeze() : null;
+        this.removedNodes = hasChanges ? read.txState().addedAndRemovedNodes().getRemoved().freeze() : null;
+    }
+
+    @Override
+    public void initialize( NodeCursor cursor )
+    {
+        read.ktx.assertOpen();
+        ((DefaultNodeCursor) cursor).scan( this, read );
+    }
+
+    boolean hasChanges()
+    {
+        return hasChanges;
+    }
+
+    LongIterator claimAddedNodes()
+    {
+        return hasChanges && addedNodesClaimed.compareAndSet( false, true ) ? addedNodes.longIterator()
+                                                                            : ImmutableEmptyLongIterator.INSTANCE;
+    }
+
+    boolean isRemoved( long node )
+    {
+        return hasChanges && removedNodes.contains( node );
+    }
+
+    boolean scanBatch( StorageNodeCursor cursor )
+    {
+        return cursor.scanBatch( storageScan, BATCH_SIZE );
+    }
+}
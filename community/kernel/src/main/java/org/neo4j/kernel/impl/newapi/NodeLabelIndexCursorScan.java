@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.LabelScan;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+
+import static org.neo4j.collection.PrimitiveLongCollections.asSet;
+import static org.neo4j.collection.PrimitiveLongCollections.mergeToSet;
+
+/**
+ * {@link Scan} over all nodes with a given label. Each initialized cursor reads batches of the label scan store until there
+ * are no more, and nodes which got the label in the transaction are returned by the first cursor that is initialized.
+ */
+final class NodeLabelIndexCursorScan implements Scan<NodeLabelIndexCursor>
+{
+    private static final int BATCH_SIZE = 4096;
+
+    private final LabelScan labelScan;
+    private final Read read;
+    private final LongSet added;
+    private final LongSet removed;
+    private final AtomicBoolean addedClaimed = new AtomicBoolean();
+
+    NodeLabelIndexCursorScan( LabelScan labelScan, int label, Read read )
+    {
+        this.labelScan = labelScan;
+        this.read = read;
+        if ( read.hasTxStateWithChanges() )
+        {
+            LongDiffSets changes = read.txState().nodesWithLabelChanged( label );
+            this.added = asSet( changes.augment( ImmutableEmptyLongIterator.INSTANCE ) );
+            this.removed = mergeToSet( read.txState().addedAndRemovedNodes().getRemoved(), changes.getRemoved() );
+        }
+        else
+        {
+            this.added = LongSets.immutable.empty();
+            this.removed = null;
+        }
+    }
+
+    @Override
+    public void initialize( NodeLabelIndexCursor cursor )
+    {
+        read.ktx.assertOpen();
+        DefaultNodeLabelIndexCursor indexCursor = (DefaultNodeLabelIndexCursor) cursor;
+        indexCursor.setRead( read );
+        indexCursor.scan( this );
+    }
+
+    LongIterator claimAdded()
+    {
+        return addedClaimed.compareAndSet( false, true ) ? added.longIterator() : ImmutableEmptyLongIterator.INSTANCE;
+    }
+
+    LongSet removed()
+    {
+        return removed;
+    }
+
+    IndexProgressor nextBatch( IndexProgressor.NodeLabelClient client )
+    {
+        return labelScan.nextBatch( client, BATCH_SIZE );
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.map.primitive.LongObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+import org.eclipse.collections.impl.map.mutable.primitive.LongObjectHashMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
+import org.neo4j.storageengine.api.RelationshipVisitor;
+import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
+
+/**
+ * {@link Scan} over all relationships, or all relationships of a given type. Each initialized cursor reads batches of
+ * relationship ids from the store until there are no more, and relationships added in the transaction are returned by the
+ * first cursor that is initialized. The added relationships, with their type and nodes, and the removed relationships are
+ * captured when the scan is created, so cursors on other threads never read the transaction state to find them.
+ */
+final class RelationshipCursorScan implements Scan<RelationshipScanCursor>
+{
+    private static final int BATCH_SIZE = 4096;
+
+    private final AllRelationshipsScan storageScan;
+    private final int type;
+    private final Read read;
+    private final boolean hasChanges;
+    private final LongObjectMap<long[]> addedRelationships;
+    private final LongSet removedRelationships;
+    private final AtomicBoolean addedRelationshipsClaimed = new AtomicBoolean();
+
+    RelationshipCursorScan( AllRelationshipsScan storageScan, int type, Read read )
+    {
+        this.storageScan = storageScan;
+        this.type = type;
+        this.read = read;
+        this.hasChanges = read.hasTxStateWithChanges();
+        this.addedRelationships = hasChanges ? addedRelationships( read.txState(), type ) : null;
+        this.removedRelationships = hasChanges ? read.txState().addedAndRemovedRelationships().getRemoved().freeze() : null;
+    }
+
+    @Override
+    public void initialize( RelationshipScanCursor cursor )
+    {
+        read.ktx.assertOpen();
+        ((DefaultRelationshipScanCursor) cursor).scan( this, read );
+    }
+
+    int type()
+    {
+        return type;
+    }
+
+    boolean hasChanges()
+    {
+        return hasChanges;
+    }
+
+    LongIterator claimAddedRelationships()
+    {
+        return hasChanges && addedRelationshipsClaimed.compareAndSet( false, true ) ? addedRelationships.keySet().longIterator()
+                                                                                    : ImmutableEmptyLongIterator.INSTANCE;
+    }
+
+    <EX extends Exception> void addedRelationshipVisit( long relationshipId, RelationshipVisitor<EX> visitor ) throws EX
+    {
+        long[] relationship = addedRelationships.get( relationshipId );
+        visitor.visit( relationshipId, (int) relationship[0], relationship[1], relationship[2] );
+    }
+
+    boolean isRemoved( long relationshipId )
+    {
+        return hasChanges && removedRelationships.contains( relationshipId );
+    }
+
+    boolean scanBatch( StorageRelationshipScanCursor cursor )
+    {
+        return cursor.scanBatch( storageScan, type, BATCH_SIZE );
+    }
+
+    private static LongObjectMap<long[]> addedRelationships( TransactionState txState, int type )
+    {
+        MutableLongObjectMap<long[]> relationships = new LongObjectHashMap<>();
+        LongIterator iterator = txState.addedAndRemovedRelationships().getAdded().longIterator();
+        while ( iterator.hasNext() )
+        {
+            txState.relationshipVisit( iterator.next(), ( relationshipId, typeId, startNodeId, endNodeId ) ->
+            {
+                if ( type == -1 || typeId == type )
+                {
+                    relationships.put( relationshipId, new long[]{typeId, startNodeId, endNodeId} );
+                }
+            } );
+        }
+        return relationships;
+    }
+}
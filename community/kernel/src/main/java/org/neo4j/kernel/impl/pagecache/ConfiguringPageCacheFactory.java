@@ -37,6 +37,8 @@ import org.neo4j.memory.GlobalMemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_direct_io;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_policy;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.kernel.configuration.Settings.BYTES;
@@ -92,7 +94,7 @@ public class ConfiguringPageCacheFactory
         checkPageSize( config );
         MemoryAllocator memoryAllocator = buildMemoryAllocator( config );
         return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
-                versionContextSupplier, scheduler );
+                versionContextSupplier, scheduler, config.get( pagecache_eviction_policy ) );
     }
 
     private MemoryAllocator buildMemoryAllocator( Config config )
@@ -184,7 +186,21 @@ public class ConfiguringPageCacheFactory
     private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs, Config config, Log log )
     {
         PageSwapperFactory factory = getPageSwapperFactory( config, log );
+        if ( factory instanceof SingleFilePageSwapperFactory )
+        {
+            // Configured swappers are loaded as services, through their default constructor
+            ((SingleFilePageSwapperFactory) factory).setDirectIORequested( config.get( pagecache_direct_io ) );
+            ((SingleFilePageSwapperFactory) factory).setDirectIOMonitor( ( file, reason ) ->
+                    log.warn( "Direct I/O can't be used for %s, because %s. Buffered I/O will be used for it instead.",
+                            file, reason ) );
+        }
         factory.open( fs, config );
+        if ( factory instanceof SingleFilePageSwapperFactory && config.get( pagecache_direct_io ) &&
+                !((SingleFilePageSwapperFactory) factory).isDirectIO() )
+        {
+            log.warn( pagecache_direct_io.name() + " is enabled, but direct I/O is not supported by this JVM or file system. " +
+                    "Buffered I/O will be used instead." );
+        }
         return factory;
     }
 
@@ -203,6 +219,6 @@ public class ConfiguringPageCacheFactory
             }
             throw new IllegalArgumentException( "Cannot find PageSwapperFactory: " + desiredImplementation );
         }
-        return new SingleFilePageSwapperFactory();
+        return new SingleFilePageSwapperFactory( config.get( pagecache_direct_io ) );
     }
 }
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Keeps profiles of which pages of the mapped files of a database are in the page cache, and loads those pages back
+ * in when the database starts, so that it does not have to fault in its working set one page at a time.
+ * <p>
+ * A profile is a gzipped bitmap with a bit for every page in the file, and is taken at regular intervals and when the
+ * database stops. The profiles are kept in a {@code profiles} directory in the database directory, where each profile
+ * mirrors the path of its file, relative to the database directory. Files outside of the database directory are not
+ * profiled.
+ * <p>
+ * The warmup reads the profiled pages of several files in parallel, with runs of consecutive pages read using as few
+ * IO operations as the page cache can manage. It is done either before the database becomes available, or in the
+ * background, optionally limited to a number of pages per second, as {@link GraphDatabaseSettings configured}.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILES_DIRECTORY = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TEMPORARY_PROFILE_SUFFIX = ".cacheprof.tmp";
+    // The number of pages handed to the page cache at a time, which is also how often the pages per second limit kicks in.
+    private static final int PREFETCH_BATCH_SIZE = 256;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final File profilesDirectory;
+    private final Log log;
+    private final boolean enabled;
+    private final boolean blocking;
+    private final long profilingIntervalMillis;
+    private final int pagesPerSecondLimit;
+    private final int parallelism;
+
+    private volatile boolean stopped;
+    private volatile boolean warmedUp;
+    private JobHandle warmupJob;
+    private JobHandle profilingJob;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            Config config, Log log )
+    {
+        this( fs, pageCache, scheduler, databaseDirectory, config, log, Runtime.getRuntime().availableProcessors() );
+    }
+
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            Config config, Log log, int parallelism )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = new File( databaseDirectory, PROFILES_DIRECTORY );
+        this.log = log;
+        this.enabled = config.get( GraphDatabaseSettings.pagecache_warmup_enabled );
+        this.blocking = config.get( GraphDatabaseSettings.pagecache_warmup_blocking );
+        this.profilingIntervalMillis = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+        this.pagesPerSecondLimit = config.get( GraphDatabaseSettings.pagecache_warmup_pages_per_second_limit );
+        this.parallelism = Math.max( 1, parallelism );
+    }
+
+    @Override
+    public void start()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+        stopped = false;
+        warmedUp = false;
+        if ( blocking )
+        {
+            warmUp( PageLimiter.UNLIMITED );
+        }
+        else
+        {
+            PageLimiter limiter = pagesPerSecondLimit > 0 ? new RatePageLimiter( pagesPerSecondLimit ) : PageLimiter.UNLIMITED;
+            warmupJob = scheduler.schedule( Group.FILE_IO_HELPER, () -> warmUp( limiter ) );
+        }
+        profilingJob = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, this::profileQuietly,
+                profilingIntervalMillis, profilingIntervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+        stopped = true;
+        awaitTermination( profilingJob );
+        awaitTermination( warmupJob );
+        profilingJob = null;
+        warmupJob = null;
+        // Take a last profile of what was in memory when we stopped, which is what the next start will load.
+        // Unless the warmup never finished, in which case the profiles we have are the better bet.
+        profileQuietly();
+    }
+
+    private static void awaitTermination( JobHandle job ) throws InterruptedException
+    {
+        if ( job != null )
+        {
+            job.cancel( false );
+            try
+            {
+                job.waitTermination();
+            }
+            catch ( ExecutionException | RuntimeException e )
+            {
+                // Failures have already been logged by the jobs themselves, and cancellations are expected.
+            }
+        }
+    }
+
+    /**
+     * Load the pages in the profiles of all the mapped files that have one, into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long warmUp( PageLimiter limiter )
+    {
+        long startTime = System.currentTimeMillis();
+        AtomicLong pagesLoaded = new AtomicLong();
+        try
+        {
+            Queue<PagedFile> files = new ConcurrentLinkedQueue<>( pageCache.listExistingMappings() );
+            // Never load more pages than fit in the cache; that would only evict the pages we have just loaded.
+            AtomicLong pageBudget = new AtomicLong( pageCache.maxCachedPages() );
+            int workers = Math.min( parallelism, files.size() );
+            JobHandle[] jobs = new JobHandle[Math.max( 0, workers - 1 )];
+            for ( int i = 0; i < jobs.length; i++ )
+            {
+                jobs[i] = scheduler.schedule( Group.FILE_IO_HELPER, () -> warmUpFiles( files, limiter, pageBudget, pagesLoaded ) );
+            }
+            warmUpFiles( files, limiter, pageBudget, pagesLoaded );
+            for ( JobHandle job : jobs )
+            {
+                job.waitTermination();
+            }
+            if ( !stopped )
+            {
+                log.info( "Page cache warmup completed. %d pages loaded. Duration: %d ms.",
+                        pagesLoaded.get(), System.currentTimeMillis() - startTime );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warmup failed. Pages will be loaded as they are accessed.", e );
+        }
+        finally
+        {
+            // Profiling starts once the warmup is done, even a failed one, since the profiles should follow the cache.
+            warmedUp = !stopped;
+        }
+        pageCache.reportEvents();
+        return pagesLoaded.get();
+    }
+
+    private void warmUpFiles( Queue<PagedFile> files, PageLimiter limiter, AtomicLong pageBudget, AtomicLong pagesLoaded )
+    {
+        PagedFile file;
+        while ( !stopped && (file = files.poll()) != null )
+        {
+            try
+            {
+                warmUpFile( file, limiter, pageBudget, pagesLoaded );
+            }
+            catch ( FileIsNotMappedException e )
+            {
+                // The file was unmapped while we were warming it up, so there is nothing more to do for it.
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Page cache warmup of " + file.file() + " failed.", e );
+            }
+        }
+        pageCache.reportEvents();
+    }
+
+    private void warmUpFile( PagedFile file, PageLimiter limiter, AtomicLong pageBudget, AtomicLong pagesLoaded )
+            throws IOException
+    {
+        Optional<File> profile = profileFile( file );
+        if ( !profile.isPresent() || !fs.fileExists( profile.get() ) )
+        {
+            return;
+        }
+        BitSet pages = readProfile( profile.get() );
+        int pageId = pages.nextSetBit( 0 );
+        while ( pageId >= 0 && !stopped && pageBudget.get() > 0 )
+        {
+            int runEnd = Math.min( pages.nextClearBit( pageId ), pageId + PREFETCH_BATCH_SIZE );
+            int runLength = runEnd - pageId;
+            limiter.acquire( runLength );
+            long loaded = file.prefetch( pageId, runLength );
+            pageBudget.addAndGet( -loaded );
+            pagesLoaded.addAndGet( loaded );
+            pageId = pages.nextSetBit( runEnd );
+        }
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            if ( warmedUp )
+            {
+                profile();
+            }
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Failed to take page cache profile.", e );
+        }
+    }
+
+    /**
+     * Write a profile for each of the mapped files in the database directory, of which of their pages are in memory.
+     *
+     * @return the number of profiles written.
+     */
+    synchronized int profile() throws IOException
+    {
+        int profiles = 0;
+        List<PagedFile> files = pageCache.listExistingMappings();
+        for ( PagedFile file : files )
+        {
+            Optional<File> profile = profileFile( file );
+            if ( profile.isPresent() )
+            {
+                BitSet pages = new BitSet();
+                try
+                {
+                    file.visitCachedPages( pageId -> pages.set( Math.toIntExact( pageId ) ) );
+                }
+                catch ( FileIsNotMappedException e )
+                {
+                    // The file was unmapped after we listed it. Its old profile, if any, is left as it is.
+                    continue;
+                }
+                writeProfile( profile.get(), pages );
+                profiles++;
+            }
+        }
+        return profiles;
+    }
+
+    private Optional<File> profileFile( PagedFile file )
+    {
+        Path databasePath = databaseDirectory.getAbsoluteFile().toPath();
+        Path filePath = file.file().getAbsoluteFile().toPath();
+        if ( !filePath.startsWith( databasePath ) || filePath.startsWith( profilesDirectory.getAbsoluteFile().toPath() ) )
+        {
+            return Optional.empty();
+        }
+        return Optional.of( new File( profilesDirectory, databasePath.relativize( filePath ) + PROFILE_SUFFIX ) );
+    }
+
+    private BitSet readProfile( File profile ) throws IOException
+    {
+        try ( InputStream in = new GZIPInputStream( fs.openAsInputStream( profile ) ) )
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( (read = in.read( buffer )) != -1 )
+            {
+                bytes.write( buffer, 0, read );
+            }
+            return BitSet.valueOf( bytes.toByteArray() );
+        }
+    }
+
+    private void writeProfile( File profile, BitSet pages ) throws IOException
+    {
+        // Write the profile next to the old one first, so that we never leave a broken profile behind.
+        File temporaryProfile = new File( profile.getParentFile(), profile.getName().replace( PROFILE_SUFFIX, TEMPORARY_PROFILE_SUFFIX ) );
+        fs.mkdirs( profile.getParentFile() );
+        try ( OutputStream out = new GZIPOutputStream( fs.openAsOutputStream( temporaryProfile, false ) ) )
+        {
+            out.write( pages.toByteArray() );
+        }
+        fs.renameFile( temporaryProfile, profile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    /**
+     * Paces the page cache warmup.
+     */
+    interface PageLimiter
+    {
+        PageLimiter UNLIMITED = pages ->
+        {
+        };
+
+        /**
+         * Wait until the given number of pages can be loaded.
+         */
+        void acquire( int pages );
+    }
+
+    /**
+     * Spreads the loading of pages evenly over time, so that no more than a given number of pages are loaded per
+     * second, across all the warmup threads.
+     */
+    static class RatePageLimiter implements PageLimiter
+    {
+        private final long nanosPerPage;
+        private final AtomicLong nextFreeSlot = new AtomicLong( System.nanoTime() );
+
+        RatePageLimiter( int pagesPerSecond )
+        {
+            this.nanosPerPage = TimeUnit.SECONDS.toNanos( 1 ) / pagesPerSecond;
+        }
+
+        @Override
+        public void acquire( int pages )
+        {
+            long now = System.nanoTime();
+            long slot;
+            long next;
+            do
+            {
+                slot = nextFreeSlot.get();
+                // Do not let idle time accumulate into a burst of pages.
+                next = Math.max( slot, now ) + pages * nanosPerPage;
+            }
+            while ( !nextFreeSlot.compareAndSet( slot, next ) );
+            long waitNanos = Math.max( slot, now ) - now;
+            if ( waitNanos > 0 )
+            {
+                LockSupport.parkNanos( waitNanos );
+            }
+        }
+    }
+}
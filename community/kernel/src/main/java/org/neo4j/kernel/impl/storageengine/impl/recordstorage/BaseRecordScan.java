@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out consecutive, non-overlapping ranges of record ids to the cursors taking part in a parallel scan.
+ *
+ * @param <C> the type of cursor reading the ranges.
+ */
+abstract class BaseRecordScan<C>
+{
+    private final AtomicLong nextStart = new AtomicLong();
+
+    /**
+     * Claims the next {@code size} record ids and places the cursor at the start of them.
+     *
+     * @return {@code false} if there were no more records to claim.
+     */
+    final boolean scanBatch( C cursor, int size )
+    {
+        long start = nextStart.getAndAdd( size );
+        return scanRange( cursor, start, start + size - 1 );
+    }
+
+    abstract boolean scanRange( C cursor, long start, long stopInclusive );
+}
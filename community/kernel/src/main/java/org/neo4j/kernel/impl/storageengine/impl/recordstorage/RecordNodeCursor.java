@@ -25,6 +25,7 @@ import org.neo4j.kernel.impl.store.NodeLabelsField;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.StorageNodeCursor;
 
 public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
@@ -35,6 +36,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     private long highMark;
     private long nextStoreReference;
     private boolean open;
+    private boolean batched;
 
     RecordNodeCursor( NodeStore read )
     {
@@ -57,6 +59,40 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         this.highMark = nodeHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
+    }
+
+    @Override
+    public boolean scanBatch( AllNodeScan scan, int sizeHint )
+    {
+        // Round up to whole pages, so that no two batches read from the same page
+        int recordsPerPage = read.getRecordsPerPage();
+        int size = Math.max( 1, (sizeHint + recordsPerPage - 1) / recordsPerPage ) * recordsPerPage;
+        return ((RecordNodeScan) scan).scanBatch( this, size );
+    }
+
+    boolean scanRange( long start, long stopInclusive )
+    {
+        if ( getId() != NO_ID )
+        {
+            reset();
+        }
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+        this.batched = true;
+        long max = nodeHighMark();
+        if ( start > max )
+        {
+            next = NO_ID;
+            return false;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = nodePage( start );
+        }
+        this.next = start;
+        this.highMark = Math.min( stopInclusive, max );
+        return true;
     }
 
     @Override
@@ -75,6 +111,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
     }
 
     @Override
@@ -154,9 +191,9 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 
             if ( next > highMark )
             {
-                if ( isSingle() )
+                if ( isSingle() || batched )
                 {
-                    //we are a "single cursor"
+                    //we are a "single cursor" or at the end of a batch
                     next = NO_ID;
                     return inUse();
                 }
@@ -24,6 +24,7 @@ import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
 class RecordRelationshipScanCursor extends RecordRelationshipCursor implements StorageRelationshipScanCursor
@@ -34,6 +35,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
     private long nextStoreReference;
     private PageCursor pageCursor;
     private boolean open;
+    private boolean batched;
 
     RecordRelationshipScanCursor( RelationshipStore relationshipStore, RelationshipGroupStore groupStore )
     {
@@ -62,6 +64,41 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         this.highMark = relationshipHighMark();
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
+    }
+
+    @Override
+    public boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint )
+    {
+        // Round up to whole pages, so that no two batches read from the same page
+        int recordsPerPage = relationshipStore.getRecordsPerPage();
+        int size = Math.max( 1, (sizeHint + recordsPerPage - 1) / recordsPerPage ) * recordsPerPage;
+        this.filterType = type;
+        return ((RecordRelationshipScan) scan).scanBatch( this, size );
+    }
+
+    boolean scanRange( long start, long stopInclusive )
+    {
+        if ( getId() != NO_ID )
+        {
+            reset();
+        }
+        this.nextStoreReference = NO_ID;
+        this.open = true;
+        this.batched = true;
+        long max = relationshipHighMark();
+        if ( start > max )
+        {
+            next = NO_ID;
+            return false;
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = relationshipPage( start );
+        }
+        this.next = start;
+        this.highMark = Math.min( stopInclusive, max );
+        return true;
     }
 
     @Override
@@ -80,6 +117,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
         this.open = true;
+        this.batched = false;
     }
 
     @Override
@@ -113,6 +151,12 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
                     next = NO_ID;
                     return inUse();
                 }
+                else if ( batched )
+                {
+                    //we are at the end of a batch of a parallel scan
+                    next = NO_ID;
+                    return isWantedTypeAndInUse();
+                }
                 else
                 {
                     //we are a "scan cursor"
@@ -62,6 +62,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.IndexingServiceFactory;
 import org.neo4j.kernel.impl.api.index.IndexingUpdateService;
 import org.neo4j.kernel.impl.api.index.PropertyPhysicalToLogicalConverter;
+import org.neo4j.kernel.impl.api.index.sampling.IndexHistogramStore;
 import org.neo4j.kernel.impl.api.scan.FullLabelStream;
 import org.neo4j.kernel.impl.api.store.SchemaCache;
 import org.neo4j.kernel.impl.cache.BridgingCacheAccess;
@@ -140,6 +141,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final CommandReaderFactory commandReaderFactory;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final IndexStoreView indexStoreView;
+    private final IndexHistogramStore indexHistogramStore;
     private final ExplicitIndexProvider explicitIndexProviderLookup;
     private final PropertyPhysicalToLogicalConverter indexUpdatesConverter;
     private final IdController idController;
@@ -192,7 +194,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             schemaCache = new SchemaCache( constraintSemantics, Collections.emptyList(), indexProviderMap );
             schemaStorage = new SchemaStorage( neoStores.getSchemaStore() );
 
-            NeoStoreIndexStoreView neoStoreIndexStoreView = new NeoStoreIndexStoreView( lockService, neoStores );
+            indexHistogramStore = new IndexHistogramStore( fs, databaseLayout.file( IndexHistogramStore.FILE_NAME ), logProvider );
+            NeoStoreIndexStoreView neoStoreIndexStoreView = new NeoStoreIndexStoreView( lockService, neoStores, indexHistogramStore );
             boolean readOnly = config.get( GraphDatabaseSettings.read_only ) && operationalMode == OperationalMode.single;
             monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ) );
             labelScanStore = new NativeLabelScanStore( pageCache, databaseLayout, fs, new FullLabelStream( neoStoreIndexStoreView ),
@@ -372,6 +375,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void init() throws Throwable
     {
+        indexHistogramStore.load();
         indexingService.init();
         labelScanStore.init();
     }
@@ -434,6 +438,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             index.force();
         }
         neoStores.flush( limiter );
+        indexHistogramStore.flush();
     }
 
     @Override
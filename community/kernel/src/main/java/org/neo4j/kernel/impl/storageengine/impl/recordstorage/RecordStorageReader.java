@@ -43,10 +43,12 @@ import org.neo4j.kernel.impl.store.RelationshipGroupStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.SchemaStorage;
 import org.neo4j.kernel.impl.store.StoreType;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.register.Register;
 import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.storageengine.api.AllNodeScan;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.RelationshipVisitor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
@@ -56,6 +58,7 @@ import org.neo4j.storageengine.api.StorageRelationshipTraversalCursor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
@@ -78,7 +81,7 @@ public class RecordStorageReader implements StorageReader
     private final RelationshipGroupStore relationshipGroupStore;
     private final PropertyStore propertyStore;
     private final SchemaStorage schemaStorage;
-    private final CountsTracker counts;
+    private final CountsStore counts;
     private final SchemaCache schemaCache;
 
     private final Supplier<IndexReaderFactory> indexReaderFactorySupplier;
@@ -204,6 +207,12 @@ public class RecordStorageReader implements StorageReader
         return indexService.indexUniqueValuesPercentage( descriptor );
     }
 
+    @Override
+    public IndexValueHistogram indexValueHistogram( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return indexService.indexValueHistogram( descriptor );
+    }
+
     @Override
     public String indexGetFailure( SchemaDescriptor descriptor ) throws IndexNotFoundKernelException
     {
@@ -476,6 +485,12 @@ public class RecordStorageReader implements StorageReader
         return new RecordNodeCursor( nodeStore );
     }
 
+    @Override
+    public AllNodeScan allNodeScan()
+    {
+        return new RecordNodeScan();
+    }
+
     @Override
     public StorageRelationshipGroupCursor allocateRelationshipGroupCursor()
     {
@@ -494,6 +509,12 @@ public class RecordStorageReader implements StorageReader
         return new RecordRelationshipScanCursor( relationshipStore, relationshipGroupStore );
     }
 
+    @Override
+    public AllRelationshipsScan allRelationshipsScan()
+    {
+        return new RecordRelationshipScan();
+    }
+
     @Override
     public StoragePropertyCursor allocatePropertyCursor()
     {
@@ -33,6 +33,7 @@ import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.FilteringIterator;
 import org.neo4j.helpers.collection.IteratorWrapper;
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.internal.diagnostics.DiagnosticsManager;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
@@ -43,7 +44,9 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.NeoStoresDiagnostics;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.kernel.impl.store.counts.ReadOnlyCountsTracker;
 import org.neo4j.kernel.impl.store.format.CapabilityType;
 import org.neo4j.kernel.impl.store.format.FormatFamily;
@@ -245,10 +248,10 @@ public class NeoStores implements AutoCloseable
     {
         try
         {
-            CountsTracker counts = (CountsTracker) stores[StoreType.COUNTS.ordinal()];
+            CountsStore counts = (CountsStore) stores[StoreType.COUNTS.ordinal()];
             if ( counts != null )
             {
-                counts.rotate( getMetaDataStore().getLastCommittedTransactionId() );
+                counts.checkpoint( getMetaDataStore().getLastCommittedTransactionId(), limiter );
             }
             pageCache.flushAndForce( limiter );
         }
@@ -423,9 +426,9 @@ public class NeoStores implements AutoCloseable
         return (SchemaStore) getStore( StoreType.SCHEMA );
     }
 
-    public CountsTracker getCounts()
+    public CountsStore getCounts()
     {
-        return (CountsTracker) getStore( StoreType.COUNTS );
+        return (CountsStore) getStore( StoreType.COUNTS );
     }
 
     private CountsTracker createWritableCountsTracker( DatabaseLayout databaseLayout )
@@ -621,14 +624,10 @@ public class NeoStores implements AutoCloseable
                 TokenStore.NAME_STORE_BLOCK_SIZE );
     }
 
-    CountsTracker createCountStore()
+    CountsStore createCountStore()
     {
-        boolean readOnly = config.get( GraphDatabaseSettings.read_only );
-        CountsTracker counts = readOnly
-                               ? createReadOnlyCountsTracker( layout )
-                               : createWritableCountsTracker( layout );
         NeoStores neoStores = this;
-        counts.setInitializer( new DataInitializer<CountsAccessor.Updater>()
+        DataInitializer<CountsAccessor.Updater> initializer = new DataInitializer<CountsAccessor.Updater>()
         {
             private final Log log = logProvider.getLog( MetaDataStore.class );
 
@@ -645,7 +644,22 @@ public class NeoStores implements AutoCloseable
             {
                 return ((MetaDataStore) getOrCreateStore( StoreType.META_DATA )).getLastCommittedTransactionId();
             }
-        } );
+        };
+
+        boolean readOnly = config.get( GraphDatabaseSettings.read_only );
+        CountsStore counts;
+        if ( config.get( GraphDatabaseSettings.counts_store_gbptree ) )
+        {
+            counts = new GBPTreeCountsStore( pageCache, fileSystemAbstraction, layout.file( GBPTreeCountsStore.FILE_NAME ),
+                    RecoveryCleanupWorkCollector.immediate(), initializer, readOnly );
+        }
+        else
+        {
+            CountsTracker tracker = readOnly
+                                    ? createReadOnlyCountsTracker( layout )
+                                    : createWritableCountsTracker( layout );
+            counts = tracker.setInitializer( initializer );
+        }
 
         try
         {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+
+/**
+ * The counts store of {@link org.neo4j.kernel.impl.store.NeoStores}, either the rotating {@link CountsTracker}
+ * or the {@link GBPTreeCountsStore}, selected by {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#counts_store_gbptree}.
+ */
+public interface CountsStore extends CountsAccessor
+{
+    void init() throws IOException;
+
+    void start() throws IOException;
+
+    void shutdown() throws IOException;
+
+    /**
+     * @param txId id of the transaction which the returned updater applies counts changes for.
+     * @return updater for the changes of the given transaction, or {@link Optional#empty()} if the changes
+     * of that transaction are already part of this store.
+     */
+    Optional<CountsAccessor.Updater> apply( long txId );
+
+    CountsAccessor.IndexStatsUpdater updateIndexCounts();
+
+    /**
+     * @param txId the transaction id which the store is at after the returned updater is closed.
+     * @return updater which replaces all counts of this store with the counts given to it.
+     */
+    CountsAccessor.Updater reset( long txId );
+
+    /**
+     * Makes the changes of all transactions up to and including the given transaction id durable.
+     *
+     * @param txId the lowest transaction id that must be included in the flushed store.
+     * @param limiter {@link IOLimiter} for the flush.
+     */
+    void checkpoint( long txId, IOLimiter limiter ) throws IOException;
+
+    /**
+     * @return highest transaction id which this store contains the changes of, and of all transactions before it.
+     */
+    long txId();
+
+    Iterable<File> allFiles();
+}
@@ -25,6 +25,7 @@ import java.util.Optional;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.configuration.Config;
@@ -75,7 +76,7 @@ import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relations
  */
 @Rotation( value = Rotation.Strategy.LEFT_RIGHT )
 public class CountsTracker extends AbstractKeyValueStore<CountsKey>
-        implements CountsVisitor.Visitable, CountsAccessor
+        implements CountsVisitor.Visitable, CountsStore
 {
     /** The format specifier for the current version of the store file format. */
     private static final byte[] FORMAT = {'N', 'e', 'o', 'C', 'o', 'u', 'n', 't',
@@ -126,6 +127,13 @@ public class CountsTracker extends AbstractKeyValueStore<CountsKey>
         return prepareRotation( txId ).rotate();
     }
 
+    @Override
+    public void checkpoint( long txId, IOLimiter limiter ) throws IOException
+    {
+        rotate( txId );
+    }
+
+    @Override
     public long txId()
     {
         return headers().get( FileVersion.FILE_VERSION ).txId;
@@ -173,16 +181,19 @@ public class CountsTracker extends AbstractKeyValueStore<CountsKey>
         return get( indexSampleKey( indexId ), target );
     }
 
+    @Override
     public Optional<CountsAccessor.Updater> apply( long txId )
     {
         return updater( txId ).map( CountsUpdater::new );
     }
 
+    @Override
     public CountsAccessor.IndexStatsUpdater updateIndexCounts()
     {
         return new CountsUpdater( updater() );
     }
 
+    @Override
     public CountsAccessor.Updater reset( long txId )
     {
         return new CountsUpdater( resetter( txId ) );
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.counts.keys.CountsKeyType;
+
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyType.ENTITY_NODE;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyType.ENTITY_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyType.INDEX_SAMPLE;
+import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyType.INDEX_STATISTICS;
+
+/**
+ * Keys in {@link CountsTreeLayout}. Each key consists of a {@link CountsKeyType type} and two longs, where
+ * <ul>
+ * <li>node keys have {@code first = labelId}</li>
+ * <li>relationship keys have {@code first = startLabelId} and {@code second = typeId<<32 | endLabelId}</li>
+ * <li>index statistics and index sample keys have {@code first = indexId}</li>
+ * </ul>
+ */
+class CountsTreeKey
+{
+    static final int SIZE = Byte.BYTES + Long.BYTES + Long.BYTES;
+
+    byte type;
+    long first;
+    long second;
+
+    CountsTreeKey()
+    {
+        clear();
+    }
+
+    final CountsTreeKey set( CountsKeyType type, long first, long second )
+    {
+        this.type = type.code;
+        this.first = first;
+        this.second = second;
+        return this;
+    }
+
+    final CountsTreeKey initializeNode( long labelId )
+    {
+        return set( ENTITY_NODE, labelId, 0 );
+    }
+
+    final CountsTreeKey initializeRelationship( long startLabelId, int typeId, long endLabelId )
+    {
+        return set( ENTITY_RELATIONSHIP, startLabelId, ((long) typeId << Integer.SIZE) | (endLabelId & 0xFFFFFFFFL) );
+    }
+
+    final CountsTreeKey initializeIndexStatistics( long indexId )
+    {
+        return set( INDEX_STATISTICS, indexId, 0 );
+    }
+
+    final CountsTreeKey initializeIndexSample( long indexId )
+    {
+        return set( INDEX_SAMPLE, indexId, 0 );
+    }
+
+    final void clear()
+    {
+        type = 0;
+        first = -1;
+        second = -1;
+    }
+
+    /**
+     * Visits this key together with its value, see {@link org.neo4j.kernel.impl.store.counts.keys.CountsKey#accept(CountsVisitor, long, long)}.
+     */
+    void accept( CountsVisitor visitor, long firstValue, long secondValue )
+    {
+        switch ( CountsKeyType.value( type ) )
+        {
+        case ENTITY_NODE:
+            visitor.visitNodeCount( (int) first, secondValue );
+            break;
+        case ENTITY_RELATIONSHIP:
+            visitor.visitRelationshipCount( (int) first, (int) (second >>> Integer.SIZE), (int) second, secondValue );
+            break;
+        case INDEX_STATISTICS:
+            visitor.visitIndexStatistics( first, firstValue, secondValue );
+            break;
+        case INDEX_SAMPLE:
+            visitor.visitIndexSample( first, firstValue, secondValue );
+            break;
+        default:
+            throw new IllegalStateException( "Unknown counts key type " + type );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[type:" + type + ",first:" + first + ",second:" + second + "]";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.neo4j.index.internal.gbptree.ValueMerger;
+import org.neo4j.register.Register;
+
+/**
+ * Values in {@link CountsTreeLayout}, two longs with the same meaning as the two parts of the
+ * {@link Register.DoubleLongRegister} read from the counts store for that key.
+ */
+class CountsTreeValue
+{
+    static final int SIZE = Long.BYTES + Long.BYTES;
+
+    /**
+     * Adds the new value to the existing one. Since increments only ever touch one of the two parts,
+     * the other part of the delta is zero and so adding both parts works for all increments.
+     */
+    static final ValueMerger<CountsTreeKey,CountsTreeValue> ADD = ( existingKey, newKey, existingValue, newValue ) ->
+    {
+        existingValue.first += newValue.first;
+        existingValue.second += newValue.second;
+        return existingValue;
+    };
+
+    long first;
+    long second;
+
+    final CountsTreeValue set( long first, long second )
+    {
+        this.first = first;
+        this.second = second;
+        return this;
+    }
+
+    boolean isEmpty()
+    {
+        return first == 0 && second == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + first + "," + second + "]";
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.apache.commons.lang3.mutable.MutableBoolean;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Header;
+import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.register.Register;
+
+/**
+ * Counts store backed by a {@link GBPTree}, an alternative to {@link CountsTracker}.
+ * <p>
+ * Where {@link CountsTracker} keeps deltas in memory and writes a complete new counts file on every rotation,
+ * this store applies every delta directly to the tree. A {@link #checkpoint(IOLimiter) checkpoint} therefore only
+ * needs to flush the pages which have changed since the previous checkpoint, regardless of the total number of counts keys.
+ * <p>
+ * Transactions are applied concurrently and not necessarily in transaction id order, so the tree header keeps
+ * the highest gap-free applied transaction id together with the ids of transactions applied after that gap.
+ * Transactions which are already part of the checkpointed tree are ignored by {@link #apply(long)} when
+ * replayed during recovery.
+ * <p>
+ * A missing store, or a store which didn't complete its rebuild, is rebuilt from the given {@link DataInitializer},
+ * typically {@link org.neo4j.kernel.impl.store.CountsComputer}, in {@link #start()}. Any recovery must have been
+ * performed before that, transactions applied while the store needs rebuilding are ignored.
+ */
+public class GBPTreeCountsStore extends LifecycleAdapter implements CountsStore
+{
+    public static final String FILE_NAME = "neostore.countstree.db";
+
+    /**
+     * Written in header to indicate native counts store is clean.
+     */
+    private static final byte CLEAN = (byte) 0x00;
+
+    /**
+     * Written in header to indicate native counts store is/has been rebuilding.
+     */
+    private static final byte NEEDS_REBUILDING = (byte) 0x01;
+
+    private static final long NO_TRANSACTION = -1;
+
+    private static final Consumer<PageCursor> needsRebuildingWriter =
+            pageCursor -> pageCursor.putByte( NEEDS_REBUILDING );
+
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fileSystem;
+    private final File storeFile;
+    private final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
+    private final DataInitializer<CountsAccessor.Updater> initializer;
+    private final boolean readOnly;
+    private final CountsTreeLayout layout = new CountsTreeLayout();
+
+    private GBPTree<CountsTreeKey,CountsTreeValue> tree;
+    private volatile boolean needsRebuild;
+
+    // Applied transactions, guarded by this
+    private long highestGapFreeTxId;
+    private final MutableLongSet appliedTxIdsAfterGap = new LongHashSet();
+
+    public GBPTreeCountsStore( PageCache pageCache, FileSystemAbstraction fileSystem, File storeFile,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, DataInitializer<CountsAccessor.Updater> initializer,
+            boolean readOnly )
+    {
+        this.pageCache = pageCache;
+        this.fileSystem = fileSystem;
+        this.storeFile = storeFile;
+        this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
+        this.initializer = initializer;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Instantiates the underlying {@link GBPTree}. A store which didn't complete a previous rebuild is deleted
+     * and created again, since it may contain some of the counts from that rebuild. A read only store is never
+     * created or rebuilt.
+     *
+     * @throws IOException on {@link PageCache} exceptions, or if a read only store is missing or needs rebuilding.
+     */
+    @Override
+    public void init() throws IOException
+    {
+        boolean storeExists = fileSystem.fileExists( storeFile );
+        if ( readOnly && !storeExists )
+        {
+            throw new IOException( "Counts store " + storeFile + " is missing and can't be rebuilt in read only mode" );
+        }
+        needsRebuild = instantiateTree();
+        if ( readOnly && needsRebuild )
+        {
+            tree.close();
+            tree = null;
+            throw new IOException( "Counts store " + storeFile + " needs rebuilding, which can't be done in read only mode" );
+        }
+        if ( needsRebuild && storeExists )
+        {
+            tree.close();
+            fileSystem.deleteFileOrThrow( storeFile );
+            instantiateTree();
+        }
+    }
+
+    /**
+     * @return true if instantiated tree needs to be rebuilt.
+     */
+    private boolean instantiateTree()
+    {
+        MutableBoolean isRebuilding = new MutableBoolean();
+        Header.Reader readHeader = headerData ->
+        {
+            isRebuilding.setValue( !headerData.hasRemaining() || headerData.get() == NEEDS_REBUILDING );
+            if ( isRebuilding.isFalse() )
+            {
+                readAppliedTransactions( headerData );
+            }
+        };
+        // The header writer is only used when the file is created, and the header reader only when it existed
+        isRebuilding.setTrue();
+        tree = new GBPTree<>( pageCache, storeFile, layout, 0, GBPTree.NO_MONITOR, readHeader, needsRebuildingWriter,
+                recoveryCleanupWorkCollector );
+        return isRebuilding.getValue();
+    }
+
+    /**
+     * Rebuilds the store from the {@link DataInitializer} if needed and makes it available for updates.
+     *
+     * @throws IOException on {@link PageCache} exceptions.
+     */
+    @Override
+    public void start() throws IOException
+    {
+        if ( needsRebuild )
+        {
+            try ( TreeUpdater updater = new TreeUpdater( tree.writer(), NO_TRANSACTION ) )
+            {
+                initializer.initialize( updater );
+            }
+            synchronized ( this )
+            {
+                highestGapFreeTxId = initializer.initialVersion();
+                appliedTxIdsAfterGap.clear();
+            }
+            needsRebuild = false;
+            checkpoint( IOLimiter.UNLIMITED );
+        }
+    }
+
+    @Override
+    public void shutdown() throws IOException
+    {
+        if ( tree != null )
+        {
+            tree.close();
+            tree = null;
+        }
+    }
+
+    @Override
+    public Optional<CountsAccessor.Updater> apply( long txId )
+    {
+        if ( needsRebuild || isApplied( txId ) )
+        {
+            return Optional.empty();
+        }
+        return Optional.of( new TreeUpdater( parallelWriter(), txId ) );
+    }
+
+    @Override
+    public CountsAccessor.IndexStatsUpdater updateIndexCounts()
+    {
+        return new TreeUpdater( parallelWriter(), NO_TRANSACTION );
+    }
+
+    /**
+     * Removes all counts from the tree and sets the store at the given transaction id. Must not be called
+     * concurrently with any other updates.
+     */
+    @Override
+    public CountsAccessor.Updater reset( long txId )
+    {
+        try
+        {
+            Writer<CountsTreeKey,CountsTreeValue> writer = tree.writer();
+            List<CountsTreeKey> keys = new ArrayList<>();
+            try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = seekAll() )
+            {
+                while ( seek.next() )
+                {
+                    keys.add( layout.copyKey( seek.get().key(), layout.newKey() ) );
+                }
+            }
+            for ( CountsTreeKey key : keys )
+            {
+                writer.remove( key );
+            }
+            synchronized ( this )
+            {
+                highestGapFreeTxId = txId;
+                appliedTxIdsAfterGap.clear();
+            }
+            return new TreeUpdater( writer, NO_TRANSACTION );
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    /**
+     * Flushes the changes made since the previous checkpoint together with the ids of the applied transactions,
+     * so that this store is recoverable from this point given that transactions applied after this point are
+     * applied again on next startup.
+     *
+     * Does nothing for a read only store.
+     *
+     * @param limiter {@link IOLimiter} for the flush.
+     */
+    public void checkpoint( IOLimiter limiter ) throws IOException
+    {
+        if ( readOnly )
+        {
+            return;
+        }
+        tree.checkpoint( limiter, this::writeAppliedTransactions );
+    }
+
+    /**
+     * The given transaction id isn't needed, since the ids of the applied transactions are written with the checkpoint.
+     */
+    @Override
+    public void checkpoint( long txId, IOLimiter limiter ) throws IOException
+    {
+        checkpoint( limiter );
+    }
+
+    @Override
+    public synchronized long txId()
+    {
+        return highestGapFreeTxId;
+    }
+
+    @Override
+    public Iterable<File> allFiles()
+    {
+        return Collections.singletonList( storeFile );
+    }
+
+    @Override
+    public Register.DoubleLongRegister nodeCount( int labelId, Register.DoubleLongRegister target )
+    {
+        return get( layout.newKey().initializeNode( labelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister relationshipCount( int startLabelId, int typeId, int endLabelId,
+            Register.DoubleLongRegister target )
+    {
+        return get( layout.newKey().initializeRelationship( startLabelId, typeId, endLabelId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexUpdatesAndSize( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( layout.newKey().initializeIndexStatistics( indexId ), target );
+    }
+
+    @Override
+    public Register.DoubleLongRegister indexSample( long indexId, Register.DoubleLongRegister target )
+    {
+        return get( layout.newKey().initializeIndexSample( indexId ), target );
+    }
+
+    private Register.DoubleLongRegister get( CountsTreeKey key, Register.DoubleLongRegister target )
+    {
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = tree.seek( key, key ) )
+        {
+            if ( seek.next() )
+            {
+                CountsTreeValue value = seek.get().value();
+                target.write( value.first, value.second );
+            }
+            else
+            {
+                target.write( 0, 0 );
+            }
+            return target;
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    @Override
+    public void accept( CountsVisitor visitor )
+    {
+        try ( RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seek = seekAll() )
+        {
+            while ( seek.next() )
+            {
+                CountsTreeValue value = seek.get().value();
+                // Counts which have been decremented back to zero are left in the tree, but not visible
+                if ( !value.isEmpty() )
+                {
+                    seek.get().key().accept( visitor, value.first, value.second );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    private RawCursor<Hit<CountsTreeKey,CountsTreeValue>,IOException> seekAll() throws IOException
+    {
+        CountsTreeKey from = layout.newKey();
+        from.type = Byte.MIN_VALUE;
+        from.first = Long.MIN_VALUE;
+        from.second = Long.MIN_VALUE;
+        CountsTreeKey to = layout.newKey();
+        to.type = Byte.MAX_VALUE;
+        to.first = Long.MAX_VALUE;
+        to.second = Long.MAX_VALUE;
+        return tree.seek( from, to );
+    }
+
+    private Writer<CountsTreeKey,CountsTreeValue> parallelWriter()
+    {
+        try
+        {
+            return tree.parallelWriter();
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    private synchronized boolean isApplied( long txId )
+    {
+        return txId <= highestGapFreeTxId || appliedTxIdsAfterGap.contains( txId );
+    }
+
+    private synchronized void markApplied( long txId )
+    {
+        if ( txId == highestGapFreeTxId + 1 )
+        {
+            highestGapFreeTxId = txId;
+            while ( appliedTxIdsAfterGap.remove( highestGapFreeTxId + 1 ) )
+            {
+                highestGapFreeTxId++;
+            }
+        }
+        else
+        {
+            appliedTxIdsAfterGap.add( txId );
+        }
+    }
+
+    /**
+     * Header format:
+     * <pre>
+     * [state:byte][highestGapFreeTxId:long][count:int][appliedTxIdAfterGap:long]*count
+     * </pre>
+     * Called by checkpoint when no updaters are active, so the written transaction ids matches the tree contents.
+     */
+    private synchronized void writeAppliedTransactions( PageCursor cursor )
+    {
+        cursor.putByte( CLEAN );
+        cursor.putLong( highestGapFreeTxId );
+        cursor.putInt( appliedTxIdsAfterGap.size() );
+        appliedTxIdsAfterGap.forEach( cursor::putLong );
+    }
+
+    private synchronized void readAppliedTransactions( ByteBuffer headerData )
+    {
+        highestGapFreeTxId = headerData.getLong();
+        appliedTxIdsAfterGap.clear();
+        int count = headerData.getInt();
+        for ( int i = 0; i < count; i++ )
+        {
+            appliedTxIdsAfterGap.add( headerData.getLong() );
+        }
+    }
+
+    /**
+     * Applies counts changes through a {@link Writer} of the tree. A transaction is marked as applied before the
+     * writer is closed, i.e. before a checkpoint is able to observe the changes made by this updater.
+     */
+    private class TreeUpdater implements CountsAccessor.Updater, CountsAccessor.IndexStatsUpdater
+    {
+        private final Writer<CountsTreeKey,CountsTreeValue> writer;
+        private final long txId;
+        private final CountsTreeKey key = layout.newKey();
+        private final CountsTreeValue value = layout.newValue();
+        private boolean closed;
+
+        TreeUpdater( Writer<CountsTreeKey,CountsTreeValue> writer, long txId )
+        {
+            this.writer = writer;
+            this.txId = txId;
+        }
+
+        @Override
+        public void incrementNodeCount( long labelId, long delta )
+        {
+            writer.merge( key.initializeNode( labelId ), value.set( 0, delta ), CountsTreeValue.ADD );
+        }
+
+        @Override
+        public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
+        {
+            writer.merge( key.initializeRelationship( startLabelId, typeId, endLabelId ), value.set( 0, delta ),
+                    CountsTreeValue.ADD );
+        }
+
+        @Override
+        public void replaceIndexUpdateAndSize( long indexId, long updates, long size )
+        {
+            writer.put( key.initializeIndexStatistics( indexId ), value.set( updates, size ) );
+        }
+
+        @Override
+        public void replaceIndexSample( long indexId, long unique, long size )
+        {
+            writer.put( key.initializeIndexSample( indexId ), value.set( unique, size ) );
+        }
+
+        @Override
+        public void incrementIndexUpdates( long indexId, long delta )
+        {
+            writer.merge( key.initializeIndexStatistics( indexId ), value.set( delta, 0 ), CountsTreeValue.ADD );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {   // Schema transactions close their updater early, and then again when the applier is closed
+                return;
+            }
+            closed = true;
+            try
+            {
+                if ( txId != NO_TRANSACTION )
+                {
+                    markApplied( txId );
+                }
+                writer.close();
+            }
+            catch ( IOException e )
+            {
+                throw new UnderlyingStorageException( e );
+            }
+        }
+    }
+}
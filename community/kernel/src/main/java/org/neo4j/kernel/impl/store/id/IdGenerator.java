@@ -30,6 +30,24 @@ public interface IdGenerator extends IdSequence, Closeable
      * @param id the highest in use + 1
      */
     void setHighId( long id );
+
+    /**
+     * Sets the high id, unless it is already at least {@code id}. The comparison and the update are one atomic
+     * operation with respect to id allocation.
+     *
+     * @param id the highest in use + 1
+     */
+    default void raiseHighId( long id )
+    {
+        synchronized ( this )
+        {
+            if ( id > getHighId() )
+            {
+                setHighId( id );
+            }
+        }
+    }
+
     long getHighId();
     long getHighestPossibleIdInUse();
     void freeId( long id );
@@ -76,6 +94,12 @@ public interface IdGenerator extends IdSequence, Closeable
             delegate.setHighId( id );
         }
 
+        @Override
+        public void raiseHighId( long id )
+        {
+            delegate.raiseHighId( id );
+        }
+
         @Override
         public long getHighId()
         {
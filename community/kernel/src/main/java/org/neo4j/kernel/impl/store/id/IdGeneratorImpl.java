@@ -21,8 +21,10 @@ package org.neo4j.kernel.impl.store.id;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongSupplier;
 
+import org.neo4j.collection.PrimitiveLongCollections;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.store.id.validation.IdValidator;
@@ -56,6 +58,12 @@ import org.neo4j.kernel.impl.store.id.validation.IdValidator;
  * same file. There can only be one id generator instance per id generator file.
  * <p>
  * In case of disk/file I/O failure an <CODE>IOException</CODE> is thrown.
+ * <p>
+ * Ids that have never been used are carved from the high id without locking, which is the common case for
+ * concurrently committing transactions creating data. Only reuse of defragged ids, freeing ids and
+ * lifecycle operations synchronize on this generator. Since allocation doesn't take the monitor, every change of the
+ * high id is a compare-and-set, and closing swaps the high id for a marker that allocation fails on, so that the high
+ * id that is persisted is the last one handed out.
  */
 public class IdGeneratorImpl implements IdGenerator
 {
@@ -65,10 +73,24 @@ public class IdGeneratorImpl implements IdGenerator
      */
     public static final long INTEGER_MINUS_ONE = 0xFFFFFFFFL;  // 4294967295L;
 
+    /**
+     * Value of {@link #highId} once this generator has been closed.
+     */
+    private static final long CLOSED = -1;
+
     private final long max;
     private final IdContainer idContainer;
-    private long highId;
+    private final AtomicLong highId = new AtomicLong();
+    /**
+     * The high id at the time this generator was closed. Only written while holding the monitor of this generator.
+     */
+    private volatile long closedHighId;
     private final IdType idType;
+    /**
+     * Whether or not the {@link #idContainer} may have ids to reuse, so that allocation can skip synchronizing on
+     * this generator when it doesn't. Only written while holding the monitor of this generator.
+     */
+    private volatile boolean reusableIdsAvailable;
 
     /**
      * Opens the id generator represented by <CODE>fileName</CODE>. The
@@ -110,12 +132,13 @@ public class IdGeneratorImpl implements IdGenerator
          */
         if ( this.idContainer.init() )
         {
-            this.highId = idContainer.getInitialHighId();
+            this.highId.set( idContainer.getInitialHighId() );
         }
         else
         {
-            this.highId = highId.getAsLong();
+            this.highId.set( highId.getAsLong() );
         }
+        this.reusableIdsAvailable = idContainer.getFreeIdCount() > 0;
     }
 
     /**
@@ -130,34 +153,73 @@ public class IdGeneratorImpl implements IdGenerator
      * @throws IllegalStateException if this id generator has been closed
      */
     @Override
-    public synchronized long nextId()
+    public long nextId()
     {
         assertStillOpen();
-        long nextDefragId = idContainer.getReusableId();
-        if ( nextDefragId != IdContainer.NO_RESULT )
+        if ( reusableIdsAvailable )
         {
-            return nextDefragId;
+            long nextDefragId = nextReusableId();
+            if ( nextDefragId != IdContainer.NO_RESULT )
+            {
+                return nextDefragId;
+            }
         }
 
-        if ( IdValidator.isReservedId( highId ) )
+        long current;
+        long id;
+        do
         {
-            highId++;
+            current = openHighId();
+            id = IdValidator.isReservedId( current ) ? current + 1 : current;
+            IdValidator.assertValidId( idType, id, max );
         }
-        IdValidator.assertValidId( idType, highId, max );
-        return highId++;
+        while ( !highId.compareAndSet( current, id + 1 ) );
+        return id;
     }
 
     @Override
-    public synchronized IdRange nextIdBatch( int size )
+    public IdRange nextIdBatch( int size )
     {
         assertStillOpen();
-        long[] reusableIds = idContainer.getReusableIds( size );
+        long[] reusableIds = reusableIdsAvailable ? nextReusableIds( size ) : PrimitiveLongCollections.EMPTY_LONG_ARRAY;
         int sizeLeftForRange = size - reusableIds.length;
-        long start = highId;
-        setHighId( start + sizeLeftForRange );
+        long start;
+        long end;
+        do
+        {
+            start = openHighId();
+            end = start + sizeLeftForRange;
+            IdValidator.assertIdWithinCapacity( idType, end, max );
+        }
+        while ( !highId.compareAndSet( start, end ) );
         return new IdRange( reusableIds, start, sizeLeftForRange );
     }
 
+    private long openHighId()
+    {
+        long current = highId.get();
+        if ( current == CLOSED )
+        {
+            idContainer.assertStillOpen();
+            throw new IllegalStateException( "Closed id generator " + idType );
+        }
+        return current;
+    }
+
+    private synchronized long nextReusableId()
+    {
+        long id = idContainer.getReusableId();
+        reusableIdsAvailable = idContainer.getFreeIdCount() > 0;
+        return id;
+    }
+
+    private synchronized long[] nextReusableIds( int size )
+    {
+        long[] ids = idContainer.getReusableIds( size );
+        reusableIdsAvailable = idContainer.getFreeIdCount() > 0;
+        return ids;
+    }
+
     /**
      * Sets the next free "high" id. This method should be called when an id
      * generator has been rebuilt. {@code id} must not be higher than {@code max}.
@@ -165,10 +227,32 @@ public class IdGeneratorImpl implements IdGenerator
      * @param id The next free id returned from {@link #nextId()} if there are no existing free ids.
      */
     @Override
-    public synchronized void setHighId( long id )
+    public void setHighId( long id )
+    {
+        IdValidator.assertIdWithinCapacity( idType, id, max );
+        long current;
+        do
+        {
+            current = openHighId();
+        }
+        while ( !highId.compareAndSet( current, id ) );
+    }
+
+    /**
+     * Sets the next free "high" id, unless ids at or above {@code id} have already been handed out.
+     *
+     * @param id The lowest next free id returned from {@link #nextId()} if there are no existing free ids.
+     */
+    @Override
+    public void raiseHighId( long id )
     {
         IdValidator.assertIdWithinCapacity( idType, id, max );
-        highId = id;
+        long current;
+        do
+        {
+            current = openHighId();
+        }
+        while ( id > current && !highId.compareAndSet( current, id ) );
     }
 
     /**
@@ -178,15 +262,16 @@ public class IdGeneratorImpl implements IdGenerator
      * @return The next free "high" id
      */
     @Override
-    public synchronized long getHighId()
+    public long getHighId()
     {
-        return highId;
+        long current = highId.get();
+        return current == CLOSED ? closedHighId : current;
     }
 
     @Override
-    public synchronized long getHighestPossibleIdInUse()
+    public long getHighestPossibleIdInUse()
     {
-        return highId - 1;
+        return getHighId() - 1;
     }
 
     /**
@@ -212,11 +297,13 @@ public class IdGeneratorImpl implements IdGenerator
             return;
         }
 
-        if ( id < 0 || id >= highId )
+        long currentHighId = getHighId();
+        if ( id < 0 || id >= currentHighId )
         {
-            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + highId );
+            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + currentHighId );
         }
         idContainer.freeId( id );
+        reusableIdsAvailable = idContainer.getFreeIdCount() > 0;
     }
 
     /**
@@ -231,7 +318,20 @@ public class IdGeneratorImpl implements IdGenerator
     @Override
     public synchronized void close()
     {
-        idContainer.close( highId );
+        idContainer.close( seal() );
+    }
+
+    /**
+     * Makes allocation fail from now on, and returns the high id after the last allocation.
+     */
+    private long seal()
+    {
+        long current = highId.getAndSet( CLOSED );
+        if ( current != CLOSED )
+        {
+            closedHighId = current;
+        }
+        return closedHighId;
     }
 
     /**
@@ -280,9 +380,9 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     @Override
-    public synchronized long getNumberOfIdsInUse()
+    public long getNumberOfIdsInUse()
     {
-        return highId - getDefragCount();
+        return getHighId() - getDefragCount();
     }
 
     @Override
@@ -294,6 +394,7 @@ public class IdGeneratorImpl implements IdGenerator
     @Override
     public synchronized void delete()
     {
+        seal();
         idContainer.delete();
     }
 
@@ -0,0 +1,578 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
+import org.neo4j.kernel.impl.util.IdOrderingQueue;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum;
+
+/**
+ * Appends transactions to the transaction log from a single, dedicated flusher thread.
+ * <p>
+ * Committing threads publish their batch of transactions into a bounded ring buffer, without taking any locks,
+ * and park until the flusher has made the batch durable. The flusher drains up to {@code maxBatchSize} requests,
+ * optionally waiting up to {@code maxBatchLatency} for more to arrive, serializes all of them to the log, forces
+ * the log once and then wakes up the committers. Compared to {@link BatchingTransactionAppender} this means that
+ * committers never contend on the log file monitor or on the right to force, which pays off with many small
+ * concurrent write transactions.
+ * <p>
+ * Once the flusher thread has exited, whether stopped or because of an unexpected failure, all requests that it
+ * didn't get to, and any request made after that, fail rather than wait for a thread that will never serve them.
+ */
+public class AsyncTransactionAppender extends LifecycleAdapter implements TransactionAppender
+{
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+    private static final long BACK_OFF_NANOS = TimeUnit.MICROSECONDS.toNanos( 10 );
+
+    /**
+     * Notified by the flusher thread about each batch that has been appended to, and forced in, the log.
+     * Listeners are registered with {@link org.neo4j.kernel.monitoring.Monitors}.
+     */
+    public interface Monitor
+    {
+        default void batchAppended( int numberOfTransactions, long forceTimeNanos )
+        {   // no-op
+        }
+    }
+
+    private final IdOrderingQueue explicitIndexTransactionOrdering;
+    private final TransactionMetadataCache transactionMetadataCache;
+    private final LogFile logFile;
+    private final LogRotation logRotation;
+    private final TransactionIdStore transactionIdStore;
+    private final LogPositionMarker positionMarker = new LogPositionMarker();
+    private final DatabaseHealth databaseHealth;
+    private final ThreadFactory threadFactory;
+    private final TransactionTracer transactionTracer;
+    private final Monitor monitor;
+    private final int maxBatchSize;
+    private final long maxBatchLatencyNanos;
+
+    // Ring buffer of pending requests. Producers claim a sequence by bumping tail, the flusher is the only one
+    // moving head forward.
+    private final AtomicReferenceArray<AppendRequest> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    private volatile boolean flusherParked;
+    private volatile boolean stopped;
+    private volatile Throwable flusherTermination;
+    private Thread flusher;
+
+    private FlushablePositionAwareChannel writer;
+    private TransactionLogWriter transactionLogWriter;
+    private IndexCommandDetector indexCommandDetector;
+
+    public AsyncTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth, ThreadFactory threadFactory,
+            TransactionTracer transactionTracer, Monitor monitor, int maxBatchSize, long maxBatchLatency, TimeUnit unit )
+    {
+        this.logFile = logFiles.getLogFile();
+        this.logRotation = logRotation;
+        this.transactionIdStore = transactionIdStore;
+        this.explicitIndexTransactionOrdering = explicitIndexTransactionOrdering;
+        this.databaseHealth = databaseHealth;
+        this.transactionMetadataCache = transactionMetadataCache;
+        this.threadFactory = threadFactory;
+        this.transactionTracer = transactionTracer;
+        this.monitor = monitor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchLatencyNanos = unit.toNanos( maxBatchLatency );
+        int capacity = Integer.highestOneBit( Math.max( 1024, maxBatchSize * 2 ) - 1 ) << 1;
+        this.ring = new AtomicReferenceArray<>( capacity );
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void start()
+    {
+        this.writer = logFile.getWriter();
+        this.indexCommandDetector = new IndexCommandDetector();
+        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.stopped = false;
+        this.flusherTermination = null;
+        this.flusher = threadFactory.newThread( this::flushLoop );
+        this.flusher.start();
+    }
+
+    @Override
+    public void stop() throws InterruptedException
+    {
+        stopped = true;
+        LockSupport.unpark( flusher );
+        flusher.join();
+    }
+
+    @Override
+    public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        // Assert that kernel is healthy before making any changes
+        databaseHealth.assertHealthy( IOException.class );
+
+        AppendRequest request = new AppendRequest( batch, logAppendEvent, Thread.currentThread() );
+        try ( LogForceWaitEvent logForceWaitEvent = logAppendEvent.beginLogForceWait() )
+        {
+            enqueue( request );
+            awaitDone( request );
+        }
+        request.throwIfFailed();
+
+        // All transactions in this batch are durable, so mark them as committed
+        publishAsCommitted( batch );
+        return request.lastTransactionId;
+    }
+
+    @Override
+    public void checkPoint( LogPosition logPosition, LogCheckPointEvent logCheckPointEvent ) throws IOException
+    {
+        try
+        {
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
+            {
+                transactionLogWriter.checkPoint( logPosition );
+            }
+        }
+        catch ( Throwable cause )
+        {
+            databaseHealth.panic( cause );
+            throw cause;
+        }
+
+        try ( LogForceEvent logForceEvent = logCheckPointEvent.beginLogForce() )
+        {
+            force();
+        }
+        catch ( Throwable cause )
+        {
+            databaseHealth.panic( cause );
+            throw cause;
+        }
+    }
+
+    private void enqueue( AppendRequest request ) throws IOException
+    {
+        long sequence;
+        do
+        {
+            throwIfFlusherTerminated();
+            sequence = tail.get();
+            if ( sequence - head >= ring.length() )
+            {
+                // The ring is full, back off and let the flusher catch up
+                wakeFlusher();
+                LockSupport.parkNanos( this, BACK_OFF_NANOS );
+                continue;
+            }
+            if ( tail.compareAndSet( sequence, sequence + 1 ) )
+            {
+                break;
+            }
+        }
+        while ( true );
+
+        ring.set( (int) (sequence & mask), request );
+        wakeFlusher();
+    }
+
+    private void awaitDone( AppendRequest request ) throws IOException
+    {
+        while ( !request.done )
+        {
+            // Claiming the request makes sure that the flusher won't pick it up after we have given up on it
+            if ( flusherTermination != null && request.claim() )
+            {
+                throwIfFlusherTerminated();
+            }
+            LockSupport.parkNanos( this, PARK_NANOS );
+        }
+    }
+
+    private void throwIfFlusherTerminated() throws IOException
+    {
+        Throwable termination = flusherTermination;
+        if ( termination != null )
+        {
+            throw notRunning( termination );
+        }
+    }
+
+    private static IOException notRunning( Throwable termination )
+    {
+        return new IOException( "Transaction log appender is not running", termination );
+    }
+
+    private void wakeFlusher()
+    {
+        if ( flusherParked )
+        {
+            LockSupport.unpark( flusher );
+        }
+    }
+
+    private void flushLoop()
+    {
+        List<AppendRequest> batch = new ArrayList<>( maxBatchSize );
+        Throwable termination = new IllegalStateException( "Transaction log appender has been stopped" );
+        try
+        {
+            while ( true )
+            {
+                drain( batch );
+                if ( batch.isEmpty() )
+                {
+                    if ( stopped )
+                    {
+                        return;
+                    }
+                    parkFlusher( PARK_NANOS );
+                    continue;
+                }
+
+                if ( maxBatchLatencyNanos > 0 )
+                {
+                    long deadline = batch.get( 0 ).enqueuedAt + maxBatchLatencyNanos;
+                    long remaining;
+                    while ( batch.size() < maxBatchSize && !stopped && (remaining = deadline - System.nanoTime()) > 0 )
+                    {
+                        parkFlusher( remaining );
+                        drain( batch );
+                    }
+                }
+
+                appendAndForce( batch );
+                batch.clear();
+            }
+        }
+        catch ( Throwable t )
+        {
+            termination = t;
+            throw t;
+        }
+        finally
+        {
+            flusherTermination = termination;
+            // Fail whatever was in flight or queued, requests made from now on fail by themselves
+            IOException notRunning = notRunning( termination );
+            do
+            {
+                for ( AppendRequest request : batch )
+                {
+                    request.fail( notRunning );
+                }
+                batch.clear();
+                drain( batch );
+            }
+            while ( !batch.isEmpty() );
+        }
+    }
+
+    private void parkFlusher( long nanos )
+    {
+        flusherParked = true;
+        // Check for requests after announcing that we're about to park, so that no wake-up is missed
+        if ( head == tail.get() )
+        {
+            LockSupport.parkNanos( this, nanos );
+        }
+        flusherParked = false;
+    }
+
+    private void drain( List<AppendRequest> batch )
+    {
+        while ( batch.size() < maxBatchSize )
+        {
+            long sequence = head;
+            if ( sequence == tail.get() )
+            {
+                return;
+            }
+            int index = (int) (sequence & mask);
+            AppendRequest request;
+            while ( (request = ring.get( index )) == null )
+            {
+                // The producer has claimed the sequence but not yet published its request
+                Thread.yield();
+            }
+            ring.lazySet( index, null );
+            head = sequence + 1;
+            if ( request.claim() )
+            {
+                batch.add( request );
+            }
+        }
+    }
+
+    private void appendAndForce( List<AppendRequest> batch )
+    {
+        int numberOfTransactions = 0;
+        AppendRequest first = null;
+        // Synchronized with logFile to get absolute control over concurrent rotations happening
+        synchronized ( logFile )
+        {
+            for ( AppendRequest request : batch )
+            {
+                try ( SerializeTransactionEvent serialiseEvent = request.logAppendEvent.beginSerializeTransaction() )
+                {
+                    databaseHealth.assertHealthy( IOException.class );
+                    numberOfTransactions += appendBatch( request );
+                    first = first == null ? request : first;
+                }
+                catch ( Throwable failure )
+                {
+                    request.failure = failure;
+                }
+            }
+        }
+
+        if ( first != null )
+        {
+            try ( LogAppendEvent batchEvent = transactionTracer.beginLogBatchAppend() )
+            {
+                long forceStart = System.nanoTime();
+                try ( LogForceEvent logForceEvent = batchEvent.beginLogForce() )
+                {
+                    force();
+                }
+                catch ( Throwable panic )
+                {
+                    databaseHealth.panic( panic );
+                    throw panic;
+                }
+                long forceTime = System.nanoTime() - forceStart;
+
+                // It's enough that the flusher checks the need for log rotation once per batch
+                boolean logRotated = logRotation.rotateLogIfNeeded( batchEvent );
+                batchEvent.setLogRotated( logRotated );
+                monitor.batchAppended( numberOfTransactions, forceTime );
+            }
+            catch ( Throwable failure )
+            {
+                for ( AppendRequest request : batch )
+                {
+                    request.failure = request.failure == null ? failure : request.failure;
+                }
+            }
+        }
+
+        for ( AppendRequest request : batch )
+        {
+            request.done();
+        }
+    }
+
+    private int appendBatch( AppendRequest request ) throws IOException
+    {
+        int count = 0;
+        TransactionToApply tx = request.batch;
+        while ( tx != null )
+        {
+            long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+            // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+            // id have already been generated by another entity we simply check that our id
+            // that we generated match that id. If it doesn't we've run into a problem we can't
+            // really recover from and would point to a bug somewhere.
+            matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+            TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
+            tx.commitment( commitment, transactionId );
+            tx.logPosition( commitment.logPosition() );
+            tx = tx.next();
+            request.lastTransactionId = transactionId;
+            count++;
+        }
+        return count;
+    }
+
+    private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
+    {
+        long expectedTransactionId = tx.transactionId();
+        if ( expectedTransactionId != TRANSACTION_ID_NOT_SPECIFIED )
+        {
+            if ( transactionId != expectedTransactionId )
+            {
+                IllegalStateException ex = new IllegalStateException(
+                        "Received " + tx.transactionRepresentation() + " with txId:" + expectedTransactionId +
+                                " to be applied, but appending it ended up generating an unexpected txId:" +
+                                transactionId );
+                databaseHealth.panic( ex );
+                throw ex;
+            }
+        }
+    }
+
+    private static void publishAsCommitted( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            batch.commitment().publishAsCommitted();
+            batch = batch.next();
+        }
+    }
+
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
+            throws IOException
+    {
+        indexCommandDetector.reset();
+
+        // Any failure to append is a kernel panic, since we're holding the logFile monitor and a failure to append
+        // needs to be communicated with potential log rotation, which will wait for all transactions closed or fail
+        // on kernel panic.
+        try
+        {
+            LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+            transactionLogWriter.append( transaction, transactionId );
+            LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
+
+            long transactionChecksum =
+                    checksum( transaction.additionalHeader(), transaction.getMasterId(), transaction.getAuthorId() );
+            transactionMetadataCache
+                    .cacheTransactionMetadata( transactionId, logPositionBeforeCommit, transaction.getMasterId(),
+                            transaction.getAuthorId(), transactionChecksum, transaction.getTimeCommitted() );
+
+            transaction.accept( indexCommandDetector );
+            boolean hasExplicitIndexChanges = indexCommandDetector.hasWrittenAnyExplicitIndexCommand();
+            if ( hasExplicitIndexChanges )
+            {
+                // Offer this transaction id to the queue so that the explicit index applier can take part in the ordering
+                explicitIndexTransactionOrdering.offer( transactionId );
+            }
+            return new TransactionCommitment( hasExplicitIndexChanges, transactionId, transactionChecksum,
+                    transaction.getTimeCommitted(), logPositionAfterCommit, transactionIdStore );
+        }
+        catch ( final Throwable panic )
+        {
+            databaseHealth.panic( panic );
+            throw panic;
+        }
+    }
+
+    private void force() throws IOException
+    {
+        // Empty the buffer into the channel under the logFile monitor, so that we don't race with appends
+        // or rotation, and force the channel outside of it.
+        Flushable flushable;
+        synchronized ( logFile )
+        {
+            flushable = writer.prepareForFlush();
+        }
+        try
+        {
+            flushable.flush();
+        }
+        catch ( ClosedChannelException ignored )
+        {
+            // The buffer was emptied under the lock, so a concurrent rotation closing the channel has already
+            // forced our changes.
+        }
+    }
+
+    private static class AppendRequest
+    {
+        private final TransactionToApply batch;
+        private final LogAppendEvent logAppendEvent;
+        private final Thread committer;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        private Throwable failure;
+        private volatile boolean done;
+
+        AppendRequest( TransactionToApply batch, LogAppendEvent logAppendEvent, Thread committer )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+            this.committer = committer;
+        }
+
+        /**
+         * Either the flusher claims the request to serve it, or the committer claims it to give up on it.
+         */
+        boolean claim()
+        {
+            return claimed.compareAndSet( false, true );
+        }
+
+        void done()
+        {
+            done = true;
+            LockSupport.unpark( committer );
+        }
+
+        void fail( Throwable cause )
+        {
+            if ( !done )
+            {
+                failure = failure == null ? cause : failure;
+                done();
+            }
+        }
+
+        void throwIfFailed() throws IOException
+        {
+            if ( failure instanceof IOException )
+            {
+                throw (IOException) failure;
+            }
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw new IOException( failure );
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFileCreationMonitor;
@@ -49,6 +50,13 @@ public class LoggingLogFileMonitor implements LogFileCreationMonitor,
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void batchRecovered( int numberOfTransactions, int numberOfThreads, long applyTimeNanos )
+    {
+        log.debug( format( "Recovered %d transactions on %d threads in %dms",
+                numberOfTransactions, numberOfThreads, TimeUnit.NANOSECONDS.toMillis( applyTimeNanos ) ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions )
     {
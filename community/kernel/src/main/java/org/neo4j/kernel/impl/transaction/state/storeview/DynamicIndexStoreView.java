@@ -38,6 +38,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.register.Register;
 import org.neo4j.storageengine.api.EntityType;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
 
@@ -112,6 +113,18 @@ public class DynamicIndexStoreView implements IndexStoreView
         neoStoreIndexStoreView.replaceIndexCounts( indexId, uniqueElements, maxUniqueElements, indexSize );
     }
 
+    @Override
+    public IndexValueHistogram indexHistogram( long indexId )
+    {
+        return neoStoreIndexStoreView.indexHistogram( indexId );
+    }
+
+    @Override
+    public void replaceIndexHistogram( long indexId, IndexValueHistogram histogram )
+    {
+        neoStoreIndexStoreView.replaceIndexHistogram( indexId, histogram );
+    }
+
     @Override
     public void incrementIndexUpdates( long indexId, long updatesDelta )
     {
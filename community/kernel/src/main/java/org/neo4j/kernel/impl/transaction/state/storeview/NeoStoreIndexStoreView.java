@@ -30,13 +30,14 @@ import org.neo4j.kernel.impl.api.CountsAccessor;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.api.index.StoreScan;
+import org.neo4j.kernel.impl.api.index.sampling.IndexHistogramStore;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageReader;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
-import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
@@ -44,6 +45,7 @@ import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.storageengine.api.EntityType;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
@@ -59,12 +61,19 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     protected final NodeStore nodeStore;
     protected final RelationshipStore relationshipStore;
     protected final LockService locks;
-    private final CountsTracker counts;
+    private final CountsStore counts;
+    private final IndexHistogramStore histograms;
     private final NeoStores neoStores;
 
     public NeoStoreIndexStoreView( LockService locks, NeoStores neoStores )
+    {
+        this( locks, neoStores, new IndexHistogramStore() );
+    }
+
+    public NeoStoreIndexStoreView( LockService locks, NeoStores neoStores, IndexHistogramStore histograms )
     {
         this.locks = locks;
+        this.histograms = histograms;
         this.neoStores = neoStores;
         this.propertyStore = neoStores.getPropertyStore();
         this.nodeStore = neoStores.getNodeStore();
@@ -88,6 +97,18 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         }
     }
 
+    @Override
+    public IndexValueHistogram indexHistogram( long indexId )
+    {
+        return histograms.histogram( indexId );
+    }
+
+    @Override
+    public void replaceIndexHistogram( long indexId, IndexValueHistogram histogram )
+    {
+        histograms.replace( indexId, histogram );
+    }
+
     @Override
     public void incrementIndexUpdates( long indexId, long updatesDelta )
     {
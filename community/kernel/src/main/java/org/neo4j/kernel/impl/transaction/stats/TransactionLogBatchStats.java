@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.kernel.impl.transaction.log.AsyncTransactionAppender;
+
+/**
+ * Listens to the asynchronous transaction appender and keeps the counters for batch sizes and log force times.
+ */
+public class TransactionLogBatchStats implements AsyncTransactionAppender.Monitor, TransactionLogBatchCounters
+{
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder batchedTransactionCount = new LongAdder();
+    private final LongAdder forceTimeNanos = new LongAdder();
+    private volatile long peakBatchSize;
+
+    @Override
+    public void batchAppended( int numberOfTransactions, long forceTimeNanos )
+    {
+        batchCount.increment();
+        batchedTransactionCount.add( numberOfTransactions );
+        this.forceTimeNanos.add( forceTimeNanos );
+        // Only the single appender thread updates the peak
+        peakBatchSize = Math.max( peakBatchSize, numberOfTransactions );
+    }
+
+    @Override
+    public long getNumberOfBatches()
+    {
+        return batchCount.sum();
+    }
+
+    @Override
+    public long getNumberOfBatchedTransactions()
+    {
+        return batchedTransactionCount.sum();
+    }
+
+    @Override
+    public long getPeakBatchSize()
+    {
+        return peakBatchSize;
+    }
+
+    @Override
+    public long getLogForceAccumulatedTotalTimeMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( forceTimeNanos.sum() );
+    }
+}
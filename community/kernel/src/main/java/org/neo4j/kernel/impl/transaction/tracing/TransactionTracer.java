@@ -38,4 +38,15 @@ public interface TransactionTracer
      * @return An event that represents the transaction.
      */
     TransactionEvent beginTransaction();
+
+    /**
+     * A batch of transactions, committed by different threads, is about to be forced, and the log possibly
+     * rotated, as one unit by a dedicated appender thread. Forcing and rotation of such a batch is reported to the
+     * returned event, rather than to the log append event of any of the transactions in it.
+     * @return An event that represents the appending of the batch.
+     */
+    default LogAppendEvent beginLogBatchAppend()
+    {
+        return LogAppendEvent.NULL;
+    }
 }
@@ -45,7 +45,15 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
     {
-        this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+        this( blockAllocator, 0 );
+    }
+
+    /**
+     * @param maxMemory the maximum amount of off-heap memory that collections created by this factory may use, or {@code 0} for no limit
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, long maxMemory )
+    {
+        this.allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, maxMemory );
     }
 
     @Override
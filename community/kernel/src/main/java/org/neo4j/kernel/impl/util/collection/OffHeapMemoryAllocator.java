@@ -26,6 +26,7 @@ import org.neo4j.kernel.impl.util.collection.OffHeapBlockAllocator.MemoryBlock;
 import org.neo4j.memory.MemoryAllocationTracker;
 
 import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.copyMemory;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.getLong;
@@ -33,22 +34,34 @@ import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.newDirectByteBuf
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.putLong;
 import static org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil.setMemory;
 import static org.neo4j.util.Preconditions.checkState;
+import static org.neo4j.util.Preconditions.requireNonNegative;
 
 public class OffHeapMemoryAllocator implements MemoryAllocator
 {
     private final MemoryAllocationTracker tracker;
     private final OffHeapBlockAllocator blockAllocator;
+    private final long maxMemory;
 
     public OffHeapMemoryAllocator( MemoryAllocationTracker tracker, OffHeapBlockAllocator blockAllocator )
+    {
+        this( tracker, blockAllocator, 0 );
+    }
+
+    /**
+     * @param maxMemory the maximum amount of memory, as accounted by the {@code tracker}, that this allocator may hand out,
+     * or {@code 0} for no limit
+     */
+    public OffHeapMemoryAllocator( MemoryAllocationTracker tracker, OffHeapBlockAllocator blockAllocator, long maxMemory )
     {
         this.tracker = requireNonNull( tracker );
         this.blockAllocator = requireNonNull( blockAllocator );
+        this.maxMemory = requireNonNegative( maxMemory );
     }
 
     @Override
     public Memory allocate( long size, boolean zeroed )
     {
-        final MemoryBlock block = blockAllocator.allocate( size, tracker );
+        final MemoryBlock block = allocateBlock( size );
         if ( zeroed )
         {
             setMemory( block.unalignedAddr, block.unalignedSize, (byte) 0 );
@@ -56,6 +69,20 @@ public class OffHeapMemoryAllocator implements MemoryAllocator
         return new OffHeapMemory( block );
     }
 
+    private MemoryBlock allocateBlock( long size )
+    {
+        if ( maxMemory > 0 )
+        {
+            final long usedMemory = tracker.usedDirectMemory();
+            if ( usedMemory + size > maxMemory )
+            {
+                throw new RuntimeException(
+                        format( "Can't allocate %d bytes due to exceeding transaction memory limit; used=%d, max=%d", size, usedMemory, maxMemory ) );
+            }
+        }
+        return blockAllocator.allocate( size, tracker );
+    }
+
     class OffHeapMemory implements Memory
     {
         final MemoryBlock block;
@@ -98,7 +125,7 @@ public class OffHeapMemoryAllocator implements MemoryAllocator
         @Override
         public Memory copy()
         {
-            final MemoryBlock copy = blockAllocator.allocate( block.size, tracker );
+            final MemoryBlock copy = allocateBlock( block.size );
             copyMemory( block.addr, copy.addr, block.size );
             return new OffHeapMemory( copy );
         }
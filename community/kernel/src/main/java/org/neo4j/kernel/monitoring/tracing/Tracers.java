@@ -49,8 +49,9 @@ import org.neo4j.time.SystemNanoClock;
  *     components to distribute throughout the database instance.
  * </p>
  * <p>
- *     The tracing implementation is determined by the {@code unsupported.dbms.tracer} setting. Two built-in implementations
- *     exist: {@code default} and {@code null}. Alternative implementations can be loaded from the
+ *     The tracing implementation is determined by the {@code unsupported.dbms.tracer} setting. Three built-in
+ *     implementations exist: {@code default}, {@code null}, and {@code per_file}, which also keeps page cache counters
+ *     for each mapped file. Alternative implementations can be loaded from the
  *     classpath by referencing their {@link org.neo4j.kernel.monitoring.tracing.TracerFactory} in a
  *     {@code META-INF/services/org.neo4j.kernel.monitoring.tracing.TracerFactory}, and setting
  *     {@code unsupported.dbms.tracer} to the appropriate value.
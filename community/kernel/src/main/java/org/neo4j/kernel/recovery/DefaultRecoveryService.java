@@ -31,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
@@ -43,12 +44,31 @@ public class DefaultRecoveryService implements RecoveryService
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
+    private final RecoveryMonitor recoveryMonitor;
+    private final int parallelWorkers;
+    private final int parallelBatchSize;
+    private final JobScheduler scheduler;
 
     public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
             TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
             LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor )
+    {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, monitor,
+                new RecoveryMonitor()
+                {
+                }, 1, 1, null );
+    }
+
+    public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
+            TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
+            LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor,
+            RecoveryMonitor recoveryMonitor, int parallelWorkers, int parallelBatchSize, JobScheduler scheduler )
     {
         this.storageEngine = storageEngine;
+        this.recoveryMonitor = recoveryMonitor;
+        this.parallelWorkers = parallelWorkers;
+        this.parallelBatchSize = parallelBatchSize;
+        this.scheduler = scheduler;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
         this.logVersionRepository = logVersionRepository;
@@ -75,6 +95,11 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
+        // Reverse recovery has to undo transactions in strict reverse order, so it is always serial
+        if ( mode == TransactionApplicationMode.RECOVERY && parallelWorkers > 1 )
+        {
+            return new ParallelRecoveryApplier( storageEngine, mode, parallelWorkers, parallelBatchSize, recoveryMonitor, scheduler );
+        }
         return new RecoveryVisitor( storageEngine, mode );
     }
 
@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
+
+/**
+ * {@link RecoveryApplier} that applies recovered transactions on several threads.
+ * <p>
+ * Transactions are collected into a batch for as long as they do not touch any of the records that the transactions
+ * already in the batch touch. A full batch is split into as many chains of consecutive transactions as there are
+ * workers, and the chains are applied concurrently. Each chain goes through the storage engine as one batch, so
+ * counts, label scan and schema index updates are still applied in transaction order within the chain. Batches are
+ * applied one after the other.
+ * <p>
+ * Updates from different chains never concern the same record, but schema index entries are shared between entities:
+ * a unique index entry that one transaction removes from one node can be added to another node by a later transaction.
+ * So the property values that a transaction sets or removes are conflict keys as well, by property key and value.
+ * Values that can't be read without the store, like long strings and arrays, conflict with every such value of the
+ * same property key. Label changes on existing nodes update the index entries of properties that the transaction
+ * doesn't contain, so such transactions are applied on their own.
+ * <p>
+ * Transactions with commands that can't be partitioned by record id, like schema, token and explicit index commands,
+ * are applied on their own, on the recovering thread, after everything before them has been applied.
+ * <p>
+ * Once a batch failed to apply, the applier is failed: the batch is dropped, and nothing more is applied.
+ */
+public class ParallelRecoveryApplier implements RecoveryApplier
+{
+    // Record ids are namespaced by store in the top bits of the conflict keys
+    private static final int NAMESPACE_SHIFT = 56;
+    private static final long NODE = 1L << NAMESPACE_SHIFT;
+    private static final long RELATIONSHIP = 2L << NAMESPACE_SHIFT;
+    private static final long RELATIONSHIP_GROUP = 3L << NAMESPACE_SHIFT;
+    private static final long PROPERTY = 4L << NAMESPACE_SHIFT;
+    private static final long PROPERTY_VALUE = 5L << NAMESPACE_SHIFT;
+    private static final long NODE_LABELS = 6L << NAMESPACE_SHIFT;
+    private static final long INDEXED_VALUE = 7L << NAMESPACE_SHIFT;
+    private static final long ID_MASK = (1L << NAMESPACE_SHIFT) - 1;
+
+    private final StorageEngine storageEngine;
+    private final TransactionApplicationMode mode;
+    private final RecoveryMonitor monitor;
+    private final int workers;
+    private final int maxBatchSize;
+    private final ExecutorService executor;
+
+    private final List<TransactionToApply> batch = new ArrayList<>();
+    private final MutableLongSet batchRecords = new LongHashSet();
+    private final RecordCollector transactionRecords = new RecordCollector();
+    private boolean failed;
+    private int failedBatchSize;
+
+    public ParallelRecoveryApplier( StorageEngine storageEngine, TransactionApplicationMode mode, int workers, int maxBatchSize,
+            RecoveryMonitor monitor, JobScheduler scheduler )
+    {
+        this.storageEngine = storageEngine;
+        this.mode = mode;
+        this.workers = workers;
+        this.maxBatchSize = maxBatchSize;
+        this.monitor = monitor;
+        this.executor = scheduler.workStealingExecutor( Group.RECOVERY_APPLIER, workers );
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+    {
+        if ( failed )
+        {
+            throw new IllegalStateException( "A batch of recovered transactions has already failed to apply" );
+        }
+        TransactionToApply tx = toApply( transaction );
+        transactionRecords.clear();
+        transaction.getTransactionRepresentation().accept( transactionRecords );
+
+        if ( transactionRecords.exclusive )
+        {
+            applyBatch();
+            batch.add( tx );
+            applyBatch();
+            return false;
+        }
+
+        if ( batch.size() >= maxBatchSize || conflictsWithBatch( transactionRecords.records ) )
+        {
+            applyBatch();
+        }
+        batch.add( tx );
+        batchRecords.addAll( transactionRecords.records );
+        return false;
+    }
+
+    @Override
+    public int pendingTransactions()
+    {
+        // Transactions of a failed batch may or may not have been applied
+        return failed ? failedBatchSize : batch.size();
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        if ( !failed )
+        {
+            applyBatch();
+        }
+    }
+
+    private boolean conflictsWithBatch( MutableLongSet records )
+    {
+        return records.anySatisfy( batchRecords::contains );
+    }
+
+    private void applyBatch() throws Exception
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        int size = batch.size();
+        int chains = Math.min( workers, size );
+        try
+        {
+            if ( chains == 1 )
+            {
+                applyChain( chain( 0, size ) );
+            }
+            else
+            {
+                List<Future<?>> applications = new ArrayList<>( chains );
+                for ( int i = 0; i < chains; i++ )
+                {
+                    TransactionToApply first = chain( i * size / chains, (i + 1) * size / chains );
+                    applications.add( executor.submit( () -> applyChain( first ) ) );
+                }
+                awaitAll( applications );
+            }
+        }
+        catch ( Throwable e )
+        {
+            failed = true;
+            failedBatchSize = size;
+            throw e instanceof BatchApplicationFailure ? (BatchApplicationFailure) e : new BatchApplicationFailure( e );
+        }
+        finally
+        {
+            batch.clear();
+            batchRecords.clear();
+        }
+        monitor.batchRecovered( size, chains, System.nanoTime() - startTime );
+    }
+
+    private Void applyChain( TransactionToApply first ) throws Exception
+    {
+        storageEngine.apply( first, mode );
+        return null;
+    }
+
+    private TransactionToApply chain( int from, int to )
+    {
+        for ( int i = from; i < to - 1; i++ )
+        {
+            batch.get( i ).next( batch.get( i + 1 ) );
+        }
+        batch.get( to - 1 ).next( null );
+        return batch.get( from );
+    }
+
+    private static void awaitAll( List<Future<?>> applications ) throws Exception
+    {
+        Throwable failure = null;
+        for ( Future<?> application : applications )
+        {
+            try
+            {
+                application.get();
+            }
+            catch ( ExecutionException e )
+            {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if ( failure != null )
+        {
+            throw new BatchApplicationFailure( failure );
+        }
+    }
+
+    private static TransactionToApply toApply( CommittedTransactionRepresentation transaction )
+    {
+        long txId = transaction.getCommitEntry().getTxId();
+        TransactionToApply tx = new TransactionToApply( transaction.getTransactionRepresentation(), txId );
+        tx.commitment( NO_COMMITMENT, txId );
+        tx.logPosition( transaction.getStartEntry().getStartPosition() );
+        return tx;
+    }
+
+    /**
+     * Thrown when a batch failed to apply. The other chains of the batch, and the transactions of the failed chain,
+     * may or may not have been applied, so there is no position in the log that all transactions before it are known
+     * to be applied.
+     */
+    static class BatchApplicationFailure extends RuntimeException
+    {
+        BatchApplicationFailure( Throwable cause )
+        {
+            super( "Failed to apply a batch of recovered transactions", cause );
+        }
+    }
+
+    /**
+     * Collects the ids of the records that a transaction changes, including the dynamic records it allocates or frees,
+     * and the property values it sets or removes.
+     */
+    private static class RecordCollector implements Visitor<StorageCommand,IOException>
+    {
+        private final MutableLongSet records = new LongHashSet();
+        private boolean exclusive;
+
+        void clear()
+        {
+            records.clear();
+            exclusive = false;
+        }
+
+        @Override
+        public boolean visit( StorageCommand element )
+        {
+            if ( element instanceof Command.NodeCommand )
+            {
+                Command.NodeCommand command = (Command.NodeCommand) element;
+                records.add( NODE | command.getKey() );
+                addLabelRecords( command.getBefore() );
+                addLabelRecords( command.getAfter() );
+                if ( labelsChanged( command.getBefore(), command.getAfter() ) )
+                {
+                    exclusive = true;
+                }
+            }
+            else if ( element instanceof Command.RelationshipCommand )
+            {
+                records.add( RELATIONSHIP | ((Command.RelationshipCommand) element).getKey() );
+            }
+            else if ( element instanceof Command.RelationshipGroupCommand )
+            {
+                records.add( RELATIONSHIP_GROUP | ((Command.RelationshipGroupCommand) element).getKey() );
+            }
+            else if ( element instanceof Command.PropertyCommand )
+            {
+                Command.PropertyCommand command = (Command.PropertyCommand) element;
+                records.add( PROPERTY | command.getKey() );
+                addValueRecords( command.getBefore() );
+                addValueRecords( command.getAfter() );
+            }
+            else if ( !(element instanceof Command.NodeCountsCommand || element instanceof Command.RelationshipCountsCommand) )
+            {
+                // Schema, token, neo store and explicit index commands
+                exclusive = true;
+            }
+            return false;
+        }
+
+        private void addLabelRecords( NodeRecord node )
+        {
+            for ( DynamicRecord record : node.getDynamicLabelRecords() )
+            {
+                records.add( NODE_LABELS | record.getId() );
+            }
+        }
+
+        private static boolean labelsChanged( NodeRecord before, NodeRecord after )
+        {
+            return before.inUse() && after.inUse() &&
+                   (before.getLabelField() != after.getLabelField() || !after.getDynamicLabelRecords().isEmpty());
+        }
+
+        private void addValueRecords( PropertyRecord property )
+        {
+            for ( PropertyBlock block : property )
+            {
+                records.add( INDEXED_VALUE | (indexedValueKey( block ) & ID_MASK) );
+                for ( DynamicRecord record : block.getValueRecords() )
+                {
+                    records.add( PROPERTY_VALUE | record.getId() );
+                }
+            }
+            for ( DynamicRecord record : property.getDeletedRecords() )
+            {
+                records.add( PROPERTY_VALUE | record.getId() );
+            }
+        }
+
+        private static long indexedValueKey( PropertyBlock block )
+        {
+            PropertyType type = block.forceGetType();
+            long key = (long) block.getKeyIndexId() << Integer.SIZE;
+            if ( type == null || type == PropertyType.STRING || type == PropertyType.ARRAY )
+            {
+                // Stored in dynamic records, that a removed property doesn't necessarily carry
+                return key;
+            }
+            // Equal values, like 1 and 1.0, have equal hash codes, and are the same entry in an index
+            return key | (type.value( block, null ).hashCode() & 0xFFFFFFFFL);
+        }
+    }
+}
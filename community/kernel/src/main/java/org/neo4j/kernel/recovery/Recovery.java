@@ -21,8 +21,12 @@ package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.helpers.collection.Pair;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
@@ -72,8 +76,7 @@ public class Recovery extends LifecycleAdapter
         monitor.recoveryRequired( recoveryPosition );
         recoveryService.startRecovery();
 
-        LogPosition recoveryToPosition = recoveryPosition;
-        CommittedTransactionRepresentation lastTransaction = null;
+        RecoveredTransactions recovered = new RecoveredTransactions( recoveryPosition );
         CommittedTransactionRepresentation lastReversedTransaction = null;
         try
         {
@@ -98,20 +101,18 @@ public class Recovery extends LifecycleAdapter
             monitor.reverseStoreRecoveryCompleted( lowestRecoveredTxId );
 
             try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryPosition );
-                    RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
+                    RecoveryApplier recoveryVisitor = recovered.applyWith( recoveryService.getRecoveryApplier( RECOVERY ) ) )
             {
                 while ( transactionsToRecover.next() )
                 {
-                    lastTransaction = transactionsToRecover.get();
-                    long txId = lastTransaction.getCommitEntry().getTxId();
-                    recoveryVisitor.visit( lastTransaction );
-                    monitor.transactionRecovered( txId );
-                    numberOfRecoveredTransactions++;
-                    recoveryToPosition = transactionsToRecover.position();
+                    CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                    recoveryVisitor.visit( transaction );
+                    recovered.visited( transaction, transactionsToRecover.position() );
                     reportProgress();
                 }
-                recoveryToPosition = transactionsToRecover.position();
+                recovered.visitedAll( transactionsToRecover.position() );
             }
+            recovered.update();
         }
         catch ( Error | ClosedByInterruptException e )
         {
@@ -119,27 +120,42 @@ public class Recovery extends LifecycleAdapter
             // the users are able to workaround this if truncations is really needed.
             throw e;
         }
+        catch ( ParallelRecoveryApplier.BatchApplicationFailure e )
+        {
+            // Some of the transactions in a failed parallel batch may have been applied and some not,
+            // so there is no position that the logs can safely be truncated at.
+            throw e;
+        }
         catch ( Throwable t )
         {
+            if ( Exceptions.findCauseOrSuppressed( t, e -> e instanceof ParallelRecoveryApplier.BatchApplicationFailure ).isPresent() )
+            {
+                // The applier was closed after the failure, and failed to apply the transactions it was still holding on to
+                Exceptions.throwIfInstanceOf( t, IOException.class );
+                Exceptions.throwIfUnchecked( t );
+                throw new RuntimeException( t );
+            }
             if ( failOnCorruptedLogFiles )
             {
                 throwUnableToCleanRecover( t );
             }
-            if ( lastTransaction != null )
+            // Closing the applier applied the transactions it was still holding on to
+            recovered.update();
+            if ( recovered.lastTransaction != null )
             {
-                LogEntryCommit commitEntry = lastTransaction.getCommitEntry();
-                monitor.failToRecoverTransactionsAfterCommit( t, commitEntry, recoveryToPosition );
+                LogEntryCommit commitEntry = recovered.lastTransaction.getCommitEntry();
+                monitor.failToRecoverTransactionsAfterCommit( t, commitEntry, recovered.position );
             }
             else
             {
                 monitor.failToRecoverTransactionsAfterPosition( t, recoveryPosition );
-                recoveryToPosition = recoveryPosition;
+                recovered.position = recoveryPosition;
             }
         }
         progressReporter.completed();
-        logsTruncator.truncate( recoveryToPosition );
+        logsTruncator.truncate( recovered.position );
 
-        recoveryService.transactionsRecovered( lastTransaction, recoveryToPosition );
+        recoveryService.transactionsRecovered( recovered.lastTransaction, recovered.position );
         monitor.recoveryCompleted( numberOfRecoveredTransactions );
     }
 
@@ -173,4 +189,59 @@ public class Recovery extends LifecycleAdapter
         return lastReversedTransaction.getCommitEntry().getTxId() -
                 recoveryStartInformation.getFirstTxIdAfterLastCheckPoint() + 1;
     }
+
+    /**
+     * Keeps track of the transactions that the forward recovery applier has been given, so that a transaction is only
+     * reported as recovered, and the logs are only truncated after it, once it has actually been applied.
+     */
+    private class RecoveredTransactions
+    {
+        private final Deque<Pair<CommittedTransactionRepresentation,LogPosition>> unapplied = new ArrayDeque<>();
+        private RecoveryApplier applier;
+        private LogPosition endOfLog;
+        private CommittedTransactionRepresentation lastTransaction;
+        private LogPosition position;
+
+        RecoveredTransactions( LogPosition recoveryPosition )
+        {
+            this.position = recoveryPosition;
+        }
+
+        RecoveryApplier applyWith( RecoveryApplier applier )
+        {
+            this.applier = applier;
+            return applier;
+        }
+
+        void visited( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+        {
+            unapplied.add( Pair.of( transaction, positionAfter ) );
+            update();
+        }
+
+        void visitedAll( LogPosition endOfLog )
+        {
+            this.endOfLog = endOfLog;
+        }
+
+        void update()
+        {
+            if ( applier == null )
+            {
+                return;
+            }
+            while ( unapplied.size() > applier.pendingTransactions() )
+            {
+                Pair<CommittedTransactionRepresentation,LogPosition> applied = unapplied.poll();
+                lastTransaction = applied.first();
+                position = applied.other();
+                monitor.transactionRecovered( lastTransaction.getCommitEntry().getTxId() );
+                numberOfRecoveredTransactions++;
+            }
+            if ( unapplied.isEmpty() && endOfLog != null )
+            {
+                position = endOfLog;
+            }
+        }
+    }
 }
@@ -27,4 +27,14 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Transactions are applied in the order they are visited, but not necessarily by the time {@link #visit(Object)}
+     * returns. Transactions that are still pending are applied later, at the latest when the applier is closed.
+     *
+     * @return the number of most recently visited transactions that have not been applied yet.
+     */
+    default int pendingTransactions()
+    {
+        return 0;
+    }
 }
@@ -34,6 +34,11 @@ public interface RecoveryMonitor
         //noop
     }
 
+    default void batchRecovered( int numberOfTransactions, int numberOfThreads, long applyTimeNanos )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions )
     {
         //noop
@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.IOException;
 
 import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
@@ -51,6 +52,8 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
@@ -61,6 +64,8 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.configuration.Settings.TRUE;
 import static org.neo4j.logging.AssertableLogProvider.inLog;
 
 public class NeoStoreDataSourceTest
@@ -119,6 +124,40 @@ public class NeoStoreDataSourceTest
         verify( pageCache ).flushAndForce( IOLimiter.UNLIMITED );
     }
 
+    @Test
+    public void shouldNotProfileThePageCacheByDefault() throws Throwable
+    {
+        Dependencies dependencies = new Dependencies();
+        // Warm up before start returns, because the job scheduler of the data source does not run anything
+        dependencies.satisfyDependency( Config.defaults( GraphDatabaseSettings.pagecache_warmup_blocking, TRUE ) );
+        NeoStoreDataSource ds = dsRule.getDataSource( dir.databaseLayout(), fs.get(), pageCacheRule.getPageCache( fs.get() ),
+                dependencies );
+
+        ds.start();
+        ds.stop();
+        ds.shutdown();
+
+        assertFalse( fs.get().fileExists( new File( dir.databaseDir(), "profiles" ) ) );
+    }
+
+    @Test
+    public void shouldProfileThePageCacheWhenProfilesInDatabaseDirectoryAreEnabled() throws Throwable
+    {
+        Dependencies dependencies = new Dependencies();
+        // Warm up before start returns, because the job scheduler of the data source does not run anything
+        dependencies.satisfyDependency( Config.defaults( stringMap(
+                GraphDatabaseSettings.pagecache_warmup_profiles_in_database_directory.name(), TRUE,
+                GraphDatabaseSettings.pagecache_warmup_blocking.name(), TRUE ) ) );
+        NeoStoreDataSource ds = dsRule.getDataSource( dir.databaseLayout(), fs.get(), pageCacheRule.getPageCache( fs.get() ),
+                dependencies );
+
+        ds.start();
+        ds.stop();
+        ds.shutdown();
+
+        assertTrue( fs.get().fileExists( new File( dir.databaseDir(), "profiles" ) ) );
+    }
+
     @Test
     public void flushOfThePageCacheOnShutdownHappensIfTheDbIsHealthy() throws Throwable
     {
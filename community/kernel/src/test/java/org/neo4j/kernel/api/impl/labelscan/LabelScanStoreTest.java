@@ -48,6 +48,7 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.collection.BoundedIterable;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.internal.kernel.api.LabelSet;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -58,6 +59,8 @@ import org.neo4j.kernel.api.labelscan.NodeLabelRange;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.LabelScan;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
@@ -438,6 +441,53 @@ public abstract class LabelScanStoreTest
         assertEquals( "Found gaps in node id range: " + gaps( nodeSet, nodeCount ), nodeCount, nodeSet.size() );
     }
 
+    @Test
+    public void shouldSplitNodesWithLabelBetweenBatches() throws Exception
+    {
+        // GIVEN
+        final int labelId = 1;
+        final int otherLabelId = 2;
+        int nodeCount = 1000;
+        start();
+        write( new PrefetchingIterator<NodeLabelUpdate>()
+        {
+            private int i = -1;
+
+            @Override
+            protected NodeLabelUpdate fetchNextOrNull()
+            {
+                return ++i < nodeCount ? labelChanges( i, NO_LABELS, new long[]{i % 2 == 0 ? labelId : otherLabelId} ) : null;
+            }
+        } );
+
+        // WHEN
+        Set<Long> nodeSet = new TreeSet<>();
+        int batches = 0;
+        try ( LabelScanReader reader = store.newReader() )
+        {
+            LabelScan scan = reader.nodeLabelScan( labelId );
+            CollectingNodeLabelClient client = new CollectingNodeLabelClient();
+            IndexProgressor progressor;
+            while ( (progressor = scan.nextBatch( client, 100 )) != null )
+            {
+                batches++;
+                while ( progressor.next() )
+                {
+                    assertTrue( "Node seen in more than one batch " + client.node, nodeSet.add( client.node ) );
+                }
+                progressor.close();
+            }
+        }
+
+        // THEN
+        assertTrue( "Expected more than one batch, got " + batches, batches > 1 );
+        assertEquals( nodeCount / 2, nodeSet.size() );
+        for ( long node : nodeSet )
+        {
+            assertEquals( 0, node % 2 );
+        }
+    }
+
     @Test
     public void shouldFindNodesWithAnyOfGivenLabels() throws Exception
     {
@@ -671,4 +721,34 @@ public abstract class LabelScanStoreTest
             corruptedIndex = false;
         }
     }
+
+    private static class CollectingNodeLabelClient implements IndexProgressor.NodeLabelClient
+    {
+        private long node;
+
+        @Override
+        public void scan( IndexProgressor progressor, boolean providesLabels, int label )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void unionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void intersectionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean acceptNode( long reference, LabelSet labels )
+        {
+            node = reference;
+            return true;
+        }
+    }
 }
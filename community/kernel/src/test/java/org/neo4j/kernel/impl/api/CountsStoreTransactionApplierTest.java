@@ -19,23 +19,43 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.RuleChain;
 
 import java.util.Optional;
 
 import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
 import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.command.Commands;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.api.index.IndexProvider.EMPTY;
 
 public class CountsStoreTransactionApplierTest
 {
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+    private final TestDirectory testDirectory = TestDirectory.testDirectory( fileSystemRule );
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( fileSystemRule ).around( pageCacheRule ).around( testDirectory );
+
     @Test
     public void shouldNotifyCacheAccessOnHowManyUpdatesOnCountsWeHadSoFar() throws Exception
     {
@@ -55,4 +75,55 @@ public class CountsStoreTransactionApplierTest
         // THEN
         verify( updater, times( 1 ) ).incrementNodeCount( StatementConstants.ANY_LABEL, 1 );
     }
+
+    @Test
+    public void shouldApplySchemaTransactionToGBPTreeCountsStore() throws Exception
+    {
+        // GIVEN
+        GBPTreeCountsStore countsStore = new GBPTreeCountsStore( pageCacheRule.getPageCache( fileSystemRule ),
+                fileSystemRule, testDirectory.file( "counts.db" ), immediate(), emptyCountsAt( 1 ), false );
+        countsStore.init();
+        countsStore.start();
+        try
+        {
+            CountsStoreBatchTransactionApplier applier = new CountsStoreBatchTransactionApplier( countsStore,
+                    TransactionApplicationMode.INTERNAL );
+
+            // WHEN the counts updater is closed by the schema command and then again by the applier
+            try ( TransactionApplier txApplier = applier.startTx( new TransactionToApply( null, 2L ) ) )
+            {
+                txApplier.visitSchemaRuleCommand( Commands.createIndexRule(
+                        EMPTY.getProviderDescriptor(), 10, SchemaDescriptorFactory.forLabel( 0, 1 ) ) );
+            }
+            try ( TransactionApplier txApplier = applier.startTx( new TransactionToApply( null, 3L ) ) )
+            {
+                txApplier.visitNodeCountsCommand( new Command.NodeCountsCommand( StatementConstants.ANY_LABEL, 1 ) );
+            }
+
+            // THEN
+            assertEquals( 3, countsStore.txId() );
+            assertFalse( countsStore.apply( 2 ).isPresent() );
+        }
+        finally
+        {
+            countsStore.shutdown();
+        }
+    }
+
+    private static DataInitializer<CountsAccessor.Updater> emptyCountsAt( long txId )
+    {
+        return new DataInitializer<CountsAccessor.Updater>()
+        {
+            @Override
+            public void initialize( CountsAccessor.Updater updater )
+            {
+            }
+
+            @Override
+            public long initialVersion()
+            {
+                return txId;
+            }
+        };
+    }
 }
@@ -54,6 +54,7 @@ public class OnlineIndexProxyTest
         // then
         verify( accessor ).drop();
         verify( storeView ).replaceIndexCounts( indexId, 0L, 0L, 0L );
+        verify( storeView ).replaceIndexHistogram( indexId, null );
         verifyNoMoreInteractions( accessor, storeView );
     }
 }
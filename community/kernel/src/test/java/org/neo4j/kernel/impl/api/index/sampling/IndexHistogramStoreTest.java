@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.neo4j.values.storable.Values.booleanValue;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.longValue;
+import static org.neo4j.values.storable.Values.stringValue;
+
+public class IndexHistogramStoreTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fs = new EphemeralFileSystemRule();
+
+    private final File file = new File( IndexHistogramStore.FILE_NAME );
+
+    @Test
+    public void shouldReadFlushedHistograms()
+    {
+        // given
+        IndexHistogramStore store = newStore();
+        IndexValueHistogram first = histogram();
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder();
+        builder.add( booleanValue( false ), 3 );
+        builder.add( booleanValue( true ), 4 );
+        IndexValueHistogram second = builder.build();
+        store.replace( 1, first );
+        store.replace( 2, second );
+        store.replace( 3, first );
+        store.replace( 3, null );
+
+        // when
+        store.flush();
+        IndexHistogramStore reopened = newStore();
+        reopened.load();
+
+        // then
+        assertEquals( first, reopened.histogram( 1 ) );
+        assertEquals( second, reopened.histogram( 2 ) );
+        assertNull( reopened.histogram( 3 ) );
+    }
+
+    @Test
+    public void shouldStartWithoutHistogramsFromUnreadableFile() throws IOException
+    {
+        // given
+        try ( OutputStream out = fs.get().openAsOutputStream( file, false ) )
+        {
+            out.write( new byte[]{0, 0, 0, 1, 0, 0} );
+        }
+
+        // when
+        IndexHistogramStore store = newStore();
+        store.load();
+
+        // then
+        assertNull( store.histogram( 1 ) );
+    }
+
+    private IndexHistogramStore newStore()
+    {
+        return new IndexHistogramStore( fs.get(), file, NullLogProvider.getInstance() );
+    }
+
+    private static IndexValueHistogram histogram()
+    {
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 2, 1 );
+        builder.add( longValue( 1 ), 5 );
+        builder.add( doubleValue( 2.5 ), 1 );
+        builder.add( longValue( 3 ), 2 );
+        builder.add( stringValue( "abc" ), 7 );
+        builder.addUndescribed( 11 );
+        return builder.build();
+    }
+}
@@ -32,6 +32,7 @@ import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -56,6 +57,7 @@ public class OnlineIndexSamplingJobTest
 
         // then
         verify( indexStoreView ).replaceIndexCounts( indexId, indexUniqueValues, indexSize, indexSize );
+        verify( indexStoreView ).replaceIndexHistogram( indexId, indexHistogram );
         verifyNoMoreInteractions( indexStoreView );
     }
 
@@ -84,6 +86,7 @@ public class OnlineIndexSamplingJobTest
 
     private final long indexUniqueValues = 21L;
     private final long indexSize = 23L;
+    private final IndexValueHistogram indexHistogram = new IndexValueHistogram.Builder().build();
 
     @Before
     public void setup() throws IndexNotFoundKernelException
@@ -91,6 +94,6 @@ public class OnlineIndexSamplingJobTest
         when( indexProxy.getDescriptor() ).thenReturn( indexDescriptor );
         when( indexProxy.newReader() ).thenReturn( indexReader );
         when( indexReader.createSampler() ).thenReturn( indexSampler );
-        when( indexSampler.sampleIndex() ).thenReturn( new IndexSample( indexSize, indexUniqueValues, indexSize ) );
+        when( indexSampler.sampleIndex() ).thenReturn( new IndexSample( indexSize, indexUniqueValues, indexSize, indexHistogram ) );
     }
 }
@@ -23,11 +23,18 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.hamcrest.Matcher;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.storageengine.api.RelationshipDirection;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertTrue;
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
@@ -39,7 +46,7 @@ public class RelationshipChangesForNodeTest
     public void shouldGetRelationships()
     {
         RelationshipChangesForNode changes = new RelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE );
 
         final int TYPE = 2;
 
@@ -58,7 +65,7 @@ public class RelationshipChangesForNodeTest
     public void shouldGetRelationshipsByTypeAndDirection()
     {
         RelationshipChangesForNode changes = new RelationshipChangesForNode(
-                RelationshipChangesForNode.DiffStrategy.ADD );
+                RelationshipChangesForNode.DiffStrategy.ADD, OnHeapCollectionsFactory.INSTANCE );
 
         final int TYPE = 2;
         final int DECOY_TYPE = 666;
@@ -87,6 +94,40 @@ public class RelationshipChangesForNodeTest
         assertThat( PrimitiveLongCollections.asArray( rawLoops ), ids( 4, 5, 6 ) );
     }
 
+    @Test
+    public void shouldKeepRelationshipsOffHeap()
+    {
+        CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+        OffHeapCollectionsFactory collectionsFactory = new OffHeapCollectionsFactory( blockAllocator );
+        try
+        {
+            RelationshipChangesForNode changes = new RelationshipChangesForNode(
+                    RelationshipChangesForNode.DiffStrategy.REMOVE, collectionsFactory );
+
+            changes.addRelationship( 1, 2, INCOMING );
+            changes.addRelationship( 2, 2, OUTGOING );
+            changes.addRelationship( 3, 3, OUTGOING );
+            assertTrue( changes.removeRelationship( 2, 2, OUTGOING ) );
+
+            assertThat( collectionsFactory.getMemoryTracker().usedDirectMemory(), greaterThan( 0L ) );
+            assertThat( PrimitiveLongCollections.asArray( changes.getRelationships( OUTGOING, 3 ) ), ids( 3 ) );
+            assertThat( changes.augmentDegree( INCOMING, 5, 2 ), equalTo( 4 ) );
+            assertThat( sorted( PrimitiveLongCollections.asArray( changes.getRelationships() ) ), ids( 1, 3 ) );
+        }
+        finally
+        {
+            collectionsFactory.release();
+            blockAllocator.release();
+        }
+        assertThat( collectionsFactory.getMemoryTracker().usedDirectMemory(), equalTo( 0L ) );
+    }
+
+    private static long[] sorted( long[] ids )
+    {
+        Arrays.sort( ids );
+        return ids;
+    }
+
     private Matcher<long[]> ids( long... ids )
     {
         return equalTo( ids );
@@ -58,7 +58,9 @@ import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.test.Race;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.RandomValues;
@@ -82,6 +84,7 @@ import static org.neo4j.kernel.api.index.IndexEntryUpdate.change;
 import static org.neo4j.kernel.api.index.IndexEntryUpdate.remove;
 import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
+import static org.neo4j.test.Race.throwing;
 import static org.neo4j.values.storable.Values.of;
 
 /**
@@ -547,17 +550,37 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
     }
 
     @Test
-    public void requestForSecondUpdaterMustThrow() throws Exception
+    public void shouldIndexAddsFromConcurrentUpdaters() throws Throwable
     {
         // given
-        try ( IndexUpdater ignored = accessor.newUpdater( ONLINE ) )
+        int threads = 4;
+        Iterator<IndexEntryUpdate<IndexDescriptor>> generator = valueCreatorUtil.randomUpdateGenerator( random,
+                RandomValues.excluding( valueCreatorUtil.supportedTypes(), t -> t == ValueType.BOOLEAN ) );
+        //noinspection unchecked
+        IndexEntryUpdate<IndexDescriptor>[] updates = new IndexEntryUpdate[threads * 1_000];
+        for ( int i = 0; i < updates.length; i++ )
         {
-            // then
-            expected.expect( IllegalStateException.class );
+            updates[i] = generator.next();
+        }
 
-            // when
-            accessor.newUpdater( ONLINE );
+        // when
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            IndexEntryUpdate<IndexDescriptor>[] part = Arrays.copyOfRange( updates, i * 1_000, (i + 1) * 1_000 );
+            race.addContestant( throwing( () ->
+            {
+                try ( IndexUpdater updater = accessor.newUpdater( ONLINE ) )
+                {
+                    processAll( updater, part );
+                }
+            } ) );
         }
+        race.go();
+
+        // then
+        forceAndCloseAccessor();
+        verifyUpdates( updates );
     }
 
     @Test
@@ -632,6 +655,16 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
             assertEquals( updates.length, sample.indexSize() );
             assertEquals( updates.length, sample.sampleSize() );
             assertEquals( countUniqueValues( updates ), sample.uniqueValues() );
+            IndexValueHistogram histogram = sample.histogram();
+            assertEquals( updates.length, histogram.totalCount() );
+            for ( IndexEntryUpdate<IndexDescriptor> update : updates )
+            {
+                Value value = update.values()[0];
+                if ( IndexValueHistogram.isDescribed( value.valueGroup() ) )
+                {
+                    assertTrue( histogram.equalitySelectivity( value ) > 0 );
+                }
+            }
         }
     }
 
@@ -46,6 +46,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.index.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.test.Race;
 import org.neo4j.values.storable.Values;
 
 import static java.util.Arrays.asList;
@@ -60,6 +61,7 @@ import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_FAILED;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLINE;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
+import static org.neo4j.test.Race.throwing;
 
 public abstract class NativeIndexPopulatorTests<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue>
         extends NativeIndexTestUtil<KEY,VALUE>
@@ -170,6 +172,40 @@ public abstract class NativeIndexPopulatorTests<KEY extends NativeIndexKey<KEY>,
         verifyUpdates( updates );
     }
 
+    @Test
+    public void addFromConcurrentThreadsShouldApplyAllUpdates() throws Throwable
+    {
+        // given
+        populator.create();
+        int threads = 4;
+        Iterator<IndexEntryUpdate<IndexDescriptor>> generator = valueCreatorUtil.randomUpdateGenerator( random );
+        @SuppressWarnings( "unchecked" )
+        IndexEntryUpdate<IndexDescriptor>[] updates = new IndexEntryUpdate[threads * LARGE_AMOUNT_OF_UPDATES];
+        for ( int i = 0; i < updates.length; i++ )
+        {
+            updates[i] = generator.next();
+        }
+
+        // when
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            int from = i * LARGE_AMOUNT_OF_UPDATES;
+            race.addContestant( throwing( () ->
+            {
+                for ( int batch = from; batch < from + LARGE_AMOUNT_OF_UPDATES; batch += 100 )
+                {
+                    populator.add( Arrays.asList( updates ).subList( batch, batch + 100 ) );
+                }
+            } ) );
+        }
+        race.go();
+
+        // then
+        populator.close( true );
+        verifyUpdates( updates );
+    }
+
     @Test
     public void updaterShouldApplyUpdates() throws Exception
     {
@@ -68,6 +68,7 @@ import static java.util.Arrays.asList;
 import static org.junit.Assert.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -81,6 +82,7 @@ import static org.neo4j.kernel.api.schema.SchemaDescriptorFactory.forLabel;
 import static org.neo4j.kernel.configuration.Config.defaults;
 import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
 import static org.neo4j.storageengine.api.schema.IndexDescriptorFactory.forSchema;
+import static org.neo4j.storageengine.api.schema.IndexDescriptorFactory.uniqueForSchema;
 import static org.neo4j.values.storable.Values.longValue;
 
 @ExtendWith( TestDirectoryExtension.class )
@@ -223,47 +225,94 @@ class ParallelNativeIndexPopulatorTest
         shouldMergePartsOnAccessingFirstCompleteMethodAfterPopulation( ParallelNativeIndexPopulator::sampleResult );
     }
 
+    @Test
+    void shouldDetectUniquenessConflictsBetweenParts() throws Exception
+    {
+        StoreIndexDescriptor uniqueDescriptor = uniqueForSchema( forLabel( 1, 1 ), GenericNativeIndexProvider.DESCRIPTOR ).withId( 1 );
+        withPartSupplier( uniqueDescriptor, partSupplier ->
+        {
+            // given two parts with the same value for different nodes
+            ParallelNativeIndexPopulator<GenericKey,NativeIndexValue> populator = new ParallelNativeIndexPopulator<>( baseIndexFile, layout, partSupplier );
+            try
+            {
+                populator.create();
+                CountDownLatch startSignal = new CountDownLatch( 2 );
+                List<Future<Void>> futures = new ArrayList<>();
+                for ( long nodeId = 0; nodeId < 2; nodeId++ )
+                {
+                    long id = nodeId;
+                    futures.add( executorService.submit( () ->
+                    {
+                        // Both threads must be in here at the same time, so that they each get a part of their own
+                        startSignal.countDown();
+                        startSignal.await();
+                        populator.add( asList( add( id, uniqueDescriptor, longValue( 42 ) ) ) );
+                        return null;
+                    } ) );
+                }
+                for ( Future<Void> future : futures )
+                {
+                    future.get();
+                }
+
+                // when/then
+                assertThrows( IndexEntryConflictException.class, () -> populator.verifyDeferredConstraints( mock( NodePropertyAccessor.class ) ) );
+            }
+            finally
+            {
+                populator.close( false );
+            }
+        } );
+    }
+
     private void shouldMergePartsOnAccessingFirstCompleteMethodAfterPopulation(
             ThrowingConsumer<ParallelNativeIndexPopulator<GenericKey,NativeIndexValue>,IndexEntryConflictException> method ) throws Exception
     {
-        try ( EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction(); JobScheduler jobScheduler = createInitialisedScheduler() )
+        withPartSupplier( DESCRIPTOR, partSupplier ->
         {
-            SingleFilePageSwapperFactory swapper = new SingleFilePageSwapperFactory();
-            swapper.open( fs, defaults );
-            try ( PageCache pageCache = new MuninnPageCache( swapper, 1_000, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler ) )
+            // given
+            ParallelNativeIndexPopulator<GenericKey,NativeIndexValue> populator = new ParallelNativeIndexPopulator<>( baseIndexFile, layout, partSupplier );
+            try
             {
-                // given
-                NativeIndexPopulatorPartSupplier<GenericKey,NativeIndexValue> partSupplier =
-                        file -> new GenericNativeIndexPopulator( pageCache, (FileSystemAbstraction) fs, file, layout, IndexProvider.Monitor.EMPTY, DESCRIPTOR,
-                                spatialSettings, directoriesByProvider( directory.directory() ).forProvider( GenericNativeIndexProvider.DESCRIPTOR ),
-                                mock( SpaceFillingCurveConfiguration.class ), false, !file.equals( baseIndexFile ) );
-                ParallelNativeIndexPopulator<GenericKey,NativeIndexValue> populator = new ParallelNativeIndexPopulator<>( baseIndexFile, layout, partSupplier );
-                try
-                {
-                    populator.create();
-                    applyBatchesInParallel( populator, 100 );
+                populator.create();
+                applyBatchesInParallel( populator, 100 );
 
-                    // when
-                    method.accept( populator );
+                // when
+                method.accept( populator );
 
-                    // then
-                    NodeValueIterator results = new NodeValueIterator();
-                    try ( NativeIndexReader<GenericKey,NativeIndexValue> reader = populator.newReader() )
+                // then
+                NodeValueIterator results = new NodeValueIterator();
+                try ( NativeIndexReader<GenericKey,NativeIndexValue> reader = populator.newReader() )
+                {
+                    reader.query( results, IndexOrder.NONE, true, IndexQuery.exists( 1 ) );
+                    long nextExpectedId = 0;
+                    while ( results.hasNext() )
                     {
-                        reader.query( results, IndexOrder.NONE, true, IndexQuery.exists( 1 ) );
-                        long nextExpectedId = 0;
-                        while ( results.hasNext() )
-                        {
-                            long id = results.next();
-                            assertEquals( nextExpectedId++, id );
-                        }
-                        assertEquals( nextExpectedId, next.get() );
+                        long id = results.next();
+                        assertEquals( nextExpectedId++, id );
                     }
+                    assertEquals( nextExpectedId, next.get() );
                 }
-                finally
-                {
-                    populator.close( true );
-                }
+            }
+            finally
+            {
+                populator.close( true );
+            }
+        } );
+    }
+
+    private void withPartSupplier( StoreIndexDescriptor descriptor,
+            ThrowingConsumer<NativeIndexPopulatorPartSupplier<GenericKey,NativeIndexValue>,Exception> test ) throws Exception
+    {
+        try ( EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction(); JobScheduler jobScheduler = createInitialisedScheduler() )
+        {
+            SingleFilePageSwapperFactory swapper = new SingleFilePageSwapperFactory();
+            swapper.open( fs, defaults );
+            try ( PageCache pageCache = new MuninnPageCache( swapper, 1_000, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler ) )
+            {
+                test.accept( file -> new GenericNativeIndexPopulator( pageCache, (FileSystemAbstraction) fs, file, layout, IndexProvider.Monitor.EMPTY,
+                        descriptor, spatialSettings, directoriesByProvider( directory.directory() ).forProvider( GenericNativeIndexProvider.DESCRIPTOR ),
+                        mock( SpaceFillingCurveConfiguration.class ), false, !file.equals( baseIndexFile ) ) );
             }
         }
     }
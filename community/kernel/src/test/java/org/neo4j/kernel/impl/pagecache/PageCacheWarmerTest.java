@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.NullLog;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_warmup_blocking;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGES_IN_FILE = 10;
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    private FileSystemAbstraction fs;
+    private JobScheduler jobScheduler;
+    private File databaseDirectory;
+    private File storeFile;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fs = fsRule.get();
+        jobScheduler = createInitialisedScheduler();
+        databaseDirectory = new File( "graph.db" ).getAbsoluteFile();
+        storeFile = new File( databaseDirectory, "neostore.nodestore.db" );
+        fs.mkdirs( databaseDirectory );
+        try ( OutputStream out = fs.openAsOutputStream( storeFile, false ) )
+        {
+            out.write( new byte[PAGES_IN_FILE * PageCache.PAGE_SIZE] );
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    public void mustLoadPagesThatWereInMemoryWhenStopped() throws Exception
+    {
+        Config config = config( "true", "true" );
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            warmer.start();
+            touch( pagedFile, 1, 3, 4, 5, 8 );
+            warmer.stop();
+        }
+
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE ) )
+        {
+            assertThat( cachedPages( pagedFile ), is( emptyList() ) );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            warmer.start();
+            assertThat( cachedPages( pagedFile ), is( asList( 1L, 3L, 4L, 5L, 8L ) ) );
+            warmer.stop();
+        }
+    }
+
+    @Test
+    public void mustNotLoadAnythingWhenDisabled() throws Exception
+    {
+        Config config = config( "false", "true" );
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE ) )
+        {
+            touch( pagedFile, 2, 7 );
+            new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config( "true", "true" ), NullLog.getInstance() ).profile();
+        }
+
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            warmer.start();
+            warmer.stop();
+            assertThat( cachedPages( pagedFile ), is( emptyList() ) );
+        }
+    }
+
+    @Test
+    public void mustWarmUpFromProfilesInParallel() throws Exception
+    {
+        Config config = config( "true", "false" );
+        File otherStoreFile = new File( databaseDirectory, "neostore.relationshipstore.db" );
+        fs.copyFile( storeFile, otherStoreFile );
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherStoreFile, PageCache.PAGE_SIZE ) )
+        {
+            touch( pagedFile, 0, 1, 2, 9 );
+            touch( otherPagedFile, 5 );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance(), 2 );
+            assertEquals( 2, warmer.profile() );
+        }
+
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( storeFile, PageCache.PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherStoreFile, PageCache.PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance(), 2 );
+            assertEquals( 5, warmer.warmUp( PageCacheWarmer.PageLimiter.UNLIMITED ) );
+            assertThat( cachedPages( pagedFile ), is( asList( 0L, 1L, 2L, 9L ) ) );
+            assertThat( cachedPages( otherPagedFile ), is( asList( 5L ) ) );
+        }
+    }
+
+    @Test
+    public void mustNotProfileFilesOutsideOfDatabaseDirectory() throws Exception
+    {
+        Config config = config( "true", "true" );
+        File outsideFile = new File( databaseDirectory.getParentFile(), "outside" );
+        fs.copyFile( storeFile, outsideFile );
+        try ( PageCache pageCache = pageCache( config );
+              PagedFile pagedFile = pageCache.map( outsideFile, PageCache.PAGE_SIZE ) )
+        {
+            touch( pagedFile, 1 );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, jobScheduler, databaseDirectory, config, NullLog.getInstance() );
+            assertEquals( 0, warmer.profile() );
+        }
+    }
+
+    private Config config( String enabled, String blocking )
+    {
+        return Config.defaults( stringMap(
+                pagecache_memory.name(), Long.toString( MuninnPageCache.memoryRequiredForPages( 100 ) ),
+                pagecache_warmup_enabled.name(), enabled,
+                pagecache_warmup_blocking.name(), blocking ) );
+    }
+
+    private PageCache pageCache( Config config )
+    {
+        return new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
+                NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler ).getOrCreatePageCache();
+    }
+
+    private static void touch( PagedFile pagedFile, long... pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertTrue( cursor.next( pageId ) );
+            }
+        }
+    }
+
+    private static List<Long> cachedPages( PagedFile pagedFile ) throws IOException
+    {
+        List<Long> pages = new ArrayList<>();
+        pagedFile.visitCachedPages( pages::add );
+        return pages;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.AllNodeScan;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+
+public class RecordNodeCursorTest
+{
+    @Rule
+    public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule().with( new DefaultFileSystemRule() );
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    private NeoStores neoStores;
+
+    @After
+    public void tearDown()
+    {
+        if ( neoStores != null )
+        {
+            neoStores.close();
+        }
+    }
+
+    @Before
+    public void setUp()
+    {
+        StoreFactory storeFactory = getStoreFactory();
+        neoStores = storeFactory.openAllNeoStores( true );
+    }
+
+    @Test
+    public void shouldScanAllInUseNodesInBatches()
+    {
+        // given
+        NodeStore nodeStore = neoStores.getNodeStore();
+        int count = 10_000;
+        nodeStore.setHighId( count );
+        Set<Long> expected = new HashSet<>();
+        for ( long id = 0; id < count; id++ )
+        {
+            boolean inUse = random.nextBoolean();
+            createNodeRecord( id, nodeStore, inUse );
+            if ( inUse )
+            {
+                expected.add( id );
+            }
+        }
+
+        // when
+        AllNodeScan scan = new RecordNodeScan();
+        int batches = 0;
+        try ( RecordNodeCursor first = createNodeCursor();
+              RecordNodeCursor second = createNodeCursor() )
+        {
+            RecordNodeCursor cursor = first;
+            while ( cursor.scanBatch( scan, 100 ) )
+            {
+                batches++;
+                while ( cursor.next() )
+                {
+                    // then
+                    assertTrue( cursor.toString(), expected.remove( cursor.entityReference() ) );
+                }
+                cursor = cursor == first ? second : first;
+            }
+            assertFalse( first.scanBatch( scan, 100 ) );
+        }
+        assertTrue( expected.isEmpty() );
+        assertTrue( "Expected more than one batch, got " + batches, batches > 1 );
+    }
+
+    @Test
+    public void shouldRoundBatchesToWholePages()
+    {
+        // given
+        NodeStore nodeStore = neoStores.getNodeStore();
+        int recordsPerPage = nodeStore.getRecordsPerPage();
+        nodeStore.setHighId( recordsPerPage * 2 );
+        for ( long id = 0; id < recordsPerPage * 2; id++ )
+        {
+            createNodeRecord( id, nodeStore, true );
+        }
+
+        // when
+        AllNodeScan scan = new RecordNodeScan();
+        try ( RecordNodeCursor cursor = createNodeCursor() )
+        {
+            assertTrue( cursor.scanBatch( scan, 1 ) );
+            int seen = 0;
+            while ( cursor.next() )
+            {
+                seen++;
+            }
+
+            // then
+            assertEquals( recordsPerPage, seen );
+        }
+    }
+
+    private void createNodeRecord( long id, NodeStore nodeStore, boolean used )
+    {
+        nodeStore.updateRecord( new NodeRecord( id ).initialize( used, NO_NEXT_PROPERTY.longValue(), false,
+                NO_NEXT_RELATIONSHIP.longValue(), 0 ) );
+    }
+
+    private StoreFactory getStoreFactory()
+    {
+        return new StoreFactory(
+                storage.directory().databaseLayout(), Config.defaults(), new DefaultIdGeneratorFactory( storage.fileSystem() ),
+                storage.pageCache(), storage.fileSystem(), NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY );
+    }
+
+    private RecordNodeCursor createNodeCursor()
+    {
+        return new RecordNodeCursor( neoStores.getNodeStore() );
+    }
+}
@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.store.StoreFactory;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.test.rule.PageCacheAndDependenciesRule;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
@@ -145,6 +146,50 @@ public class RecordRelationshipScanCursorTest
         assertSeesRelationships( expected, theType );
     }
 
+    @Test
+    public void shouldScanAllInUseRelationshipsOfCertainTypeInBatches()
+    {
+        // given
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        int count = 10_000;
+        relationshipStore.setHighId( count );
+        Set<Long> expected = new HashSet<>();
+        int theType = 1;
+        for ( long id = 0; id < count; id++ )
+        {
+            boolean inUse = random.nextBoolean();
+            int type = random.nextInt( 3 );
+            createRelationshipRecord( id, type, relationshipStore, inUse );
+            if ( inUse && type == theType )
+            {
+                expected.add( id );
+            }
+        }
+
+        // when
+        AllRelationshipsScan scan = new RecordRelationshipScan();
+        int batches = 0;
+        try ( RecordRelationshipScanCursor first = createRelationshipCursor();
+              RecordRelationshipScanCursor second = createRelationshipCursor() )
+        {
+            RecordRelationshipScanCursor cursor = first;
+            while ( cursor.scanBatch( scan, theType, 100 ) )
+            {
+                batches++;
+                while ( cursor.next() )
+                {
+                    // then
+                    assertEquals( theType, cursor.type() );
+                    assertTrue( cursor.toString(), expected.remove( cursor.entityReference() ) );
+                }
+                cursor = cursor == first ? second : first;
+            }
+            assertFalse( first.scanBatch( scan, theType, 100 ) );
+        }
+        assertTrue( expected.isEmpty() );
+        assertTrue( "Expected more than one batch, got " + batches, batches > 1 );
+    }
+
     private void assertSeesRelationships( Set<Long> expected, int type )
     {
         try ( RecordRelationshipScanCursor cursor = createRelationshipCursor() )
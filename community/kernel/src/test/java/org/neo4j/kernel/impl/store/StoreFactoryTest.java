@@ -34,11 +34,16 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.store.counts.CountsStore;
+import org.neo4j.kernel.impl.store.counts.CountsTracker;
+import org.neo4j.kernel.impl.store.counts.GBPTreeCountsStore;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.test.rule.PageCacheRule;
@@ -47,13 +52,20 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.neo4j.kernel.impl.store.format.RecordFormatSelector.selectForStoreOrConfig;
+import static org.neo4j.kernel.impl.store.record.Record.NO_LABELS_FIELD;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.register.Registers.newDoubleLongRegister;
 
 public class StoreFactoryTest
 {
+    private static final int LABEL = 0;
+
     private final PageCacheRule pageCacheRule = new PageCacheRule();
     private final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
     private final TestDirectory testDirectory = TestDirectory.testDirectory( fsRule );
@@ -122,7 +134,32 @@ public class StoreFactoryTest
         long lastClosedTransactionId = neoStores.getMetaDataStore().getLastClosedTransactionId();
 
         // then
-        assertEquals( -1, neoStores.getCounts().rotate( lastClosedTransactionId ) );
+        assertEquals( -1, ((CountsTracker) neoStores.getCounts()).rotate( lastClosedTransactionId ) );
+    }
+
+    @Test
+    public void shouldRebuildGBPTreeCountsStoreWhenEnabled() throws IOException
+    {
+        // given
+        StoreFactory storeFactory = storeFactory( Config.defaults( GraphDatabaseSettings.counts_store_gbptree, Settings.TRUE ) );
+        neoStores = storeFactory.openAllNeoStores( true );
+        neoStores.getLabelTokenStore().setHighId( LABEL + 1 );
+        NodeStore nodeStore = neoStores.getNodeStore();
+        NodeRecord node = new NodeRecord( nodeStore.nextId() ).initialize( true, NO_NEXT_PROPERTY.intValue(), false,
+                NO_NEXT_RELATIONSHIP.intValue(), NO_LABELS_FIELD.intValue() );
+        NodeLabelsField.parseLabelsField( node ).add( LABEL, nodeStore, nodeStore.getDynamicLabelStore() );
+        nodeStore.updateRecord( node );
+
+        // when
+        neoStores.startCountStore();
+
+        // then
+        CountsStore counts = neoStores.getCounts();
+        assertThat( counts, instanceOf( GBPTreeCountsStore.class ) );
+        assertTrue( fsRule.get().fileExists( testDirectory.databaseLayout().file( GBPTreeCountsStore.FILE_NAME ) ) );
+        assertEquals( neoStores.getMetaDataStore().getLastCommittedTransactionId(), counts.txId() );
+        assertEquals( 1, counts.nodeCount( LABEL, newDoubleLongRegister() ).readSecond() );
+        assertEquals( 1, counts.nodeCount( StatementConstants.ANY_LABEL, newDoubleLongRegister() ).readSecond() );
     }
 
     @Test( expected = StoreNotFoundException.class )
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.api.CountsVisitor;
+import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.register.Register;
+import org.neo4j.register.Registers;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+
+public class GBPTreeCountsStoreTest
+{
+    private static final int LABEL = 1;
+    private static final int TYPE = 2;
+    private static final long INDEX = 3;
+
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+    private final TestDirectory testDirectory = TestDirectory.testDirectory( fileSystemRule );
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( fileSystemRule ).around( pageCacheRule ).around( testDirectory );
+
+    private GBPTreeCountsStore countsStore;
+
+    @After
+    public void closeStore() throws IOException
+    {
+        if ( countsStore != null )
+        {
+            countsStore.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRebuildFromInitializerWhenStoreIsMissing() throws Exception
+    {
+        // WHEN
+        openStore( initializer( 5, 10 ) );
+
+        // THEN
+        assertEquals( 5, countsStore.txId() );
+        assertNodeCount( 10 );
+        assertFalse( countsStore.apply( 5 ).isPresent() );
+        increment( 6, 1 );
+        assertNodeCount( 11 );
+    }
+
+    @Test
+    public void shouldApplyIncrementsAndReplacements() throws Exception
+    {
+        // GIVEN
+        openStore( initializer( 1, 0 ) );
+
+        // WHEN
+        try ( CountsAccessor.Updater updater = countsStore.apply( 2 ).get() )
+        {
+            updater.incrementNodeCount( LABEL, 5 );
+            updater.incrementRelationshipCount( LABEL, TYPE, -1, 3 );
+        }
+        try ( CountsAccessor.Updater updater = countsStore.apply( 3 ).get() )
+        {
+            updater.incrementNodeCount( LABEL, -2 );
+        }
+        try ( CountsAccessor.IndexStatsUpdater updater = countsStore.updateIndexCounts() )
+        {
+            updater.replaceIndexUpdateAndSize( INDEX, 0, 100 );
+            updater.incrementIndexUpdates( INDEX, 7 );
+            updater.replaceIndexSample( INDEX, 20, 100 );
+        }
+
+        // THEN
+        assertNodeCount( 3 );
+        assertRegister( 0, 3, countsStore.relationshipCount( LABEL, TYPE, -1, Registers.newDoubleLongRegister() ) );
+        assertRegister( 0, 0, countsStore.relationshipCount( LABEL, TYPE, LABEL, Registers.newDoubleLongRegister() ) );
+        assertRegister( 7, 100, countsStore.indexUpdatesAndSize( INDEX, Registers.newDoubleLongRegister() ) );
+        assertRegister( 20, 100, countsStore.indexSample( INDEX, Registers.newDoubleLongRegister() ) );
+        assertEquals( 3, countsStore.txId() );
+    }
+
+    @Test
+    public void shouldOnlyVisitNonZeroCounts() throws Exception
+    {
+        // GIVEN
+        openStore( initializer( 1, 0 ) );
+        try ( CountsAccessor.Updater updater = countsStore.apply( 2 ).get() )
+        {
+            updater.incrementNodeCount( LABEL, 5 );
+            updater.incrementNodeCount( LABEL + 1, 1 );
+            updater.incrementRelationshipCount( LABEL, TYPE, LABEL + 1, 4 );
+        }
+        try ( CountsAccessor.Updater updater = countsStore.apply( 3 ).get() )
+        {
+            updater.incrementNodeCount( LABEL + 1, -1 );
+        }
+
+        // WHEN
+        CountsVisitor visitor = mock( CountsVisitor.class );
+        countsStore.accept( visitor );
+
+        // THEN
+        verify( visitor ).visitNodeCount( LABEL, 5 );
+        verify( visitor ).visitRelationshipCount( LABEL, TYPE, LABEL + 1, 4 );
+        verifyNoMoreInteractions( visitor );
+    }
+
+    @Test
+    public void shouldRememberOutOfOrderAppliedTransactionsOverCheckpoint() throws Exception
+    {
+        // GIVEN
+        openStore( initializer( 5, 0 ) );
+        increment( 6, 1 );
+        increment( 8, 1 );
+        assertEquals( 6, countsStore.txId() );
+
+        // WHEN
+        countsStore.checkpoint( IOLimiter.UNLIMITED );
+        restartStore();
+
+        // THEN
+        assertEquals( 6, countsStore.txId() );
+        assertNodeCount( 2 );
+        assertFalse( countsStore.apply( 6 ).isPresent() );
+        assertFalse( countsStore.apply( 8 ).isPresent() );
+        increment( 7, 1 );
+        assertEquals( 8, countsStore.txId() );
+        assertNodeCount( 3 );
+    }
+
+    @Test
+    public void shouldApplyTransactionsAgainWhichWereNotCheckpointed() throws Exception
+    {
+        // GIVEN
+        openStore( initializer( 5, 0 ) );
+        increment( 6, 1 );
+        countsStore.checkpoint( IOLimiter.UNLIMITED );
+        increment( 7, 1 );
+
+        // WHEN
+        restartStore();
+
+        // THEN
+        assertEquals( 6, countsStore.txId() );
+        assertNodeCount( 1 );
+        increment( 7, 1 );
+        assertNodeCount( 2 );
+    }
+
+    @Test
+    public void shouldRebuildStoreWhichDidNotCompleteRebuild() throws Exception
+    {
+        // GIVEN a store which failed during rebuild
+        DataInitializer<CountsAccessor.Updater> failingInitializer = new DataInitializer<CountsAccessor.Updater>()
+        {
+            @Override
+            public void initialize( CountsAccessor.Updater updater )
+            {
+                updater.incrementNodeCount( LABEL, 10 );
+                throw new IllegalStateException( "Rebuild failed" );
+            }
+
+            @Override
+            public long initialVersion()
+            {
+                return 5;
+            }
+        };
+        try
+        {
+            openStore( failingInitializer );
+        }
+        catch ( IllegalStateException e )
+        {
+            // expected
+        }
+        countsStore.shutdown();
+
+        // WHEN
+        openStore( initializer( 5, 10 ) );
+
+        // THEN
+        assertNodeCount( 10 );
+    }
+
+    @Test
+    public void shouldNotCreateMissingStoreInReadOnlyMode() throws Exception
+    {
+        // GIVEN
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule );
+        File file = testDirectory.file( "counts.db" );
+        GBPTreeCountsStore readOnlyStore = new GBPTreeCountsStore( pageCache, fileSystemRule, file, immediate(),
+                initializer( 5, 10 ), true );
+
+        // WHEN
+        try
+        {
+            readOnlyStore.init();
+            fail( "Should not be able to open a missing store in read only mode" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+
+        // THEN
+        assertFalse( fileSystemRule.fileExists( file ) );
+    }
+
+    @Test
+    public void shouldReplaceAllCountsOnReset() throws Exception
+    {
+        // GIVEN
+        openStore( initializer( 5, 10 ) );
+        increment( 7, 1 );
+        try ( CountsAccessor.Updater updater = countsStore.apply( 6 ).get() )
+        {
+            updater.incrementRelationshipCount( LABEL, TYPE, -1, 3 );
+        }
+
+        // WHEN
+        try ( CountsAccessor.Updater updater = countsStore.reset( 9 ) )
+        {
+            updater.incrementNodeCount( LABEL, 4 );
+        }
+
+        // THEN
+        assertEquals( 9, countsStore.txId() );
+        assertNodeCount( 4 );
+        assertRegister( 0, 0, countsStore.relationshipCount( LABEL, TYPE, -1, Registers.newDoubleLongRegister() ) );
+        assertFalse( countsStore.apply( 9 ).isPresent() );
+        increment( 10, 1 );
+        assertNodeCount( 5 );
+    }
+
+    private void increment( long txId, long delta )
+    {
+        Optional<CountsAccessor.Updater> updater = countsStore.apply( txId );
+        assertTrue( updater.isPresent() );
+        try ( CountsAccessor.Updater tx = updater.get() )
+        {
+            tx.incrementNodeCount( LABEL, delta );
+        }
+    }
+
+    private void assertNodeCount( long expected )
+    {
+        assertRegister( 0, expected, countsStore.nodeCount( LABEL, Registers.newDoubleLongRegister() ) );
+    }
+
+    private static void assertRegister( long first, long second, Register.DoubleLongRegister register )
+    {
+        assertEquals( first, register.readFirst() );
+        assertEquals( second, register.readSecond() );
+    }
+
+    private void openStore( DataInitializer<CountsAccessor.Updater> initializer ) throws IOException
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule );
+        File file = testDirectory.file( "counts.db" );
+        countsStore = new GBPTreeCountsStore( pageCache, fileSystemRule, file, immediate(), initializer, false );
+        countsStore.init();
+        countsStore.start();
+    }
+
+    private void restartStore() throws IOException
+    {
+        countsStore.shutdown();
+        openStore( initializer( 0, 0 ) );
+    }
+
+    private static DataInitializer<CountsAccessor.Updater> initializer( long txId, long nodeCount )
+    {
+        return new DataInitializer<CountsAccessor.Updater>()
+        {
+            @Override
+            public void initialize( CountsAccessor.Updater updater )
+            {
+                updater.incrementNodeCount( LABEL, nodeCount );
+            }
+
+            @Override
+            public long initialVersion()
+            {
+                return txId;
+            }
+        };
+    }
+}
@@ -24,16 +24,20 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.LongSupplier;
 
 import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
 import org.neo4j.kernel.impl.store.id.validation.IdCapacityExceededException;
 import org.neo4j.kernel.impl.store.id.validation.NegativeIdException;
+import org.neo4j.test.Race;
 import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -210,4 +214,103 @@ public class IdGeneratorImplTest
         // The supplier must have remained untouched
         verifyZeroInteractions( highId );
     }
+
+    @Test
+    public void shouldHandOutUniqueIdsToConcurrentAllocators() throws Throwable
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, Long.MAX_VALUE, true, IdType.NODE, () -> 0L );
+        int threads = 4;
+        int idsPerThread = 10_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        Race race = new Race();
+        for ( int t = 0; t < threads; t++ )
+        {
+            boolean batching = t % 2 == 0;
+            race.addContestant( () ->
+            {
+                for ( int i = 0; i < idsPerThread; )
+                {
+                    if ( batching )
+                    {
+                        IdRangeIterator batch = idGenerator.nextIdBatch( 10 ).iterator();
+                        long id;
+                        while ( (id = batch.nextId()) != IdRangeIterator.VALUE_REPRESENTING_NULL )
+                        {
+                            assertTrue( ids.add( id ) );
+                            i++;
+                        }
+                    }
+                    else
+                    {
+                        long id = idGenerator.nextId();
+                        assertTrue( ids.add( id ) );
+                        if ( i % 10 == 0 )
+                        {
+                            ids.remove( id );
+                            idGenerator.freeId( id );
+                        }
+                        i++;
+                    }
+                }
+            } );
+        }
+        race.go();
+
+        // Then
+        assertEquals( idGenerator.getHighId(), ids.size() + idGenerator.getDefragCount() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldNeverLowerHighIdWhenRaisingItConcurrentlyWithAllocation() throws Throwable
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, Long.MAX_VALUE, false, IdType.NODE, () -> 0L );
+        int idsPerThread = 10_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // When
+        Race race = new Race();
+        race.addContestants( 2, () ->
+        {
+            for ( int i = 0; i < idsPerThread; i++ )
+            {
+                assertTrue( ids.add( idGenerator.nextIdBatch( 3 ).getRangeStart() ) );
+            }
+        } );
+        race.addContestant( () ->
+        {
+            for ( int i = 0; i < idsPerThread; i++ )
+            {
+                idGenerator.raiseHighId( idGenerator.getHighId() + 1 );
+            }
+        } );
+        race.go();
+
+        // Then
+        assertEquals( 2 * idsPerThread, ids.size() );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldNotHandOutIdsAfterClose()
+    {
+        // Given
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 100, 100, false, IdType.NODE, () -> 0L );
+        idGenerator.nextId();
+        idGenerator.close();
+
+        // Then
+        assertEquals( 1, idGenerator.getHighId() );
+        expectedException.expect( IllegalStateException.class );
+
+        // When
+        idGenerator.nextIdBatch( 10 );
+    }
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFile;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.stats.TransactionLogBatchStats;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
+
+public class AsyncTransactionAppenderTest
+{
+    @Rule
+    public final LifeRule life = new LifeRule( true );
+
+    private final InMemoryVersionableReadableClosablePositionAwareChannel channel =
+            new InMemoryVersionableReadableClosablePositionAwareChannel();
+    private final DatabaseHealth databaseHealth = mock( DatabaseHealth.class );
+    private final LogFile logFile = mock( LogFile.class );
+    private final LogFiles logFiles = mock( TransactionLogFiles.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final AtomicLong nextTransactionId = new AtomicLong( 2 );
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger appendedTransactions = new AtomicInteger();
+
+    @Before
+    public void setUp()
+    {
+        when( logFiles.getLogFile() ).thenReturn( logFile );
+        when( transactionIdStore.nextCommittingTransactionId() ).then( invocation -> nextTransactionId.getAndIncrement() );
+    }
+
+    @Test
+    public void shouldAppendSingleTransaction() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        TransactionAppender appender = life.add( createTransactionAppender( 16, 0 ) );
+        TransactionRepresentation transaction = transaction( 0 );
+
+        // WHEN
+        long txId = appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+
+        // THEN
+        assertEquals( 2L, txId );
+        LogEntryReader<ReadableLogChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        try ( PhysicalTransactionCursor<ReadableLogChannel> reader = new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            assertTrue( reader.next() );
+            assertEquals( 2L, reader.get().getCommitEntry().getTxId() );
+            assertEquals( transaction.getTimeCommitted(), reader.get().getTransactionRepresentation().getTimeCommitted() );
+        }
+        assertEquals( 1, batches.get() );
+        assertEquals( 1, appendedTransactions.get() );
+    }
+
+    @Test
+    public void shouldAppendConcurrentCommitsWithUniqueTransactionIds() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( new InMemoryClosableChannel( 1 << 20 ) );
+        TransactionAppender appender = life.add( createTransactionAppender( 8, 1 ) );
+        int threads = 8;
+        int commitsPerThread = 50;
+        Set<Long> committed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        // WHEN
+        try
+        {
+            List<Future<?>> committers = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                committers.add( executor.submit( () ->
+                {
+                    for ( int j = 0; j < commitsPerThread; j++ )
+                    {
+                        TransactionToApply tx = new TransactionToApply( transaction( j ) );
+                        long txId = appender.append( tx, LogAppendEvent.NULL );
+                        assertEquals( txId, tx.transactionId() );
+                        committed.add( txId );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> committer : committers )
+            {
+                committer.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // THEN
+        assertEquals( threads * commitsPerThread, committed.size() );
+        assertEquals( threads * commitsPerThread, appendedTransactions.get() );
+        assertTrue( batches.get() <= threads * commitsPerThread );
+    }
+
+    @Test
+    public void shouldFailCommitAndPanicIfForceFails() throws Exception
+    {
+        // GIVEN
+        FlushablePositionAwareChannel writer = spy( channel );
+        IOException failure = new IOException( "Failed to force" );
+        doReturn( (Flushable) () ->
+        {
+            throw failure;
+        } ).when( writer ).prepareForFlush();
+        when( logFile.getWriter() ).thenReturn( writer );
+        TransactionAppender appender = life.add( createTransactionAppender( 16, 0 ) );
+
+        // WHEN
+        try
+        {
+            appender.append( new TransactionToApply( transaction( 0 ) ), LogAppendEvent.NULL );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // THEN
+            assertSame( failure, e );
+        }
+        verify( databaseHealth ).panic( any() );
+    }
+
+    @Test( timeout = 60_000 )
+    public void shouldFailAppendOnceStopped() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        AsyncTransactionAppender appender = createTransactionAppender( 16, 0 );
+        appender.start();
+        appender.append( new TransactionToApply( transaction( 0 ) ), LogAppendEvent.NULL );
+        appender.stop();
+
+        // WHEN
+        try
+        {
+            appender.append( new TransactionToApply( transaction( 1 ) ), LogAppendEvent.NULL );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // THEN
+            assertEquals( 1, appendedTransactions.get() );
+        }
+    }
+
+    @Test
+    public void shouldTraceForceAndRotationOfBatchOnBatchEvent() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        LogAppendEvent batchEvent = mock( LogAppendEvent.class );
+        when( batchEvent.beginLogForce() ).thenReturn( LogForceEvent.NULL );
+        TransactionTracer tracer = new TransactionTracer()
+        {
+            @Override
+            public TransactionEvent beginTransaction()
+            {
+                return TransactionEvent.NULL;
+            }
+
+            @Override
+            public LogAppendEvent beginLogBatchAppend()
+            {
+                return batchEvent;
+            }
+        };
+        LogRotation logRotation = mock( LogRotation.class );
+        when( logRotation.rotateLogIfNeeded( any() ) ).thenReturn( true );
+        TransactionAppender appender = life.add( new AsyncTransactionAppender( logFiles, logRotation,
+                new TransactionMetadataCache(), transactionIdStore, BYPASS, databaseHealth, Thread::new, tracer,
+                new AsyncTransactionAppender.Monitor()
+                {
+                }, 16, 0, TimeUnit.MILLISECONDS ) );
+        LogAppendEvent commitEvent = spy( new LogAppendEvent.Empty() );
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( 0 ) ), commitEvent );
+
+        // THEN
+        verify( batchEvent ).beginLogForce();
+        verify( logRotation ).rotateLogIfNeeded( batchEvent );
+        verify( batchEvent ).setLogRotated( true );
+        verify( batchEvent ).close();
+        verify( commitEvent, never() ).beginLogForce();
+        verify( commitEvent, never() ).setLogRotated( true );
+    }
+
+    @Test
+    public void shouldCountBatchesThroughMonitorListener() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        Monitors monitors = new Monitors();
+        TransactionLogBatchStats stats = new TransactionLogBatchStats();
+        monitors.addMonitorListener( stats );
+        TransactionAppender appender = life.add( new AsyncTransactionAppender( logFiles, NO_ROTATION,
+                new TransactionMetadataCache(), transactionIdStore, BYPASS, databaseHealth, Thread::new,
+                TransactionTracer.NULL, monitors.newMonitor( AsyncTransactionAppender.Monitor.class ), 16, 0,
+                TimeUnit.MILLISECONDS ) );
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( 0 ) ), LogAppendEvent.NULL );
+        TransactionToApply twoTransactions = new TransactionToApply( transaction( 1 ) );
+        twoTransactions.next( new TransactionToApply( transaction( 2 ) ) );
+        appender.append( twoTransactions, LogAppendEvent.NULL );
+
+        // THEN
+        assertEquals( 2, stats.getNumberOfBatches() );
+        assertEquals( 3, stats.getNumberOfBatchedTransactions() );
+        assertEquals( 2, stats.getPeakBatchSize() );
+    }
+
+    private AsyncTransactionAppender createTransactionAppender( int maxBatchSize, long maxBatchLatencyMillis )
+    {
+        AsyncTransactionAppender.Monitor monitor = new AsyncTransactionAppender.Monitor()
+        {
+            @Override
+            public void batchAppended( int numberOfTransactions, long forceTimeNanos )
+            {
+                batches.incrementAndGet();
+                appendedTransactions.addAndGet( numberOfTransactions );
+            }
+        };
+        return new AsyncTransactionAppender( logFiles, NO_ROTATION, new TransactionMetadataCache(), transactionIdStore,
+                BYPASS, databaseHealth, Thread::new, TransactionTracer.NULL, monitor, maxBatchSize, maxBatchLatencyMillis,
+                TimeUnit.MILLISECONDS );
+    }
+
+    private static TransactionRepresentation transaction( long nodeId )
+    {
+        Collection<StorageCommand> commands = new ArrayList<>();
+        NodeRecord after = new NodeRecord( nodeId );
+        after.setInUse( true );
+        commands.add( new NodeCommand( new NodeRecord( nodeId ), after ) );
+        PhysicalTransactionRepresentation tx = new PhysicalTransactionRepresentation( commands );
+        tx.setHeader( new byte[0], 0, 0, 0, 1, 0, -1 );
+        return tx;
+    }
+}
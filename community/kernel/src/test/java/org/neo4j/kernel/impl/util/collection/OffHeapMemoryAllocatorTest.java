@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryAllocationTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapMemoryAllocatorTest
+{
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final MemoryAllocationTracker memoryTracker = new LocalMemoryTracker();
+
+    @AfterEach
+    void tearDown()
+    {
+        assertEquals( 0, memoryTracker.usedDirectMemory(), "Leaking memory" );
+        blockAllocator.release();
+    }
+
+    @Test
+    void allocateWithinLimit()
+    {
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, 4096 );
+
+        final Memory first = allocator.allocate( 1024, true );
+        final Memory second = allocator.allocate( 1024, false );
+        assertTrue( memoryTracker.usedDirectMemory() >= 2048 );
+
+        first.free();
+        second.free();
+    }
+
+    @Test
+    void failToAllocateBeyondLimit()
+    {
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator, 2048 );
+
+        final Memory memory = allocator.allocate( 1536, true );
+        final long usedMemory = memoryTracker.usedDirectMemory();
+        assertThrows( RuntimeException.class, () -> allocator.allocate( 1024, true ) );
+        assertThrows( RuntimeException.class, memory::copy );
+        assertEquals( usedMemory, memoryTracker.usedDirectMemory() );
+
+        memory.free();
+        allocator.allocate( 1024, true ).free();
+    }
+
+    @Test
+    void unlimitedByDefault()
+    {
+        final OffHeapMemoryAllocator allocator = new OffHeapMemoryAllocator( memoryTracker, blockAllocator );
+
+        final Memory memory = allocator.allocate( 1 << 20, false );
+        memory.copy().free();
+        memory.free();
+    }
+}
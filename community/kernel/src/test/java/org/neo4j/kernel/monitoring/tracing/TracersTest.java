@@ -24,8 +24,11 @@ import org.junit.Test;
 
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PerFilePageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.PerFilePageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PerFilePageCursorTracerSupplier;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
@@ -109,6 +112,17 @@ public class TracersTest
         assertWarning( "there's nothing like this" );
     }
 
+    @Test
+    public void mustProducePerFileImplementationWhenRequested()
+    {
+        Tracers tracers = createTracers( "per_file" );
+        assertThat( tracers.pageCacheTracer, instanceOf( PerFilePageCacheTracer.class ) );
+        assertThat( tracers.pageCursorTracerSupplier, instanceOf( PerFilePageCursorTracerSupplier.class ) );
+        assertThat( tracers.pageCursorTracerSupplier.get(), instanceOf( PerFilePageCursorTracer.class ) );
+        assertThat( tracers.transactionTracer, instanceOf( DefaultTransactionTracer.class ) );
+        assertNoWarning();
+    }
+
     private Tracers createTracers( String s )
     {
         return new Tracers( s, log, monitors, jobScheduler, clock );
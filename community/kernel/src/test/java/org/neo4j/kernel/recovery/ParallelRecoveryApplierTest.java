@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.kernel.impl.util.monitoring.ProgressReporter;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_RECOVERY;
+
+public class ParallelRecoveryApplierTest
+{
+    private final List<List<Long>> appliedChains = Collections.synchronizedList( new ArrayList<>() );
+    private final StorageEngine storageEngine = recordingStorageEngine();
+    private final ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler();
+
+    @After
+    public void tearDown()
+    {
+        scheduler.close();
+    }
+
+    @Test
+    public void shouldApplyIndependentTransactionsInConcurrentChains() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler ) )
+        {
+            applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+            applier.visit( transaction( 2, nodeCommand( 11 ) ) );
+            applier.visit( transaction( 3, nodeCommand( 12 ) ) );
+            applier.visit( transaction( 4, nodeCommand( 13 ) ) );
+        }
+
+        assertEquals( 2, appliedChains.size() );
+        assertTrue( appliedChains.contains( asList( 1L, 2L ) ) );
+        assertTrue( appliedChains.contains( asList( 3L, 4L ) ) );
+    }
+
+    @Test
+    public void shouldApplyBatchBeforeTransactionTouchingSameRecord() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler ) )
+        {
+            applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+            applier.visit( transaction( 2, propertyCommand( 5 ) ) );
+            applier.visit( transaction( 3, nodeCommand( 10 ) ) );
+        }
+
+        assertEquals( asList( asList( 1L ), asList( 2L ), asList( 3L ) ), sorted( appliedChains ) );
+    }
+
+    @Test
+    public void shouldApplyTransactionsWithSchemaCommandsOnTheirOwn() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler ) )
+        {
+            applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+            applier.visit( transaction( 2, schemaCommand() ) );
+            applier.visit( transaction( 3, nodeCommand( 11 ) ) );
+        }
+
+        assertEquals( asList( asList( 1L ), asList( 2L ), asList( 3L ) ), appliedChains );
+    }
+
+    @Test
+    public void shouldLimitBatchSize() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 4, 2, monitor(), scheduler ) )
+        {
+            for ( long txId = 1; txId <= 5; txId++ )
+            {
+                applier.visit( transaction( txId, nodeCommand( txId ) ) );
+            }
+        }
+
+        assertEquals( asList( asList( 1L ), asList( 2L ), asList( 3L ), asList( 4L ), asList( 5L ) ), sorted( appliedChains ) );
+    }
+
+    @Test
+    public void shouldApplyBatchBeforeTransactionSettingValueThatBatchRemoves() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler ) )
+        {
+            applier.visit( transaction( 1, propertyCommand( 5, property( 1, Values.intValue( 42 ) ), null ) ) );
+            applier.visit( transaction( 2, propertyCommand( 6, null, property( 2, Values.intValue( 42 ) ) ) ) );
+            applier.visit( transaction( 3, propertyCommand( 7, null, property( 1, Values.doubleValue( 42.0 ) ) ) ) );
+        }
+
+        // Without the conflict on the value, 2 and 3 would have been applied as one chain
+        assertEquals( asList( asList( 1L ), asList( 2L ), asList( 3L ) ), sorted( appliedChains ) );
+    }
+
+    @Test
+    public void shouldApplyTransactionsChangingLabelsOfExistingNodesOnTheirOwn() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler ) )
+        {
+            applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+            applier.visit( transaction( 2, new Command.NodeCommand( node( 11, 1 ), node( 11, 2 ) ) ) );
+            applier.visit( transaction( 3, nodeCommand( 12 ) ) );
+        }
+
+        assertEquals( asList( asList( 1L ), asList( 2L ), asList( 3L ) ), appliedChains );
+    }
+
+    @Test
+    public void shouldFailBatchOfSingleChain() throws Exception
+    {
+        doThrow( new IOException( "failed" ) ).when( storageEngine ).apply( any(), any() );
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler );
+        applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+        try
+        {
+            applier.close();
+            fail( "Should have failed" );
+        }
+        catch ( ParallelRecoveryApplier.BatchApplicationFailure e )
+        {
+            assertThat( e.getCause(), instanceOf( IOException.class ) );
+        }
+    }
+
+    @Test
+    public void shouldNotApplyFailedBatchAgainOnClose() throws Exception
+    {
+        doThrow( new IOException( "failed" ) ).when( storageEngine ).apply( any(), any() );
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 2, monitor(), scheduler );
+        applier.visit( transaction( 1, nodeCommand( 10 ) ) );
+        applier.visit( transaction( 2, nodeCommand( 11 ) ) );
+        try
+        {
+            applier.visit( transaction( 3, nodeCommand( 12 ) ) );
+            fail( "Should have failed" );
+        }
+        catch ( ParallelRecoveryApplier.BatchApplicationFailure e )
+        {
+            // expected
+        }
+
+        applier.close();
+
+        verify( storageEngine, times( 2 ) ).apply( any(), any() );
+        assertEquals( 2, applier.pendingTransactions() );
+    }
+
+    @Test
+    public void recoveryShouldOnlyReportAppliedTransactionsAsRecovered() throws Exception
+    {
+        RecoveryMonitor monitor = new RecoveryMonitor()
+        {
+            @Override
+            public void transactionRecovered( long txId )
+            {
+                assertTrue( appliedChains.stream().anyMatch( chain -> chain.contains( txId ) ) );
+            }
+        };
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor, scheduler );
+        CommittedTransactionRepresentation lastTransaction = transaction( 3, nodeCommand( 12 ) );
+        TransactionCursor cursor = cursor( transaction( 1, nodeCommand( 10 ) ), transaction( 2, nodeCommand( 11 ) ), lastTransaction );
+        RecoveryService recoveryService = recoveryService( applier, cursor );
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+
+        new Recovery( recoveryService, logsTruncator, monitor, mock( ProgressReporter.class ), true ).init();
+
+        assertEquals( asList( asList( 1L ), asList( 2L, 3L ) ), sorted( appliedChains ) );
+        verify( logsTruncator ).truncate( positionAfter( 3 ) );
+        verify( recoveryService ).transactionsRecovered( lastTransaction, positionAfter( 3 ) );
+    }
+
+    @Test
+    public void recoveryShouldNotTruncateLogsWhenPendingBatchFailsAfterCorruptedLog() throws Exception
+    {
+        doThrow( new IOException( "failed" ) ).when( storageEngine ).apply( any(), any() );
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( storageEngine, RECOVERY, 2, 100, monitor(), scheduler );
+        TransactionCursor cursor = cursor( transaction( 1, nodeCommand( 10 ) ), transaction( 2, nodeCommand( 11 ) ) );
+        when( cursor.next() ).thenReturn( true, true ).thenThrow( new IOException( "corrupted log" ) );
+        RecoveryService recoveryService = recoveryService( applier, cursor );
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+        Recovery recovery = new Recovery( recoveryService, logsTruncator, monitor(), mock( ProgressReporter.class ), false );
+
+        try
+        {
+            recovery.init();
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "corrupted log", e.getMessage() );
+            assertThat( e.getSuppressed()[0], instanceOf( ParallelRecoveryApplier.BatchApplicationFailure.class ) );
+        }
+
+        verify( logsTruncator, never() ).truncate( any() );
+        verify( recoveryService, never() ).transactionsRecovered( any(), any() );
+    }
+
+    private StorageEngine recordingStorageEngine()
+    {
+        StorageEngine engine = mock( StorageEngine.class );
+        try
+        {
+            doAnswer( invocation ->
+            {
+                List<Long> chain = new ArrayList<>();
+                for ( CommandsToApply tx = invocation.getArgument( 0 ); tx != null; tx = tx.next() )
+                {
+                    chain.add( tx.transactionId() );
+                }
+                appliedChains.add( chain );
+                return null;
+            } ).when( engine ).apply( any(), any() );
+        }
+        catch ( Exception e )
+        {
+            throw new AssertionError( e );
+        }
+        return engine;
+    }
+
+    private static List<List<Long>> sorted( List<List<Long>> chains )
+    {
+        List<List<Long>> result = new ArrayList<>( chains );
+        result.sort( ( a, b ) -> Long.compare( a.get( 0 ), b.get( 0 ) ) );
+        return result;
+    }
+
+    private static RecoveryService recoveryService( RecoveryApplier applier, TransactionCursor cursor ) throws Exception
+    {
+        RecoveryService recoveryService = mock( RecoveryService.class );
+        TransactionCursor reverseCursor = mock( TransactionCursor.class );
+        when( recoveryService.getRecoveryStartInformation() ).thenReturn( new RecoveryStartInformation( LogPosition.start( 0 ), 1 ) );
+        when( recoveryService.getTransactionsInReverseOrder( any() ) ).thenReturn( reverseCursor );
+        when( recoveryService.getTransactions( any() ) ).thenReturn( cursor );
+        when( recoveryService.getRecoveryApplier( REVERSE_RECOVERY ) ).thenReturn( mock( RecoveryApplier.class ) );
+        when( recoveryService.getRecoveryApplier( RECOVERY ) ).thenReturn( applier );
+        return recoveryService;
+    }
+
+    private static TransactionCursor cursor( CommittedTransactionRepresentation... transactions ) throws IOException
+    {
+        TransactionCursor cursor = mock( TransactionCursor.class );
+        Boolean[] more = new Boolean[transactions.length];
+        LogPosition[] positions = new LogPosition[transactions.length];
+        for ( int i = 0; i < transactions.length; i++ )
+        {
+            more[i] = i < transactions.length - 1;
+            positions[i] = positionAfter( transactions[i].getCommitEntry().getTxId() );
+        }
+        when( cursor.next() ).thenReturn( true, more );
+        when( cursor.get() ).thenReturn( transactions[0], Arrays.copyOfRange( transactions, 1, transactions.length ) );
+        when( cursor.position() ).thenReturn( positions[0], Arrays.copyOfRange( positions, 1, positions.length ) );
+        return cursor;
+    }
+
+    private static LogPosition positionAfter( long txId )
+    {
+        return new LogPosition( 0, txId * 100 );
+    }
+
+    private static RecoveryMonitor monitor()
+    {
+        return new RecoveryMonitor()
+        {
+        };
+    }
+
+    private static Command nodeCommand( long nodeId )
+    {
+        return new Command.NodeCommand( new NodeRecord( nodeId ), new NodeRecord( nodeId ) );
+    }
+
+    private static Command propertyCommand( long propertyId )
+    {
+        return new Command.PropertyCommand( new PropertyRecord( propertyId ), new PropertyRecord( propertyId ) );
+    }
+
+    private static Command propertyCommand( long propertyId, PropertyBlock before, PropertyBlock after )
+    {
+        return new Command.PropertyCommand( propertyRecord( propertyId, before ), propertyRecord( propertyId, after ) );
+    }
+
+    private static PropertyRecord propertyRecord( long propertyId, PropertyBlock block )
+    {
+        PropertyRecord record = new PropertyRecord( propertyId );
+        if ( block != null )
+        {
+            record.setInUse( true );
+            record.addPropertyBlock( block );
+        }
+        return record;
+    }
+
+    private static PropertyBlock property( int keyId, Value value )
+    {
+        PropertyBlock block = new PropertyBlock();
+        PropertyStore.encodeValue( block, keyId, value, null, null, false );
+        return block;
+    }
+
+    private static NodeRecord node( long nodeId, long labelField )
+    {
+        NodeRecord node = new NodeRecord( nodeId );
+        node.setInUse( true );
+        node.setLabelField( labelField, Collections.emptyList() );
+        return node;
+    }
+
+    private static Command schemaCommand()
+    {
+        List<DynamicRecord> records = Collections.singletonList( new DynamicRecord( 1 ) );
+        return new Command.SchemaRuleCommand( records, records, null );
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId, StorageCommand... commands )
+    {
+        PhysicalTransactionRepresentation representation = new PhysicalTransactionRepresentation( asList( commands ) );
+        representation.setHeader( new byte[0], 0, 0, 0, txId - 1, 0, -1 );
+        LogEntryStart start = new LogEntryStart( 0, 0, 0L, txId - 1, null, LogPosition.UNSPECIFIED );
+        return new CommittedTransactionRepresentation( start, representation, new LogEntryCommit( txId, 0L ) );
+    }
+}
@@ -38,6 +38,7 @@ import org.neo4j.register.Register;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexValueHistogram;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
@@ -324,6 +325,12 @@ public class StubStorageCursors implements StorageReader
         throw new UnsupportedOperationException( "Not implemented yet" );
     }
 
+    @Override
+    public IndexValueHistogram indexValueHistogram( SchemaDescriptor descriptor )
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     @Override
     public long nodesGetCount()
     {
@@ -390,6 +397,12 @@ public class StubStorageCursors implements StorageReader
         return new StubStorageNodeCursor();
     }
 
+    @Override
+    public AllNodeScan allNodeScan()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     @Override
     public StoragePropertyCursor allocatePropertyCursor()
     {
@@ -414,6 +427,12 @@ public class StubStorageCursors implements StorageReader
         return new StubStorageRelationshipScanCursor();
     }
 
+    @Override
+    public AllRelationshipsScan allRelationshipsScan()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     private static class NodeData
     {
         private final long id;
@@ -470,6 +489,12 @@ public class StubStorageCursors implements StorageReader
             this.iterator = nodeData.keySet().iterator();
         }
 
+        @Override
+        public boolean scanBatch( AllNodeScan scan, int sizeHint )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
@@ -584,6 +609,12 @@ public class StubStorageCursors implements StorageReader
             next = NO_ID;
         }
 
+        @Override
+        public boolean scanBatch( AllRelationshipsScan scan, int type, int sizeHint )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
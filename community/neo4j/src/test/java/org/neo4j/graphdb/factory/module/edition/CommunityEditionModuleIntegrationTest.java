@@ -24,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.util.function.Predicate;
 
+import org.neo4j.cypher.internal.QueryCacheWarmer;
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.io.layout.DatabaseLayout;
@@ -77,6 +78,7 @@ class CommunityEditionModuleIntegrationTest
         assertFalse( filter.test( layout.nodeStore().getName() ) );
         assertTrue( filter.test( TransactionLogFiles.DEFAULT_NAME + ".1" ) );
         assertTrue( filter.test( IndexConfigStore.INDEX_DB_FILE_NAME + ".any" ) );
+        assertTrue( filter.test( QueryCacheWarmer.FILE_NAME() + ".tmp" ) );
     }
 
 }